@@ -0,0 +1,105 @@
+package io.github.tomorrow615.compiler.benchmark;
+
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
+import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.CompUnitNode;
+import io.github.tomorrow615.compiler.frontend.lexer.TableLexer;
+import io.github.tomorrow615.compiler.frontend.lexer.Token;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenStream;
+import io.github.tomorrow615.compiler.frontend.parser.Parser;
+import io.github.tomorrow615.compiler.frontend.visitor.ASTPrinter;
+import io.github.tomorrow615.compiler.util.LexerRecorder;
+import io.github.tomorrow615.compiler.util.ParserRecorder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 打印整棵 AST 的耗时：基于 ASTVisitor 的 ASTPrinter 与改写前基于反射的遍历对比。
+ * 输入为 {@link FrontendBenchmark#synthetic} 生成的合成程序，输出写入空输出流。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AstPrinterBenchmark {
+    @Param({"100", "1000"})
+    public int functions;
+
+    @Param({"20"})
+    public int statements;
+
+    @Param({"3"})
+    public int depth;
+
+    private CompUnitNode compUnit;
+    private PrintWriter writer;
+
+    @Setup
+    public void setup() throws IOException {
+        String source = FrontendBenchmark.synthetic(functions, statements, depth);
+        CompilationContext context = new CompilationContext();
+        try (LexerRecorder lexerRecorder = new LexerRecorder("lexer.txt");
+             ParserRecorder parserRecorder = new ParserRecorder("parser.txt")) {
+            TokenStream tokens = new TableLexer(source, lexerRecorder, context).tokenize();
+            compUnit = new Parser(tokens, parserRecorder, context).parse();
+        }
+        writer = new PrintWriter(OutputStream.nullOutputStream());
+    }
+
+    @TearDown
+    public void tearDown() {
+        writer.close();
+    }
+
+    @Benchmark
+    public void visitor() {
+        new ASTPrinter(writer).print(compUnit);
+    }
+
+    @Benchmark
+    public void reflective() {
+        new ReflectivePrinter(writer).traverse(compUnit);
+    }
+
+    // 改写前的 ASTPrinter：用反射逐个读取节点的字段，作为对照
+    private static final class ReflectivePrinter {
+        private final PrintWriter writer;
+
+        ReflectivePrinter(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        void traverse(Object obj) {
+            if (obj == null) return;
+
+            if (obj instanceof ASTNode) {
+                try {
+                    for (Field field : obj.getClass().getDeclaredFields()) {
+                        field.setAccessible(true);
+                        traverse(field.get(obj));
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (!(obj.getClass().getSimpleName().equals("BTypeNode") ||
+                        obj.getClass().getSimpleName().equals("DeclNode"))) {
+                    writer.println("<" + obj.getClass().getSimpleName().replace("Node", "") + ">");
+                }
+            } else if (obj instanceof List) {
+                for (Object item : (List<?>) obj) {
+                    traverse(item);
+                }
+            } else if (obj instanceof Token) {
+                writer.println(((Token) obj).getType() + " " + ((Token) obj).getText());
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.tomorrow615.compiler.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * benchmarks.jar 的入口：接受与 org.openjdk.jmh.Main 相同的命令行参数，
+ * 并默认挂上 gc 分析器 (报告 gc.alloc.rate 与 gc.alloc.rate.norm)，
+ * 结果同时写入 jmh-result.json。例如：
+ *     java -jar target/benchmarks.jar FrontendBenchmark -p input=synthetic -p functions=1000
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList()) {
+            // 帮助与列表之类的请求直接交给 JMH 自带的入口
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLine.getResult().orElse("jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.tomorrow615.compiler.benchmark;
+
+import io.github.tomorrow615.compiler.CompileResult;
+import io.github.tomorrow615.compiler.Compiler;
+import io.github.tomorrow615.compiler.ir.IrInterpreter;
+import io.github.tomorrow615.compiler.ir.IrModule;
+import io.github.tomorrow615.compiler.jvm.JvmBackend;
+import io.github.tomorrow615.compiler.jvm.JvmProgram;
+import io.github.tomorrow615.compiler.runtime.SysYIO;
+import io.github.tomorrow615.compiler.util.CompileOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 执行 SysY 程序的耗时：从 IR 开始，interpret 包括解释器的译码，jvm 只包括运行 (类在 setup 中生成并加载)，
+ * 都不包括前端。
+ * 输入为 src/test/resources/grammar 下的 testfile (getint 读取对应的 input 文件)，
+ * 或 {@link io.github.tomorrow615.compiler.workload.SysYGenerator} 生成的合成程序。
+ * 程序的输出写入丢弃一切的输出流。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionBenchmark {
+    private static final String SYNTHETIC = "synthetic";
+
+    @Param({"testfile1", "testfile2", "testfile3", "testfile4", SYNTHETIC})
+    public String input;
+
+    // 以下参数只对 input=synthetic 生效
+    @Param({"100"})
+    public int functions;
+
+    private IrModule module;
+    private JvmProgram program;
+    private byte[] stdin;
+
+    @Setup
+    public void setup() throws IOException {
+        boolean synthetic = SYNTHETIC.equals(input);
+        String source = synthetic ? FrontendBenchmark.synthetic(functions, 20, 2) : FrontendBenchmark.load(input);
+        stdin = synthetic ? new byte[0]
+                : FrontendBenchmark.load(input.replace("testfile", "input")).getBytes(StandardCharsets.UTF_8);
+
+        CompileOptions options = new CompileOptions();
+        options.setOutputs("");
+        options.buildIr = true;
+        Path workDir = Files.createTempDirectory("compiler-bench");
+        CompileResult result = Compiler.compileSource(source, workDir, options);
+        Files.delete(workDir);
+        if (result.getModule() == null) {
+            throw new IllegalStateException(input + " 含有编译错误");
+        }
+        module = result.getModule();
+        program = JvmBackend.compile(module);
+    }
+
+    @Benchmark
+    public int interpret() {
+        SysYIO io = new SysYIO(new ByteArrayInputStream(stdin), OutputStream.nullOutputStream());
+        int exitCode = new IrInterpreter(module, io).run();
+        io.flush();
+        return exitCode;
+    }
+
+    @Benchmark
+    public int jvm() {
+        SysYIO io = new SysYIO(new ByteArrayInputStream(stdin), OutputStream.nullOutputStream());
+        int exitCode = program.run(io);
+        io.flush();
+        return exitCode;
+    }
+}
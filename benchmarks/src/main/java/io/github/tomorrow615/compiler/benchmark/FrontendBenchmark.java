@@ -0,0 +1,183 @@
+package io.github.tomorrow615.compiler.benchmark;
+
+import io.github.tomorrow615.compiler.Compiler;
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
+import io.github.tomorrow615.compiler.frontend.ast.CompUnitNode;
+import io.github.tomorrow615.compiler.frontend.ast.arena.AstArena;
+import io.github.tomorrow615.compiler.frontend.lexer.Lexer;
+import io.github.tomorrow615.compiler.frontend.lexer.SourceText;
+import io.github.tomorrow615.compiler.frontend.lexer.TableLexer;
+import io.github.tomorrow615.compiler.frontend.lexer.Token;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenStream;
+import io.github.tomorrow615.compiler.frontend.parser.Parser;
+import io.github.tomorrow615.compiler.frontend.visitor.SemanticVisitor;
+import io.github.tomorrow615.compiler.util.LexerRecorder;
+import io.github.tomorrow615.compiler.util.ParserRecorder;
+import io.github.tomorrow615.compiler.workload.SysYGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 前端各阶段的吞吐量：词法分析、语法分析、语义分析以及端到端编译。
+ * lexMapped 直接扫描映射的源文件 (SourceMode.MAPPED)，与 lexTable 比较读入 char[] 的开销；
+ * parseCompact / analyzeCompact 使用压缩表达式树，parseArena / analyzeArena 使用扁平的 AstArena，
+ * 配合 GC profiler 比较几种 AST 的分配量。
+ * 输入为 src/test/resources/grammar 下的 testfile，或 {@link SysYGenerator} 生成的合成程序
+ * (input=synthetic，规模由 functions / statements / depth 控制)。
+ * 每个阶段的输入都在 @Setup 中由前一阶段预先算好，只测量该阶段本身。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrontendBenchmark {
+    private static final String SYNTHETIC = "synthetic";
+
+    @Param({"testfile1", "testfile2", "testfile3", "testfile4", SYNTHETIC})
+    public String input;
+
+    // 以下参数只对 input=synthetic 生效
+    @Param({"100"})
+    public int functions;
+
+    @Param({"20"})
+    public int statements;
+
+    @Param({"3"})
+    public int depth;
+
+    private String source;
+    private TokenStream tokens;
+    private CompUnitNode compUnit;
+    private CompUnitNode compactUnit;
+    private AstArena arena;
+    private CompilationContext context;
+
+    private LexerRecorder lexerRecorder;
+    private ParserRecorder parserRecorder;
+    private Path workDir;
+    private Path sourceFile;
+
+    @Setup
+    public void setup() throws IOException {
+        source = SYNTHETIC.equals(input) ? synthetic(functions, statements, depth) : load(input);
+
+        // 记录器按 Config 的开关创建；默认配置下词法与语法输出都被关闭
+        lexerRecorder = new LexerRecorder("lexer.txt");
+        parserRecorder = new ParserRecorder("parser.txt");
+
+        context = new CompilationContext();
+        tokens = new TableLexer(source, lexerRecorder, context).tokenize();
+        compUnit = new Parser(tokens, parserRecorder, context).parse();
+        compactUnit = new Parser(tokens, parserRecorder, context).parseCompact();
+        arena = new Parser(tokens, parserRecorder, context).parseArena();
+        if (context.getDiagnostics().hasErrors()) {
+            throw new IllegalStateException(input + " 含有编译错误");
+        }
+
+        workDir = Files.createTempDirectory("compiler-bench");
+        sourceFile = workDir.resolve("testfile.txt");
+        Files.writeString(sourceFile, source);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        lexerRecorder.close();
+        parserRecorder.close();
+        try (Stream<Path> files = Files.walk(workDir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Token> lexLegacy() {
+        return new Lexer(source, lexerRecorder, new CompilationContext()).getAllTokens();
+    }
+
+    @Benchmark
+    public TokenStream lexTable() {
+        return new TableLexer(source, lexerRecorder, new CompilationContext()).tokenize();
+    }
+
+    // 包括映射文件，与读入 String 的 lexTable 对应
+    @Benchmark
+    public TokenStream lexMapped() throws IOException {
+        return new TableLexer(SourceText.map(sourceFile), lexerRecorder, new CompilationContext()).tokenize();
+    }
+
+    @Benchmark
+    public CompUnitNode parse() {
+        return new Parser(tokens, parserRecorder, new CompilationContext()).parse();
+    }
+
+    @Benchmark
+    public CompUnitNode parseCompact() {
+        return new Parser(tokens, parserRecorder, new CompilationContext()).parseCompact();
+    }
+
+    @Benchmark
+    public AstArena parseArena() {
+        return new Parser(tokens, parserRecorder, new CompilationContext()).parseArena();
+    }
+
+    // 语义分析按名字 ID 查找符号，需要沿用生成单词时的名字表
+    @Benchmark
+    public SemanticVisitor analyze() {
+        SemanticVisitor visitor = new SemanticVisitor(new CompilationContext(context.getNames()));
+        visitor.visit(compUnit);
+        return visitor;
+    }
+
+    @Benchmark
+    public SemanticVisitor analyzeCompact() {
+        SemanticVisitor visitor = new SemanticVisitor(new CompilationContext(context.getNames()));
+        visitor.visit(compactUnit);
+        return visitor;
+    }
+
+    @Benchmark
+    public SemanticVisitor analyzeArena() {
+        SemanticVisitor visitor = new SemanticVisitor(new CompilationContext(context.getNames()));
+        visitor.visit(arena);
+        return visitor;
+    }
+
+    // 与 Compiler.main 相同的完整流程，包括读源文件和写 symbol.txt 等输出文件
+    @Benchmark
+    public void compile() throws IOException {
+        Compiler.compile(sourceFile, workDir);
+    }
+
+    static String synthetic(int functions, int statements, int depth) {
+        SysYGenerator.Settings settings = new SysYGenerator.Settings();
+        settings.functions = functions;
+        settings.statements = statements;
+        settings.loopDepth = depth;
+        return new SysYGenerator(settings).generate();
+    }
+
+    static String load(String name) {
+        try (InputStream in = FrontendBenchmark.class.getResourceAsStream("/grammar/" + name + ".txt")) {
+            if (in == null) {
+                throw new IllegalArgumentException("找不到输入文件: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.tomorrow615.compiler.benchmark;
+
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
+import io.github.tomorrow615.compiler.frontend.ast.CompUnitNode;
+import io.github.tomorrow615.compiler.frontend.lexer.TableLexer;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenStream;
+import io.github.tomorrow615.compiler.frontend.parser.Parser;
+import io.github.tomorrow615.compiler.util.LexerRecorder;
+import io.github.tomorrow615.compiler.util.ParserRecorder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 语句中数组下标嵌套 a[a[...a[0]...]] 的解析耗时。
+ * 每个语句只被解析一遍，耗时应随嵌套深度线性增长 (us/op 除以 depth 基本不变)。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedIndexBenchmark {
+    private static final int STATEMENTS = 50;
+
+    @Param({"16", "64", "256", "1024"})
+    public int depth;
+
+    private TokenStream tokens;
+    private ParserRecorder parserRecorder;
+
+    @Setup
+    public void setup() throws IOException {
+        String source = nestedIndexProgram(depth);
+        try (LexerRecorder lexerRecorder = new LexerRecorder("lexer.txt")) {
+            tokens = new TableLexer(source, lexerRecorder, new CompilationContext()).tokenize();
+        }
+        parserRecorder = new ParserRecorder("parser.txt");
+    }
+
+    @TearDown
+    public void tearDown() {
+        parserRecorder.close();
+    }
+
+    @Benchmark
+    public CompUnitNode parse() {
+        return new Parser(tokens, parserRecorder, new CompilationContext()).parse();
+    }
+
+    // 赋值语句与表达式语句交替出现，两者都以嵌套下标开头
+    static String nestedIndexProgram(int depth) {
+        String index = "a[".repeat(depth) + "0" + "]".repeat(depth);
+
+        StringBuilder source = new StringBuilder("int main() {\n    int a[10];\n");
+        for (int i = 0; i < STATEMENTS; i++) {
+            source.append("    ").append(index);
+            source.append(i % 2 == 0 ? " = 1;\n" : " + 1;\n");
+        }
+        source.append("    return 0;\n}\n");
+        return source.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.tomorrow615.compiler.benchmark;
+
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
+import io.github.tomorrow615.compiler.frontend.ast.CompUnitNode;
+import io.github.tomorrow615.compiler.frontend.ast.arena.AstArena;
+import io.github.tomorrow615.compiler.frontend.lexer.TableLexer;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenStream;
+import io.github.tomorrow615.compiler.frontend.parser.Parser;
+import io.github.tomorrow615.compiler.util.LexerRecorder;
+import io.github.tomorrow615.compiler.util.ParserRecorder;
+import io.github.tomorrow615.compiler.workload.SysYGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 正确输入与大量语法错误输入的解析吞吐量。
+ * errorRate 为每条语句被替换为缺少 ';' ')' ']' (i / j / k 类错误) 的语句的概率，
+ * 除错误语句外两种输入由相同的种子生成，比较 errorRate=0 与其他取值即可看出错误恢复路径的开销。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserRecoveryBenchmark {
+    @Param({"0", "0.1", "0.5"})
+    public double errorRate;
+
+    @Param({"ijk"})
+    public String errorKinds;
+
+    @Param({"100"})
+    public int functions;
+
+    private TokenStream tokens;
+    private ParserRecorder parserRecorder;
+
+    @Setup
+    public void setup() throws IOException {
+        SysYGenerator.Settings settings = new SysYGenerator.Settings();
+        settings.functions = functions;
+        settings.errorRate = errorRate;
+        settings.errorKinds = errorKinds;
+        SysYGenerator generator = new SysYGenerator(settings);
+        String source = generator.generate();
+
+        CompilationContext context = new CompilationContext();
+        try (LexerRecorder lexerRecorder = new LexerRecorder("lexer.txt")) {
+            tokens = new TableLexer(source, lexerRecorder, context).tokenize();
+        }
+        parserRecorder = new ParserRecorder("parser.txt");
+
+        // 确认生成的错误确实由语法分析报告
+        new Parser(tokens, parserRecorder, context).parse();
+        int expected = generator.getExpectedErrors().size();
+        if (context.getDiagnostics().size() != expected) {
+            throw new IllegalStateException("预期 " + expected + " 个错误，实际报告 "
+                    + context.getDiagnostics().size() + " 个");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        parserRecorder.close();
+    }
+
+    @Benchmark
+    public CompUnitNode parse() {
+        return new Parser(tokens, parserRecorder, new CompilationContext()).parse();
+    }
+
+    @Benchmark
+    public CompUnitNode parseCompact() {
+        return new Parser(tokens, parserRecorder, new CompilationContext()).parseCompact();
+    }
+
+    @Benchmark
+    public AstArena parseArena() {
+        return new Parser(tokens, parserRecorder, new CompilationContext()).parseArena();
+    }
+}
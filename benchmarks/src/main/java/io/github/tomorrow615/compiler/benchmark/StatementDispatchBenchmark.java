@@ -0,0 +1,168 @@
+package io.github.tomorrow615.compiler.benchmark;
+
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
+import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.BaseASTVisitor;
+import io.github.tomorrow615.compiler.frontend.ast.BlockItemNode;
+import io.github.tomorrow615.compiler.frontend.ast.CompUnitNode;
+import io.github.tomorrow615.compiler.frontend.ast.decl.DeclNode;
+import io.github.tomorrow615.compiler.frontend.ast.func.FuncDefNode;
+import io.github.tomorrow615.compiler.frontend.ast.stmt.*;
+import io.github.tomorrow615.compiler.frontend.lexer.TableLexer;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenStream;
+import io.github.tomorrow615.compiler.frontend.parser.Parser;
+import io.github.tomorrow615.compiler.frontend.visitor.SemanticVisitor;
+import io.github.tomorrow615.compiler.util.LexerRecorder;
+import io.github.tomorrow615.compiler.util.ParserRecorder;
+import io.github.tomorrow615.compiler.workload.SysYGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 语句分派方式的对比，输入为语句多、表达式浅的合成程序。
+ * walkInstanceof 与 walkAccept 只遍历语句并按类型计数，分别使用改写前 StatementVisitor 的 instanceof 链
+ * 和 accept 双分派；analyze 为完整的语义分析 (现已使用双分派)。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementDispatchBenchmark {
+    @Param({"50", "200"})
+    public int statements;
+
+    @Param({"100"})
+    public int functions;
+
+    @Param({"3"})
+    public int depth;
+
+    private CompUnitNode compUnit;
+    private CompilationContext context;
+    private final Counter counter = new Counter();
+
+    @Setup
+    public void setup() throws IOException {
+        SysYGenerator.Settings settings = new SysYGenerator.Settings();
+        settings.functions = functions;
+        settings.statements = statements;
+        settings.loopDepth = depth;
+        settings.exprDepth = 1;
+        String source = new SysYGenerator(settings).generate();
+
+        context = new CompilationContext();
+        try (LexerRecorder lexerRecorder = new LexerRecorder("lexer.txt");
+             ParserRecorder parserRecorder = new ParserRecorder("parser.txt")) {
+            TokenStream tokens = new TableLexer(source, lexerRecorder, context).tokenize();
+            compUnit = new Parser(tokens, parserRecorder, context).parse();
+        }
+    }
+
+    @Benchmark
+    public SemanticVisitor analyze() {
+        SemanticVisitor visitor = new SemanticVisitor(new CompilationContext(context.getNames()));
+        visitor.visit(compUnit);
+        return visitor;
+    }
+
+    @Benchmark
+    public int walkInstanceof() {
+        int count = 0;
+        for (FuncDefNode func : compUnit.getFuncDefs()) {
+            count += ladderStmt(func.getBlock());
+        }
+        return count + ladderStmt(compUnit.getMainFuncDef().getBlock());
+    }
+
+    @Benchmark
+    public int walkAccept() {
+        counter.count = 0;
+        for (FuncDefNode func : compUnit.getFuncDefs()) {
+            counter.visitBlock(func.getBlock());
+        }
+        counter.visitBlock(compUnit.getMainFuncDef().getBlock());
+        return counter.count;
+    }
+
+    private static int ladderBlock(BlockNode block) {
+        int count = 0;
+        for (BlockItemNode item : block.getBlockItems()) {
+            if (item instanceof DeclNode) {
+                count++;
+            } else if (item instanceof StmtNode s) {
+                count += ladderStmt(s);
+            }
+        }
+        return count;
+    }
+
+    // 与改写前的 StatementVisitor.visitStmt 相同的判断顺序
+    private static int ladderStmt(StmtNode node) {
+        if (node == null) return 0;
+
+        if (node instanceof BlockNode b) {
+            return 1 + ladderBlock(b);
+        } else if (node instanceof AssignStmtNode) {
+            return 1;
+        } else if (node instanceof ExpStmtNode) {
+            return 1;
+        } else if (node instanceof ForStmtNode f) {
+            return 1 + ladderStmt(f.getBodyStmt());
+        } else if (node instanceof BreakStmtNode) {
+            return 1;
+        } else if (node instanceof ContinueStmtNode) {
+            return 1;
+        } else if (node instanceof ReturnStmtNode) {
+            return 1;
+        } else if (node instanceof PrintfStmtNode) {
+            return 1;
+        } else if (node instanceof IfStmtNode i) {
+            return 1 + ladderStmt(i.getThenStmt()) + ladderStmt(i.getElseStmt());
+        }
+        return 0;
+    }
+
+    private static final class Counter extends BaseASTVisitor<Void> {
+        private int count;
+
+        private void visit(StmtNode node) {
+            if (node != null) {
+                node.accept(this);
+            }
+        }
+
+        @Override
+        protected Void visitDefault(ASTNode node) {
+            count++; // 声明与不含子语句的语句
+            return null;
+        }
+
+        @Override
+        public Void visitBlock(BlockNode node) {
+            count++;
+            for (BlockItemNode item : node.getBlockItems()) {
+                item.accept(this);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitForStmt(ForStmtNode node) {
+            count++;
+            visit(node.getBodyStmt());
+            return null;
+        }
+
+        @Override
+        public Void visitIfStmt(IfStmtNode node) {
+            count++;
+            visit(node.getThenStmt());
+            visit(node.getElseStmt());
+            return null;
+        }
+    }
+}
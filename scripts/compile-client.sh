@@ -0,0 +1,75 @@
+#!/bin/sh
+# 编译守护进程 (CompileServer) 的 shell 客户端，与 CompileClient 参数相同 (没有 --repeat)，但不需要启动 JVM。
+# 需要 socat，或支持 -U 与 -N 的 nc (OpenBSD netcat)。
+#     --socket=套接字路径 (默认 sysy-compiler.sock)
+#     --out=输出目录  --outputs=lexer,parser,symbol,error,ir,mips,stats
+#     --shutdown      让守护进程退出
+#     源文件 ...      默认为 testfile.txt
+# 错误按 error.txt 的格式打印到标准输出；守护进程报告编译失败或连接中断时退出码为 1。
+
+socket=sysy-compiler.sock
+out=
+outputs=
+shutdown=
+files=
+
+# 守护进程的工作目录与客户端不同，路径一律转为绝对路径
+absolute() {
+    case $1 in
+        /*) printf '%s\n' "$1" ;;
+        *) printf '%s/%s\n' "$PWD" "$1" ;;
+    esac
+}
+
+for arg in "$@"; do
+    case $arg in
+        --socket=*) socket=${arg#--socket=} ;;
+        --out=*) out=$(absolute "${arg#--out=}") ;;
+        --outputs=*) outputs=${arg#--outputs=} ;;
+        --shutdown) shutdown=1 ;;
+        *) files="$files$(absolute "$arg")
+" ;;
+    esac
+done
+if [ -z "$files" ] && [ -z "$shutdown" ]; then
+    files="$(absolute testfile.txt)
+"
+fi
+
+# 所有请求在同一连接上依次发出；写完后关闭写方向，守护进程读到文件末尾便关闭连接
+request() {
+    printf '%s' "$files" | while IFS= read -r file; do
+        printf 'input=%s\n' "$file"
+        [ -n "$out" ] && printf 'out=%s\n' "$out"
+        [ -n "$outputs" ] && printf 'outputs=%s\n' "$outputs"
+        printf '\n'
+    done
+    [ -n "$shutdown" ] && printf 'shutdown=true\n\n'
+    return 0
+}
+
+connect() {
+    if command -v socat >/dev/null 2>&1; then
+        # -t: 写方向关闭后等待响应的秒数，守护进程关闭连接时 socat 会提前退出
+        socat -t 3600 - "UNIX-CONNECT:$socket"
+    elif command -v nc >/dev/null 2>&1; then
+        nc -N -U "$socket"
+    else
+        echo "需要 socat 或 nc" >&2
+        return 1
+    fi
+}
+
+request | connect | awk -v files="$files" '
+    BEGIN { n = split(files, name, "\n") - 1; done = 0; failed = 0 }
+    /^status=/ { if ($0 != "status=ok") failed = 1; next }
+    /^error=/ { print substr($0, 7); next }
+    /^message=/ { print name[done + 1] ": " substr($0, 9) > "/dev/stderr"; next }
+    /^$/ { done++ }
+    END {
+        if (done < n) {
+            print "守护进程关闭了连接" > "/dev/stderr"
+            failed = 1
+        }
+        exit failed
+    }'
@@ -0,0 +1,144 @@
+package io.github.tomorrow615.compiler;
+
+import io.github.tomorrow615.compiler.util.CompileOptions;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 批量编译：在同一个 JVM 中用固定大小的线程池并发编译多个源文件，
+ * 每个文件的 lexer.txt / parser.txt / symbol.txt / error.txt 写入各自的输出目录。
+ * 输入可以是目录 (递归查找与 glob 匹配的文件) 或文件列表 (每行一个路径)。
+ */
+public class BatchCompiler {
+    public static final String DEFAULT_GLOB = "{testfile*.txt,*.sy}";
+
+    private final Path outputRoot;
+    private final int threads;
+    private final CompileOptions options;
+
+    public BatchCompiler(Path outputRoot, int threads, CompileOptions options) {
+        this.outputRoot = outputRoot;
+        this.threads = Math.max(threads, 1);
+        this.options = options;
+    }
+
+    // 输出目录为 outputRoot 下与源文件相对路径同名 (去掉扩展名) 的目录；
+    // 去掉扩展名后重名的文件 (如 foo.txt 与 foo.sy) 保留扩展名
+    public static class Job {
+        private final Path source;
+        private final Path relativeOutput;
+
+        public Job(Path source, Path relativeOutput) {
+            this.source = source;
+            this.relativeOutput = relativeOutput;
+        }
+
+        public Path getSource() {
+            return source;
+        }
+    }
+
+    // 收集目录中的源文件，或读取文件列表
+    public static List<Job> collect(Path input, String glob) throws IOException {
+        List<Path> sources = new ArrayList<>();
+        List<Path> relatives = new ArrayList<>();
+        if (Files.isDirectory(input)) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+            try (Stream<Path> files = Files.walk(input)) {
+                for (Path file : files.filter(Files::isRegularFile)
+                        .filter(f -> matcher.matches(f.getFileName()))
+                        .sorted()
+                        .collect(Collectors.toList())) {
+                    sources.add(file);
+                    relatives.add(input.relativize(file));
+                }
+            }
+        } else {
+            Path base = input.toAbsolutePath().getParent();
+            for (String line : Files.readAllLines(input)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Path file = base.resolve(line.strip()).normalize();
+                Path relative = file.startsWith(base) ? base.relativize(file) : file.getRoot().relativize(file);
+                sources.add(file);
+                relatives.add(relative);
+            }
+        }
+        return assignOutputs(sources, relatives);
+    }
+
+    private static List<Job> assignOutputs(List<Path> sources, List<Path> relatives) throws IOException {
+        Map<Path, Integer> counts = new HashMap<>();
+        for (Path relative : relatives) {
+            counts.merge(stripExtension(relative), 1, Integer::sum);
+        }
+        List<Job> jobs = new ArrayList<>();
+        Map<Path, Path> owners = new HashMap<>();     // 输出目录 → 源文件
+        for (int i = 0; i < sources.size(); i++) {
+            Path relative = relatives.get(i);
+            Path output = stripExtension(relative);
+            if (counts.get(output) > 1) {
+                System.err.println(sources.get(i) + ": 去掉扩展名后与其他文件重名，输出目录保留扩展名: " + relative);
+                output = relative;
+            }
+            Path owner = owners.putIfAbsent(output, sources.get(i));
+            if (owner != null) {
+                throw new IOException("输出目录冲突: " + owner + " 与 " + sources.get(i) + " 都写入 " + output);
+            }
+            jobs.add(new Job(sources.get(i), output));
+        }
+        return jobs;
+    }
+
+    // 返回编译失败 (抛出异常) 的文件个数
+    public int run(List<Job> jobs) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Job job : jobs) {
+                results.add(pool.submit(() -> compile(job)));
+            }
+
+            int failed = 0;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.err.println(jobs.get(i).getSource() + ": 编译失败: " + e.getCause());
+                }
+            }
+            return failed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Void compile(Job job) throws IOException {
+        Path outputDir = outputRoot.resolve(job.relativeOutput);
+        Files.createDirectories(outputDir);
+        Compiler.compile(job.source, outputDir, options);
+        return null;
+    }
+
+    private static Path stripExtension(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? path.resolveSibling(name.substring(0, dot)) : path;
+    }
+}
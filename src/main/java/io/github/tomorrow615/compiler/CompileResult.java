@@ -0,0 +1,36 @@
+package io.github.tomorrow615.compiler;
+
+import io.github.tomorrow615.compiler.frontend.error.Error;
+import io.github.tomorrow615.compiler.ir.IrModule;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// 一次编译的结果：按行号排列的错误，实际写出的输出文件，以及生成的 IR (没有生成时为 null)
+public class CompileResult {
+    private final List<Error> errors;
+    private final List<Path> outputs;
+    private final IrModule module;
+
+    public CompileResult(List<Error> errors, List<Path> outputs) {
+        this(errors, outputs, null);
+    }
+
+    public CompileResult(List<Error> errors, List<Path> outputs, IrModule module) {
+        this.errors = errors;
+        this.outputs = outputs;
+        this.module = module;
+    }
+
+    public List<Error> getErrors() {
+        return errors;
+    }
+
+    public List<Path> getOutputs() {
+        return outputs;
+    }
+
+    public IrModule getModule() {
+        return module;
+    }
+}
@@ -1,65 +1,363 @@
 package io.github.tomorrow615.compiler;
 
+import io.github.tomorrow615.compiler.daemon.CompileServer;
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
 import io.github.tomorrow615.compiler.frontend.error.*;
 import io.github.tomorrow615.compiler.frontend.lexer.*;
 import io.github.tomorrow615.compiler.frontend.ast.*;
+import io.github.tomorrow615.compiler.frontend.ast.arena.AstArena;
 import io.github.tomorrow615.compiler.frontend.parser.Parser;
 import io.github.tomorrow615.compiler.frontend.error.Error;
+import io.github.tomorrow615.compiler.frontend.symbol.SymbolTable;
+import io.github.tomorrow615.compiler.runtime.ExecutionMode;
+import io.github.tomorrow615.compiler.runtime.SysYIO;
 import io.github.tomorrow615.compiler.util.*;
 import io.github.tomorrow615.compiler.frontend.visitor.SemanticVisitor;
+import io.github.tomorrow615.compiler.ir.IrFunction;
+import io.github.tomorrow615.compiler.ir.IrInterpreter;
+import io.github.tomorrow615.compiler.ir.IrLowering;
+import io.github.tomorrow615.compiler.ir.IrModule;
+import io.github.tomorrow615.compiler.jvm.JvmBackend;
+import io.github.tomorrow615.compiler.jvm.JvmProgram;
+import io.github.tomorrow615.compiler.mips.MipsBackend;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Compiler {
+    private static final long EXECUTION_STACK_SIZE = 1L << 30;
+
+    // 参数：
+    //   --outputs=列表       需要写出的文件，如 --outputs=error 只写 error.txt (可选 lexer,parser,symbol,error,ir,mips,stats)，
+    //                        未列出的记录器不做任何格式化；省略时使用 Config 中的默认值
+    //   --stats              把各阶段的耗时与分配统计写入 stats.json，--stats=文件名 写入指定文件
+    //   --batch=目录或列表   批量编译目录中与 --glob 匹配的文件，或列表文件中每行一个的源文件
+    //   --out=目录           批量模式的输出根目录 (默认 out)
+    //   --threads=N          批量模式的线程数 (默认为处理器个数)
+    //   --glob=模式          批量模式在目录中查找源文件的模式 (默认 {testfile*.txt,*.sy})
+    //   --run                编译 testfile.txt 后执行，从标准输入读取 getint 的输入，输出写到标准输出；
+    //                        --run=interpreter 用 IR 解释器，--run=jvm 生成字节码执行，省略时见 Config.EXECUTION_MODE
+    //   --daemon             作为守护进程监听 Unix 域套接字 sysy-compiler.sock，--daemon=路径 指定套接字
+    //                        (客户端见 scripts/compile-client.sh 与 daemon.CompileClient，--threads 指定处理连接的线程数)
     public static void main(String[] args) {
-        String inputFile = "testfile.txt";
-        String outputFileLexer = "lexer.txt";
-        String outputFileParser = "parser.txt";
-        String outputFileSymbol = "symbol.txt";
-        String outputFileError = "error.txt";
+        CompileOptions options = new CompileOptions();
+        String batchInput = null;
+        String daemonSocket = null;
+        String outputRoot = "out";
+        int threads = Runtime.getRuntime().availableProcessors();
+        String glob = BatchCompiler.DEFAULT_GLOB;
+        String outputs = null;
+        boolean run = false;
+        ExecutionMode executionMode = Config.EXECUTION_MODE;
+
+        for (String arg : args) {
+            if (arg.startsWith("--outputs=")) {
+                outputs = arg.substring("--outputs=".length());
+            } else if (arg.equals("--stats")) {
+                options.statsFile = "stats.json";
+            } else if (arg.startsWith("--stats=")) {
+                options.statsFile = arg.substring("--stats=".length());
+            } else if (arg.startsWith("--batch=")) {
+                batchInput = arg.substring("--batch=".length());
+            } else if (arg.startsWith("--out=")) {
+                outputRoot = arg.substring("--out=".length());
+            } else if (arg.startsWith("--threads=")) {
+                try {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+                if (threads < 1) {
+                    usage(arg, "--threads=N，N 为正整数");
+                }
+            } else if (arg.equals("--run")) {
+                run = true;
+            } else if (arg.startsWith("--run=")) {
+                run = true;
+                try {
+                    executionMode = ExecutionMode.valueOf(arg.substring("--run=".length()).toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    usage(arg, "--run=interpreter 或 --run=jvm");
+                }
+            } else if (arg.equals("--daemon")) {
+                daemonSocket = CompileServer.DEFAULT_SOCKET;
+            } else if (arg.startsWith("--daemon=")) {
+                daemonSocket = arg.substring("--daemon=".length());
+            } else if (arg.startsWith("--glob=")) {
+                glob = arg.substring("--glob=".length());
+            } else {
+                System.err.println("无法识别的参数: " + arg);
+            }
+        }
+
+        if (outputs != null) {
+            // --stats 与 --outputs 的先后顺序无关
+            String statsFile = options.statsFile;
+            try {
+                options.setOutputs(outputs);
+            } catch (IllegalArgumentException e) {
+                usage("--outputs=" + outputs + " (" + e.getMessage() + ")",
+                        "--outputs=列表，可选 lexer,parser,symbol,error,ir,mips,stats，以逗号分隔");
+            }
+            if (statsFile != null) {
+                options.statsFile = statsFile;
+            }
+        }
+        options.buildIr = run;
 
         try {
-            String sourceCode = new String(Files.readAllBytes(Paths.get(inputFile)));
-            ErrorReporter.clearErrors(); // 清空上一轮的错误
-
-            // --- 步骤 1: 词法分析 ---
-            List<Token> tokens;
-            try (LexerRecorder lexerRecorder = new LexerRecorder(outputFileLexer)) {
-                Lexer lexer = new Lexer(sourceCode, lexerRecorder);
-                tokens = lexer.getAllTokens();
+            if (daemonSocket != null) {
+                new CompileServer(Paths.get(daemonSocket), threads).serve();
+            } else if (batchInput != null) {
+                List<BatchCompiler.Job> jobs = BatchCompiler.collect(Paths.get(batchInput), glob);
+                long start = System.nanoTime();
+                int failed = new BatchCompiler(Paths.get(outputRoot), threads, options).run(jobs);
+                System.out.printf("编译 %d 个文件，失败 %d 个，用时 %d ms%n",
+                        jobs.size(), failed, (System.nanoTime() - start) / 1_000_000);
+                if (failed > 0) {
+                    System.exit(1);
+                }
+            } else {
+                CompileResult result = compile(Paths.get("testfile.txt"), Paths.get(""), options);
+                if (run && result.getModule() != null) {
+                    execute(result.getModule(), executionMode);
+                }
             }
+        } catch (IOException e) {
+            System.err.println("文件读写时发生错误: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 参数的值无法识别：打印正确的用法后以 1 退出
+    private static void usage(String arg, String usage) {
+        System.err.println("无法识别的参数: " + arg);
+        System.err.println("用法: " + usage);
+        System.exit(1);
+    }
+
+    public static CompileResult compile(Path inputFile, Path outputDir) throws IOException {
+        return compile(inputFile, outputDir, new CompileOptions());
+    }
+
+    // 编译 inputFile，按 options 把 lexer.txt / parser.txt / symbol.txt / error.txt 等写入 outputDir
+    public static CompileResult compile(Path inputFile, Path outputDir, CompileOptions options) throws IOException {
+        return compile(inputFile, null, outputDir, options);
+    }
+
+    // 编译直接给出的源码 (例如守护进程收到的内联源码)
+    public static CompileResult compileSource(String sourceCode, Path outputDir, CompileOptions options)
+            throws IOException {
+        return compile(null, sourceCode, outputDir, options);
+    }
+
+    private static CompileResult compile(Path inputFile, String inlineSource, Path outputDir, CompileOptions options)
+            throws IOException {
+        Path outputFileLexer = outputDir.resolve("lexer.txt");
+        Path outputFileParser = outputDir.resolve("parser.txt");
+        Path outputFileSymbol = outputDir.resolve("symbol.txt");
+        Path outputFileError = outputDir.resolve("error.txt");
+        Path outputFileIr = outputDir.resolve("ir.txt");
+        Path outputFileMips = outputDir.resolve("mips.txt");
+        Path outputFileStats = options.statsFile == null ? null : outputDir.resolve(options.statsFile);
+        List<Path> outputs = new ArrayList<>();
+
+        CompilationContext context = new CompilationContext();
+        Diagnostics diagnostics = context.getDiagnostics();
+        IrModule module = null;
+        try (StatsRecorder stats = new StatsRecorder(outputFileStats == null ? null : outputFileStats.toString())) {
+            stats.property("input", inputFile == null ? "<inline>" : inputFile);
+            stats.property("lexer", Config.LEXER_MODE);
+            stats.property("pipeline", Config.TOKEN_PIPELINE);
+            stats.property("source", Config.SOURCE_MODE);
+            stats.property("scopes", Config.SCOPE_MODE);
+            stats.property("ast", Config.AST_MODE);
+
+            StatsRecorder.Phase read = stats.begin("read");
+            SourceText source;
+            if (inlineSource == null && Config.SOURCE_MODE == SourceMode.MAPPED && Config.LEXER_MODE == LexerMode.TABLE) {
+                source = SourceText.map(inputFile);
+                read.count("bytes", source.length());
+            } else {
+                String sourceCode = (inlineSource != null) ? inlineSource : new String(Files.readAllBytes(inputFile));
+                source = SourceText.of(sourceCode);
+                read.count("chars", source.length());
+            }
+            read.end();
+
+            // --- 步骤 1 & 2: 词法分析与语法分析 ---
+            // 流式的流水线中词法分析与语法分析交错进行，lexer 阶段只包含创建单词源，其余耗时计入 parser 阶段
+            CompUnitNode compUnit = null;
+            AstArena arena = null;
+            try (LexerRecorder lexerRecorder = new LexerRecorder(outputFileLexer.toString(), options.lexerOutput);
+                 ParserRecorder parserRecorder = new ParserRecorder(outputFileParser.toString(), options.parserOutput)) {
+                StatsRecorder.Phase lex = stats.begin("lexer");
+                TokenSource tokens = createTokenSource(source, lexerRecorder, context);
+                lex.count("tokens", lexerRecorder.getTokenCount());
+                lex.end();
 
-            // --- 步骤 2: 语法分析 ---
-            CompUnitNode compUnit;
-            try (ParserRecorder parserRecorder = new ParserRecorder(outputFileParser)) {
-                Parser parser = new Parser(tokens, parserRecorder);
-                compUnit = parser.parse();
+                StatsRecorder.Phase parse = stats.begin("parser");
+                try {
+                    Parser parser = new Parser(tokens, parserRecorder, context);
+                    if (Config.AST_MODE == AstMode.ARENA) {
+                        arena = parser.parseArena();
+                    } else if (Config.AST_MODE == AstMode.COMPACT) {
+                        compUnit = parser.parseCompact();
+                    } else {
+                        compUnit = parser.parse();
+                    }
+                    tokens.drain(); // 语法分析结束后读完剩余单词
+                } finally {
+                    tokens.close(); // 语法分析抛出异常时结束词法线程
+                }
+                parse.count("tokens", lexerRecorder.getTokenCount());
+                parse.count("nodes", parserRecorder.getSyntaxCount());
+                parse.end();
             }
+            addIf(outputs, options.lexerOutput, outputFileLexer);
+            addIf(outputs, options.parserOutput, outputFileParser);
 
             // --- 步骤 3: 语义分析 ---
-            SemanticVisitor semanticVisitor = new SemanticVisitor();
-            semanticVisitor.visit(compUnit);
-            try (SymbolRecorder symbolRecorder = new SymbolRecorder(outputFileSymbol)) {
+            StatsRecorder.Phase semantic = stats.begin("semantic");
+            SemanticVisitor semanticVisitor = new SemanticVisitor(context);
+            if (arena != null) {
+                semanticVisitor.visit(arena);
+            } else {
+                semanticVisitor.visit(compUnit);
+            }
+            semantic.count("scopes", semanticVisitor.getAllScopes().size());
+            semantic.count("symbols", countSymbols(semanticVisitor.getAllScopes()));
+            semantic.end();
+
+            // --- 步骤 4: 输出符号表，检查错误并输出 ---
+            StatsRecorder.Phase output = stats.begin("output");
+            try (SymbolRecorder symbolRecorder = new SymbolRecorder(outputFileSymbol.toString(), options.symbolOutput)) {
                 symbolRecorder.recordAll(semanticVisitor.getAllScopes());
             }
+            addIf(outputs, options.symbolOutput, outputFileSymbol);
 
-            // --- 步骤 4: 检查错误并输出 ---
-            if (ErrorReporter.hasErrors()) {
-                try (BufferedWriter errorWriter = new BufferedWriter(new FileWriter(outputFileError))) {
-                    for (Error error : ErrorReporter.getErrors()) {
+            if (diagnostics.hasErrors() && options.errorOutput) {
+                try (BufferedWriter errorWriter = Files.newBufferedWriter(outputFileError)) {
+                    for (Error error : diagnostics.getErrors()) {
                         errorWriter.write(error.formatForOutput());
                         errorWriter.newLine();
                     }
                 }
+                outputs.add(outputFileError);
             }
-        } catch (IOException e) {
-            System.err.println("文件读写时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            output.count("errors", diagnostics.size());
+            output.end();
+
+            // --- 步骤 5: 没有错误时生成中间代码 ---
+            if (!diagnostics.hasErrors() && (options.irOutput || options.mipsOutput || options.buildIr)) {
+                StatsRecorder.Phase ir = stats.begin("ir");
+                IrLowering lowering = new IrLowering(semanticVisitor.getConstEvaluator().getDefinitions());
+                module = arena != null ? lowering.lower(arena) : lowering.lower(compUnit);
+                ir.count("functions", module.getFunctions().size());
+                ir.count("instructions", countInstructions(module));
+                try (IrRecorder irRecorder = new IrRecorder(outputFileIr.toString(), options.irOutput)) {
+                    irRecorder.record(module);
+                }
+                ir.end();
+                addIf(outputs, options.irOutput, outputFileIr);
+            }
+
+            // --- 步骤 6: 由中间代码生成 MIPS 汇编 ---
+            if (module != null && options.mipsOutput) {
+                StatsRecorder.Phase mips = stats.begin("mips");
+                String assembly = MipsBackend.generate(module);
+                mips.count("bytes", assembly.length());
+                try (MipsRecorder mipsRecorder = new MipsRecorder(outputFileMips.toString(), true)) {
+                    mipsRecorder.record(assembly);
+                }
+                mips.end();
+                outputs.add(outputFileMips);
+            }
+        }
+        addIf(outputs, outputFileStats != null, outputFileStats);
+        return new CompileResult(diagnostics.getErrors(), outputs, module);
+    }
+
+    // 在栈较大的线程中执行 (SysY 函数的递归对应解释器或生成的方法的递归)，运行时错误报告到标准错误并以 1 退出
+    private static void execute(IrModule module, ExecutionMode mode) throws InterruptedException {
+        JvmProgram program = null;
+        if (mode == ExecutionMode.JVM) {
+            try {
+                program = JvmBackend.compile(module);
+            } catch (IllegalStateException e) {
+                System.err.println("无法生成字节码，改用解释器执行: " + e.getMessage());
+            }
+        }
+        JvmProgram compiled = program;
+        SysYIO io = new SysYIO(System.in, System.out);
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                if (compiled != null) {
+                    compiled.run(io);
+                } else {
+                    new IrInterpreter(module, io).run();
+                }
+            } catch (RuntimeException | StackOverflowError e) {
+                failure[0] = e;
+            } finally {
+                io.flush();
+            }
+        }, "sysy-main", EXECUTION_STACK_SIZE);
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            System.err.println("运行时错误: " + failure[0]);
+            System.exit(1);
+        }
+    }
+
+    private static void addIf(List<Path> outputs, boolean written, Path file) {
+        if (written) {
+            outputs.add(file);
+        }
+    }
+
+    private static long countSymbols(List<SymbolTable> scopes) {
+        long count = 0;
+        for (SymbolTable scope : scopes) {
+            count += scope.getOrderedSymbols().size();
+        }
+        return count;
+    }
+
+    private static long countInstructions(IrModule module) {
+        long count = 0;
+        for (IrFunction function : module.getFunctions()) {
+            count += function.size();
+        }
+        return count;
+    }
+
+    // 按 Config 选择词法分析器实现与单词的供给方式
+    private static TokenSource createTokenSource(SourceText source, LexerRecorder lexerRecorder,
+                                                 CompilationContext context) {
+        if (Config.LEXER_MODE == LexerMode.LEGACY) {
+            Lexer lexer = new Lexer(new String(source.chars()), lexerRecorder, context);
+            return new TokenStreamSource(TokenStream.fromTokens(lexer.getAllTokens(), context.getNames()));
+        }
+
+        TableLexer lexer = new TableLexer(source, lexerRecorder, context);
+        switch (Config.TOKEN_PIPELINE) {
+            case STREAMING:
+                return new StreamingTokenSource(lexer, Parser.MAX_LOOKAHEAD);
+            case CONCURRENT:
+                return new ConcurrentTokenSource(lexer, Parser.MAX_LOOKAHEAD);
+            default:
+                return new TokenStreamSource(lexer.tokenize());
         }
     }
 }
\ No newline at end of file
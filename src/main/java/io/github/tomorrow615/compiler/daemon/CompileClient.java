@@ -0,0 +1,116 @@
+package io.github.tomorrow615.compiler.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译守护进程的命令行客户端。参数：
+ *     --socket=套接字路径 (默认 sysy-compiler.sock)
+ *     --out=输出目录  --outputs=lexer,parser,symbol,error,ir,mips,stats
+ *     --repeat=N      每个文件在同一连接上编译 N 次，并报告往返耗时
+ *     --shutdown      让守护进程退出
+ *     源文件 ...      默认为 testfile.txt
+ * 错误按 error.txt 的格式打印到标准输出；守护进程报告编译失败时退出码为 1。
+ * 这个客户端本身要启动一个 JVM，单次调用省不下启动时间，只适合 --repeat 这样在一个进程里发多个请求的场合；
+ * 逐个文件调用时应使用不启动 JVM 的 scripts/compile-client.sh (参数相同，基于 socat 或 nc -U)。
+ */
+public class CompileClient {
+    public static void main(String[] args) throws IOException {
+        Path socket = Paths.get(CompileServer.DEFAULT_SOCKET);
+        String outputDir = null;
+        String outputs = null;
+        int repeat = 1;
+        boolean shutdown = false;
+        List<Path> files = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--socket=")) {
+                socket = Paths.get(arg.substring("--socket=".length()));
+            } else if (arg.startsWith("--out=")) {
+                outputDir = Paths.get(arg.substring("--out=".length())).toAbsolutePath().toString();
+            } else if (arg.startsWith("--outputs=")) {
+                outputs = arg.substring("--outputs=".length());
+            } else if (arg.startsWith("--repeat=")) {
+                repeat = Integer.parseInt(arg.substring("--repeat=".length()));
+            } else if (arg.equals("--shutdown")) {
+                shutdown = true;
+            } else {
+                files.add(Paths.get(arg).toAbsolutePath());
+            }
+        }
+        if (files.isEmpty() && !shutdown) {
+            files.add(Paths.get("testfile.txt").toAbsolutePath());
+        }
+
+        boolean failed = false;
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+
+            for (Path file : files) {
+                long best = Long.MAX_VALUE;
+                long total = 0;
+                List<String[]> response = null;
+                for (int i = 0; i < repeat; i++) {
+                    long start = System.nanoTime();
+                    Protocol.writeField(out, "input", file);
+                    if (outputDir != null) {
+                        Protocol.writeField(out, "out", outputDir);
+                    }
+                    if (outputs != null) {
+                        Protocol.writeField(out, "outputs", outputs);
+                    }
+                    Protocol.endFields(out);
+                    response = Protocol.readFields(in);
+                    long elapsed = System.nanoTime() - start;
+                    best = Math.min(best, elapsed);
+                    total += elapsed;
+                }
+
+                failed |= !print(file, response);
+                if (repeat > 1) {
+                    System.err.printf("%s: %d 次，平均 %.3f ms，最快 %.3f ms%n",
+                            file.getFileName(), repeat, total / 1e6 / repeat, best / 1e6);
+                }
+            }
+
+            if (shutdown) {
+                Protocol.writeField(out, "shutdown", "true");
+                Protocol.endFields(out);
+                Protocol.readFields(in);
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    // 打印错误与失败信息，返回编译是否成功完成
+    private static boolean print(Path file, List<String[]> response) throws IOException {
+        if (response == null) {
+            throw new IOException("守护进程关闭了连接");
+        }
+        boolean ok = true;
+        for (String[] field : response) {
+            switch (field[0]) {
+                case "status": ok = field[1].equals("ok"); break;
+                case "error": System.out.println(field[1]); break;
+                case "message": System.err.println(file + ": " + field[1]); break;
+                default: break;
+            }
+        }
+        return ok;
+    }
+}
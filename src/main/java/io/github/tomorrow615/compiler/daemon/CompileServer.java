@@ -0,0 +1,204 @@
+package io.github.tomorrow615.compiler.daemon;
+
+import io.github.tomorrow615.compiler.CompileResult;
+import io.github.tomorrow615.compiler.Compiler;
+import io.github.tomorrow615.compiler.frontend.error.Error;
+import io.github.tomorrow615.compiler.util.CompileOptions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 常驻的编译守护进程：监听 Unix 域套接字，按 {@link Protocol} 接受编译请求。
+ * 编译器保持常驻，省去每次编译的 JVM 启动与 JIT 预热；每个连接由线程池中的一个线程处理，
+ * 一个连接上可以依次发送多个请求。
+ */
+public class CompileServer {
+    public static final String DEFAULT_SOCKET = "sysy-compiler.sock";
+
+    private final Path socketPath;
+    private final ExecutorService pool;
+    private volatile boolean running = true;
+    private ServerSocketChannel server;
+
+    public CompileServer(Path socketPath, int threads) {
+        this.socketPath = socketPath;
+        this.pool = Executors.newFixedThreadPool(Math.max(threads, 1));
+    }
+
+    public void serve() throws IOException {
+        Files.deleteIfExists(socketPath); // 清理上次异常退出留下的套接字文件
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+        System.out.println("编译守护进程已启动: " + socketPath);
+
+        try {
+            while (running) {
+                SocketChannel client;
+                try {
+                    client = server.accept();
+                } catch (IOException e) {
+                    if (!running) {
+                        break; // shutdown() 关闭了监听套接字
+                    }
+                    throw e;
+                }
+                pool.execute(() -> handle(client));
+            }
+        } finally {
+            pool.shutdownNow();
+            server.close();
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) {
+            // 监听套接字已关闭，忽略
+        }
+    }
+
+    // 处理完一个请求之后连接的去向
+    private enum Next {
+        CONTINUE,   // 继续读下一个请求
+        CLOSE,      // 内联源码的长度无效，无法找到下一个请求的开头，关闭连接
+        SHUTDOWN    // 收到 shutdown 请求
+    }
+
+    private void handle(SocketChannel client) {
+        try (client;
+             InputStream in = new BufferedInputStream(Channels.newInputStream(client));
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(client))) {
+            List<String[]> request;
+            while ((request = Protocol.readFields(in)) != null) {
+                Next next = respond(request, in, out);
+                if (next == Next.SHUTDOWN) {
+                    shutdown();
+                    return;
+                }
+                if (next == Next.CLOSE) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // 退出时 shutdownNow() 中断阻塞在读请求上的线程，不是错误
+            if (running) {
+                System.err.println("处理编译请求时发生错误: " + e);
+            }
+        }
+    }
+
+    private Next respond(List<String[]> request, InputStream in, OutputStream out) throws IOException {
+        Path input = null;
+        String source = null;
+        Path outputDir = null;
+        String outputs = null;
+        String invalid = null;  // 第一个无效字段的说明
+        for (String[] field : request) {
+            try {
+                switch (field[0]) {
+                    case "input": input = Paths.get(field[1]).toAbsolutePath(); break;
+                    case "source":
+                        int length = sourceLength(field[1]);
+                        if (length < 0) {
+                            reject(out, "source 的长度无效: " + field[1]);
+                            return Next.CLOSE;
+                        }
+                        // 其他字段无效时也要读完内联源码，下一个请求才能从正确的位置开始
+                        source = new String(Protocol.readBytes(in, length), StandardCharsets.UTF_8);
+                        break;
+                    case "out": outputDir = Paths.get(field[1]).toAbsolutePath(); break;
+                    case "outputs": outputs = field[1]; break;
+                    case "shutdown":
+                        Protocol.writeField(out, "status", "ok");
+                        Protocol.endFields(out);
+                        return Next.SHUTDOWN;
+                    default: break; // 忽略不认识的字段，便于以后扩展
+                }
+            } catch (InvalidPathException e) {
+                if (invalid == null) {
+                    invalid = field[0] + " 不是有效的路径: " + field[1];
+                }
+            }
+        }
+        if (invalid != null) {
+            reject(out, invalid);
+            return Next.CONTINUE;
+        }
+
+        long start = System.nanoTime();
+        try {
+            CompileOptions options = new CompileOptions();
+            if (outputs != null) {
+                options.setOutputs(outputs);
+            }
+            if (input == null && source == null) {
+                throw new IllegalArgumentException("请求中缺少 input 或 source");
+            }
+            if (outputDir == null) {
+                if (input == null) {
+                    throw new IllegalArgumentException("内联源码必须指定 out");
+                }
+                outputDir = input.getParent();
+            }
+            Files.createDirectories(outputDir);
+            CompileResult result = (source != null) ?
+                    Compiler.compileSource(source, outputDir, options) :
+                    Compiler.compile(input, outputDir, options);
+
+            Protocol.writeField(out, "status", "ok");
+            for (Error error : result.getErrors()) {
+                Protocol.writeField(out, "error", error.formatForOutput());
+            }
+            for (Path output : result.getOutputs()) {
+                Protocol.writeField(out, "output", output);
+            }
+        } catch (IOException | RuntimeException e) {
+            Protocol.writeField(out, "status", "failed");
+            Protocol.writeField(out, "message", String.valueOf(e).replace('\n', ' '));
+        } catch (StackOverflowError | OutOfMemoryError e) {
+            // 输入过深或过大：本次编译失败，连接与守护进程继续服务
+            System.err.println("编译请求失败: " + e);
+            Protocol.writeField(out, "status", "failed");
+            Protocol.writeField(out, "message", String.valueOf(e));
+        }
+        Protocol.writeField(out, "micros", (System.nanoTime() - start) / 1000);
+        Protocol.endFields(out);
+        return Next.CONTINUE;
+    }
+
+    // 内联源码的字节数，不是非负整数时为 -1
+    private static int sourceLength(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // 请求本身无效 (不是编译失败)：回复 status=failed，原因放在 error 字段中
+    private static void reject(OutputStream out, String reason) throws IOException {
+        Protocol.writeField(out, "status", "failed");
+        Protocol.writeField(out, "error", reason.replace('\n', ' '));
+        Protocol.endFields(out);
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.tomorrow615.compiler.daemon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 守护进程与客户端之间的文本协议，可以直接用 nc -U 调试。
+ * 请求与响应都由若干 "键=值" 行组成，以空行结束，均为 UTF-8。
+ *
+ * 请求：
+ *     input=源文件路径          或  source=字节数 (空行之后紧跟这么多字节的内联源码)；
+ *                               字节数不是非负整数时回复 status=failed 并关闭连接
+ *     out=输出目录              省略时为源文件所在目录；内联源码必须指定
+ *     outputs=lexer,parser,symbol,error,ir,mips,stats   省略时使用 Config 中的默认值
+ *     shutdown=true             让守护进程退出
+ * 响应：
+ *     status=ok | failed
+ *     error=行号 错误码          每个错误一行，按行号排列；请求本身无效时为 status=failed 与无效的原因
+ *     output=输出文件路径        每个实际写出的文件一行
+ *     micros=服务端编译耗时
+ *     message=失败原因           仅 status=failed 时出现
+ */
+final class Protocol {
+    private Protocol() {
+    }
+
+    // 读取一组 "键=值" 行直到空行；连接在读到任何内容之前关闭时返回 null
+    static List<String[]> readFields(InputStream in) throws IOException {
+        List<String[]> fields = new ArrayList<>();
+        boolean first = true;
+        while (true) {
+            String line = readLine(in, first);
+            if (line == null) {
+                return null;
+            }
+            first = false;
+            if (line.isEmpty()) {
+                return fields;
+            }
+            int eq = line.indexOf('=');
+            if (eq < 0) {
+                throw new IOException("格式错误的行: " + line);
+            }
+            fields.add(new String[]{line.substring(0, eq), line.substring(eq + 1)});
+        }
+    }
+
+    static byte[] readBytes(InputStream in, int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("内联源码不完整");
+        }
+        return bytes;
+    }
+
+    static void writeField(OutputStream out, String key, Object value) throws IOException {
+        out.write((key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    static void endFields(OutputStream out) throws IOException {
+        out.write('\n');
+        out.flush();
+    }
+
+    private static String readLine(InputStream in, boolean eofAllowed) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                if (eofAllowed && line.size() == 0) {
+                    return null;
+                }
+                throw new EOFException("连接意外关闭");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+}
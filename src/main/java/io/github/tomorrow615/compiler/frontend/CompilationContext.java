@@ -0,0 +1,30 @@
+package io.github.tomorrow615.compiler.frontend;
+
+import io.github.tomorrow615.compiler.frontend.error.Diagnostics;
+import io.github.tomorrow615.compiler.frontend.lexer.NameTable;
+
+/**
+ * 一次编译的可变状态，由词法分析、语法分析与语义分析共享。
+ * 每次编译各自创建一个实例，不同编译之间没有共享状态，可以在多个线程中并发编译。
+ */
+public class CompilationContext {
+    private final Diagnostics diagnostics = new Diagnostics();
+    private final NameTable names;
+
+    public CompilationContext() {
+        this(new NameTable());
+    }
+
+    // 沿用已有的名字表，例如对同一份单词序列重复进行语法分析与语义分析
+    public CompilationContext(NameTable names) {
+        this.names = names;
+    }
+
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    public NameTable getNames() {
+        return names;
+    }
+}
@@ -10,4 +10,6 @@ public abstract class ASTNode {
     public int getLineNumber() {
         return lineNumber;
     }
+
+    public abstract <R> R accept(ASTVisitor<R> visitor);
 }
\ No newline at end of file
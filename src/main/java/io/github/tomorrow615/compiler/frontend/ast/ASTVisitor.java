@@ -0,0 +1,62 @@
+package io.github.tomorrow615.compiler.frontend.ast;
+
+import io.github.tomorrow615.compiler.frontend.ast.decl.*;
+import io.github.tomorrow615.compiler.frontend.ast.expr.*;
+import io.github.tomorrow615.compiler.frontend.ast.func.*;
+import io.github.tomorrow615.compiler.frontend.ast.stmt.*;
+
+/**
+ * AST 的访问者：每个具体节点类的 accept 调用对应的 visit 方法 (双分派)，
+ * 遍历时不需要反射或 instanceof 判断。是否以及按什么顺序访问子节点由实现决定。
+ * BinaryExpNode / UnaryOpExpNode 只出现在压缩表达式树 (AstMode.COMPACT) 中。
+ */
+public interface ASTVisitor<R> {
+    // 编译单元
+    R visitCompUnit(CompUnitNode node);
+
+    // 声明
+    R visitBType(BTypeNode node);
+    R visitConstDecl(ConstDeclNode node);
+    R visitConstDef(ConstDefNode node);
+    R visitConstInitVal(ConstInitValNode node);
+    R visitVarDecl(VarDeclNode node);
+    R visitVarDef(VarDefNode node);
+    R visitInitVal(InitValNode node);
+
+    // 函数
+    R visitFuncDef(FuncDefNode node);
+    R visitFuncFParam(FuncFParamNode node);
+    R visitFuncType(FuncTypeNode node);
+    R visitMainFuncDef(MainFuncDefNode node);
+
+    // 语句
+    R visitBlock(BlockNode node);
+    R visitAssignStmt(AssignStmtNode node);
+    R visitExpStmt(ExpStmtNode node);
+    R visitIfStmt(IfStmtNode node);
+    R visitForStmt(ForStmtNode node);
+    R visitForSubStmt(ForSubStmtNode node);
+    R visitBreakStmt(BreakStmtNode node);
+    R visitContinueStmt(ContinueStmtNode node);
+    R visitReturnStmt(ReturnStmtNode node);
+    R visitPrintfStmt(PrintfStmtNode node);
+
+    // 表达式
+    R visitExp(ExpNode node);
+    R visitConstExp(ConstExpNode node);
+    R visitCond(CondNode node);
+    R visitLOrExp(LOrExpNode node);
+    R visitLAndExp(LAndExpNode node);
+    R visitEqExp(EqExpNode node);
+    R visitRelExp(RelExpNode node);
+    R visitAddExp(AddExpNode node);
+    R visitMulExp(MulExpNode node);
+    R visitUnaryExp(UnaryExpNode node);
+    R visitUnaryOp(UnaryOpNode node);
+    R visitPrimaryExp(PrimaryExpNode node);
+    R visitFuncRParams(FuncRParamsNode node);
+    R visitLVal(LValNode node);
+    R visitNumber(NumberNode node);
+    R visitBinaryExp(BinaryExpNode node);
+    R visitUnaryOpExp(UnaryOpExpNode node);
+}
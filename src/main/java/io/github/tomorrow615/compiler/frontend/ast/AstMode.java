@@ -0,0 +1,7 @@
+package io.github.tomorrow615.compiler.frontend.ast;
+
+public enum AstMode {
+    OBJECT,  // 每个节点一个对象 (frontend.ast 中的各个 Node 类)
+    COMPACT, // 同 OBJECT，但表达式压缩掉没有运算符的层级 (见 ExprNode)
+    ARENA    // 扁平的 AstArena，节点保存在基本类型数组中
+}
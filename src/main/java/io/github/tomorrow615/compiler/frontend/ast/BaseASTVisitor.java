@@ -0,0 +1,209 @@
+package io.github.tomorrow615.compiler.frontend.ast;
+
+import io.github.tomorrow615.compiler.frontend.ast.decl.*;
+import io.github.tomorrow615.compiler.frontend.ast.expr.*;
+import io.github.tomorrow615.compiler.frontend.ast.func.*;
+import io.github.tomorrow615.compiler.frontend.ast.stmt.*;
+
+// ASTVisitor 的空实现：未覆盖的 visit 方法都交给 visitDefault (默认返回 null)，
+// 供只关心部分节点的访问者 (例如只分派语句或声明) 继承
+public abstract class BaseASTVisitor<R> implements ASTVisitor<R> {
+    protected R visitDefault(ASTNode node) {
+        return null;
+    }
+
+    @Override
+    public R visitCompUnit(CompUnitNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitBType(BTypeNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitConstDecl(ConstDeclNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitConstDef(ConstDefNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitConstInitVal(ConstInitValNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitVarDecl(VarDeclNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitVarDef(VarDefNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitInitVal(InitValNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitFuncDef(FuncDefNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitFuncFParam(FuncFParamNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitFuncType(FuncTypeNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitMainFuncDef(MainFuncDefNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitBlock(BlockNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitAssignStmt(AssignStmtNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitExpStmt(ExpStmtNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitIfStmt(IfStmtNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitForStmt(ForStmtNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitForSubStmt(ForSubStmtNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitBreakStmt(BreakStmtNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitContinueStmt(ContinueStmtNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitReturnStmt(ReturnStmtNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitPrintfStmt(PrintfStmtNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitExp(ExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitConstExp(ConstExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitCond(CondNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitLOrExp(LOrExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitLAndExp(LAndExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitEqExp(EqExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitRelExp(RelExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitAddExp(AddExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitMulExp(MulExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitUnaryExp(UnaryExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitUnaryOp(UnaryOpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitPrimaryExp(PrimaryExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitFuncRParams(FuncRParamsNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitLVal(LValNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitNumber(NumberNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitBinaryExp(BinaryExpNode node) {
+        return visitDefault(node);
+    }
+
+    @Override
+    public R visitUnaryOpExp(UnaryOpExpNode node) {
+        return visitDefault(node);
+    }
+}
@@ -29,4 +29,9 @@ public class CompUnitNode extends ASTNode {
     public MainFuncDefNode getMainFuncDef() {
         return mainFuncDef;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitCompUnit(this);
+    }
+}
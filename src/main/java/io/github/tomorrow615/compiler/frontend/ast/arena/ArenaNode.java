@@ -0,0 +1,317 @@
+package io.github.tomorrow615.compiler.frontend.ast.arena;
+
+import io.github.tomorrow615.compiler.frontend.lexer.Token;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenType;
+
+/**
+ * AstArena 中节点的类型化视图。视图只保存节点下标，子节点以下标返回 (缺省为 AstArena.NONE)，
+ * 需要时再由 AstArena.view() 取得子节点的视图。没有专门视图的节点按 child(i) 访问子节点。
+ */
+public class ArenaNode {
+    protected final AstArena arena;
+    protected final int node;
+
+    ArenaNode(AstArena arena, int node) {
+        this.arena = arena;
+        this.node = node;
+    }
+
+    public int index() {
+        return node;
+    }
+
+    public NodeKind kind() {
+        return arena.kind(node);
+    }
+
+    public int line() {
+        return arena.line(node);
+    }
+
+    public int childCount() {
+        return arena.childCount(node);
+    }
+
+    public int child(int i) {
+        return arena.child(node, i);
+    }
+
+    // ConstDecl / VarDecl
+    public static class Decl extends ArenaNode {
+        Decl(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public boolean isConst() {
+            return kind() == NodeKind.CONST_DECL;
+        }
+
+        public boolean isStatic() {
+            return kind() == NodeKind.VAR_DECL && arena.value(node) != 0;
+        }
+
+        public Token bType() {
+            return arena.token(child(0));
+        }
+
+        public int defCount() {
+            return childCount() - 1;
+        }
+
+        public int def(int i) {
+            return child(i + 1);
+        }
+    }
+
+    // ConstDef / VarDef
+    public static class Def extends ArenaNode {
+        Def(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public Token ident() {
+            return arena.token(child(0));
+        }
+
+        public int nameId() {
+            return arena.value(child(0));
+        }
+
+        public boolean hasInit() {
+            return kind() == NodeKind.CONST_DEF || arena.value(node) != 0;
+        }
+
+        public int dimensionCount() {
+            return childCount() - (hasInit() ? 2 : 1);
+        }
+
+        public int dimension(int i) {
+            return child(i + 1);
+        }
+
+        public int init() {
+            return hasInit() ? child(childCount() - 1) : AstArena.NONE;
+        }
+    }
+
+    // ConstInitVal / InitVal
+    public static class InitVal extends ArenaNode {
+        InitVal(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public boolean isArray() {
+            return arena.value(node) != 0;
+        }
+
+        public int size() {
+            return childCount();
+        }
+
+        public int element(int i) {
+            return child(i);
+        }
+    }
+
+    public static class FuncDef extends ArenaNode {
+        FuncDef(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public Token funcType() {
+            return arena.token(child(0));
+        }
+
+        public Token ident() {
+            return arena.token(child(1));
+        }
+
+        public int paramCount() {
+            return childCount() - 3;
+        }
+
+        public int param(int i) {
+            return child(i + 2);
+        }
+
+        public int block() {
+            return child(childCount() - 1);
+        }
+    }
+
+    public static class FuncFParam extends ArenaNode {
+        FuncFParam(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public boolean isArray() {
+            return arena.value(node) != 0;
+        }
+
+        public Token bType() {
+            return arena.token(child(0));
+        }
+
+        public Token ident() {
+            return arena.token(child(1));
+        }
+    }
+
+    public static class Block extends ArenaNode {
+        Block(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public int endLine() {
+            return arena.value(node);
+        }
+
+        public int itemCount() {
+            return childCount();
+        }
+
+        public int item(int i) {
+            return child(i);
+        }
+    }
+
+    public static class If extends ArenaNode {
+        If(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public int cond() {
+            return child(0);
+        }
+
+        public int thenStmt() {
+            return child(1);
+        }
+
+        public int elseStmt() {
+            return childCount() > 2 ? child(2) : AstArena.NONE;
+        }
+    }
+
+    public static class For extends ArenaNode {
+        For(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public int init() {
+            return child(0);
+        }
+
+        public int cond() {
+            return child(1);
+        }
+
+        public int update() {
+            return child(2);
+        }
+
+        public int body() {
+            return child(3);
+        }
+    }
+
+    public static class Printf extends ArenaNode {
+        Printf(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public Token format() {
+            return arena.token(child(0));
+        }
+
+        public int argCount() {
+            return childCount() - 1;
+        }
+
+        public int arg(int i) {
+            return child(i + 1);
+        }
+    }
+
+    // LOr / LAnd / Eq / Rel / Add / Mul
+    public static class Binary extends ArenaNode {
+        Binary(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public int operandCount() {
+            return (childCount() + 1) / 2;
+        }
+
+        public int operand(int i) {
+            return child(i * 2);
+        }
+
+        // 第 i 个运算符位于第 i 与第 i + 1 个操作数之间
+        public TokenType operator(int i) {
+            return arena.tokenType(child(i * 2 + 1));
+        }
+
+        public int operatorNode(int i) {
+            return child(i * 2 + 1);
+        }
+    }
+
+    public static class Unary extends ArenaNode {
+        Unary(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public TokenType operator() {
+            return arena.tokenType(child(0));
+        }
+
+        public int operand() {
+            return child(1);
+        }
+    }
+
+    public static class Call extends ArenaNode {
+        Call(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public Token ident() {
+            return arena.token(child(0));
+        }
+
+        public int nameId() {
+            return arena.value(child(0));
+        }
+
+        public int argCount() {
+            return childCount() - 1;
+        }
+
+        public int arg(int i) {
+            return child(i + 1);
+        }
+    }
+
+    public static class LVal extends ArenaNode {
+        LVal(AstArena arena, int node) {
+            super(arena, node);
+        }
+
+        public Token ident() {
+            return arena.token(child(0));
+        }
+
+        public int nameId() {
+            return arena.value(child(0));
+        }
+
+        public int indexCount() {
+            return childCount() - 1;
+        }
+
+        public int index(int i) {
+            return child(i + 1);
+        }
+    }
+}
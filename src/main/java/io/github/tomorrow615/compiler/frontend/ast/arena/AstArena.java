@@ -0,0 +1,260 @@
+package io.github.tomorrow615.compiler.frontend.ast.arena;
+
+import io.github.tomorrow615.compiler.frontend.lexer.NameTable;
+import io.github.tomorrow615.compiler.frontend.lexer.Token;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 扁平的 AST：所有节点保存在几个并行的基本类型数组中，节点以下标表示，
+ * 每个节点的子节点是 children 池中连续的一段。单词 (标识符、数值、运算符) 也是叶子节点，
+ * 只有字符串常量等少数单词保存 Token 对象。
+ * 构造时子节点先压入暂存栈，父节点完成时把暂存栈顶部的一段复制到 children 池中。
+ */
+public class AstArena {
+    public static final int NONE = -1;
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final NameTable names;
+
+    private byte[] kinds;
+    private int[] lines;
+    private int[] values;
+    private int[] childStarts;
+    private int[] childCounts;
+    private int size = 0;
+
+    private int[] children;
+    private int childSize = 0;
+
+    private int[] pending = new int[64];  // 尚未完成的节点的子节点
+    private int pendingSize = 0;
+
+    private final List<Token> savedTokens = new ArrayList<>();
+    private int root = NONE;
+
+    public AstArena(NameTable names, int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 64);
+        this.names = names;
+        this.kinds = new byte[capacity];
+        this.lines = new int[capacity];
+        this.values = new int[capacity];
+        this.childStarts = new int[capacity];
+        this.childCounts = new int[capacity];
+        this.children = new int[capacity];
+    }
+
+    // --- 构造 ---
+
+    // 暂存栈的当前位置，之后压入的节点将成为下一个 node() 的子节点
+    public int mark() {
+        return pendingSize;
+    }
+
+    public void push(int node) {
+        if (pendingSize == pending.length) {
+            pending = Arrays.copyOf(pending, pendingSize * 2);
+        }
+        pending[pendingSize++] = node;
+    }
+
+    public int leaf(NodeKind kind, int line, int value) {
+        return add(kind, line, value, 0, 0);
+    }
+
+    public int saveToken(Token token) {
+        savedTokens.add(token);
+        return leaf(NodeKind.TOKEN_OBJECT, token.getLineNumber(), savedTokens.size() - 1);
+    }
+
+    // 以 mark 之后压入的节点为子节点创建节点，并把它们从暂存栈中弹出
+    public int node(NodeKind kind, int line, int value, int mark) {
+        int count = pendingSize - mark;
+        if (childSize + count > children.length) {
+            children = Arrays.copyOf(children, Math.max(children.length * 2, childSize + count));
+        }
+        System.arraycopy(pending, mark, children, childSize, count);
+        int node = add(kind, line, value, childSize, count);
+        childSize += count;
+        pendingSize = mark;
+        return node;
+    }
+
+    // 左结合表达式：只有一个操作数时不生成节点，直接返回该操作数
+    public int collapse(NodeKind kind, int mark) {
+        if (pendingSize - mark == 1) {
+            return pending[--pendingSize];
+        }
+        return node(kind, lines[pending[mark]], 0, mark);
+    }
+
+    public void setRoot(int root) {
+        this.root = root;
+    }
+
+    private int add(NodeKind kind, int line, int value, int childStart, int childCount) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            values = Arrays.copyOf(values, capacity);
+            childStarts = Arrays.copyOf(childStarts, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+        }
+        kinds[size] = (byte) kind.ordinal();
+        lines[size] = line;
+        values[size] = value;
+        childStarts[size] = childStart;
+        childCounts[size] = childCount;
+        return size++;
+    }
+
+    // --- 读取 ---
+
+    public int root() {
+        return root;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NodeKind kind(int node) {
+        return KINDS[kinds[node]];
+    }
+
+    public int line(int node) {
+        return lines[node];
+    }
+
+    public int value(int node) {
+        return values[node];
+    }
+
+    public int childCount(int node) {
+        return childCounts[node];
+    }
+
+    public int child(int node, int i) {
+        return children[childStarts[node] + i];
+    }
+
+    public NameTable names() {
+        return names;
+    }
+
+    public TokenType tokenType(int leaf) {
+        switch (kind(leaf)) {
+            case IDENT: return TokenType.IDENFR;
+            case NUMBER: return TokenType.INTCON;
+            case TOKEN_OBJECT: return savedTokens.get(values[leaf]).getType();
+            default: return TOKEN_TYPES[values[leaf]];
+        }
+    }
+
+    // 把叶子节点还原为 Token 对象
+    public Token token(int leaf) {
+        int value = values[leaf];
+        switch (kind(leaf)) {
+            case IDENT:
+                return new Token(TokenType.IDENFR, names.name(value), null, lines[leaf], value);
+            case NUMBER:
+                return new Token(TokenType.INTCON, Integer.toString(value), value, lines[leaf]);
+            case TOKEN_OBJECT:
+                return savedTokens.get(value);
+            default:
+                TokenType type = TOKEN_TYPES[value];
+                return new Token(type, spelling(type), null, lines[leaf]);
+        }
+    }
+
+    public ArenaNode view(int node) {
+        if (node == NONE) {
+            return null;
+        }
+        switch (kind(node)) {
+            case CONST_DECL:
+            case VAR_DECL:
+                return new ArenaNode.Decl(this, node);
+            case CONST_DEF:
+            case VAR_DEF:
+                return new ArenaNode.Def(this, node);
+            case CONST_INIT_VAL:
+            case INIT_VAL:
+                return new ArenaNode.InitVal(this, node);
+            case FUNC_DEF:
+                return new ArenaNode.FuncDef(this, node);
+            case FUNC_FPARAM:
+                return new ArenaNode.FuncFParam(this, node);
+            case BLOCK:
+                return new ArenaNode.Block(this, node);
+            case IF:
+                return new ArenaNode.If(this, node);
+            case FOR:
+                return new ArenaNode.For(this, node);
+            case PRINTF:
+                return new ArenaNode.Printf(this, node);
+            case LOR:
+            case LAND:
+            case EQ:
+            case REL:
+            case ADD:
+            case MUL:
+                return new ArenaNode.Binary(this, node);
+            case UNARY:
+                return new ArenaNode.Unary(this, node);
+            case CALL:
+                return new ArenaNode.Call(this, node);
+            case LVAL:
+                return new ArenaNode.LVal(this, node);
+            default:
+                return new ArenaNode(this, node);
+        }
+    }
+
+    // 单词的常规写法
+    public static String spelling(TokenType type) {
+        switch (type) {
+            case MAINTK: return "main";
+            case CONSTTK: return "const";
+            case INTTK: return "int";
+            case BREAKTK: return "break";
+            case CONTINUETK: return "continue";
+            case IFTK: return "if";
+            case ELSETK: return "else";
+            case FORTK: return "for";
+            case PRINTFTK: return "printf";
+            case RETURNTK: return "return";
+            case VOIDTK: return "void";
+            case STATICTK: return "static";
+            case LPARENT: return "(";
+            case RPARENT: return ")";
+            case LBRACK: return "[";
+            case RBRACK: return "]";
+            case LBRACE: return "{";
+            case RBRACE: return "}";
+            case COMMA: return ",";
+            case SEMICN: return ";";
+            case PLUS: return "+";
+            case MINU: return "-";
+            case MULT: return "*";
+            case DIV: return "/";
+            case MOD: return "%";
+            case LSS: return "<";
+            case LEQ: return "<=";
+            case GRE: return ">";
+            case GEQ: return ">=";
+            case EQL: return "==";
+            case NEQ: return "!=";
+            case ASSIGN: return "=";
+            case AND: return "&&";
+            case OR: return "||";
+            case NOT: return "!";
+            default: return "EOF";
+        }
+    }
+}
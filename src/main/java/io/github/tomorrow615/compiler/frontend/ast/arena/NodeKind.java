@@ -0,0 +1,44 @@
+package io.github.tomorrow615.compiler.frontend.ast.arena;
+
+/**
+ * 扁平 AST 的节点类型，注释中为各类节点的取值 (value) 与子节点排列。
+ * 缺省的子节点记为 AstArena.NONE。只有一个操作数的表达式层次不生成节点，
+ * 例如表达式 a 直接就是一个 LVAL 节点，由所在位置决定它是 Exp、ConstExp 还是 Cond。
+ * NUMBER 与 TOKEN 叶子的文本由值或单词类型还原，因此只用于文本为常规写法的单词。
+ */
+public enum NodeKind {
+    COMP_UNIT,      // [Decl...] [FuncDef...] MainFuncDef
+    CONST_DECL,     // BType ConstDef...
+    VAR_DECL,       // value: 是否 static；BType VarDef...
+    CONST_DEF,      // Ident ConstExp... ConstInitVal
+    VAR_DEF,        // value: 是否有初值；Ident ConstExp... [InitVal]
+    CONST_INIT_VAL, // value: 是否为 '{' '}' 形式；ConstExp...
+    INIT_VAL,       // value: 是否为 '{' '}' 形式；Exp...
+    FUNC_DEF,       // FuncType Ident FuncFParam... Block
+    FUNC_FPARAM,    // value: 是否为数组；BType Ident
+    MAIN_FUNC_DEF,  // Block
+    BLOCK,          // value: '}' 所在行；BlockItem...
+    ASSIGN,         // LVal Exp
+    EXP_STMT,       // Exp 或 NONE
+    IF,             // Cond Stmt [Stmt]
+    FOR,            // ForStmt 或 NONE, Cond 或 NONE, ForStmt 或 NONE, Stmt
+    FOR_SUB,        // LVal Exp { LVal Exp }
+    BREAK,
+    CONTINUE,
+    RETURN,         // Exp 或 NONE
+    PRINTF,         // StringConst Exp...
+    LOR,            // 以下六种为至少两个操作数的左结合表达式：操作数 运算符 操作数 { 运算符 操作数 }
+    LAND,
+    EQ,
+    REL,
+    ADD,
+    MUL,
+    UNARY,          // UnaryOp UnaryExp
+    CALL,           // Ident Exp...
+    PAREN,          // Exp
+    LVAL,           // Ident Exp...
+    NUMBER,         // 叶子，value: 整数值
+    IDENT,          // 叶子，value: 名字 ID
+    TOKEN,          // 叶子，value: 单词类型的序号 (类型名与运算符)
+    TOKEN_OBJECT    // 叶子，value: 保存的 Token 对象的下标 (字符串常量，以及 007、单个 & 等文本与常规写法不同的单词)
+}
@@ -1,5 +1,6 @@
 package io.github.tomorrow615.compiler.frontend.ast.decl;
 
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import java.util.List;
 
 public class ConstDeclNode extends DeclNode {
@@ -19,4 +20,9 @@ public class ConstDeclNode extends DeclNode {
     public List<ConstDefNode> getConstDefs() {
         return constDefs;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitConstDecl(this);
+    }
+}
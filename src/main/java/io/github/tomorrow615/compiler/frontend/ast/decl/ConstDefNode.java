@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.decl;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.ConstExpNode;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 import java.util.List;
@@ -28,4 +29,9 @@ public class ConstDefNode extends ASTNode {
     public ConstInitValNode getConstInitVal() {
         return constInitVal;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitConstDef(this);
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.decl;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.ConstExpNode;
 import java.util.List;
 
@@ -42,4 +43,9 @@ public class ConstInitValNode extends ASTNode {
     public List<ConstExpNode> getArrayInit() {
         return arrayInit;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitConstInitVal(this);
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.decl;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.ExpNode;
 import java.util.List;
 
@@ -42,4 +43,9 @@ public class InitValNode extends ASTNode {
     public List<ExpNode> getArrayInit() {
         return arrayInit;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitInitVal(this);
+    }
 }
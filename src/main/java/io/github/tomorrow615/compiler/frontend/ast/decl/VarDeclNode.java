@@ -1,5 +1,6 @@
 package io.github.tomorrow615.compiler.frontend.ast.decl;
 
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import java.util.List;
 
 public class VarDeclNode extends DeclNode {
@@ -25,4 +26,9 @@ public class VarDeclNode extends DeclNode {
     public List<VarDefNode> getVarDefs() {
         return varDefs;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitVarDecl(this);
+    }
 }
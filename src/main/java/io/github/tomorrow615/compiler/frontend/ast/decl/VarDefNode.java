@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.decl;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.ConstExpNode;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 import java.util.List;
@@ -51,4 +52,9 @@ public class VarDefNode extends ASTNode {
     public int getDimension() {
         return constExps.size();
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitVarDef(this);
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.tomorrow615.compiler.frontend.ast.expr;
+
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
+import io.github.tomorrow615.compiler.frontend.lexer.Token;
+import java.util.List;
+
+// 压缩表达式树中的二元运算链，operands 比 operators 多一个，且至少有一个运算符
+public class BinaryExpNode extends ExprNode {
+    public enum Level {
+        LOR, LAND, EQ, REL, ADD, MUL
+    }
+    private final Level level;
+    private final List<ExprNode> operands;
+    private final List<Token> operators;
+
+    public BinaryExpNode(Level level, List<ExprNode> operands, List<Token> operators) {
+        super(operands.get(0).getLineNumber());
+        this.level = level;
+        this.operands = operands;
+        this.operators = operators;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public List<ExprNode> getOperands() {
+        return operands;
+    }
+
+    public List<Token> getOperators() {
+        return operators;
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitBinaryExp(this);
+    }
+}
@@ -1,16 +1,34 @@
 package io.github.tomorrow615.compiler.frontend.ast.expr;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 
 public class CondNode extends ASTNode {
     private final LOrExpNode lorExp;
+    private final ExprNode expr; // 压缩表达式树 (AstMode.COMPACT) 的根，此时 lorExp 为 null
 
     public CondNode(LOrExpNode lorExp) {
         super(lorExp.getLineNumber());
         this.lorExp = lorExp;
+        this.expr = null;
+    }
+
+    public CondNode(ExprNode expr) {
+        super(expr.getLineNumber());
+        this.lorExp = null;
+        this.expr = expr;
     }
 
     public LOrExpNode getLorExp() {
         return lorExp;
     }
-}
\ No newline at end of file
+
+    public ExprNode getExpr() {
+        return expr;
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitCond(this);
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.expr;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 import java.util.List;
 
@@ -21,4 +22,9 @@ public class EqExpNode extends ASTNode {
     public List<Token> getOperators() {
         return operators;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitEqExp(this);
+    }
+}
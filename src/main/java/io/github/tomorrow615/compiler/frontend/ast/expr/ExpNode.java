@@ -1,16 +1,34 @@
 package io.github.tomorrow615.compiler.frontend.ast.expr;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 
 public class ExpNode extends ASTNode {
     private final AddExpNode addExp;
+    private final ExprNode expr; // 压缩表达式树 (AstMode.COMPACT) 的根，此时 addExp 为 null
 
     public ExpNode(AddExpNode addExp) {
         super(addExp.getLineNumber());
         this.addExp = addExp;
+        this.expr = null;
+    }
+
+    public ExpNode(ExprNode expr) {
+        super(expr.getLineNumber());
+        this.addExp = null;
+        this.expr = expr;
     }
 
     public AddExpNode getAddExp() {
         return addExp;
     }
+
+    public ExprNode getExpr() {
+        return expr;
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitExp(this);
+    }
 }
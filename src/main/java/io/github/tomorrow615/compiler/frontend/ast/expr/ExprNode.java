@@ -0,0 +1,14 @@
+package io.github.tomorrow615.compiler.frontend.ast.expr;
+
+import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+
+/**
+ * 压缩表达式树 (AstMode.COMPACT) 中的表达式节点。
+ * 只在出现运算符的层级建立 BinaryExpNode / UnaryOpExpNode，括号直接返回内部表达式，
+ * 其余为函数调用 (UnaryExpNode)、LValNode 与 NumberNode。
+ */
+public abstract class ExprNode extends ASTNode {
+    protected ExprNode(int lineNumber) {
+        super(lineNumber);
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.expr;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import java.util.List;
 
 public class FuncRParamsNode extends ASTNode {
@@ -14,4 +15,9 @@ public class FuncRParamsNode extends ASTNode {
     public List<ExpNode> getParams() {
         return params;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitFuncRParams(this);
+    }
 }
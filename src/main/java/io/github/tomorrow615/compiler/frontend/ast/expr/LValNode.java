@@ -1,11 +1,11 @@
 package io.github.tomorrow615.compiler.frontend.ast.expr;
 
-import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 import java.util.List;
 import java.util.Collections;
 
-public class LValNode extends ASTNode {
+public class LValNode extends ExprNode {
 
     public enum Type {
         SCALAR,         // 普通变量
@@ -41,4 +41,9 @@ public class LValNode extends ASTNode {
     public List<ExpNode> getArrayExps() {
         return arrayExps;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitLVal(this);
+    }
+}
@@ -1,9 +1,9 @@
 package io.github.tomorrow615.compiler.frontend.ast.expr;
 
-import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 
-public class NumberNode extends ASTNode {
+public class NumberNode extends ExprNode {
     private final Token intConst;
 
     public NumberNode(Token intConst) {
@@ -14,4 +14,9 @@ public class NumberNode extends ASTNode {
     public Token getIntConst() {
         return intConst;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitNumber(this);
+    }
 }
@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.expr;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 
 public class PrimaryExpNode extends ASTNode {
     public enum Type {
@@ -52,4 +53,9 @@ public class PrimaryExpNode extends ASTNode {
     public NumberNode getNumber() {
         return number;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitPrimaryExp(this);
+    }
 }
@@ -1,9 +1,10 @@
 package io.github.tomorrow615.compiler.frontend.ast.expr;
 
-import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 
-public class UnaryExpNode extends ASTNode {
+// 压缩表达式树中只以 FUNC_CALL 形式出现
+public class UnaryExpNode extends ExprNode {
     public enum Type {
         PRIMARY, FUNC_CALL, UNARY_OP
     }
@@ -67,4 +68,9 @@ public class UnaryExpNode extends ASTNode {
     public UnaryExpNode getUnaryExp() {
         return unaryExp;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitUnaryExp(this);
+    }
 }
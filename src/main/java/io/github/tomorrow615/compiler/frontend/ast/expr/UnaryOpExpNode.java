@@ -0,0 +1,28 @@
+package io.github.tomorrow615.compiler.frontend.ast.expr;
+
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
+
+// 压缩表达式树中的单目运算 UnaryOp UnaryExp
+public class UnaryOpExpNode extends ExprNode {
+    private final UnaryOpNode unaryOp;
+    private final ExprNode operand;
+
+    public UnaryOpExpNode(UnaryOpNode unaryOp, ExprNode operand) {
+        super(unaryOp.getLineNumber());
+        this.unaryOp = unaryOp;
+        this.operand = operand;
+    }
+
+    public UnaryOpNode getUnaryOp() {
+        return unaryOp;
+    }
+
+    public ExprNode getOperand() {
+        return operand;
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitUnaryOpExp(this);
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.expr;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 
 public class UnaryOpNode extends ASTNode {
@@ -14,4 +15,9 @@ public class UnaryOpNode extends ASTNode {
     public Token getOp() {
         return op;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitUnaryOp(this);
+    }
 }
@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.func;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.stmt.BlockNode;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 import java.util.List;
@@ -33,4 +34,9 @@ public class FuncDefNode extends ASTNode {
     public BlockNode getBlock() {
         return block;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitFuncDef(this);
+    }
 }
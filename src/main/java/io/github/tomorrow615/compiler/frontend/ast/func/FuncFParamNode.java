@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.func;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.decl.BTypeNode;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 
@@ -40,4 +41,9 @@ public class FuncFParamNode extends ASTNode {
     public Token getIdent() {
         return ident;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitFuncFParam(this);
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.func;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 
 public class FuncTypeNode extends ASTNode {
@@ -14,4 +15,9 @@ public class FuncTypeNode extends ASTNode {
     public Token getTypeToken() {
         return typeToken;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitFuncType(this);
+    }
+}
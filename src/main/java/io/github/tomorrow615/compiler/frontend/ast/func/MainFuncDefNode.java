@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.func;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.stmt.BlockNode;
 
 public class MainFuncDefNode extends ASTNode {
@@ -14,4 +15,9 @@ public class MainFuncDefNode extends ASTNode {
     public BlockNode getBlock() {
         return block;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitMainFuncDef(this);
+    }
 }
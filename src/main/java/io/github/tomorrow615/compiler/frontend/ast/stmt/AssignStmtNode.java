@@ -1,5 +1,6 @@
 package io.github.tomorrow615.compiler.frontend.ast.stmt;
 
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.ExpNode;
 import io.github.tomorrow615.compiler.frontend.ast.expr.LValNode;
 
@@ -20,4 +21,9 @@ public class AssignStmtNode extends StmtNode {
     public ExpNode getExp() {
         return exp;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitAssignStmt(this);
+    }
 }
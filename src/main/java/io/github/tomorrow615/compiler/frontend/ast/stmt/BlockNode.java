@@ -1,5 +1,6 @@
 package io.github.tomorrow615.compiler.frontend.ast.stmt;
 
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.BlockItemNode;
 import java.util.List;
 
@@ -20,4 +21,9 @@ public class BlockNode extends StmtNode {
     public int getEndLineNumber() {
         return endLineNumber;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitBlock(this);
+    }
+}
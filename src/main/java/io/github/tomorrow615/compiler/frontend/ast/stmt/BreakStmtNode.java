@@ -1,8 +1,15 @@
 package io.github.tomorrow615.compiler.frontend.ast.stmt;
 
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
+
 public class BreakStmtNode extends StmtNode {
 
     public BreakStmtNode(int lineNumber) {
         super(lineNumber);
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitBreakStmt(this);
+    }
 }
@@ -1,5 +1,6 @@
 package io.github.tomorrow615.compiler.frontend.ast.stmt;
 
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.CondNode;
 
 public class ForStmtNode extends StmtNode {
@@ -31,4 +32,9 @@ public class ForStmtNode extends StmtNode {
     public StmtNode getBodyStmt() {
         return bodyStmt;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitForStmt(this);
+    }
 }
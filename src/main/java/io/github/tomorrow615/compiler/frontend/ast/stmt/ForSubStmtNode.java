@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.ast.stmt;
 
 import io.github.tomorrow615.compiler.frontend.ast.ASTNode;
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.ExpNode;
 import io.github.tomorrow615.compiler.frontend.ast.expr.LValNode;
 import java.util.List;
@@ -22,4 +23,9 @@ public class ForSubStmtNode extends ASTNode {
     public List<ExpNode> getExps() {
         return exps;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitForSubStmt(this);
+    }
 }
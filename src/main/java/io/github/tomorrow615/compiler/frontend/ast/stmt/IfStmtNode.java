@@ -1,5 +1,6 @@
 package io.github.tomorrow615.compiler.frontend.ast.stmt;
 
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.CondNode;
 
 public class IfStmtNode extends StmtNode {
@@ -44,4 +45,9 @@ public class IfStmtNode extends StmtNode {
     public StmtNode getElseStmt() {
         return elseStmt;
     }
-}
\ No newline at end of file
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitIfStmt(this);
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.tomorrow615.compiler.frontend.ast.stmt;
 
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.ExpNode;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 import java.util.List;
@@ -21,4 +22,9 @@ public class PrintfStmtNode extends StmtNode {
     public List<ExpNode> getExps() {
         return exps;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitPrintfStmt(this);
+    }
 }
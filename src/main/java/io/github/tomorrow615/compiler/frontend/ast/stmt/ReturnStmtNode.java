@@ -1,5 +1,6 @@
 package io.github.tomorrow615.compiler.frontend.ast.stmt;
 
+import io.github.tomorrow615.compiler.frontend.ast.ASTVisitor;
 import io.github.tomorrow615.compiler.frontend.ast.expr.ExpNode;
 
 public class ReturnStmtNode extends StmtNode {
@@ -13,4 +14,9 @@ public class ReturnStmtNode extends StmtNode {
     public ExpNode getExp() {
         return exp;
     }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitReturnStmt(this);
+    }
 }
@@ -0,0 +1,76 @@
+package io.github.tomorrow615.compiler.frontend.error;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 一次编译中报告的错误。每行至多一个错误：用位图记录已报错的行，错误码按行号存放在数组中，
+ * 因此按位图顺序遍历即得到按行号排好序的错误，无需排序。
+ * 修改错误的方法是同步的，CONCURRENT 流水线中的词法分析线程可以与语法分析线程同时报告错误；
+ * 没有错误时 hasErrors() / size() 只读一个 volatile 字段，不加锁。
+ */
+public class Diagnostics {
+    // 越过文件末尾时报告的行号为 -1，下标 = 行号 + LINE_OFFSET
+    private static final int LINE_OFFSET = 1;
+
+    private final BitSet linesWithErrors = new BitSet();
+    private final BitSet linesWithLexicalErrors = new BitSet();
+    private char[] codes = new char[256];
+    private volatile int count = 0; // 只在持有锁时修改
+
+    public synchronized void report(int lineNumber, char errorCode) {
+        int index = index(lineNumber);
+        // 该行已经报过错时不再添加新的错误
+        if (linesWithErrors.get(index)) {
+            return;
+        }
+        linesWithErrors.set(index);
+        codes[index] = errorCode;
+        count++;
+    }
+
+    // 词法错误。整个文件先做完词法分析时，词法错误总是最先报告；
+    // 流式分析中它与语法错误交错产生，因此同一行的词法错误覆盖先记录的其他错误，保持输出一致
+    public synchronized void reportLexical(int lineNumber, char errorCode) {
+        int index = index(lineNumber);
+        if (linesWithLexicalErrors.get(index)) {
+            return;
+        }
+        linesWithLexicalErrors.set(index);
+        if (!linesWithErrors.get(index)) {
+            linesWithErrors.set(index);
+            count++;
+        }
+        codes[index] = errorCode;
+    }
+
+    public boolean hasErrors() {
+        return count > 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // 按行号升序返回所有错误
+    public synchronized List<Error> getErrors() {
+        List<Error> errors = new ArrayList<>(count);
+        for (int i = linesWithErrors.nextSetBit(0); i >= 0; i = linesWithErrors.nextSetBit(i + 1)) {
+            errors.add(new Error(i - LINE_OFFSET, codes[i]));
+        }
+        return errors;
+    }
+
+    private int index(int lineNumber) {
+        int index = lineNumber + LINE_OFFSET;
+        if (index < 0) {
+            throw new IllegalArgumentException("非法的行号: " + lineNumber);
+        }
+        if (index >= codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(codes.length * 2, index + 1));
+        }
+        return index;
+    }
+}
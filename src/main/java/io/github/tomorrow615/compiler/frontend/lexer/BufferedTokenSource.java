@@ -0,0 +1,145 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+/**
+ * 以环形缓冲区保存向前看窗口的单词来源，单词由子类通过 fetch() 按需读入。
+ * 缓冲区初始容量取语法分析器的最大向前看距离，超出时自动扩容。
+ */
+public abstract class BufferedTokenSource implements TokenSource {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final SourceText source;
+    private final NameTable names;
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int[] values;
+    private int mask;
+    private int head = 0;   // 当前单词所在的槽位
+    private int count = 0;  // 已缓冲的单词数
+    private boolean finished = false;
+
+    protected BufferedTokenSource(SourceText source, NameTable names, int lookahead) {
+        int capacity = Integer.highestOneBit(Math.max(lookahead, 1) * 2 - 1);
+        this.source = source;
+        this.names = names;
+        this.types = new byte[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.lines = new int[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // 读入下一个单词并调用 push()
+    protected abstract void fetch();
+
+    protected final void push(TokenType type, int start, int length, int line, int value) {
+        if (count == types.length) {
+            grow();
+        }
+        int slot = (head + count) & mask;
+        types[slot] = (byte) type.ordinal();
+        starts[slot] = start;
+        lengths[slot] = length;
+        lines[slot] = line;
+        values[slot] = value;
+        count++;
+        if (type == TokenType.EOF) {
+            finished = true;
+        }
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        byte[] newTypes = new byte[capacity];
+        int[] newStarts = new int[capacity];
+        int[] newLengths = new int[capacity];
+        int[] newLines = new int[capacity];
+        int[] newValues = new int[capacity];
+        for (int i = 0; i < count; i++) {
+            int slot = (head + i) & mask;
+            newTypes[i] = types[slot];
+            newStarts[i] = starts[slot];
+            newLengths[i] = lengths[slot];
+            newLines[i] = lines[slot];
+            newValues[i] = values[slot];
+        }
+        types = newTypes;
+        starts = newStarts;
+        lengths = newLengths;
+        lines = newLines;
+        values = newValues;
+        mask = capacity - 1;
+        head = 0;
+    }
+
+    private int slot(int k) {
+        return (head + k) & mask;
+    }
+
+    @Override
+    public boolean has(int k) {
+        while (count <= k) {
+            if (finished) {
+                return false;
+            }
+            fetch();
+        }
+        return true;
+    }
+
+    @Override
+    public TokenType type(int k) {
+        return has(k) ? TYPES[types[slot(k)]] : TokenType.EOF;
+    }
+
+    @Override
+    public int line(int k) {
+        return has(k) ? lines[slot(k)] : -1;
+    }
+
+    @Override
+    public int start(int k) {
+        return has(k) ? starts[slot(k)] : 0;
+    }
+
+    @Override
+    public int length(int k) {
+        return has(k) ? lengths[slot(k)] : 0;
+    }
+
+    @Override
+    public int value(int k) {
+        return has(k) ? values[slot(k)] : 0;
+    }
+
+    @Override
+    public Token token(int k) {
+        TokenType type = type(k);
+        int slot = slot(k);
+        return TokenStream.token(type, source, starts[slot], lengths[slot], lines[slot], values[slot], names);
+    }
+
+    @Override
+    public SourceText source() {
+        return source;
+    }
+
+    @Override
+    public void advance() {
+        if (has(0)) {
+            head = (head + 1) & mask;
+            count--;
+        }
+    }
+
+    @Override
+    public void drain() {
+        while (!finished) {
+            fetch();
+            head = (head + count) & mask;
+            count = 0;
+        }
+    }
+}
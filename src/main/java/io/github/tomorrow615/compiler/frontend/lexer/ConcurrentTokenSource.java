@@ -0,0 +1,110 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 词法分析在独立线程中运行的单词来源。
+ * 词法线程把单词成批写入固定数量的 Chunk，经有界队列交给语法分析线程，用完的 Chunk 回收复用。
+ * 语法分析提前结束时词法线程会阻塞在队列上，{@link #close()} 中断它。
+ */
+public class ConcurrentTokenSource extends BufferedTokenSource {
+    private static final int CHUNK_SIZE = 1024;
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final BlockingQueue<Chunk> ready = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 2);
+    private final Thread producer;
+    private Chunk current;
+    private int currentPos = 0;
+
+    public ConcurrentTokenSource(TableLexer lexer, int lookahead) {
+        super(lexer.getSource(), lexer.getNames(), lookahead);
+        for (int i = 0; i < QUEUE_CAPACITY + 2; i++) {
+            free.add(new Chunk());
+        }
+        producer = new Thread(() -> produce(lexer), "lexer");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private void produce(TableLexer lexer) {
+        try {
+            boolean done = false;
+            while (!done) {
+                Chunk chunk = free.take();
+                chunk.count = 0;
+                chunk.failure = null;
+                try {
+                    while (chunk.count < CHUNK_SIZE && !done) {
+                        TokenType type = lexer.next();
+                        chunk.add(type, lexer.getTokenStart(), lexer.getTokenLength(),
+                                lexer.getTokenLine(), lexer.getTokenValue());
+                        done = (type == TokenType.EOF);
+                    }
+                } catch (RuntimeException | Error e) {
+                    // 交给语法分析线程重新抛出，与单线程时的行为一致
+                    chunk.failure = e;
+                    done = true;
+                }
+                ready.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected void fetch() {
+        while (current == null || currentPos == current.count) {
+            if (current != null) {
+                if (current.failure != null) {
+                    rethrow(current.failure);
+                }
+                free.add(current);
+            }
+            try {
+                current = ready.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("词法分析线程被中断", e);
+            }
+            currentPos = 0;
+        }
+        int i = currentPos++;
+        push(Chunk.TYPES[current.types[i]], current.starts[i], current.lengths[i], current.lines[i], current.values[i]);
+    }
+
+    @Override
+    public void close() {
+        producer.interrupt();
+    }
+
+    private static void rethrow(Throwable failure) {
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        throw (RuntimeException) failure;
+    }
+
+    private static final class Chunk {
+        private static final TokenType[] TYPES = TokenType.values();
+
+        final byte[] types = new byte[CHUNK_SIZE];
+        final int[] starts = new int[CHUNK_SIZE];
+        final int[] lengths = new int[CHUNK_SIZE];
+        final int[] lines = new int[CHUNK_SIZE];
+        final int[] values = new int[CHUNK_SIZE];
+        int count;
+        Throwable failure;
+
+        void add(TokenType type, int start, int length, int line, int value) {
+            types[count] = (byte) type.ordinal();
+            starts[count] = start;
+            lengths[count] = length;
+            lines[count] = line;
+            values[count] = value;
+            count++;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.tomorrow615.compiler.frontend.lexer;
 
-import io.github.tomorrow615.compiler.frontend.error.ErrorReporter;
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
+import io.github.tomorrow615.compiler.frontend.error.Diagnostics;
 import io.github.tomorrow615.compiler.util.*;
 
 import java.io.IOException;
@@ -16,6 +17,8 @@ public class Lexer {
     private final StringBuilder tokenText = new StringBuilder();
     private int currentLine = 1;
     private final LexerRecorder recorder;
+    private final Diagnostics diagnostics;
+    private final NameTable names;
 
     private static final Map<String, TokenType> keywords = new HashMap<>();
 
@@ -34,9 +37,11 @@ public class Lexer {
         keywords.put("static", TokenType.STATICTK);
     }
 
-    public Lexer(String sourceCode, LexerRecorder recorder) {
+    public Lexer(String sourceCode, LexerRecorder recorder, CompilationContext context) {
         this.reader = new PushbackReader(new StringReader(sourceCode));
         this.recorder = recorder;
+        this.diagnostics = context.getDiagnostics();
+        this.names = context.getNames();
     }
 
     public List<Token> getAllTokens() {
@@ -121,6 +126,10 @@ public class Lexer {
 
         String text = tokenText.toString();
         TokenType type = keywords.getOrDefault(text, TokenType.IDENFR);
+        if (type == TokenType.IDENFR) {
+            int nameId = names.intern(text);
+            return new Token(type, names.name(nameId), null, currentLine, nameId);
+        }
         return new Token(type, text, null, currentLine);
     }
 
@@ -218,7 +227,7 @@ public class Lexer {
                     return new Token(TokenType.AND, tokenText.toString(), null, currentLine);
                 } else {
                     // 这是错误的单个 '&'
-                    ErrorReporter.addError(currentLine, 'a'); // 报告 a 类错误
+                    diagnostics.report(currentLine, 'a'); // 报告 a 类错误
                     return new Token(TokenType.AND, tokenText.toString(), null, currentLine);
                 }
             case '|':
@@ -229,7 +238,7 @@ public class Lexer {
                     return new Token(TokenType.OR, tokenText.toString(), null, currentLine);
                 } else {
                     // 这是错误的单个 '|'
-                    ErrorReporter.addError(currentLine, 'a'); // 报告 a 类错误
+                    diagnostics.report(currentLine, 'a'); // 报告 a 类错误
                     return new Token(TokenType.OR, tokenText.toString(), null, currentLine);
                 }
             default:
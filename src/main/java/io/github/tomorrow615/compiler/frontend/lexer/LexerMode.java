@@ -0,0 +1,6 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+public enum LexerMode {
+    LEGACY,  // 基于 PushbackReader 的原始实现 (Lexer)
+    TABLE    // 基于 char[] 下标与字符类别表的实现 (TableLexer)
+}
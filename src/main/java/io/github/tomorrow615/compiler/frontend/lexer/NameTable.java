@@ -0,0 +1,144 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 一次编译内的标识符驻留表：每个不同的名字在词法分析时分配一个从 0 开始的连续整数 ID，
+ * 名字字符串只保存一份。直接对源码缓冲区中的字符 (或映射源码中的 ASCII 字节) 计算散列，查找已有名字时不创建 String。
+ * 只允许一个线程调用 intern()；name() 可以在其他线程中调用 (CONCURRENT 流水线中的语法分析线程)。
+ */
+public class NameTable {
+    private volatile String[] names = new String[64];  // ID → 名字
+    private int[] hashes = new int[64];                 // ID → 名字的散列值
+    private int[] slots = new int[128];                 // 开放寻址表，保存 ID + 1，0 表示空槽
+    private int size = 0;
+
+    public int intern(char[] s, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + s[i];
+        }
+
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return add(new String(s, start, length), hash, slot);
+            }
+            if (hashes[id] == hash && matches(names[id], s, start, length)) {
+                return id;
+            }
+        }
+    }
+
+    public int intern(SourceText s, int start, int length) {
+        char[] chars = s.chars();
+        if (chars != null) {
+            return intern(chars, start, length);
+        }
+        // 映射的源码：ASCII 标识符的每个字节就是一个字符，散列值与 String.hashCode() 相同
+        ByteBuffer bytes = s.bytes();
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            byte b = bytes.get(i);
+            if (b < 0) {
+                return intern(s.text(start, length)); // 含非 ASCII 字母，解码后再查找
+            }
+            hash = 31 * hash + b;
+        }
+
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return add(s.text(start, length), hash, slot);
+            }
+            if (hashes[id] == hash && matches(names[id], bytes, start, length)) {
+                return id;
+            }
+        }
+    }
+
+    public int intern(String name) {
+        int hash = name.hashCode();
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return add(name, hash, slot);
+            }
+            if (hashes[id] == hash && names[id].equals(name)) {
+                return id;
+            }
+        }
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash, int slot) {
+        int id = size;
+        String[] current = names;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        current[id] = name;
+        hashes[id] = hash;
+        names = current; // volatile 写，发布新名字 (以及扩容后的数组)
+        slots[slot] = id + 1;
+        size++;
+
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String name, ByteBuffer s, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != s.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String name, char[] s, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != s[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,6 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+public enum SourceMode {
+    READ,   // 整个文件读入为 String 再转为 char[]
+    MAPPED  // 用 FileChannel.map 映射源文件，TableLexer 直接扫描映射的字节 (见 SourceText)
+}
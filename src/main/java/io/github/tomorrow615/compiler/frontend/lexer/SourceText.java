@@ -0,0 +1,152 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 词法分析器扫描的源码，单词的起始位置与长度都是相对它的下标。
+ * 有两种实现：
+ * of() 包装已读入内存的 char[]，下标为字符下标；
+ * map() 把源文件映射为只读的 ByteBuffer，下标为字节下标，文件内容不复制到堆中。
+ * 映射的源码按 UTF-8 处理：ASCII 字节直接当作一个字符；多字节字符的每个字节都返回解码后的同一个字符
+ * (无法用一个 char 表示或编码有误时为 U+FFFD)，所以它的各个字节不会被误认为引号、换行或注释结束符，
+ * 非 ASCII 字母组成的标识符也与读入 char[] 时一样被识别为一个单词。生成单词文本时才按 UTF-8 解码。
+ */
+public abstract class SourceText {
+    public static SourceText of(char[] chars) {
+        return new Chars(chars);
+    }
+
+    public static SourceText of(String sourceCode) {
+        return new Chars(sourceCode.toCharArray());
+    }
+
+    // 映射整个文件；映射在 ByteBuffer 被回收前一直有效，通道可以立即关闭
+    public static SourceText map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("源文件超过 2GB，无法映射: " + file);
+            }
+            return new Mapped(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public abstract int length();
+
+    public abstract char charAt(int index);
+
+    // 单词文本
+    public abstract String text(int start, int length);
+
+    // 二者恰有一个不为 null，输出时可以整块复制
+    public char[] chars() {
+        return null;
+    }
+
+    public ByteBuffer bytes() {
+        return null;
+    }
+
+    private static final class Chars extends SourceText {
+        private final char[] chars;
+
+        Chars(char[] chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int length() {
+            return chars.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[index];
+        }
+
+        @Override
+        public String text(int start, int length) {
+            return new String(chars, start, length);
+        }
+
+        @Override
+        public char[] chars() {
+            return chars;
+        }
+    }
+
+    private static final class Mapped extends SourceText {
+        private static final char NON_ASCII = '\uFFFD';
+
+        private final ByteBuffer bytes;
+
+        Mapped(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            byte b = bytes.get(index);
+            return b >= 0 ? (char) b : decode(index);
+        }
+
+        // 向前找到 index 所在字符的首字节再解码
+        private char decode(int index) {
+            int lead = index;
+            while (lead > 0 && index - lead < 3 && (bytes.get(lead) & 0xC0) == 0x80) {
+                lead--;
+            }
+            int b = bytes.get(lead) & 0xFF;
+            int length;
+            int c;
+            if (b >= 0xE0 && b < 0xF0) {
+                length = 3;
+                c = b & 0x0F;
+            } else if (b >= 0xC2 && b < 0xE0) {
+                length = 2;
+                c = b & 0x1F;
+            } else {
+                return NON_ASCII; // 四字节字符 (BMP 之外) 或不合法的首字节
+            }
+            if (index >= lead + length || lead + length > bytes.limit()) {
+                return NON_ASCII;
+            }
+            for (int i = lead + 1; i < lead + length; i++) {
+                int next = bytes.get(i) & 0xFF;
+                if ((next & 0xC0) != 0x80) {
+                    return NON_ASCII;
+                }
+                c = (c << 6) | (next & 0x3F);
+            }
+            return (char) c;
+        }
+
+        // 只用绝对下标读取，CONCURRENT 流水线中两个线程可以同时读
+        @Override
+        public String text(int start, int length) {
+            byte[] text = new byte[length];
+            bytes.get(start, text);
+            for (byte b : text) {
+                if (b < 0) {
+                    return new String(text, StandardCharsets.UTF_8); // 字符串常量中的非 ASCII 字符
+                }
+            }
+            return new String(text, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public ByteBuffer bytes() {
+            return bytes;
+        }
+    }
+}
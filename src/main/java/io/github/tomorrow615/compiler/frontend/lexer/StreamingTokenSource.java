@@ -0,0 +1,17 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+// 在语法分析线程中按需调用 TableLexer 的单词来源
+public class StreamingTokenSource extends BufferedTokenSource {
+    private final TableLexer lexer;
+
+    public StreamingTokenSource(TableLexer lexer, int lookahead) {
+        super(lexer.getSource(), lexer.getNames(), lookahead);
+        this.lexer = lexer;
+    }
+
+    @Override
+    protected void fetch() {
+        TokenType type = lexer.next();
+        push(type, lexer.getTokenStart(), lexer.getTokenLength(), lexer.getTokenLine(), lexer.getTokenValue());
+    }
+}
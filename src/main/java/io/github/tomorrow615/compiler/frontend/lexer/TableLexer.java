@@ -0,0 +1,312 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
+import io.github.tomorrow615.compiler.frontend.error.Diagnostics;
+import io.github.tomorrow615.compiler.util.*;
+
+/**
+ * 表驱动的词法分析器，输出与 {@link Lexer} 逐字节一致。
+ * 直接以下标扫描 SourceText (内存中的 char[] 或映射的源文件)，用 256 项字符类别表代替 Character.isXxx，
+ * 用按长度分派的 switch 代替关键字 HashMap，结果直接写入 TokenStream。
+ */
+public class TableLexer {
+    // 字符类别位
+    private static final byte WHITESPACE = 1;
+    private static final byte IDENT_START = 2;
+    private static final byte IDENT_PART = 4;
+    private static final byte DIGIT = 8;
+
+    private static final byte[] CHAR_CLASS = new byte[256];
+
+    static {
+        for (int c = 0; c < CHAR_CLASS.length; c++) {
+            CHAR_CLASS[c] = classify(c);
+        }
+    }
+
+    private final SourceText buf;
+    private final int end;
+    private int pos = 0;
+    private int currentLine = 1;
+    private final LexerRecorder recorder;
+    private final Diagnostics diagnostics;
+    private final NameTable names;
+
+    // 最近一次 scan() 得到的单词，全部为基本类型，不产生对象
+    private TokenType tokenType;
+    private int tokenStart;
+    private int tokenLength;
+    private int tokenLine;
+    private int tokenValue;
+
+    public TableLexer(SourceText source, LexerRecorder recorder, CompilationContext context) {
+        this.buf = source;
+        this.end = source.length();
+        this.recorder = recorder;
+        this.diagnostics = context.getDiagnostics();
+        this.names = context.getNames();
+    }
+
+    public TableLexer(char[] source, LexerRecorder recorder, CompilationContext context) {
+        this(SourceText.of(source), recorder, context);
+    }
+
+    public TableLexer(String sourceCode, LexerRecorder recorder, CompilationContext context) {
+        this(SourceText.of(sourceCode), recorder, context);
+    }
+
+    public TokenStream tokenize() {
+        TokenStream tokens = new TokenStream(buf, end / 4, names);
+        do {
+            next();
+            tokens.add(tokenType, tokenStart, tokenLength, tokenLine, tokenValue);
+        } while (tokenType != TokenType.EOF);
+        return tokens;
+    }
+
+    // 扫描并记录下一个单词，供流式的 TokenSource 逐个拉取
+    TokenType next() {
+        TokenType type = scan();
+        recorder.recordToken(type, buf, tokenStart, tokenLength);
+        return type;
+    }
+
+    // 扫描下一个单词，结果保存在 tokenXxx 字段中
+    private TokenType scan() {
+        while (true) {
+            while (pos < end && isWhitespace(buf.charAt(pos))) {
+                if (buf.charAt(pos) == '\n') {
+                    currentLine++;
+                }
+                pos++;
+            }
+
+            if (pos >= end) {
+                return emit(TokenType.EOF, pos, 0);
+            }
+
+            int start = pos;
+            char c = buf.charAt(pos);
+
+            if (c == '/') {
+                char next = pos + 1 < end ? buf.charAt(pos + 1) : 0;
+                if (next == '/') {
+                    pos += 2;
+                    while (pos < end && buf.charAt(pos) != '\n') {
+                        pos++;
+                    }
+                    continue;
+                } else if (next == '*') {
+                    pos += 2;
+                    skipBlockComment();
+                    continue;
+                }
+                pos++;
+                return emit(TokenType.DIV, start, 1);
+            } else if (is(c, IDENT_START)) {
+                pos++;
+                while (pos < end && is(buf.charAt(pos), IDENT_PART)) {
+                    pos++;
+                }
+                TokenType type = keyword(buf, start, pos - start);
+                if (type == TokenType.IDENFR) {
+                    // 标识符在词法分析时驻留，ID 保存在单词的值中
+                    return emit(type, start, pos - start, names.intern(buf, start, pos - start));
+                }
+                return emit(type, start, pos - start);
+            } else if (is(c, DIGIT)) {
+                pos++;
+                while (pos < end && is(buf.charAt(pos), DIGIT)) {
+                    pos++;
+                }
+                int value = parseInt(buf, start, pos - start);
+                return emit(TokenType.INTCON, start, pos - start, value);
+            } else if (c == '"') {
+                // 与 Lexer 一致：反斜杠不转义引号，字符串内的换行不计入行号
+                pos++;
+                while (pos < end && buf.charAt(pos++) != '"') {
+                    // 跳过字符串内容
+                }
+                return emit(TokenType.STRCON, start, pos - start);
+            }
+
+            TokenType symbol = scanSymbol(c);
+            if (symbol != null) {
+                return emit(symbol, start, pos - start);
+            }
+            // 无法识别的字符直接跳过
+        }
+    }
+
+    private void skipBlockComment() {
+        while (pos < end) {
+            char c = buf.charAt(pos++);
+            if (c == '\n') {
+                currentLine++;
+            } else if (c == '*' && pos < end && buf.charAt(pos) == '/') {
+                pos++;
+                return;
+            }
+        }
+    }
+
+    private TokenType scanSymbol(char c) {
+        pos++;
+        switch (c) {
+            case '+': return TokenType.PLUS;
+            case '-': return TokenType.MINU;
+            case '*': return TokenType.MULT;
+            case '%': return TokenType.MOD;
+            case '(': return TokenType.LPARENT;
+            case ')': return TokenType.RPARENT;
+            case '[': return TokenType.LBRACK;
+            case ']': return TokenType.RBRACK;
+            case '{': return TokenType.LBRACE;
+            case '}': return TokenType.RBRACE;
+            case ',': return TokenType.COMMA;
+            case ';': return TokenType.SEMICN;
+            case '!': return match('=') ? TokenType.NEQ : TokenType.NOT;
+            case '<': return match('=') ? TokenType.LEQ : TokenType.LSS;
+            case '>': return match('=') ? TokenType.GEQ : TokenType.GRE;
+            case '=': return match('=') ? TokenType.EQL : TokenType.ASSIGN;
+            case '&':
+                if (!match('&')) {
+                    diagnostics.reportLexical(currentLine, 'a'); // 单个 '&'，报告 a 类错误
+                }
+                return TokenType.AND;
+            case '|':
+                if (!match('|')) {
+                    diagnostics.reportLexical(currentLine, 'a'); // 单个 '|'，报告 a 类错误
+                }
+                return TokenType.OR;
+            default:
+                return null;
+        }
+    }
+
+    private boolean match(char expected) {
+        if (pos < end && buf.charAt(pos) == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private TokenType emit(TokenType type, int start, int length) {
+        return emit(type, start, length, 0);
+    }
+
+    private TokenType emit(TokenType type, int start, int length, int value) {
+        this.tokenType = type;
+        this.tokenStart = start;
+        this.tokenLength = length;
+        this.tokenLine = currentLine;
+        this.tokenValue = value;
+        return type;
+    }
+
+    SourceText getSource() {
+        return buf;
+    }
+
+    NameTable getNames() {
+        return names;
+    }
+
+    int getTokenStart() {
+        return tokenStart;
+    }
+
+    int getTokenLength() {
+        return tokenLength;
+    }
+
+    int getTokenLine() {
+        return tokenLine;
+    }
+
+    int getTokenValue() {
+        return tokenValue;
+    }
+
+    // 按长度与首字母分派的关键字识别
+    static TokenType keyword(SourceText s, int start, int length) {
+        switch (length) {
+            case 2:
+                if (matches(s, start, "if")) return TokenType.IFTK;
+                break;
+            case 3:
+                if (matches(s, start, "int")) return TokenType.INTTK;
+                if (matches(s, start, "for")) return TokenType.FORTK;
+                break;
+            case 4:
+                switch (s.charAt(start)) {
+                    case 'm': if (matches(s, start, "main")) return TokenType.MAINTK; break;
+                    case 'e': if (matches(s, start, "else")) return TokenType.ELSETK; break;
+                    case 'v': if (matches(s, start, "void")) return TokenType.VOIDTK; break;
+                    default: break;
+                }
+                break;
+            case 5:
+                if (matches(s, start, "const")) return TokenType.CONSTTK;
+                if (matches(s, start, "break")) return TokenType.BREAKTK;
+                break;
+            case 6:
+                switch (s.charAt(start)) {
+                    case 'p': if (matches(s, start, "printf")) return TokenType.PRINTFTK; break;
+                    case 'r': if (matches(s, start, "return")) return TokenType.RETURNTK; break;
+                    case 's': if (matches(s, start, "static")) return TokenType.STATICTK; break;
+                    default: break;
+                }
+                break;
+            case 8:
+                if (matches(s, start, "continue")) return TokenType.CONTINUETK;
+                break;
+            default:
+                break;
+        }
+        return TokenType.IDENFR;
+    }
+
+    private static boolean matches(SourceText s, int start, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (s.charAt(start + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 9 位以内的 ASCII 数字直接累加，其余情况交给 Integer.parseInt 以保持相同的行为 (包括溢出异常)
+    static int parseInt(SourceText s, int start, int length) {
+        if (length <= 9) {
+            int value = 0;
+            for (int i = start; i < start + length; i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') {
+                    return Integer.parseInt(s.text(start, length));
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+        return Integer.parseInt(s.text(start, length));
+    }
+
+    private static boolean isWhitespace(char c) {
+        return is(c, WHITESPACE);
+    }
+
+    private static boolean is(char c, byte flag) {
+        return ((c < CHAR_CLASS.length ? CHAR_CLASS[c] : classify(c)) & flag) != 0;
+    }
+
+    private static byte classify(int c) {
+        byte flags = 0;
+        if (Character.isWhitespace(c)) flags |= WHITESPACE;
+        if (Character.isLetter(c) || c == '_') flags |= IDENT_START;
+        if (Character.isLetterOrDigit(c) || c == '_') flags |= IDENT_PART;
+        if (Character.isDigit(c)) flags |= DIGIT;
+        return flags;
+    }
+}
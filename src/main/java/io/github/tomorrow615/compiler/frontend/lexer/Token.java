@@ -5,12 +5,18 @@ public class Token {
     private final String text;
     private final Object value;
     private final int lineNumber;
+    private final int nameId; // 标识符在 NameTable 中的 ID，其他单词为 -1
 
     public Token(TokenType type, String text, Object value, int lineNumber) {
+        this(type, text, value, lineNumber, -1);
+    }
+
+    public Token(TokenType type, String text, Object value, int lineNumber, int nameId) {
         this.type = type;
         this.text = text;
         this.value = value;
         this.lineNumber = lineNumber;
+        this.nameId = nameId;
     }
 
     public TokenType getType() {
@@ -29,6 +35,10 @@ public class Token {
         return lineNumber;
     }
 
+    public int getNameId() {
+        return nameId;
+    }
+
     public String formatForOutput() {
         return this.type.name() + " " + this.text;
     }
@@ -0,0 +1,7 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+public enum TokenPipeline {
+    BATCH,       // 先完成整个文件的词法分析，再开始语法分析
+    STREAMING,   // 语法分析按需从词法分析器拉取单词 (环形缓冲区)
+    CONCURRENT   // 词法分析在独立线程中运行，经有界队列送给语法分析
+}
@@ -0,0 +1,36 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+/**
+ * 语法分析器读取单词的接口。k 表示从当前位置向前看的距离 (k = 0 为当前单词)，
+ * 越过 EOF 单词之后 type() 返回 EOF，line() 返回 -1。
+ */
+public interface TokenSource extends AutoCloseable {
+    boolean has(int k);
+
+    TokenType type(int k);
+
+    int line(int k);
+
+    int start(int k);
+
+    int length(int k);
+
+    // 整数常量的值或标识符的名字 ID，其他单词为 0
+    int value(int k);
+
+    // 按需生成 Token 对象
+    Token token(int k);
+
+    // 单词文本所在的源码缓冲区
+    SourceText source();
+
+    void advance();
+
+    // 读完剩余的单词，保证 lexer.txt 与词法错误完整
+    void drain();
+
+    // 释放词法分析占用的资源 (如后台线程)；语法分析异常结束、没有调用 drain() 时也必须调用
+    @Override
+    default void close() {
+    }
+}
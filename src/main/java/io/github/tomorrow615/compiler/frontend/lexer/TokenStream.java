@@ -0,0 +1,163 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 以并行基本类型数组保存的单词序列 (struct-of-arrays)。
+ * 每个单词只记录类型、在源码缓冲区中的起始位置与长度、行号和整数值，
+ * 单词文本与 Token 对象只在调用 text() / token() 时才按需生成。
+ * 整数常量的值槽保存其数值，标识符的值槽保存其在 NameTable 中的 ID。
+ */
+public class TokenStream {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final SourceText source;
+    private final NameTable names;
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int[] values;
+    private int size = 0;
+
+    public TokenStream(char[] source, int initialCapacity, NameTable names) {
+        this(SourceText.of(source), initialCapacity, names);
+    }
+
+    public TokenStream(SourceText source, int initialCapacity, NameTable names) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.source = source;
+        this.names = names;
+        this.types = new byte[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.lines = new int[capacity];
+        this.values = new int[capacity];
+    }
+
+    // 由 Lexer 产生的 List<Token> 构造，供 LEGACY 模式使用
+    public static TokenStream fromTokens(List<Token> tokenList, NameTable names) {
+        StringBuilder text = new StringBuilder();
+        for (Token token : tokenList) {
+            if (token.getType() != TokenType.EOF) {
+                text.append(token.getText());
+            }
+        }
+
+        TokenStream tokens = new TokenStream(text.toString().toCharArray(), tokenList.size(), names);
+        int offset = 0;
+        for (Token token : tokenList) {
+            int length = (token.getType() == TokenType.EOF) ? 0 : token.getText().length();
+            int value = (token.getType() == TokenType.INTCON) ? (Integer) token.getValue()
+                    : (token.getType() == TokenType.IDENFR) ? token.getNameId() : 0;
+            tokens.add(token.getType(), offset, length, token.getLineNumber(), value);
+            offset += length;
+        }
+        return tokens;
+    }
+
+    int add(TokenType type, int start, int length, int line, int value) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        lines[size] = line;
+        values[size] = value;
+        return size++;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int line(int index) {
+        return lines[index];
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    public int intValue(int index) {
+        return values[index];
+    }
+
+    public SourceText source() {
+        return source;
+    }
+
+    public NameTable names() {
+        return names;
+    }
+
+    public String text(int index) {
+        return text(type(index), source, starts[index], lengths[index]);
+    }
+
+    public Token token(int index) {
+        return token(type(index), source, starts[index], lengths[index], lines[index], values[index], names);
+    }
+
+    static String text(TokenType type, SourceText source, int start, int length) {
+        if (type == TokenType.EOF) {
+            return "EOF";
+        }
+        return source.text(start, length);
+    }
+
+    static Token token(TokenType type, SourceText source, int start, int length, int line, int value,
+                       NameTable names) {
+        if (type == TokenType.IDENFR) {
+            return new Token(type, names.name(value), null, line, value); // 驻留的名字，不再复制
+        }
+        String text = text(type, source, start, length);
+        switch (type) {
+            case INTCON:
+                return new Token(type, text, value, line);
+            case STRCON:
+                return new Token(type, text, decodeString(text), line);
+            default:
+                return new Token(type, text, null, line);
+        }
+    }
+
+    // 由字符串常量的源文本还原其值：去掉引号，"\n" 还原为换行符
+    private static String decodeString(String s) {
+        int from = 1;
+        int to = s.length();
+        if (to >= 2 && s.charAt(to - 1) == '"') {
+            to--;
+        }
+        StringBuilder value = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < to && s.charAt(i + 1) == 'n') {
+                value.append('\n');
+                i++;
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.tomorrow615.compiler.frontend.lexer;
+
+// 在已完整生成的 TokenStream 上移动的游标
+public class TokenStreamSource implements TokenSource {
+    private final TokenStream tokens;
+    private int pos = 0;
+
+    public TokenStreamSource(TokenStream tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public boolean has(int k) {
+        return pos + k < tokens.size();
+    }
+
+    @Override
+    public TokenType type(int k) {
+        return has(k) ? tokens.type(pos + k) : TokenType.EOF;
+    }
+
+    @Override
+    public int line(int k) {
+        return has(k) ? tokens.line(pos + k) : -1;
+    }
+
+    @Override
+    public int start(int k) {
+        return tokens.start(pos + k);
+    }
+
+    @Override
+    public int length(int k) {
+        return tokens.length(pos + k);
+    }
+
+    @Override
+    public int value(int k) {
+        return has(k) ? tokens.intValue(pos + k) : 0;
+    }
+
+    @Override
+    public Token token(int k) {
+        return tokens.token(pos + k);
+    }
+
+    @Override
+    public SourceText source() {
+        return tokens.source();
+    }
+
+    @Override
+    public void advance() {
+        if (has(0)) {
+            pos++;
+        }
+    }
+
+    @Override
+    public void drain() {
+        // 单词已全部生成，无需处理
+    }
+}
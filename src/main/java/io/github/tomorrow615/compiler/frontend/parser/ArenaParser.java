@@ -0,0 +1,683 @@
+package io.github.tomorrow615.compiler.frontend.parser;
+
+import io.github.tomorrow615.compiler.frontend.ast.arena.AstArena;
+import io.github.tomorrow615.compiler.frontend.ast.arena.NodeKind;
+import io.github.tomorrow615.compiler.frontend.lexer.NameTable;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenType;
+import io.github.tomorrow615.compiler.util.ParserRecorder;
+
+/**
+ * 生成扁平 AST 的语法分析，文法、单词的读取顺序、parser.txt 的输出与错误处理都与
+ * Parser / ExpressionParser / StatementParser 完全一致，只是节点写入 AstArena 而不是创建对象。
+ * 子节点在解析过程中压入 AstArena 的暂存栈，父节点完成时一并取出。
+ */
+public class ArenaParser {
+    private final Parser mainParser;
+    private final ParserRecorder recorder;
+    private final AstArena arena;
+
+    public ArenaParser(Parser mainParser, NameTable names) {
+        this.mainParser = mainParser;
+        this.recorder = mainParser.getRecorder();
+        this.arena = new AstArena(names, 1024);
+    }
+
+    public AstArena parse() {
+        arena.setRoot(parseCompUnit());
+        return arena;
+    }
+
+    private TokenType peek() {
+        return mainParser.peek();
+    }
+
+    private TokenType peek(int k) {
+        return mainParser.peek(k);
+    }
+
+    private void consume() {
+        mainParser.consume();
+    }
+
+    private void matchAndConsume(TokenType expectedType, char errorCode) {
+        mainParser.matchAndConsume(expectedType, errorCode);
+    }
+
+    // 读入当前单词并生成叶子节点，对应 Parser.consumeToken()
+    private int consumeLeaf() {
+        TokenType type = peek();
+        int line = mainParser.peekLine();
+        int length = mainParser.peekLength();
+        int leaf;
+        if (type == TokenType.IDENFR) {
+            leaf = arena.leaf(NodeKind.IDENT, line, mainParser.peekValue());
+        } else if (type == TokenType.INTCON && length == digits(mainParser.peekValue())) {
+            leaf = arena.leaf(NodeKind.NUMBER, line, mainParser.peekValue());
+        } else if (type != TokenType.INTCON && type != TokenType.STRCON
+                && (type == TokenType.EOF || length == AstArena.spelling(type).length())) {
+            leaf = arena.leaf(NodeKind.TOKEN, line, type.ordinal());
+        } else {
+            return arena.saveToken(mainParser.consumeToken());
+        }
+        consume();
+        return leaf;
+    }
+
+    private static int digits(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    // 编译单元 CompUnit → {Decl} {FuncDef} MainFuncDef
+    private int parseCompUnit() {
+        int mark = arena.mark();
+        int startLine = mainParser.peekLine();
+
+        while (peek() == TokenType.CONSTTK ||
+                peek() == TokenType.STATICTK ||
+                (peek() == TokenType.INTTK && peek(2) != TokenType.LPARENT)) {
+            arena.push(parseDecl());
+        }
+
+        while (peek() == TokenType.VOIDTK ||
+                (peek() == TokenType.INTTK && peek(1) != TokenType.MAINTK)) {
+            arena.push(parseFuncDef());
+        }
+
+        arena.push(parseMainFuncDef());
+
+        recorder.recordSyntax("CompUnit");
+        return arena.node(NodeKind.COMP_UNIT, startLine, 0, mark);
+    }
+
+    // 声明 Decl → ConstDecl | VarDecl
+    private int parseDecl() {
+        if (peek() == TokenType.CONSTTK) {
+            return parseConstDecl();
+        } else {
+            return parseVarDecl();
+        }
+    }
+
+    // 常量声明 ConstDecl → 'const' BType ConstDef { ',' ConstDef } ';' // i
+    private int parseConstDecl() {
+        int mark = arena.mark();
+        consume();
+        int bType = parseBType();
+        arena.push(bType);
+        arena.push(parseConstDef());
+
+        while (peek() == TokenType.COMMA) {
+            consume();
+            arena.push(parseConstDef());
+        }
+
+        matchAndConsume(TokenType.SEMICN, 'i');
+        recorder.recordSyntax("ConstDecl");
+        return arena.node(NodeKind.CONST_DECL, arena.line(bType), 0, mark);
+    }
+
+    // 基本类型 BType → 'int'
+    private int parseBType() {
+        int typeToken = consumeLeaf();
+        recorder.recordSyntax("BType");
+        return typeToken;
+    }
+
+    // 常量定义 ConstDef → Ident [ '[' ConstExp ']' ] '=' ConstInitVal // k
+    private int parseConstDef() {
+        int mark = arena.mark();
+        int ident = consumeLeaf();
+        arena.push(ident);
+
+        while (peek() == TokenType.LBRACK) {
+            consume();
+            arena.push(parseConstExp());
+            matchAndConsume(TokenType.RBRACK, 'k');
+        }
+
+        consume();
+        arena.push(parseConstInitVal());
+        recorder.recordSyntax("ConstDef");
+        return arena.node(NodeKind.CONST_DEF, arena.line(ident), 0, mark);
+    }
+
+    // 常量初值 ConstInitVal → ConstExp | '{' [ ConstExp { ',' ConstExp } ] '}'
+    private int parseConstInitVal() {
+        int mark = arena.mark();
+        if (peek() == TokenType.LBRACE) {
+            int lBraceLine = mainParser.peekLine();
+            consume();
+
+            if (peek() != TokenType.RBRACE) {
+                arena.push(parseConstExp());
+                while (peek() == TokenType.COMMA) {
+                    consume();
+                    arena.push(parseConstExp());
+                }
+            }
+            consume();
+            recorder.recordSyntax("ConstInitVal");
+            return arena.node(NodeKind.CONST_INIT_VAL, lBraceLine, 1, mark);
+        } else {
+            int singleInit = parseConstExp();
+            arena.push(singleInit);
+            recorder.recordSyntax("ConstInitVal");
+            return arena.node(NodeKind.CONST_INIT_VAL, arena.line(singleInit), 0, mark);
+        }
+    }
+
+    // 变量声明 VarDecl → [ 'static' ] BType VarDef { ',' VarDef } ';' // i
+    private int parseVarDecl() {
+        int mark = arena.mark();
+        boolean isStatic = false;
+        int firstLine = mainParser.peekLine();
+
+        if (peek() == TokenType.STATICTK) {
+            isStatic = true;
+            consume();
+        }
+
+        arena.push(parseBType());
+        arena.push(parseVarDef());
+
+        while (peek() == TokenType.COMMA) {
+            consume();
+            arena.push(parseVarDef());
+        }
+
+        matchAndConsume(TokenType.SEMICN, 'i');
+        recorder.recordSyntax("VarDecl");
+        return arena.node(NodeKind.VAR_DECL, firstLine, isStatic ? 1 : 0, mark);
+    }
+
+    // 变量定义 VarDef → Ident [ '[' ConstExp ']' ] | Ident [ '[' ConstExp ']' ] '=' InitVal // k
+    private int parseVarDef() {
+        int mark = arena.mark();
+        int ident = consumeLeaf();
+        arena.push(ident);
+
+        while (peek() == TokenType.LBRACK) {
+            consume();
+            arena.push(parseConstExp());
+            matchAndConsume(TokenType.RBRACK, 'k');
+        }
+
+        boolean initialized = false;
+        if (peek() == TokenType.ASSIGN) {
+            consume();
+            arena.push(parseInitVal());
+            initialized = true;
+        }
+        recorder.recordSyntax("VarDef");
+        return arena.node(NodeKind.VAR_DEF, arena.line(ident), initialized ? 1 : 0, mark);
+    }
+
+    // 变量初值 InitVal → Exp | '{' [ Exp { ',' Exp } ] '}'
+    private int parseInitVal() {
+        int mark = arena.mark();
+        if (peek() == TokenType.LBRACE) {
+            int lBraceLine = mainParser.peekLine();
+            consume();
+
+            if (peek() != TokenType.RBRACE) {
+                arena.push(parseExp());
+                while (peek() == TokenType.COMMA) {
+                    consume();
+                    arena.push(parseExp());
+                }
+            }
+            consume();
+            recorder.recordSyntax("InitVal");
+            return arena.node(NodeKind.INIT_VAL, lBraceLine, 1, mark);
+        } else {
+            int singleInit = parseExp();
+            arena.push(singleInit);
+            recorder.recordSyntax("InitVal");
+            return arena.node(NodeKind.INIT_VAL, arena.line(singleInit), 0, mark);
+        }
+    }
+
+    // 函数定义 FuncDef → FuncType Ident '(' [FuncFParams] ')' Block // j
+    private int parseFuncDef() {
+        int mark = arena.mark();
+        int funcType = consumeLeaf();
+        recorder.recordSyntax("FuncType");
+        arena.push(funcType);
+        arena.push(consumeLeaf());
+        consume(); // (
+
+        if (peek() == TokenType.INTTK) {
+            parseFuncFParams();
+        }
+
+        matchAndConsume(TokenType.RPARENT, 'j');
+        arena.push(parseBlock());
+        recorder.recordSyntax("FuncDef");
+        return arena.node(NodeKind.FUNC_DEF, arena.line(funcType), 0, mark);
+    }
+
+    // 函数形参表 FuncFParams → FuncFParam { ',' FuncFParam }，形参直接成为 FuncDef 的子节点
+    private void parseFuncFParams() {
+        arena.push(parseFuncFParam());
+
+        while (peek() == TokenType.COMMA) {
+            consume();
+            arena.push(parseFuncFParam());
+        }
+
+        recorder.recordSyntax("FuncFParams");
+    }
+
+    // 函数形参 FuncFParam → BType Ident ['[' ']'] // k
+    private int parseFuncFParam() {
+        int mark = arena.mark();
+        int bType = parseBType();
+        arena.push(bType);
+        arena.push(consumeLeaf());
+
+        boolean isArray = false;
+        if (peek() == TokenType.LBRACK) {
+            consume();
+            matchAndConsume(TokenType.RBRACK, 'k');
+            isArray = true;
+        }
+        recorder.recordSyntax("FuncFParam");
+        return arena.node(NodeKind.FUNC_FPARAM, arena.line(bType), isArray ? 1 : 0, mark);
+    }
+
+    // 主函数定义 MainFuncDef → 'int' 'main' '(' ')' Block // j
+    private int parseMainFuncDef() {
+        int mark = arena.mark();
+        int intLine = mainParser.peekLine();
+        consume();
+        consume();
+        consume();
+        matchAndConsume(TokenType.RPARENT, 'j');
+        arena.push(parseBlock());
+        recorder.recordSyntax("MainFuncDef");
+        return arena.node(NodeKind.MAIN_FUNC_DEF, intLine, 0, mark);
+    }
+
+    // 语句块 Block → '{' { BlockItem } '}'
+    private int parseBlock() {
+        int mark = arena.mark();
+        int lBraceLine = mainParser.peekLine();
+        consume();
+        while (peek() != TokenType.RBRACE && peek() != TokenType.EOF) {
+            arena.push(parseBlockItem());
+        }
+        int rBraceLine;
+        if (peek() == TokenType.RBRACE) {
+            rBraceLine = mainParser.peekLine();
+            consume();
+        } else {
+            rBraceLine = mainParser.getLastConsumedLine();
+        }
+        recorder.recordSyntax("Block");
+        return arena.node(NodeKind.BLOCK, lBraceLine, rBraceLine, mark);
+    }
+
+    // 语句块项 BlockItem → Decl | Stmt
+    private int parseBlockItem() {
+        if (peek() == TokenType.CONSTTK ||
+                peek() == TokenType.INTTK ||
+                peek() == TokenType.STATICTK) {
+            return parseDecl();
+        } else {
+            return parseStmt();
+        }
+    }
+
+    // 语句 Stmt，各分支与 StatementParser.parseStmt 相同
+    private int parseStmt() {
+        int stmt;
+        switch (peek()) {
+            case LBRACE:
+                stmt = parseBlock();
+                break;
+            case IFTK:
+                stmt = parseIfStmt();
+                break;
+            case FORTK:
+                stmt = parseForStmt();
+                break;
+            case BREAKTK:
+                stmt = parseJumpStmt(NodeKind.BREAK);
+                break;
+            case CONTINUETK:
+                stmt = parseJumpStmt(NodeKind.CONTINUE);
+                break;
+            case RETURNTK:
+                stmt = parseReturnStmt();
+                break;
+            case PRINTFTK:
+                stmt = parsePrintfStmt();
+                break;
+            default:
+                stmt = parseAssignOrExpStmt();
+                break;
+        }
+        recorder.recordSyntax("Stmt");
+        return stmt;
+    }
+
+    // | 'if' '(' Cond ')' Stmt [ 'else' Stmt ] // j
+    private int parseIfStmt() {
+        int mark = arena.mark();
+        int ifLine = mainParser.peekLine();
+        consume();
+        consume();
+        arena.push(parseCond());
+        matchAndConsume(TokenType.RPARENT, 'j');
+        arena.push(parseStmt());
+
+        if (peek() == TokenType.ELSETK) {
+            consume();
+            arena.push(parseStmt());
+        }
+        return arena.node(NodeKind.IF, ifLine, 0, mark);
+    }
+
+    // | 'for' '(' [ForStmt] ';' [Cond] ';' [ForStmt] ')' Stmt
+    private int parseForStmt() {
+        int mark = arena.mark();
+        int forLine = mainParser.peekLine();
+        consume();
+        consume();
+
+        arena.push(peek() != TokenType.SEMICN ? parseForSubStmt() : AstArena.NONE);
+        consume();
+        arena.push(peek() != TokenType.SEMICN ? parseCond() : AstArena.NONE);
+        consume();
+        arena.push(peek() != TokenType.RPARENT ? parseForSubStmt() : AstArena.NONE);
+        consume();
+        arena.push(parseStmt());
+
+        return arena.node(NodeKind.FOR, forLine, 0, mark);
+    }
+
+    // 语句 ForStmt → LVal '=' Exp { ',' LVal '=' Exp }
+    private int parseForSubStmt() {
+        int mark = arena.mark();
+        int first = parseLVal();
+        arena.push(first);
+        consume();
+        arena.push(parseExp());
+
+        while (peek() == TokenType.COMMA) {
+            consume();
+            arena.push(parseLVal());
+            consume();
+            arena.push(parseExp());
+        }
+
+        recorder.recordSyntax("ForStmt");
+        return arena.node(NodeKind.FOR_SUB, arena.line(first), 0, mark);
+    }
+
+    // | 'break' ';' | 'continue' ';' // i
+    private int parseJumpStmt(NodeKind kind) {
+        int line = mainParser.peekLine();
+        consume();
+        matchAndConsume(TokenType.SEMICN, 'i');
+        return arena.leaf(kind, line, 0);
+    }
+
+    // | 'return' [Exp] ';' // i
+    private int parseReturnStmt() {
+        int mark = arena.mark();
+        int returnLine = mainParser.peekLine();
+        consume();
+        arena.push(peek() != TokenType.SEMICN ? parseExp() : AstArena.NONE);
+        matchAndConsume(TokenType.SEMICN, 'i');
+        return arena.node(NodeKind.RETURN, returnLine, 0, mark);
+    }
+
+    // | 'printf''('StringConst {','Exp}')'';' // i j
+    private int parsePrintfStmt() {
+        int mark = arena.mark();
+        int printfLine = mainParser.peekLine();
+        consume();
+        consume();
+        arena.push(consumeLeaf());
+
+        while (peek() == TokenType.COMMA) {
+            consume();
+            arena.push(parseExp());
+        }
+
+        matchAndConsume(TokenType.RPARENT, 'j');
+        matchAndConsume(TokenType.SEMICN, 'i');
+        return arena.node(NodeKind.PRINTF, printfLine, 0, mark);
+    }
+
+    // 语句 Stmt → LVal '=' Exp ';' | [Exp] ';' // i
+    private int parseAssignOrExpStmt() {
+        int mark = arena.mark();
+        int firstLine = mainParser.peekLine();
+        int exp = AstArena.NONE;
+
+        if (peek() == TokenType.IDENFR && peek(1) != TokenType.LPARENT) {
+            int missing = mainParser.getMissingBrackets();
+            int lVal = parseLVal();
+            if (mainParser.isAssignmentAfterLVal(missing)) {
+                consume();
+                arena.push(lVal);
+                arena.push(parseExp());
+                matchAndConsume(TokenType.SEMICN, 'i');
+                return arena.node(NodeKind.ASSIGN, arena.line(lVal), 0, mark);
+            }
+            exp = parseExp(lVal);
+        } else if (peek() != TokenType.SEMICN) {
+            exp = parseExp();
+        }
+
+        matchAndConsume(TokenType.SEMICN, 'i');
+        arena.push(exp);
+        return arena.node(NodeKind.EXP_STMT, firstLine, 0, mark);
+    }
+
+    // 左值表达式 LVal → Ident ['[' Exp ']'] // k
+    private int parseLVal() {
+        int mark = arena.mark();
+        int ident = consumeLeaf();
+        arena.push(ident);
+
+        while (peek() == TokenType.LBRACK) {
+            consume();
+            arena.push(parseExp());
+            matchAndConsume(TokenType.RBRACK, 'k');
+        }
+
+        recorder.recordSyntax("LVal");
+        return arena.node(NodeKind.LVAL, arena.line(ident), 0, mark);
+    }
+
+    // 常量表达式 ConstExp → AddExp
+    private int parseConstExp() {
+        int addExp = parseAddExp();
+        recorder.recordSyntax("ConstExp");
+        return addExp;
+    }
+
+    // 表达式 Exp → AddExp
+    private int parseExp() {
+        int addExp = parseAddExp();
+        recorder.recordSyntax("Exp");
+        return addExp;
+    }
+
+    // 以已解析的 LVal 作为最左操作数继续解析 Exp
+    private int parseExp(int lVal) {
+        recorder.recordSyntax("PrimaryExp");
+        recorder.recordSyntax("UnaryExp");
+        int addExp = parseAddExp(parseMulExp(lVal));
+        recorder.recordSyntax("Exp");
+        return addExp;
+    }
+
+    // 条件表达式 Cond → LOrExp
+    private int parseCond() {
+        int lOrExp = parseLOrExp();
+        recorder.recordSyntax("Cond");
+        return lOrExp;
+    }
+
+    // 基本表达式 PrimaryExp → '(' Exp ')' | LVal | Number // j
+    private int parsePrimaryExp() {
+        int node;
+        if (peek() == TokenType.LPARENT) {
+            int mark = arena.mark();
+            consume();
+            int exp = parseExp();
+            arena.push(exp);
+            matchAndConsume(TokenType.RPARENT, 'j');
+            node = arena.node(NodeKind.PAREN, arena.line(exp), 0, mark);
+        } else if (peek() == TokenType.IDENFR) {
+            node = parseLVal();
+        } else {
+            node = consumeLeaf();
+            recorder.recordSyntax("Number");
+        }
+        recorder.recordSyntax("PrimaryExp");
+        return node;
+    }
+
+    // 一元表达式 UnaryExp → PrimaryExp | Ident '(' [FuncRParams] ')' | UnaryOp UnaryExp // j
+    private int parseUnaryExp() {
+        int node;
+        if (peek() == TokenType.PLUS ||
+                peek() == TokenType.MINU ||
+                peek() == TokenType.NOT) {
+            int mark = arena.mark();
+            int op = consumeLeaf();
+            recorder.recordSyntax("UnaryOp");
+            arena.push(op);
+            arena.push(parseUnaryExp());
+            node = arena.node(NodeKind.UNARY, arena.line(op), 0, mark);
+        } else if (peek() == TokenType.IDENFR &&
+                peek(1) == TokenType.LPARENT) {
+            int mark = arena.mark();
+            int ident = consumeLeaf();
+            arena.push(ident);
+            consume();
+            if (peek() != TokenType.RPARENT) {
+                parseFuncRParams();
+            }
+            matchAndConsume(TokenType.RPARENT, 'j');
+            node = arena.node(NodeKind.CALL, arena.line(ident), 0, mark);
+        } else {
+            node = parsePrimaryExp();
+        }
+        recorder.recordSyntax("UnaryExp");
+        return node;
+    }
+
+    // 函数实参表 FuncRParams → Exp { ',' Exp }，实参直接成为调用节点的子节点
+    private void parseFuncRParams() {
+        arena.push(parseExp());
+        while (peek() == TokenType.COMMA) {
+            consume();
+            arena.push(parseExp());
+        }
+        recorder.recordSyntax("FuncRParams");
+    }
+
+    // 乘除模表达式 MulExp → UnaryExp | MulExp ('*' | '/' | '%') UnaryExp
+    private int parseMulExp() {
+        return parseMulExp(parseUnaryExp());
+    }
+
+    private int parseMulExp(int first) {
+        int mark = arena.mark();
+        arena.push(first);
+        recorder.recordSyntax("MulExp");
+        while (peek() == TokenType.MULT ||
+                peek() == TokenType.DIV ||
+                peek() == TokenType.MOD) {
+            arena.push(consumeLeaf());
+            arena.push(parseUnaryExp());
+            recorder.recordSyntax("MulExp");
+        }
+        return arena.collapse(NodeKind.MUL, mark);
+    }
+
+    // 加减表达式 AddExp → MulExp | AddExp ('+' | '−') MulExp
+    private int parseAddExp() {
+        return parseAddExp(parseMulExp());
+    }
+
+    private int parseAddExp(int first) {
+        int mark = arena.mark();
+        arena.push(first);
+        recorder.recordSyntax("AddExp");
+        while (peek() == TokenType.PLUS ||
+                peek() == TokenType.MINU) {
+            arena.push(consumeLeaf());
+            arena.push(parseMulExp());
+            recorder.recordSyntax("AddExp");
+        }
+        return arena.collapse(NodeKind.ADD, mark);
+    }
+
+    // 关系表达式 RelExp → AddExp | RelExp ('<' | '>' | '<=' | '>=') AddExp
+    private int parseRelExp() {
+        int mark = arena.mark();
+        arena.push(parseAddExp());
+        recorder.recordSyntax("RelExp");
+        while (peek() == TokenType.LSS ||
+                peek() == TokenType.GRE ||
+                peek() == TokenType.LEQ ||
+                peek() == TokenType.GEQ) {
+            arena.push(consumeLeaf());
+            arena.push(parseAddExp());
+            recorder.recordSyntax("RelExp");
+        }
+        return arena.collapse(NodeKind.REL, mark);
+    }
+
+    // 相等性表达式 EqExp → RelExp | EqExp ('==' | '!=') RelExp
+    private int parseEqExp() {
+        int mark = arena.mark();
+        arena.push(parseRelExp());
+        recorder.recordSyntax("EqExp");
+        while (peek() == TokenType.EQL ||
+                peek() == TokenType.NEQ) {
+            arena.push(consumeLeaf());
+            arena.push(parseRelExp());
+            recorder.recordSyntax("EqExp");
+        }
+        return arena.collapse(NodeKind.EQ, mark);
+    }
+
+    // 逻辑与表达式 LAndExp → EqExp | LAndExp '&&' EqExp
+    private int parseLAndExp() {
+        int mark = arena.mark();
+        arena.push(parseEqExp());
+        recorder.recordSyntax("LAndExp");
+        while (peek() == TokenType.AND) {
+            arena.push(consumeLeaf());
+            arena.push(parseEqExp());
+            recorder.recordSyntax("LAndExp");
+        }
+        return arena.collapse(NodeKind.LAND, mark);
+    }
+
+    // 逻辑或表达式 LOrExp → LAndExp | LOrExp '||' LAndExp
+    private int parseLOrExp() {
+        int mark = arena.mark();
+        arena.push(parseLAndExp());
+        recorder.recordSyntax("LOrExp");
+        while (peek() == TokenType.OR) {
+            arena.push(consumeLeaf());
+            arena.push(parseLAndExp());
+            recorder.recordSyntax("LOrExp");
+        }
+        return arena.collapse(NodeKind.LOR, mark);
+    }
+}
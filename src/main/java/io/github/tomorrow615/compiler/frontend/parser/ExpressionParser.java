@@ -9,13 +9,28 @@ import java.util.List;
 
 public class ExpressionParser {
     private final Parser mainParser;
+    // 为 true 时生成压缩表达式树 (见 ExprNode)，各层级照常输出到 parser.txt
+    private boolean compact = false;
+
+    // 压缩表达式树中二元运算层级对应的语法成分名，下标为 BinaryExpNode.Level 的序号
+    private static final String[] LEVEL_NAMES = {"LOrExp", "LAndExp", "EqExp", "RelExp", "AddExp", "MulExp"};
+    private static final BinaryExpNode.Level[] LEVELS = BinaryExpNode.Level.values();
 
     public ExpressionParser(Parser mainParser) {
         this.mainParser = mainParser;
     }
 
+    void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
     // 常量表达式 ConstExp → AddExp 注：使用的 Ident 必须是常量
     public ConstExpNode parseConstExp() {
+        if (compact) {
+            ExprNode expr = parseBinary(BinaryExpNode.Level.ADD);
+            mainParser.getRecorder().recordSyntax("ConstExp");
+            return new ConstExpNode(expr);
+        }
         AddExpNode addExp = parseAddExp();
         mainParser.getRecorder().recordSyntax("ConstExp");
         return new ConstExpNode(addExp);
@@ -23,13 +38,40 @@ public class ExpressionParser {
 
     // 表达式 Exp → AddExp
     public ExpNode parseExp() {
+        if (compact) {
+            return new ExpNode(parseExpr());
+        }
         AddExpNode addExp = parseAddExp();
         mainParser.getRecorder().recordSyntax("Exp");
         return new ExpNode(addExp);
     }
 
+    // 以已解析的 LVal 作为最左操作数继续解析 Exp，供语句解析先读 LVal 再决定语句类型
+    public ExpNode parseExp(LValNode lVal) {
+        if (compact) {
+            mainParser.getRecorder().recordSyntax("PrimaryExp");
+            mainParser.getRecorder().recordSyntax("UnaryExp");
+            ExprNode mulExp = parseBinary(BinaryExpNode.Level.MUL, lVal);
+            ExprNode addExp = parseBinary(BinaryExpNode.Level.ADD, mulExp);
+            mainParser.getRecorder().recordSyntax("Exp");
+            return new ExpNode(addExp);
+        }
+        PrimaryExpNode primaryExp = new PrimaryExpNode(lVal);
+        mainParser.getRecorder().recordSyntax("PrimaryExp");
+        UnaryExpNode unaryExp = new UnaryExpNode(primaryExp);
+        mainParser.getRecorder().recordSyntax("UnaryExp");
+        AddExpNode addExp = parseAddExp(parseMulExp(unaryExp));
+        mainParser.getRecorder().recordSyntax("Exp");
+        return new ExpNode(addExp);
+    }
+
     // 条件表达式 Cond → LOrExp
     public CondNode parseCond() {
+        if (compact) {
+            ExprNode expr = parseBinary(BinaryExpNode.Level.LOR);
+            mainParser.getRecorder().recordSyntax("Cond");
+            return new CondNode(expr);
+        }
         LOrExpNode lorExp = parseLOrExp();
         mainParser.getRecorder().recordSyntax("Cond");
         return new CondNode(lorExp);
@@ -37,7 +79,7 @@ public class ExpressionParser {
 
     // 数值 Number → IntConst
     private NumberNode parseNumber() {
-        Token numberToken = mainParser.consume();
+        Token numberToken = mainParser.consumeToken();
         NumberNode numberNode = new NumberNode(numberToken);
         mainParser.getRecorder().recordSyntax("Number");
         return numberNode;
@@ -45,7 +87,7 @@ public class ExpressionParser {
 
     // 单目运算符 UnaryOp → '+' | '−' | '!' 注：'!'仅出现在条件表达式中
     private UnaryOpNode parseUnaryOp() {
-        Token opToken = mainParser.consume();
+        Token opToken = mainParser.consumeToken();
         UnaryOpNode opNode = new UnaryOpNode(opToken);
         mainParser.getRecorder().recordSyntax("UnaryOp");
         return opNode;
@@ -54,12 +96,12 @@ public class ExpressionParser {
     // 基本表达式 PrimaryExp → '(' Exp ')' | LVal | Number // j
     public PrimaryExpNode parsePrimaryExp() {
         PrimaryExpNode node;
-        if (mainParser.peek().getType() == TokenType.LPARENT) {
+        if (mainParser.peek() == TokenType.LPARENT) {
             mainParser.consume();
             ExpNode exp = parseExp();
             mainParser.matchAndConsume(TokenType.RPARENT, 'j');
             node = new PrimaryExpNode(exp);
-        } else if (mainParser.peek().getType() == TokenType.IDENFR) {
+        } else if (mainParser.peek() == TokenType.IDENFR) {
             LValNode lVal = mainParser.parseLVal();
             node = new PrimaryExpNode(lVal);
         } else {
@@ -73,22 +115,15 @@ public class ExpressionParser {
     // 一元表达式 UnaryExp → PrimaryExp | Ident '(' [FuncRParams] ')' | UnaryOp UnaryExp // j
     public UnaryExpNode parseUnaryExp() {
         UnaryExpNode node;
-        if (mainParser.peek().getType() == TokenType.PLUS ||
-                mainParser.peek().getType() == TokenType.MINU ||
-                mainParser.peek().getType() == TokenType.NOT) {
+        if (mainParser.peek() == TokenType.PLUS ||
+                mainParser.peek() == TokenType.MINU ||
+                mainParser.peek() == TokenType.NOT) {
             UnaryOpNode opNode = this.parseUnaryOp();
             UnaryExpNode exp = parseUnaryExp();
             node = new UnaryExpNode(opNode, exp);
-        } else if (mainParser.peek().getType() == TokenType.IDENFR &&
-                mainParser.peekNext().getType() == TokenType.LPARENT) {
-            Token ident = mainParser.consume();
-            mainParser.consume();
-            FuncRParamsNode params = null;
-            if (mainParser.peek().getType() != TokenType.RPARENT) {
-                params = parseFuncRParams();
-            }
-            mainParser.matchAndConsume(TokenType.RPARENT, 'j');
-            node = new UnaryExpNode(ident, params);
+        } else if (mainParser.peek() == TokenType.IDENFR &&
+                mainParser.peek(1) == TokenType.LPARENT) {
+            node = parseCall();
         } else {
             PrimaryExpNode primaryExp = parsePrimaryExp();
             node = new UnaryExpNode(primaryExp);
@@ -97,11 +132,23 @@ public class ExpressionParser {
         return node;
     }
 
+    // 函数调用 Ident '(' [FuncRParams] ')'，由调用者输出 UnaryExp
+    private UnaryExpNode parseCall() {
+        Token ident = mainParser.consumeToken();
+        mainParser.consume();
+        FuncRParamsNode params = null;
+        if (mainParser.peek() != TokenType.RPARENT) {
+            params = parseFuncRParams();
+        }
+        mainParser.matchAndConsume(TokenType.RPARENT, 'j');
+        return new UnaryExpNode(ident, params);
+    }
+
     // 函数实参表 FuncRParams → Exp { ',' Exp }
     public FuncRParamsNode parseFuncRParams() {
         List<ExpNode> params = new ArrayList<>();
         params.add(parseExp());
-        while (mainParser.peek().getType() == TokenType.COMMA) {
+        while (mainParser.peek() == TokenType.COMMA) {
             mainParser.consume();
             params.add(parseExp());
         }
@@ -111,14 +158,18 @@ public class ExpressionParser {
 
     // 乘除模表达式 MulExp → UnaryExp | MulExp ('*' | '/' | '%') UnaryExp
     public MulExpNode parseMulExp() {
+        return parseMulExp(parseUnaryExp());
+    }
+
+    private MulExpNode parseMulExp(UnaryExpNode first) {
         List<UnaryExpNode> exps = new ArrayList<>();
         List<Token> ops = new ArrayList<>();
-        exps.add(parseUnaryExp());
+        exps.add(first);
         mainParser.getRecorder().recordSyntax("MulExp");
-        while (mainParser.peek().getType() == TokenType.MULT ||
-                mainParser.peek().getType() == TokenType.DIV ||
-                mainParser.peek().getType() == TokenType.MOD) {
-            ops.add(mainParser.consume());
+        while (mainParser.peek() == TokenType.MULT ||
+                mainParser.peek() == TokenType.DIV ||
+                mainParser.peek() == TokenType.MOD) {
+            ops.add(mainParser.consumeToken());
             exps.add(parseUnaryExp());
             mainParser.getRecorder().recordSyntax("MulExp");
         }
@@ -127,13 +178,17 @@ public class ExpressionParser {
 
     // 加减表达式 AddExp → MulExp | AddExp ('+' | '−') MulExp
     public AddExpNode parseAddExp() {
+        return parseAddExp(parseMulExp());
+    }
+
+    private AddExpNode parseAddExp(MulExpNode first) {
         List<MulExpNode> exps = new ArrayList<>();
         List<Token> ops = new ArrayList<>();
-        exps.add(parseMulExp());
+        exps.add(first);
         mainParser.getRecorder().recordSyntax("AddExp");
-        while (mainParser.peek().getType() == TokenType.PLUS ||
-                mainParser.peek().getType() == TokenType.MINU) {
-            ops.add(mainParser.consume());
+        while (mainParser.peek() == TokenType.PLUS ||
+                mainParser.peek() == TokenType.MINU) {
+            ops.add(mainParser.consumeToken());
             exps.add(parseMulExp());
             mainParser.getRecorder().recordSyntax("AddExp");
         }
@@ -146,11 +201,11 @@ public class ExpressionParser {
         List<Token> ops = new ArrayList<>();
         exps.add(parseAddExp());
         mainParser.getRecorder().recordSyntax("RelExp");
-        while (mainParser.peek().getType() == TokenType.LSS ||
-                mainParser.peek().getType() == TokenType.GRE ||
-                mainParser.peek().getType() == TokenType.LEQ ||
-                mainParser.peek().getType() == TokenType.GEQ) {
-            ops.add(mainParser.consume());
+        while (mainParser.peek() == TokenType.LSS ||
+                mainParser.peek() == TokenType.GRE ||
+                mainParser.peek() == TokenType.LEQ ||
+                mainParser.peek() == TokenType.GEQ) {
+            ops.add(mainParser.consumeToken());
             exps.add(parseAddExp());
             mainParser.getRecorder().recordSyntax("RelExp");
         }
@@ -163,9 +218,9 @@ public class ExpressionParser {
         List<Token> ops = new ArrayList<>();
         exps.add(parseRelExp());
         mainParser.getRecorder().recordSyntax("EqExp");
-        while (mainParser.peek().getType() == TokenType.EQL
-                || mainParser.peek().getType() == TokenType.NEQ) {
-            ops.add(mainParser.consume());
+        while (mainParser.peek() == TokenType.EQL
+                || mainParser.peek() == TokenType.NEQ) {
+            ops.add(mainParser.consumeToken());
             exps.add(parseRelExp());
             mainParser.getRecorder().recordSyntax("EqExp");
         }
@@ -178,8 +233,8 @@ public class ExpressionParser {
         List<Token> ops = new ArrayList<>();
         exps.add(parseEqExp());
         mainParser.getRecorder().recordSyntax("LAndExp");
-        while (mainParser.peek().getType() == TokenType.AND) {
-            ops.add(mainParser.consume());
+        while (mainParser.peek() == TokenType.AND) {
+            ops.add(mainParser.consumeToken());
             exps.add(parseEqExp());
             mainParser.getRecorder().recordSyntax("LAndExp");
         }
@@ -192,12 +247,100 @@ public class ExpressionParser {
         List<Token> ops = new ArrayList<>();
         exps.add(parseLAndExp());
         mainParser.getRecorder().recordSyntax("LOrExp");
-        while (mainParser.peek().getType() == TokenType.OR) {
-            ops.add(mainParser.consume());
+        while (mainParser.peek() == TokenType.OR) {
+            ops.add(mainParser.consumeToken());
             exps.add(parseLAndExp());
             mainParser.getRecorder().recordSyntax("LOrExp");
         }
         return new LOrExpNode(exps, ops);
     }
 
-}
\ No newline at end of file
+    // --- 压缩表达式树：语法成分的输出与上面的方法逐一对应，只是不为没有运算符的层级建立节点 ---
+
+    private ExprNode parseExpr() {
+        ExprNode expr = parseBinary(BinaryExpNode.Level.ADD);
+        mainParser.getRecorder().recordSyntax("Exp");
+        return expr;
+    }
+
+    // 解析 level 层的一个操作数，即下一层的表达式
+    private ExprNode parseOperand(BinaryExpNode.Level level) {
+        if (level == BinaryExpNode.Level.MUL) {
+            return parseUnaryExpr();
+        }
+        return parseBinary(LEVELS[level.ordinal() + 1]);
+    }
+
+    private ExprNode parseBinary(BinaryExpNode.Level level) {
+        return parseBinary(level, parseOperand(level));
+    }
+
+    private ExprNode parseBinary(BinaryExpNode.Level level, ExprNode first) {
+        String name = LEVEL_NAMES[level.ordinal()];
+        mainParser.getRecorder().recordSyntax(name);
+        if (!isOperator(level, mainParser.peek())) {
+            return first; // 没有运算符，直接返回操作数
+        }
+        List<ExprNode> operands = new ArrayList<>();
+        List<Token> ops = new ArrayList<>();
+        operands.add(first);
+        do {
+            ops.add(mainParser.consumeToken());
+            operands.add(parseOperand(level));
+            mainParser.getRecorder().recordSyntax(name);
+        } while (isOperator(level, mainParser.peek()));
+        return new BinaryExpNode(level, operands, ops);
+    }
+
+    private static boolean isOperator(BinaryExpNode.Level level, TokenType type) {
+        switch (level) {
+            case LOR:
+                return type == TokenType.OR;
+            case LAND:
+                return type == TokenType.AND;
+            case EQ:
+                return type == TokenType.EQL || type == TokenType.NEQ;
+            case REL:
+                return type == TokenType.LSS || type == TokenType.GRE ||
+                        type == TokenType.LEQ || type == TokenType.GEQ;
+            case ADD:
+                return type == TokenType.PLUS || type == TokenType.MINU;
+            default:
+                return type == TokenType.MULT || type == TokenType.DIV || type == TokenType.MOD;
+        }
+    }
+
+    // UnaryExp：单目运算建立 UnaryOpExpNode，函数调用仍为 UnaryExpNode
+    private ExprNode parseUnaryExpr() {
+        ExprNode node;
+        if (mainParser.peek() == TokenType.PLUS ||
+                mainParser.peek() == TokenType.MINU ||
+                mainParser.peek() == TokenType.NOT) {
+            UnaryOpNode opNode = this.parseUnaryOp();
+            node = new UnaryOpExpNode(opNode, parseUnaryExpr());
+        } else if (mainParser.peek() == TokenType.IDENFR &&
+                mainParser.peek(1) == TokenType.LPARENT) {
+            node = parseCall();
+        } else {
+            node = parsePrimaryExpr();
+        }
+        mainParser.getRecorder().recordSyntax("UnaryExp");
+        return node;
+    }
+
+    // PrimaryExp：括号不建立节点，LVal 与 Number 直接作为叶子
+    private ExprNode parsePrimaryExpr() {
+        ExprNode node;
+        if (mainParser.peek() == TokenType.LPARENT) {
+            mainParser.consume();
+            node = parseExpr();
+            mainParser.matchAndConsume(TokenType.RPARENT, 'j');
+        } else if (mainParser.peek() == TokenType.IDENFR) {
+            node = mainParser.parseLVal();
+        } else {
+            node = this.parseNumber();
+        }
+        mainParser.getRecorder().recordSyntax("PrimaryExp");
+        return node;
+    }
+}
@@ -1,12 +1,18 @@
 package io.github.tomorrow615.compiler.frontend.parser;
 
 import io.github.tomorrow615.compiler.frontend.ast.CompUnitNode;
+import io.github.tomorrow615.compiler.frontend.ast.arena.AstArena;
 import io.github.tomorrow615.compiler.frontend.ast.decl.*;
 import io.github.tomorrow615.compiler.frontend.ast.expr.*;
 import io.github.tomorrow615.compiler.frontend.ast.func.*;
 import io.github.tomorrow615.compiler.frontend.ast.stmt.BlockNode;
-import io.github.tomorrow615.compiler.frontend.error.ErrorReporter;
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
+import io.github.tomorrow615.compiler.frontend.error.Diagnostics;
+import io.github.tomorrow615.compiler.frontend.lexer.NameTable;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenSource;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenStream;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenStreamSource;
 import io.github.tomorrow615.compiler.frontend.lexer.TokenType;
 import io.github.tomorrow615.compiler.util.ParserRecorder;
 
@@ -14,103 +20,174 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Parser {
-    private final List<Token> tokens;
-    private int currentPos = 0;
+    // 最大向前看距离：parseCompUnit 中的 peek(2) 需要同时可见 3 个单词
+    public static final int MAX_LOOKAHEAD = 3;
+    private static final int NO_TOKEN = Integer.MIN_VALUE;
+
+    private final TokenSource tokens;
     private final ParserRecorder recorder;
-    private Token lastConsumedToken = null;
+    private final boolean tracing; // 是否把单词写入 parser.txt
+    private final Diagnostics diagnostics;
+    private final NameTable names;
+    private int lastConsumedLine = NO_TOKEN;
+    private int missingBrackets = 0;    // 已报告的缺少 ']' (k 类错误) 的个数
+    private Token pastEof;              // 越过文件末尾时 consumeToken 返回的单词，Token 不可变，一次解析只创建一个
 
     private final ExpressionParser expressionParser;
     private final StatementParser statementParser;
 
-    public Parser(List<Token> tokens, ParserRecorder recorder) {
+    public Parser(TokenSource tokens, ParserRecorder recorder, CompilationContext context) {
         this.tokens = tokens;
         this.recorder = recorder;
+        this.tracing = recorder != null && recorder.isEnabled();
+        this.diagnostics = context.getDiagnostics();
+        this.names = context.getNames();
         this.expressionParser = new ExpressionParser(this);
         this.statementParser = new StatementParser(this, this.expressionParser);
     }
 
-    private Token advance() {
-        if (currentPos < tokens.size()) {
-            return tokens.get(currentPos++);
-        }
-        return new Token(TokenType.EOF, "EOF", null, -1);
+    public Parser(TokenStream tokens, ParserRecorder recorder, CompilationContext context) {
+        this(new TokenStreamSource(tokens), recorder, context);
     }
 
-    Token peek() {
-        if (currentPos < tokens.size()) {
-            return tokens.get(currentPos);
-        }
-        return new Token(TokenType.EOF, "EOF", null, -1);
+    TokenType peek() {
+        return tokens.type(0);
     }
 
-    Token peekNext() {
-        if (currentPos + 1 < tokens.size()) {
-            return tokens.get(currentPos + 1);
-        }
-        return new Token(TokenType.EOF, "EOF", null, -1);
+    TokenType peek(int k) {
+        return tokens.type(k);
     }
 
-    Token peek(int k) {
-        if (currentPos + k < tokens.size()) {
-            return tokens.get(currentPos + k);
-        }
-        return new Token(TokenType.EOF, "EOF", null, -1);
+    // 越过文件末尾时为最后一个单词所在行
+    int peekLine() {
+        int line = tokens.line(0);
+        return line >= 0 ? line : lastConsumedLine;
     }
 
-    Token consume() {
-        Token token = advance();
-        this.lastConsumedToken = token;
-        if (recorder != null) {
-            recorder.recordToken(token);
+    int peekLength() {
+        return tokens.has(0) ? tokens.length(0) : 0;
+    }
+
+    int peekValue() {
+        return tokens.value(0);
+    }
+
+    // 前进一个单词，不生成 Token 对象
+    void consume() {
+        if (tokens.has(0)) {
+            this.lastConsumedLine = tokens.line(0);
+            if (tracing) {
+                recorder.recordToken(tokens.type(0), tokens.source(), tokens.start(0), tokens.length(0));
+            }
+            tokens.advance();
         }
+        // 越过文件末尾时不前进，lastConsumedLine 仍是最后一个单词所在行，缺少符号的错误报告在这一行
+    }
+
+    // 前进一个单词，并生成需要保存在 AST 中的 Token 对象
+    Token consumeToken() {
+        Token token = tokens.has(0) ? tokens.token(0) : pastEof();
+        consume();
         return token;
     }
 
-    Token matchAndConsume(TokenType expectedType, char errorCode) {
-        if (peek().getType() == expectedType) {
-            return consume();
+    private Token pastEof() {
+        if (pastEof == null) {
+            pastEof = new Token(TokenType.EOF, "EOF", null, lastConsumedLine);
+        }
+        return pastEof;
+    }
+
+    // 正确的输入只走第一个分支，报错放在单独的方法中，使这个方法足够小、可以被内联
+    void matchAndConsume(TokenType expectedType, char errorCode) {
+        if (peek() == expectedType) {
+            consume();
         } else {
-            int line = (lastConsumedToken != null) ? lastConsumedToken.getLineNumber() : peek().getLineNumber();
-            ErrorReporter.addError(line, errorCode);
-            return new Token(expectedType, "", null, line); // 返回一个哨兵Token避免空指针
+            reportMissing(errorCode);
         }
     }
 
-    int savePosition() {
-        return this.currentPos;
+    // 缺少 ';' ')' ']' (i / j / k 类错误)：报告在上一个单词所在行，不消耗单词
+    private void reportMissing(char errorCode) {
+        int line = (lastConsumedLine != NO_TOKEN) ? lastConsumedLine : peekLine();
+        diagnostics.report(line, errorCode);
+        if (errorCode == 'k') {
+            missingBrackets++;
+        }
     }
 
-    void restorePosition(int position) {
-        this.currentPos = position;
+    // 最后一个读入的单词所在行，文件在 '}' 之前结束时代替 '}' 的行号
+    int getLastConsumedLine() {
+        return lastConsumedLine;
+    }
+
+    int getMissingBrackets() {
+        return missingBrackets;
+    }
+
+    // 语句开头的 LVal 解析完后判断是否为赋值语句，missingBefore 为解析 LVal 前的 getMissingBrackets()。
+    // 方括号都配对时只看下一个单词是否为 '='；LVal 中缺少 ']' 时沿用逐个单词配对方括号的判断：
+    // 未闭合的 '[' 继续向后配对 (可能越过 '=')，全部闭合且没有下一组 '[' 时紧跟 '=' 才是赋值。
+    // 只有出错的输入会走到后一种情况，向前看的距离不受 MAX_LOOKAHEAD 限制
+    boolean isAssignmentAfterLVal(int missingBefore) {
+        int level = missingBrackets - missingBefore;
+        if (level == 0) {
+            return peek() == TokenType.ASSIGN;
+        }
+        int k = 0;
+        while (true) {
+            while (level > 0) {
+                TokenType type = peek(k++);
+                if (type == TokenType.LBRACK) {
+                    level++;
+                } else if (type == TokenType.RBRACK) {
+                    level--;
+                } else if (type == TokenType.EOF) {
+                    return false;
+                }
+            }
+            if (peek(k) != TokenType.LBRACK) {
+                return peek(k) == TokenType.ASSIGN;
+            }
+            level = 1;
+            k++;
+        }
     }
 
     ParserRecorder getRecorder() {
         return this.recorder;
     }
 
-    public List<Token> getTokens() {
-        return this.tokens;
+    public CompUnitNode parse() {
+        return parseCompUnit();
     }
 
-    public CompUnitNode parse() {
+    // 解析为表达式压缩后的 AST，parser.txt 与错误和 parse() 相同
+    public CompUnitNode parseCompact() {
+        expressionParser.setCompact(true);
         return parseCompUnit();
     }
 
+    // 解析为扁平的 AstArena，parser.txt 与错误和 parse() 相同
+    public AstArena parseArena() {
+        return new ArenaParser(this, names).parse();
+    }
+
     // 编译单元 CompUnit → {Decl} {FuncDef} MainFuncDef
     private CompUnitNode parseCompUnit() {
         List<DeclNode> decls = new ArrayList<>();
         List<FuncDefNode> funcDefs = new ArrayList<>();
         MainFuncDefNode mainFuncDef;
-        int startLine = peek().getLineNumber();
+        int startLine = peekLine();
 
-        while (peek().getType() == TokenType.CONSTTK ||
-                peek().getType() == TokenType.STATICTK ||
-                (peek().getType() == TokenType.INTTK && peek(2).getType() != TokenType.LPARENT)){
+        while (peek() == TokenType.CONSTTK ||
+                peek() == TokenType.STATICTK ||
+                (peek() == TokenType.INTTK && peek(2) != TokenType.LPARENT)){
             decls.add(parseDecl());
         }
 
-        while (peek().getType() == TokenType.VOIDTK ||
-                (peek().getType() == TokenType.INTTK && !peekNext().getText().equals("main"))) {
+        while (peek() == TokenType.VOIDTK ||
+                (peek() == TokenType.INTTK && peek(1) != TokenType.MAINTK)) {
             funcDefs.add(parseFuncDef());
         }
 
@@ -122,7 +199,7 @@ public class Parser {
 
     // 声明 Decl → ConstDecl | VarDecl
     public DeclNode parseDecl() {
-        if (peek().getType() == TokenType.CONSTTK) {
+        if (peek() == TokenType.CONSTTK) {
             return parseConstDecl();
         } else {
             return parseVarDecl();
@@ -136,7 +213,7 @@ public class Parser {
         List<ConstDefNode> constDefs = new ArrayList<>();
         constDefs.add(parseConstDef());
 
-        while (peek().getType() == TokenType.COMMA) {
+        while (peek() == TokenType.COMMA) {
             consume();
             constDefs.add(parseConstDef());
         }
@@ -147,7 +224,7 @@ public class Parser {
     }
     // 基本类型 BType → 'int'
     private BTypeNode parseBType() {
-        Token typeToken = consume();
+        Token typeToken = consumeToken();
         recorder.recordSyntax("BType");
         return new BTypeNode(typeToken);
     }
@@ -155,10 +232,10 @@ public class Parser {
     // 常量定义 ConstDef → Ident [ '[' ConstExp ']' ] '=' ConstInitVal // k
     // 这里支持多维数组，但 ConstInitVal 还需做对应调整
     private ConstDefNode parseConstDef() {
-        Token ident = consume();
+        Token ident = consumeToken();
         List<ConstExpNode> constExps = new ArrayList<>();
 
-        while (peek().getType() == TokenType.LBRACK) {
+        while (peek() == TokenType.LBRACK) {
             consume();
             constExps.add(expressionParser.parseConstExp());
             matchAndConsume(TokenType.RBRACK, 'k');
@@ -172,20 +249,21 @@ public class Parser {
 
     // 常量初值 ConstInitVal → ConstExp | '{' [ ConstExp { ',' ConstExp } ] '}'
     private ConstInitValNode parseConstInitVal() {
-        if (peek().getType() == TokenType.LBRACE) {
-            Token lBrace = consume();
+        if (peek() == TokenType.LBRACE) {
+            int lBraceLine = peekLine();
+            consume();
             List<ConstExpNode> arrayInit = new ArrayList<>();
 
-            if (peek().getType() != TokenType.RBRACE) {
+            if (peek() != TokenType.RBRACE) {
                 arrayInit.add(expressionParser.parseConstExp());
-                while (peek().getType() == TokenType.COMMA) {
+                while (peek() == TokenType.COMMA) {
                     consume();
                     arrayInit.add(expressionParser.parseConstExp());
                 }
             }
-            Token rBrace = consume();
+            consume();
             recorder.recordSyntax("ConstInitVal");
-            return new ConstInitValNode(arrayInit, lBrace.getLineNumber());
+            return new ConstInitValNode(arrayInit, lBraceLine);
         } else {
             ConstExpNode singleInit = expressionParser.parseConstExp();
             recorder.recordSyntax("ConstInitVal");
@@ -196,9 +274,9 @@ public class Parser {
     // 变量声明 VarDecl → [ 'static' ] BType VarDef { ',' VarDef } ';' // i
     private VarDeclNode parseVarDecl() {
         boolean isStatic = false;
-        Token firstToken = peek();
+        int firstLine = peekLine();
 
-        if (peek().getType() == TokenType.STATICTK) {
+        if (peek() == TokenType.STATICTK) {
             isStatic = true;
             consume();
         }
@@ -207,29 +285,29 @@ public class Parser {
         List<VarDefNode> varDefs = new ArrayList<>();
         varDefs.add(parseVarDef());
 
-        while (peek().getType() == TokenType.COMMA) {
+        while (peek() == TokenType.COMMA) {
             consume();
             varDefs.add(parseVarDef());
         }
 
         matchAndConsume(TokenType.SEMICN, 'i');
         recorder.recordSyntax("VarDecl");
-        return new VarDeclNode(isStatic, bType, varDefs, firstToken.getLineNumber());
+        return new VarDeclNode(isStatic, bType, varDefs, firstLine);
     }
 
     // 变量定义 VarDef → Ident [ '[' ConstExp ']' ] | Ident [ '[' ConstExp ']' ] '=' InitVal // k
     // 同样支持多维数组，但对应的 InitVal 还需做对应调整
     private VarDefNode parseVarDef() {
-        Token ident = consume();
+        Token ident = consumeToken();
         List<ConstExpNode> constExps = new ArrayList<>();
 
-        while (peek().getType() == TokenType.LBRACK) {
+        while (peek() == TokenType.LBRACK) {
             consume();
             constExps.add(expressionParser.parseConstExp());
             matchAndConsume(TokenType.RBRACK, 'k');
         }
 
-        if (peek().getType() == TokenType.ASSIGN) {
+        if (peek() == TokenType.ASSIGN) {
             consume();
             InitValNode initVal = parseInitVal();
             recorder.recordSyntax("VarDef");
@@ -242,20 +320,21 @@ public class Parser {
 
     // 变量初值 InitVal → Exp | '{' [ Exp { ',' Exp } ] '}'
     private InitValNode parseInitVal() {
-        if (peek().getType() == TokenType.LBRACE) {
-            Token lBrace = consume();
+        if (peek() == TokenType.LBRACE) {
+            int lBraceLine = peekLine();
+            consume();
             List<ExpNode> arrayInit = new ArrayList<>();
 
-            if (peek().getType() != TokenType.RBRACE) {
+            if (peek() != TokenType.RBRACE) {
                 arrayInit.add(expressionParser.parseExp());
-                while (peek().getType() == TokenType.COMMA) {
+                while (peek() == TokenType.COMMA) {
                     consume();
                     arrayInit.add(expressionParser.parseExp());
                 }
             }
-            Token rBrace = consume();
+            consume();
             recorder.recordSyntax("InitVal");
-            return new InitValNode(arrayInit, lBrace.getLineNumber());
+            return new InitValNode(arrayInit, lBraceLine);
         } else {
             ExpNode singleInit = expressionParser.parseExp();
             recorder.recordSyntax("InitVal");
@@ -266,11 +345,11 @@ public class Parser {
     // 函数定义 FuncDef → FuncType Ident '(' [FuncFParams] ')' Block // j
     private FuncDefNode parseFuncDef() {
         FuncTypeNode funcType = parseFuncType();
-        Token ident = consume();
+        Token ident = consumeToken();
         consume(); // (
 
         List<FuncFParamNode> funcFParams = new ArrayList<>();
-        if (peek().getType() == TokenType.INTTK) {
+        if (peek() == TokenType.INTTK) {
             funcFParams = parseFuncFParams();
         }
 
@@ -282,7 +361,7 @@ public class Parser {
 
     // 函数类型 FuncType → 'void' | 'int'
     private FuncTypeNode parseFuncType() {
-        Token typeToken = consume();
+        Token typeToken = consumeToken();
         recorder.recordSyntax("FuncType");
         return new FuncTypeNode(typeToken);
     }
@@ -292,7 +371,7 @@ public class Parser {
         List<FuncFParamNode> params = new ArrayList<>();
         params.add(parseFuncFParam());
 
-        while (peek().getType() == TokenType.COMMA) {
+        while (peek() == TokenType.COMMA) {
             consume();
             params.add(parseFuncFParam());
         }
@@ -304,9 +383,9 @@ public class Parser {
     // 函数形参 FuncFParam → BType Ident ['[' ']'] // k
     private FuncFParamNode parseFuncFParam() {
         BTypeNode bType = parseBType();
-        Token ident = consume();
+        Token ident = consumeToken();
 
-        if (peek().getType() == TokenType.LBRACK) {
+        if (peek() == TokenType.LBRACK) {
             consume();
             matchAndConsume(TokenType.RBRACK, 'k');
             recorder.recordSyntax("FuncFParam");
@@ -319,25 +398,26 @@ public class Parser {
 
     // 主函数定义 MainFuncDef → 'int' 'main' '(' ')' Block // j
     private MainFuncDefNode parseMainFuncDef() {
-        Token intToken = consume();
+        int intLine = peekLine();
+        consume();
         consume();
         consume();
         matchAndConsume(TokenType.RPARENT, 'j');
         BlockNode block = statementParser.parseBlock();
         recorder.recordSyntax("MainFuncDef");
-        return new MainFuncDefNode(block, intToken.getLineNumber());
+        return new MainFuncDefNode(block, intLine);
     }
 
     // 左值表达式 LVal → Ident ['[' Exp ']'] // k
     // 可以支持 a[i][j][k]
     public LValNode parseLVal() {
-        Token ident = consume();
+        Token ident = consumeToken();
 
-        if (peek().getType() == TokenType.LBRACK) {
+        if (peek() == TokenType.LBRACK) {
             // 是数组元素
             List<ExpNode> arrayExps = new ArrayList<>();
 
-            while (peek().getType() == TokenType.LBRACK) {
+            while (peek() == TokenType.LBRACK) {
                 consume();
                 arrayExps.add(expressionParser.parseExp());
                 matchAndConsume(TokenType.RBRACK, 'k');
@@ -23,21 +23,29 @@ public class StatementParser {
 
     // 语句块 Block → '{' { BlockItem } '}'
     public BlockNode parseBlock() {
-        Token lBrace = mainParser.consume();
+        int lBraceLine = mainParser.peekLine();
+        mainParser.consume();
         List<BlockItemNode> blockItems = new ArrayList<>();
-        while (mainParser.peek().getType() != TokenType.RBRACE) {
+        // 源码在 '}' 之前结束 (如未闭合的注释吞掉了其余部分) 时在文件末尾停止，否则会一直循环
+        while (mainParser.peek() != TokenType.RBRACE && mainParser.peek() != TokenType.EOF) {
             blockItems.add(this.parseBlockItem());
         }
-        Token rBrace = mainParser.consume();
+        int rBraceLine;
+        if (mainParser.peek() == TokenType.RBRACE) {
+            rBraceLine = mainParser.peekLine();
+            mainParser.consume();
+        } else {
+            rBraceLine = mainParser.getLastConsumedLine();
+        }
         mainParser.getRecorder().recordSyntax("Block");
-        return new BlockNode(blockItems, lBrace.getLineNumber(), rBrace.getLineNumber());
+        return new BlockNode(blockItems, lBraceLine, rBraceLine);
     }
 
     // 语句块项 BlockItem → Decl | Stmt
     public BlockItemNode parseBlockItem() {
-        if (mainParser.peek().getType() == TokenType.CONSTTK ||
-                mainParser.peek().getType() == TokenType.INTTK ||
-                mainParser.peek().getType() == TokenType.STATICTK) {
+        if (mainParser.peek() == TokenType.CONSTTK ||
+                mainParser.peek() == TokenType.INTTK ||
+                mainParser.peek() == TokenType.STATICTK) {
             return mainParser.parseDecl();
         } else {
             return this.parseStmt();
@@ -54,7 +62,7 @@ public class StatementParser {
     // | 'return' [Exp] ';' // i
     // | 'printf''('StringConst {','Exp}')'';' // i j
     public StmtNode parseStmt() {
-        TokenType currentType = mainParser.peek().getType();
+        TokenType currentType = mainParser.peek();
         StmtNode parsedStmtNode;
 
         if (currentType == TokenType.LBRACE) {
@@ -81,49 +89,51 @@ public class StatementParser {
 
     // | 'if' '(' Cond ')' Stmt [ 'else' Stmt ] // j
     private StmtNode parseIfStmt() {
-        Token ifToken = mainParser.consume();
+        int ifLine = mainParser.peekLine();
+        mainParser.consume();
         mainParser.consume();
         CondNode cond = expressionParser.parseCond();
         mainParser.matchAndConsume(TokenType.RPARENT, 'j');
         StmtNode thenStmt = this.parseStmt();
 
-        if (mainParser.peek().getType() == TokenType.ELSETK) {
+        if (mainParser.peek() == TokenType.ELSETK) {
             mainParser.consume();
             StmtNode elseStmt = this.parseStmt();
-            return new IfStmtNode(cond, thenStmt, elseStmt, ifToken.getLineNumber());
+            return new IfStmtNode(cond, thenStmt, elseStmt, ifLine);
         } else {
-            return new IfStmtNode(cond, thenStmt, ifToken.getLineNumber());
+            return new IfStmtNode(cond, thenStmt, ifLine);
         }
     }
 
     // | 'for' '(' [ForStmt] ';' [Cond] ';' [ForStmt] ')' Stmt
     private StmtNode parseForStmt() {
-        Token forToken = mainParser.consume();
+        int forLine = mainParser.peekLine();
+        mainParser.consume();
         mainParser.consume();
 
         ForSubStmtNode initStmt = null;
-        if (mainParser.peek().getType() != TokenType.SEMICN) {
+        if (mainParser.peek() != TokenType.SEMICN) {
             initStmt = this.parseForSubStmt();
         }
 
         mainParser.consume();
 
         CondNode cond = null;
-        if (mainParser.peek().getType() != TokenType.SEMICN) {
+        if (mainParser.peek() != TokenType.SEMICN) {
             cond = expressionParser.parseCond();
         }
 
         mainParser.consume();
 
         ForSubStmtNode updateStmt = null;
-        if (mainParser.peek().getType() != TokenType.RPARENT) {
+        if (mainParser.peek() != TokenType.RPARENT) {
             updateStmt = this.parseForSubStmt();
         }
 
         mainParser.consume();
         StmtNode bodyStmt = this.parseStmt();
 
-        return new ForStmtNode(initStmt, cond, updateStmt, bodyStmt, forToken.getLineNumber());
+        return new ForStmtNode(initStmt, cond, updateStmt, bodyStmt, forLine);
     }
 
     // 语句 ForStmt → LVal '=' Exp { ',' LVal '=' Exp }
@@ -135,7 +145,7 @@ public class StatementParser {
         mainParser.consume();
         exps.add(expressionParser.parseExp());
 
-        while (mainParser.peek().getType() == TokenType.COMMA) {
+        while (mainParser.peek() == TokenType.COMMA) {
             mainParser.consume();
             lVals.add(mainParser.parseLVal());
             mainParser.consume();
@@ -148,94 +158,74 @@ public class StatementParser {
 
     // | 'break' ';' // i
     private StmtNode parseBreakStmt() {
-        Token breakToken = mainParser.consume();
+        int breakLine = mainParser.peekLine();
+        mainParser.consume();
         mainParser.matchAndConsume(TokenType.SEMICN, 'i');
-        return new BreakStmtNode(breakToken.getLineNumber());
+        return new BreakStmtNode(breakLine);
     }
 
     // | 'continue' ';' // i
     private StmtNode parseContinueStmt() {
-        Token continueToken = mainParser.consume();
+        int continueLine = mainParser.peekLine();
+        mainParser.consume();
         mainParser.matchAndConsume(TokenType.SEMICN, 'i');
-        return new ContinueStmtNode(continueToken.getLineNumber());
+        return new ContinueStmtNode(continueLine);
     }
 
     // | 'return' [Exp] ';' // i
     private StmtNode parseReturnStmt() {
-        Token returnToken = mainParser.consume();
+        int returnLine = mainParser.peekLine();
+        mainParser.consume();
         ExpNode exp = null;
-        if (mainParser.peek().getType() != TokenType.SEMICN) {
+        if (mainParser.peek() != TokenType.SEMICN) {
             exp = expressionParser.parseExp();
         }
         mainParser.matchAndConsume(TokenType.SEMICN, 'i');
-        return new ReturnStmtNode(exp, returnToken.getLineNumber());
+        return new ReturnStmtNode(exp, returnLine);
     }
 
     // | 'printf''('StringConst {','Exp}')'';' // i j
     private StmtNode parsePrintfStmt() {
-        Token printfToken = mainParser.consume();
+        int printfLine = mainParser.peekLine();
         mainParser.consume();
-        Token formatString = mainParser.consume();
+        mainParser.consume();
+        Token formatString = mainParser.consumeToken();
 
         List<ExpNode> exps = new ArrayList<>();
 
-        while (mainParser.peek().getType() == TokenType.COMMA) {
+        while (mainParser.peek() == TokenType.COMMA) {
             mainParser.consume();
             exps.add(expressionParser.parseExp());
         }
 
         mainParser.matchAndConsume(TokenType.RPARENT, 'j');
         mainParser.matchAndConsume(TokenType.SEMICN, 'i');
-        return new PrintfStmtNode(formatString, exps, printfToken.getLineNumber());
-    }
-
-    private boolean isAssignment() {
-        int initialPos = mainParser.savePosition();
-        try {
-            int tempPos = initialPos;
-            if (tempPos >= mainParser.getTokens().size() ||
-                    mainParser.getTokens().get(tempPos).getType() != TokenType.IDENFR) {
-                return false;
-            }
-            tempPos++;
-
-            while (tempPos < mainParser.getTokens().size() &&
-                    mainParser.getTokens().get(tempPos).getType() == TokenType.LBRACK) {
-                tempPos++;
-                int bracketLevel = 1;
-                while (bracketLevel > 0 && tempPos < mainParser.getTokens().size()) {
-                    TokenType type = mainParser.getTokens().get(tempPos).getType();
-                    if (type == TokenType.LBRACK) bracketLevel++;
-                    else if (type == TokenType.RBRACK) bracketLevel--;
-                    else if (type == TokenType.EOF) return false;
-                    tempPos++;
-                }
-            }
-
-            return tempPos < mainParser.getTokens().size() &&
-                    mainParser.getTokens().get(tempPos).getType() == TokenType.ASSIGN;
-        } finally {
-            mainParser.restorePosition(initialPos);
-        }
+        return new PrintfStmtNode(formatString, exps, printfLine);
     }
 
     // 语句 Stmt → LVal '=' Exp ';' // i
     // | [Exp] ';' // i
+    // 以 Ident 开头且不是函数调用时，先解析一次 LVal，再根据其后是否为 '=' 决定语句类型，不回头重扫单词
+    // (LVal 中缺少 ']' 时的判断见 Parser.isAssignmentAfterLVal)
     private StmtNode parseAssignOrExpStmt() {
-        if (this.isAssignment()) {
+        int firstLine = mainParser.peekLine();
+        ExpNode exp = null;
+
+        if (mainParser.peek() == TokenType.IDENFR && mainParser.peek(1) != TokenType.LPARENT) {
+            int missing = mainParser.getMissingBrackets();
             LValNode lVal = mainParser.parseLVal();
-            mainParser.consume();
-            ExpNode exp = expressionParser.parseExp();
-            mainParser.matchAndConsume(TokenType.SEMICN, 'i');
-            return new AssignStmtNode(lVal, exp);
-        } else {
-            ExpNode exp = null;
-            Token firstToken = mainParser.peek();
-            if (mainParser.peek().getType() != TokenType.SEMICN) {
-                exp = expressionParser.parseExp();
+            if (mainParser.isAssignmentAfterLVal(missing)) {
+                mainParser.consume(); // '='，LVal 缺少 ']' 时可能是其他单词
+                ExpNode rhs = expressionParser.parseExp();
+                mainParser.matchAndConsume(TokenType.SEMICN, 'i');
+                return new AssignStmtNode(lVal, rhs);
             }
-            mainParser.matchAndConsume(TokenType.SEMICN, 'i');
-            return new ExpStmtNode(exp, firstToken.getLineNumber());
+            exp = expressionParser.parseExp(lVal);
+        } else if (mainParser.peek() != TokenType.SEMICN) {
+            exp = expressionParser.parseExp();
         }
+
+        mainParser.matchAndConsume(TokenType.SEMICN, 'i');
+        return new ExpStmtNode(exp, firstLine);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package io.github.tomorrow615.compiler.frontend.symbol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 扁平的作用域栈：所有作用域中的定义按顺序压入同一个绑定栈，
+ * 每个名字 ID 记录其最内层的绑定，每个绑定记录它遮蔽的外层绑定，形成每个名字的遮蔽栈。
+ * 查找只需一次数组访问；退出作用域时绑定栈中属于本层的部分就是撤销日志，逐个恢复被遮蔽的绑定，
+ * 耗时与本层定义的个数成正比，与嵌套深度无关。
+ * 每个作用域仍创建一个 SymbolTable，但只用于按定义顺序保存符号，不参与查找。
+ */
+public class FlatScopeStack implements ScopeStack {
+    private int[] innermost = new int[64];       // 名字 ID → 最内层绑定的下标 + 1，0 表示没有定义
+    private Symbol[] bindings = new Symbol[64];  // 绑定栈
+    private int[] shadowed = new int[64];        // 每个绑定所遮蔽的外层绑定 (下标 + 1)
+    private int bindingCount = 0;
+
+    private int[] scopeStarts = new int[16];     // 每层作用域的第一个绑定在绑定栈中的位置
+    private SymbolTable[] openScopes = new SymbolTable[16];
+    private int depth = 0;
+
+    private final List<SymbolTable> allScopes = new ArrayList<>();
+    private int nextScopeId = 1;
+
+    @Override
+    public void enterScope() {
+        if (depth == scopeStarts.length) {
+            scopeStarts = Arrays.copyOf(scopeStarts, depth * 2);
+            openScopes = Arrays.copyOf(openScopes, depth * 2);
+        }
+        SymbolTable scope = new SymbolTable(depth == 0 ? null : openScopes[depth - 1], nextScopeId++);
+        allScopes.add(scope);
+        scopeStarts[depth] = bindingCount;
+        openScopes[depth] = scope;
+        depth++;
+    }
+
+    @Override
+    public void exitScope() {
+        if (depth == 0) {
+            return;
+        }
+        depth--;
+        int start = scopeStarts[depth];
+        for (int i = bindingCount - 1; i >= start; i--) {
+            innermost[bindings[i].getNameId()] = shadowed[i];
+            bindings[i] = null;
+        }
+        bindingCount = start;
+        openScopes[depth] = null;
+    }
+
+    @Override
+    public boolean addSymbol(Symbol symbol) {
+        if (!bind(symbol)) {
+            return false;
+        }
+        getCurrentScope().record(symbol);
+        return true;
+    }
+
+    @Override
+    public void addBuiltInSymbol(Symbol symbol) {
+        bind(symbol);
+    }
+
+    // 在当前作用域中压入绑定，最内层绑定已属于当前作用域时为重定义
+    private boolean bind(Symbol symbol) {
+        int nameId = symbol.getNameId();
+        if (nameId >= innermost.length) {
+            innermost = Arrays.copyOf(innermost, Math.max(innermost.length * 2, nameId + 1));
+        }
+        int previous = innermost[nameId];
+        if (previous > scopeStarts[depth - 1]) {
+            return false;
+        }
+
+        if (bindingCount == bindings.length) {
+            bindings = Arrays.copyOf(bindings, bindingCount * 2);
+            shadowed = Arrays.copyOf(shadowed, bindingCount * 2);
+        }
+        bindings[bindingCount] = symbol;
+        shadowed[bindingCount] = previous;
+        innermost[nameId] = ++bindingCount;
+        return true;
+    }
+
+    @Override
+    public Symbol lookup(int nameId) {
+        if (nameId < 0 || nameId >= innermost.length) {
+            return null;
+        }
+        int binding = innermost[nameId];
+        return binding == 0 ? null : bindings[binding - 1];
+    }
+
+    @Override
+    public SymbolTable getCurrentScope() {
+        return depth == 0 ? null : openScopes[depth - 1];
+    }
+
+    @Override
+    public List<SymbolTable> getAllScopes() {
+        return allScopes;
+    }
+}
@@ -11,12 +11,13 @@ public class FuncSymbol extends Symbol {
     /**
      * 构造一个函数符号。
      *
-     * @param name 符号名称
-     * @param type 符号类型 (必须是 IntFunc 或 VoidFunc)
-     * @param line 定义所在的行号
+     * @param name   符号名称
+     * @param nameId 名字在 NameTable 中的 ID
+     * @param type   符号类型 (必须是 IntFunc 或 VoidFunc)
+     * @param line   定义所在的行号
      */
-    public FuncSymbol(String name, SymbolType type, int line) {
-        super(name, type, line);
+    public FuncSymbol(String name, int nameId, SymbolType type, int line) {
+        super(name, nameId, type, line);
     }
 
     public void addParameter(ValueSymbol param) {
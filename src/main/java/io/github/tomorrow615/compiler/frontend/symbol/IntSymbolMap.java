@@ -0,0 +1,72 @@
+package io.github.tomorrow615.compiler.frontend.symbol;
+
+/**
+ * 以名字 ID 为键的开放寻址散列表 (线性探测)，代替 HashMap<String, Symbol>，
+ * 查找时既不计算字符串散列也不装箱。键保存为 ID + 1，0 表示空槽，因此 ID 不能为负
+ * (错误恢复时当作标识符的其他单词由语义分析驻留后再放入)。
+ */
+class IntSymbolMap {
+    private int[] keys = new int[8];
+    private Symbol[] values = new Symbol[8];
+    private int size = 0;
+
+    Symbol get(int nameId) {
+        int mask = keys.length - 1;
+        for (int slot = hash(nameId) & mask; ; slot = (slot + 1) & mask) {
+            int key = keys[slot];
+            if (key == nameId + 1) {
+                return values[slot];
+            }
+            if (key == 0) {
+                return null;
+            }
+        }
+    }
+
+    boolean containsKey(int nameId) {
+        return get(nameId) != null;
+    }
+
+    void put(int nameId, Symbol symbol) {
+        if (nameId < 0) {
+            throw new IllegalArgumentException("名字 ID 不能为负: " + nameId);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int slot = hash(nameId) & mask;
+        while (keys[slot] != 0 && keys[slot] != nameId + 1) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = nameId + 1;
+            size++;
+        }
+        values[slot] = symbol;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        Symbol[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Symbol[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = hash(oldKeys[i] - 1) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // ID 是连续的小整数，乘以黄金分割常数把相邻 ID 打散到不同槽位
+    private static int hash(int nameId) {
+        int h = nameId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
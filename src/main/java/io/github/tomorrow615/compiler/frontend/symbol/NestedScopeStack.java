@@ -0,0 +1,50 @@
+package io.github.tomorrow615.compiler.frontend.symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 以 SymbolTable 的父作用域链实现的作用域栈
+public class NestedScopeStack implements ScopeStack {
+    private SymbolTable currentScope;
+    private final List<SymbolTable> allScopes = new ArrayList<>();
+    private int nextScopeId = 1;
+
+    @Override
+    public void enterScope() {
+        SymbolTable newScope = new SymbolTable(currentScope, nextScopeId++);
+        allScopes.add(newScope);
+        currentScope = newScope;
+    }
+
+    @Override
+    public void exitScope() {
+        if (currentScope != null) {
+            currentScope = currentScope.getParent();
+        }
+    }
+
+    @Override
+    public boolean addSymbol(Symbol symbol) {
+        return currentScope.addSymbol(symbol);
+    }
+
+    @Override
+    public void addBuiltInSymbol(Symbol symbol) {
+        currentScope.addBuiltInSymbol(symbol);
+    }
+
+    @Override
+    public Symbol lookup(int nameId) {
+        return currentScope.lookup(nameId);
+    }
+
+    @Override
+    public SymbolTable getCurrentScope() {
+        return currentScope;
+    }
+
+    @Override
+    public List<SymbolTable> getAllScopes() {
+        return allScopes;
+    }
+}
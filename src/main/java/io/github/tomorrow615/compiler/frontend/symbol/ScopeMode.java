@@ -0,0 +1,6 @@
+package io.github.tomorrow615.compiler.frontend.symbol;
+
+public enum ScopeMode {
+    NESTED,  // 每个作用域一个 SymbolTable，查找时沿父作用域链逐层查找
+    FLAT     // 每个名字一个遮蔽栈，查找 O(1)，退出作用域时按撤销日志弹出本层的定义
+}
@@ -0,0 +1,31 @@
+package io.github.tomorrow615.compiler.frontend.symbol;
+
+import java.util.List;
+
+/**
+ * 语义分析期间的作用域栈。两种实现的查找结果与作用域编号完全相同，
+ * getAllScopes() 都按创建顺序给出各作用域中按定义顺序排列的符号，供 SymbolRecorder 输出。
+ */
+public interface ScopeStack {
+    static ScopeStack create(ScopeMode mode) {
+        return mode == ScopeMode.FLAT ? new FlatScopeStack() : new NestedScopeStack();
+    }
+
+    // 创建并进入新的作用域，作用域编号从 1 开始按创建顺序递增
+    void enterScope();
+
+    void exitScope();
+
+    // 在当前作用域中定义符号，当前作用域已有同名符号时返回 false
+    boolean addSymbol(Symbol symbol);
+
+    // 定义内置函数：可以被查找到，但不输出到 symbol.txt
+    void addBuiltInSymbol(Symbol symbol);
+
+    // 由内向外查找名字，找不到时返回 null
+    Symbol lookup(int nameId);
+
+    SymbolTable getCurrentScope();
+
+    List<SymbolTable> getAllScopes();
+}
@@ -3,12 +3,15 @@ package io.github.tomorrow615.compiler.frontend.symbol;
 public abstract class Symbol {
     protected final String name;
 
+    protected final int nameId; // 名字在 NameTable 中的 ID，符号表以它为键
+
     protected final SymbolType type;
 
     protected final int line;
 
-    public Symbol(String name, SymbolType type, int line) {
+    public Symbol(String name, int nameId, SymbolType type, int line) {
         this.name = name;
+        this.nameId = nameId;
         this.type = type;
         this.line = line;
     }
@@ -17,6 +20,10 @@ public abstract class Symbol {
         return name;
     }
 
+    public int getNameId() {
+        return nameId;
+    }
+
     public SymbolType getType() {
         return type;
     }
@@ -1,7 +1,5 @@
 package io.github.tomorrow615.compiler.frontend.symbol;
 
-import java.util.Map;
-import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -12,7 +10,7 @@ public class SymbolTable {
 
     private final int scopeId; // 当前作用域的ID
 
-    private final Map<String, Symbol> symbols = new HashMap<>();
+    private final IntSymbolMap symbols = new IntSymbolMap(); // 名字 ID → 符号
 
     private final List<Symbol> orderedSymbols = new ArrayList<>();
 
@@ -27,7 +25,7 @@ public class SymbolTable {
     }
 
     public boolean addSymbol(Symbol symbol) {
-        String name = symbol.getName();
+        int name = symbol.getNameId();
         // 只检查当前作用域是否重定义
         if (symbols.containsKey(name)) {
             // 名字重定义，返回 false，由上层调用者 (SemanticVisitor) 报告错误
@@ -44,7 +42,7 @@ public class SymbolTable {
     // 它们需要被查找到 (添加到 'symbols')
     // 但不应该被输出到 symbol.txt (不添加到 'orderedSymbols')
     public void addBuiltInSymbol(Symbol symbol) {
-        String name = symbol.getName();
+        int name = symbol.getNameId();
         // 假设内置函数不会重定义
         if (!symbols.containsKey(name)) {
             symbols.put(name, symbol);
@@ -52,7 +50,12 @@ public class SymbolTable {
         // 注意：我们 *不* 调用 orderedSymbols.add(symbol);
     }
 
-    public Symbol lookup(String name) {
+    // 只按定义顺序记录符号，不加入查找表 (FlatScopeStack 自己维护查找结构)
+    void record(Symbol symbol) {
+        orderedSymbols.add(symbol);
+    }
+
+    public Symbol lookup(int name) {
         // 1. 先在当前作用域查找
         Symbol symbol = symbols.get(name);
         if (symbol != null) {
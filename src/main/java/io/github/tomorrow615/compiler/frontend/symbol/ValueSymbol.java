@@ -3,17 +3,21 @@ package io.github.tomorrow615.compiler.frontend.symbol;
 public class ValueSymbol extends Symbol {
 
     private final int dimension;
+    private int length = -1;     // 数组长度，长度不是常量或为数组形参时为 -1
+    private int[] constValues;   // 常量求值的结果，标量为长度 1 的数组；不是常量或尚未求值时为 null
+    private int[] initValues;    // 全局变量与 static 变量初值表达式的值 (不是常量的为 0)；没有初值时为 null
 
     /**
      * 构造一个值符号。
      *
      * @param name      符号名称
+     * @param nameId    名字在 NameTable 中的 ID
      * @param type      符号类型 (必须是 ConstInt, ConstIntArray, Int, IntArray, StaticInt, StaticIntArray 之一)
      * @param line      定义所在的行号
      * @param dimension 维度 (0 或 1)
      */
-    public ValueSymbol(String name, SymbolType type, int line, int dimension) {
-        super(name, type, line);
+    public ValueSymbol(String name, int nameId, SymbolType type, int line, int dimension) {
+        super(name, nameId, type, line);
         this.dimension = dimension;
     }
 
@@ -21,6 +25,44 @@ public class ValueSymbol extends Symbol {
         return dimension;
     }
 
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    public boolean hasConstValue() {
+        return constValues != null;
+    }
+
+    public int getConstValue() {
+        return constValues[0];
+    }
+
+    // 常量数组的全部元素 (未给出初值的元素为 0)，调用者不应修改
+    public int[] getConstValues() {
+        return constValues;
+    }
+
+    public void setConstValue(int value) {
+        this.constValues = new int[] {value};
+    }
+
+    public void setConstValues(int[] values) {
+        this.constValues = values;
+    }
+
+    // 变量的初值只在初始化时使用，不能像常量那样在表达式中折叠
+    public int[] getInitValues() {
+        return initValues;
+    }
+
+    public void setInitValues(int[] values) {
+        this.initValues = values;
+    }
+
     public boolean isConst() {
         return type == SymbolType.ConstInt || type == SymbolType.ConstIntArray;
     }
@@ -5,12 +5,13 @@ import io.github.tomorrow615.compiler.frontend.ast.*;
 import io.github.tomorrow615.compiler.frontend.ast.decl.*;
 import io.github.tomorrow615.compiler.frontend.ast.expr.*;
 import io.github.tomorrow615.compiler.frontend.ast.func.*;
+import io.github.tomorrow615.compiler.frontend.ast.stmt.*;
 import io.github.tomorrow615.compiler.frontend.lexer.Token;
 import java.io.PrintWriter;
-import java.lang.reflect.Field;
 import java.util.List;
 
-public class ASTPrinter {
+// 后序打印 AST：先按字段的声明顺序输出子节点与单词，再输出 <节点名>
+public class ASTPrinter implements ASTVisitor<Void> {
     private final PrintWriter writer;
 
     public ASTPrinter(PrintWriter writer) {
@@ -18,39 +19,319 @@ public class ASTPrinter {
     }
 
     public void print(ASTNode node) {
-        traverse(node);
-    }
-
-    // 使用反射来通用地遍历所有子节点
-    private void traverse(Object obj) {
-        if (obj == null) return;
-
-        if (obj instanceof ASTNode) {
-            // 这是一个AST节点
-            try {
-                // 获取所有字段
-                for (Field field : obj.getClass().getDeclaredFields()) {
-                    field.setAccessible(true);
-                    Object child = field.get(obj);
-                    traverse(child); // 递归遍历子字段
-                }
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-            }
-            // 后序遍历：在所有子节点都处理完毕后，打印当前节点名
-            if (!(obj.getClass().getSimpleName().equals("BTypeNode") ||
-                    obj.getClass().getSimpleName().equals("DeclNode"))) {
-                // 根据题目要求，<BlockItem>, <Decl>, <BType> 之外的才输出
-                writer.println("<" + obj.getClass().getSimpleName().replace("Node", "") + ">");
+        child(node);
+    }
+
+    private void child(ASTNode node) {
+        if (node != null) {
+            node.accept(this);
+        }
+    }
+
+    private void children(List<? extends ASTNode> nodes) {
+        if (nodes != null) {
+            for (ASTNode node : nodes) {
+                child(node);
             }
-        } else if (obj instanceof List) {
-            // 这是一个列表，遍历列表中的每个元素
-            for (Object item : (List<?>) obj) {
-                traverse(item);
+        }
+    }
+
+    private void token(Token token) {
+        if (token != null) {
+            writer.println(token.getType() + " " + token.getText());
+        }
+    }
+
+    private void tokens(List<Token> tokens) {
+        if (tokens != null) {
+            for (Token token : tokens) {
+                token(token);
             }
-        } else if (obj instanceof Token) {
-            // 这是一个Token，直接打印
-            writer.println(((Token) obj).getType() + " " + ((Token) obj).getText());
         }
     }
-}
\ No newline at end of file
+
+    private Void tag(String name) {
+        writer.println("<" + name + ">");
+        return null;
+    }
+
+    @Override
+    public Void visitCompUnit(CompUnitNode node) {
+        children(node.getDecls());
+        children(node.getFuncDefs());
+        child(node.getMainFuncDef());
+        return tag("CompUnit");
+    }
+
+    // --- 声明 ---
+
+    @Override
+    public Void visitBType(BTypeNode node) {
+        token(node.getTypeToken());
+        return null; // 根据题目要求，<BType> 不输出
+    }
+
+    @Override
+    public Void visitConstDecl(ConstDeclNode node) {
+        child(node.getbType());
+        children(node.getConstDefs());
+        return tag("ConstDecl");
+    }
+
+    @Override
+    public Void visitConstDef(ConstDefNode node) {
+        token(node.getIdent());
+        children(node.getConstExps());
+        child(node.getConstInitVal());
+        return tag("ConstDef");
+    }
+
+    @Override
+    public Void visitConstInitVal(ConstInitValNode node) {
+        child(node.getSingleInit());
+        children(node.getArrayInit());
+        return tag("ConstInitVal");
+    }
+
+    @Override
+    public Void visitVarDecl(VarDeclNode node) {
+        child(node.getbType());
+        children(node.getVarDefs());
+        return tag("VarDecl");
+    }
+
+    @Override
+    public Void visitVarDef(VarDefNode node) {
+        token(node.getIdent());
+        children(node.getConstExps());
+        child(node.getInitVal());
+        return tag("VarDef");
+    }
+
+    @Override
+    public Void visitInitVal(InitValNode node) {
+        child(node.getSingleInit());
+        children(node.getArrayInit());
+        return tag("InitVal");
+    }
+
+    // --- 函数 ---
+
+    @Override
+    public Void visitFuncDef(FuncDefNode node) {
+        child(node.getFuncType());
+        token(node.getIdent());
+        children(node.getFuncFParams());
+        child(node.getBlock());
+        return tag("FuncDef");
+    }
+
+    @Override
+    public Void visitFuncFParam(FuncFParamNode node) {
+        child(node.getBType());
+        token(node.getIdent());
+        return tag("FuncFParam");
+    }
+
+    @Override
+    public Void visitFuncType(FuncTypeNode node) {
+        token(node.getTypeToken());
+        return tag("FuncType");
+    }
+
+    @Override
+    public Void visitMainFuncDef(MainFuncDefNode node) {
+        child(node.getBlock());
+        return tag("MainFuncDef");
+    }
+
+    // --- 语句 ---
+
+    @Override
+    public Void visitBlock(BlockNode node) {
+        children(node.getBlockItems());
+        return tag("Block");
+    }
+
+    @Override
+    public Void visitAssignStmt(AssignStmtNode node) {
+        child(node.getlVal());
+        child(node.getExp());
+        return tag("AssignStmt");
+    }
+
+    @Override
+    public Void visitExpStmt(ExpStmtNode node) {
+        child(node.getExp());
+        return tag("ExpStmt");
+    }
+
+    @Override
+    public Void visitIfStmt(IfStmtNode node) {
+        child(node.getCond());
+        child(node.getThenStmt());
+        child(node.getElseStmt());
+        return tag("IfStmt");
+    }
+
+    @Override
+    public Void visitForStmt(ForStmtNode node) {
+        child(node.getInitStmt());
+        child(node.getCond());
+        child(node.getUpdateStmt());
+        child(node.getBodyStmt());
+        return tag("ForStmt");
+    }
+
+    @Override
+    public Void visitForSubStmt(ForSubStmtNode node) {
+        children(node.getLVals());
+        children(node.getExps());
+        return tag("ForSubStmt");
+    }
+
+    @Override
+    public Void visitBreakStmt(BreakStmtNode node) {
+        return tag("BreakStmt");
+    }
+
+    @Override
+    public Void visitContinueStmt(ContinueStmtNode node) {
+        return tag("ContinueStmt");
+    }
+
+    @Override
+    public Void visitReturnStmt(ReturnStmtNode node) {
+        child(node.getExp());
+        return tag("ReturnStmt");
+    }
+
+    @Override
+    public Void visitPrintfStmt(PrintfStmtNode node) {
+        token(node.getFormatString());
+        children(node.getExps());
+        return tag("PrintfStmt");
+    }
+
+    // --- 表达式：各层的操作数在前，运算符在后 ---
+
+    @Override
+    public Void visitExp(ExpNode node) {
+        child(node.getAddExp());
+        child(node.getExpr());
+        return tag("Exp");
+    }
+
+    @Override
+    public Void visitConstExp(ConstExpNode node) {
+        child(node.getAddExp());
+        child(node.getExpr());
+        return tag("ConstExp");
+    }
+
+    @Override
+    public Void visitCond(CondNode node) {
+        child(node.getLorExp());
+        child(node.getExpr());
+        return tag("Cond");
+    }
+
+    @Override
+    public Void visitLOrExp(LOrExpNode node) {
+        children(node.getlAndExps());
+        tokens(node.getOperators());
+        return tag("LOrExp");
+    }
+
+    @Override
+    public Void visitLAndExp(LAndExpNode node) {
+        children(node.getEqExps());
+        tokens(node.getOperators());
+        return tag("LAndExp");
+    }
+
+    @Override
+    public Void visitEqExp(EqExpNode node) {
+        children(node.getRelExps());
+        tokens(node.getOperators());
+        return tag("EqExp");
+    }
+
+    @Override
+    public Void visitRelExp(RelExpNode node) {
+        children(node.getAddExps());
+        tokens(node.getOperators());
+        return tag("RelExp");
+    }
+
+    @Override
+    public Void visitAddExp(AddExpNode node) {
+        children(node.getMulExps());
+        tokens(node.getOperators());
+        return tag("AddExp");
+    }
+
+    @Override
+    public Void visitMulExp(MulExpNode node) {
+        children(node.getUnaryExps());
+        tokens(node.getOperators());
+        return tag("MulExp");
+    }
+
+    @Override
+    public Void visitUnaryExp(UnaryExpNode node) {
+        child(node.getPrimaryExp());
+        token(node.getIdent());
+        child(node.getFuncRParams());
+        child(node.getUnaryOp());
+        child(node.getUnaryExp());
+        return tag("UnaryExp");
+    }
+
+    @Override
+    public Void visitUnaryOp(UnaryOpNode node) {
+        token(node.getOp());
+        return tag("UnaryOp");
+    }
+
+    @Override
+    public Void visitPrimaryExp(PrimaryExpNode node) {
+        child(node.getExp());
+        child(node.getLval());
+        child(node.getNumber());
+        return tag("PrimaryExp");
+    }
+
+    @Override
+    public Void visitFuncRParams(FuncRParamsNode node) {
+        children(node.getParams());
+        return tag("FuncRParams");
+    }
+
+    @Override
+    public Void visitLVal(LValNode node) {
+        token(node.getIdent());
+        children(node.getArrayExps());
+        return tag("LVal");
+    }
+
+    @Override
+    public Void visitNumber(NumberNode node) {
+        token(node.getIntConst());
+        return tag("Number");
+    }
+
+    @Override
+    public Void visitBinaryExp(BinaryExpNode node) {
+        children(node.getOperands());
+        tokens(node.getOperators());
+        return tag("BinaryExp");
+    }
+
+    @Override
+    public Void visitUnaryOpExp(UnaryOpExpNode node) {
+        child(node.getUnaryOp());
+        child(node.getOperand());
+        return tag("UnaryOpExp");
+    }
+}
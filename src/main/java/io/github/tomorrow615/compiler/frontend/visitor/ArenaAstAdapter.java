@@ -0,0 +1,368 @@
+package io.github.tomorrow615.compiler.frontend.visitor;
+
+import io.github.tomorrow615.compiler.frontend.ast.BlockItemNode;
+import io.github.tomorrow615.compiler.frontend.ast.CompUnitNode;
+import io.github.tomorrow615.compiler.frontend.ast.arena.ArenaNode;
+import io.github.tomorrow615.compiler.frontend.ast.arena.AstArena;
+import io.github.tomorrow615.compiler.frontend.ast.arena.NodeKind;
+import io.github.tomorrow615.compiler.frontend.ast.decl.*;
+import io.github.tomorrow615.compiler.frontend.ast.expr.*;
+import io.github.tomorrow615.compiler.frontend.ast.func.*;
+import io.github.tomorrow615.compiler.frontend.ast.stmt.*;
+import io.github.tomorrow615.compiler.frontend.lexer.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 让以对象 AST 编写的访问者运行在 AstArena 上：按需把扁平节点还原为对应的对象节点。
+ * SemanticVisitor.visit(AstArena) 每次只还原一个顶层声明或函数，访问完即可回收，
+ * 常驻内存的只有 AstArena 本身。折叠掉的单操作数表达式层次在还原时按所在位置补齐。
+ */
+public class ArenaAstAdapter {
+    private final AstArena arena;
+
+    public ArenaAstAdapter(AstArena arena) {
+        this.arena = arena;
+    }
+
+    public AstArena getArena() {
+        return arena;
+    }
+
+    // 还原整棵树
+    public CompUnitNode compUnit() {
+        int root = arena.root();
+        List<DeclNode> decls = new ArrayList<>();
+        List<FuncDefNode> funcDefs = new ArrayList<>();
+        MainFuncDefNode mainFuncDef = null;
+        for (int i = 0; i < arena.childCount(root); i++) {
+            int item = arena.child(root, i);
+            switch (arena.kind(item)) {
+                case FUNC_DEF:
+                    funcDefs.add(funcDef(item));
+                    break;
+                case MAIN_FUNC_DEF:
+                    mainFuncDef = mainFuncDef(item);
+                    break;
+                default:
+                    decls.add(decl(item));
+                    break;
+            }
+        }
+        return new CompUnitNode(decls, funcDefs, mainFuncDef, arena.line(root));
+    }
+
+    // --- 声明 ---
+
+    public DeclNode decl(int node) {
+        ArenaNode.Decl decl = (ArenaNode.Decl) arena.view(node);
+        BTypeNode bType = new BTypeNode(decl.bType());
+        if (decl.isConst()) {
+            List<ConstDefNode> defs = new ArrayList<>(decl.defCount());
+            for (int i = 0; i < decl.defCount(); i++) {
+                defs.add(constDef(decl.def(i)));
+            }
+            return new ConstDeclNode(bType, defs);
+        }
+        List<VarDefNode> defs = new ArrayList<>(decl.defCount());
+        for (int i = 0; i < decl.defCount(); i++) {
+            defs.add(varDef(decl.def(i)));
+        }
+        return new VarDeclNode(decl.isStatic(), bType, defs, decl.line());
+    }
+
+    private ConstDefNode constDef(int node) {
+        ArenaNode.Def def = (ArenaNode.Def) arena.view(node);
+        return new ConstDefNode(def.ident(), dimensions(def), constInitVal(def.init()));
+    }
+
+    private VarDefNode varDef(int node) {
+        ArenaNode.Def def = (ArenaNode.Def) arena.view(node);
+        if (def.hasInit()) {
+            return new VarDefNode(def.ident(), dimensions(def), initVal(def.init()));
+        }
+        return new VarDefNode(def.ident(), dimensions(def));
+    }
+
+    private List<ConstExpNode> dimensions(ArenaNode.Def def) {
+        List<ConstExpNode> constExps = new ArrayList<>(def.dimensionCount());
+        for (int i = 0; i < def.dimensionCount(); i++) {
+            constExps.add(constExp(def.dimension(i)));
+        }
+        return constExps;
+    }
+
+    private ConstInitValNode constInitVal(int node) {
+        ArenaNode.InitVal init = (ArenaNode.InitVal) arena.view(node);
+        if (!init.isArray()) {
+            return new ConstInitValNode(constExp(init.element(0)));
+        }
+        List<ConstExpNode> elements = new ArrayList<>(init.size());
+        for (int i = 0; i < init.size(); i++) {
+            elements.add(constExp(init.element(i)));
+        }
+        return new ConstInitValNode(elements, init.line());
+    }
+
+    private InitValNode initVal(int node) {
+        ArenaNode.InitVal init = (ArenaNode.InitVal) arena.view(node);
+        if (!init.isArray()) {
+            return new InitValNode(exp(init.element(0)));
+        }
+        List<ExpNode> elements = new ArrayList<>(init.size());
+        for (int i = 0; i < init.size(); i++) {
+            elements.add(exp(init.element(i)));
+        }
+        return new InitValNode(elements, init.line());
+    }
+
+    // --- 函数 ---
+
+    public FuncDefNode funcDef(int node) {
+        ArenaNode.FuncDef def = (ArenaNode.FuncDef) arena.view(node);
+        List<FuncFParamNode> params = new ArrayList<>(def.paramCount());
+        for (int i = 0; i < def.paramCount(); i++) {
+            ArenaNode.FuncFParam param = (ArenaNode.FuncFParam) arena.view(def.param(i));
+            params.add(new FuncFParamNode(new BTypeNode(param.bType()), param.ident(), param.isArray()));
+        }
+        return new FuncDefNode(new FuncTypeNode(def.funcType()), def.ident(), params, block(def.block()));
+    }
+
+    public MainFuncDefNode mainFuncDef(int node) {
+        return new MainFuncDefNode(block(arena.child(node, 0)), arena.line(node));
+    }
+
+    // --- 语句 ---
+
+    public BlockNode block(int node) {
+        ArenaNode.Block block = (ArenaNode.Block) arena.view(node);
+        List<BlockItemNode> items = new ArrayList<>(block.itemCount());
+        for (int i = 0; i < block.itemCount(); i++) {
+            int item = block.item(i);
+            NodeKind kind = arena.kind(item);
+            items.add(kind == NodeKind.CONST_DECL || kind == NodeKind.VAR_DECL ? decl(item) : stmt(item));
+        }
+        return new BlockNode(items, block.line(), block.endLine());
+    }
+
+    public StmtNode stmt(int node) {
+        int line = arena.line(node);
+        switch (arena.kind(node)) {
+            case BLOCK:
+                return block(node);
+            case ASSIGN:
+                return new AssignStmtNode(lVal(arena.child(node, 0)), exp(arena.child(node, 1)));
+            case EXP_STMT:
+                return new ExpStmtNode(optionalExp(arena.child(node, 0)), line);
+            case IF: {
+                ArenaNode.If stmt = (ArenaNode.If) arena.view(node);
+                if (stmt.elseStmt() == AstArena.NONE) {
+                    return new IfStmtNode(cond(stmt.cond()), stmt(stmt.thenStmt()), line);
+                }
+                return new IfStmtNode(cond(stmt.cond()), stmt(stmt.thenStmt()), stmt(stmt.elseStmt()), line);
+            }
+            case FOR: {
+                ArenaNode.For stmt = (ArenaNode.For) arena.view(node);
+                CondNode cond = stmt.cond() == AstArena.NONE ? null : cond(stmt.cond());
+                return new ForStmtNode(forSubStmt(stmt.init()), cond, forSubStmt(stmt.update()),
+                        stmt(stmt.body()), line);
+            }
+            case BREAK:
+                return new BreakStmtNode(line);
+            case CONTINUE:
+                return new ContinueStmtNode(line);
+            case RETURN:
+                return new ReturnStmtNode(optionalExp(arena.child(node, 0)), line);
+            case PRINTF: {
+                ArenaNode.Printf stmt = (ArenaNode.Printf) arena.view(node);
+                List<ExpNode> args = new ArrayList<>(stmt.argCount());
+                for (int i = 0; i < stmt.argCount(); i++) {
+                    args.add(exp(stmt.arg(i)));
+                }
+                return new PrintfStmtNode(stmt.format(), args, line);
+            }
+            default:
+                throw new IllegalArgumentException("不是语句节点: " + arena.kind(node));
+        }
+    }
+
+    private ForSubStmtNode forSubStmt(int node) {
+        if (node == AstArena.NONE) {
+            return null;
+        }
+        List<LValNode> lVals = new ArrayList<>();
+        List<ExpNode> exps = new ArrayList<>();
+        for (int i = 0; i < arena.childCount(node); i += 2) {
+            lVals.add(lVal(arena.child(node, i)));
+            exps.add(exp(arena.child(node, i + 1)));
+        }
+        return new ForSubStmtNode(lVals, exps);
+    }
+
+    // --- 表达式：node 可以是任意层次的表达式节点，缺少的层次在这里补齐 ---
+
+    private ExpNode optionalExp(int node) {
+        return node == AstArena.NONE ? null : exp(node);
+    }
+
+    public ExpNode exp(int node) {
+        return new ExpNode(addExp(node));
+    }
+
+    public ConstExpNode constExp(int node) {
+        return new ConstExpNode(addExp(node));
+    }
+
+    public CondNode cond(int node) {
+        return new CondNode(lOrExp(node));
+    }
+
+    private LOrExpNode lOrExp(int node) {
+        List<LAndExpNode> operands = new ArrayList<>();
+        List<Token> operators = new ArrayList<>();
+        if (arena.kind(node) == NodeKind.LOR) {
+            ArenaNode.Binary binary = (ArenaNode.Binary) arena.view(node);
+            for (int i = 0; i < binary.operandCount(); i++) {
+                if (i > 0) {
+                    operators.add(arena.token(binary.operatorNode(i - 1)));
+                }
+                operands.add(lAndExp(binary.operand(i)));
+            }
+        } else {
+            operands.add(lAndExp(node));
+        }
+        return new LOrExpNode(operands, operators);
+    }
+
+    private LAndExpNode lAndExp(int node) {
+        List<EqExpNode> operands = new ArrayList<>();
+        List<Token> operators = new ArrayList<>();
+        if (arena.kind(node) == NodeKind.LAND) {
+            ArenaNode.Binary binary = (ArenaNode.Binary) arena.view(node);
+            for (int i = 0; i < binary.operandCount(); i++) {
+                if (i > 0) {
+                    operators.add(arena.token(binary.operatorNode(i - 1)));
+                }
+                operands.add(eqExp(binary.operand(i)));
+            }
+        } else {
+            operands.add(eqExp(node));
+        }
+        return new LAndExpNode(operands, operators);
+    }
+
+    private EqExpNode eqExp(int node) {
+        List<RelExpNode> operands = new ArrayList<>();
+        List<Token> operators = new ArrayList<>();
+        if (arena.kind(node) == NodeKind.EQ) {
+            ArenaNode.Binary binary = (ArenaNode.Binary) arena.view(node);
+            for (int i = 0; i < binary.operandCount(); i++) {
+                if (i > 0) {
+                    operators.add(arena.token(binary.operatorNode(i - 1)));
+                }
+                operands.add(relExp(binary.operand(i)));
+            }
+        } else {
+            operands.add(relExp(node));
+        }
+        return new EqExpNode(operands, operators);
+    }
+
+    private RelExpNode relExp(int node) {
+        List<AddExpNode> operands = new ArrayList<>();
+        List<Token> operators = new ArrayList<>();
+        if (arena.kind(node) == NodeKind.REL) {
+            ArenaNode.Binary binary = (ArenaNode.Binary) arena.view(node);
+            for (int i = 0; i < binary.operandCount(); i++) {
+                if (i > 0) {
+                    operators.add(arena.token(binary.operatorNode(i - 1)));
+                }
+                operands.add(addExp(binary.operand(i)));
+            }
+        } else {
+            operands.add(addExp(node));
+        }
+        return new RelExpNode(operands, operators);
+    }
+
+    private AddExpNode addExp(int node) {
+        List<MulExpNode> operands = new ArrayList<>();
+        List<Token> operators = new ArrayList<>();
+        if (arena.kind(node) == NodeKind.ADD) {
+            ArenaNode.Binary binary = (ArenaNode.Binary) arena.view(node);
+            for (int i = 0; i < binary.operandCount(); i++) {
+                if (i > 0) {
+                    operators.add(arena.token(binary.operatorNode(i - 1)));
+                }
+                operands.add(mulExp(binary.operand(i)));
+            }
+        } else {
+            operands.add(mulExp(node));
+        }
+        return new AddExpNode(operands, operators);
+    }
+
+    private MulExpNode mulExp(int node) {
+        List<UnaryExpNode> operands = new ArrayList<>();
+        List<Token> operators = new ArrayList<>();
+        if (arena.kind(node) == NodeKind.MUL) {
+            ArenaNode.Binary binary = (ArenaNode.Binary) arena.view(node);
+            for (int i = 0; i < binary.operandCount(); i++) {
+                if (i > 0) {
+                    operators.add(arena.token(binary.operatorNode(i - 1)));
+                }
+                operands.add(unaryExp(binary.operand(i)));
+            }
+        } else {
+            operands.add(unaryExp(node));
+        }
+        return new MulExpNode(operands, operators);
+    }
+
+    private UnaryExpNode unaryExp(int node) {
+        switch (arena.kind(node)) {
+            case UNARY: {
+                ArenaNode.Unary unary = (ArenaNode.Unary) arena.view(node);
+                return new UnaryExpNode(new UnaryOpNode(arena.token(unary.child(0))), unaryExp(unary.operand()));
+            }
+            case CALL: {
+                ArenaNode.Call call = (ArenaNode.Call) arena.view(node);
+                FuncRParamsNode params = null;
+                if (call.argCount() > 0) {
+                    List<ExpNode> args = new ArrayList<>(call.argCount());
+                    for (int i = 0; i < call.argCount(); i++) {
+                        args.add(exp(call.arg(i)));
+                    }
+                    params = new FuncRParamsNode(args);
+                }
+                return new UnaryExpNode(call.ident(), params);
+            }
+            default:
+                return new UnaryExpNode(primaryExp(node));
+        }
+    }
+
+    private PrimaryExpNode primaryExp(int node) {
+        switch (arena.kind(node)) {
+            case LVAL:
+                return new PrimaryExpNode(lVal(node));
+            case PAREN:
+                return new PrimaryExpNode(exp(arena.child(node, 0)));
+            default:
+                return new PrimaryExpNode(new NumberNode(arena.token(node)));
+        }
+    }
+
+    public LValNode lVal(int node) {
+        ArenaNode.LVal lVal = (ArenaNode.LVal) arena.view(node);
+        if (lVal.indexCount() == 0) {
+            return new LValNode(lVal.ident());
+        }
+        List<ExpNode> indexes = new ArrayList<>(lVal.indexCount());
+        for (int i = 0; i < lVal.indexCount(); i++) {
+            indexes.add(exp(lVal.index(i)));
+        }
+        return new LValNode(lVal.ident(), indexes);
+    }
+}
@@ -0,0 +1,266 @@
+package io.github.tomorrow615.compiler.frontend.visitor;
+
+import io.github.tomorrow615.compiler.frontend.ast.*;
+import io.github.tomorrow615.compiler.frontend.ast.decl.*;
+import io.github.tomorrow615.compiler.frontend.ast.expr.*;
+import io.github.tomorrow615.compiler.frontend.lexer.*;
+import io.github.tomorrow615.compiler.frontend.symbol.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 编译期常量求值：在语义分析中把常量的值与数组长度折叠进 ValueSymbol，
+ * 之后的阶段直接读取符号中的值，不必再遍历初值的表达式树。
+ * 同时支持逐层的表达式 (AddExp / MulExp / UnaryExp / PrimaryExp) 与压缩表达式树 (AstMode.COMPACT)。
+ * 引用的名字由构造时给出的 lookup 按标识符查找 (语义分析中即当前作用域)，
+ * 只有已求出值的常量 (ConstInt / ConstIntArray) 可以参与求值。
+ * 不是常量 (引用变量、函数调用、除以 0、下标越界等) 时结果为 null，不报告错误。
+ * 求值结果只保存在符号中：ConstExp 与 Exp 的结果在一个定义之内按节点缓存，定义结束后清空，
+ * 不持有 AST 节点 (ARENA 模式下按函数释放的节点不会被留住)。
+ * 求值过的符号按定义的顺序记录，生成 IR 时按同样的顺序取用，不再遍历初值的表达式树。
+ */
+public class ConstEvaluator extends BaseASTVisitor<Integer> {
+    private final Function<Token, Symbol> lookup;
+    private final Map<ASTNode, Integer> memo = new IdentityHashMap<>();
+    private final List<ValueSymbol> definitions = new ArrayList<>();
+
+    public ConstEvaluator(Function<Token, Symbol> lookup) {
+        this.lookup = lookup;
+    }
+
+    // 按定义顺序排列的全部常量与变量符号 (不含形参)
+    public List<ValueSymbol> getDefinitions() {
+        return definitions;
+    }
+
+    // 常量定义 ConstDef：求出数组长度与初值并保存在符号中
+    public void define(ValueSymbol symbol, ConstDefNode node) {
+        definitions.add(symbol);
+        try {
+            fold(symbol, node);
+        } finally {
+            memo.clear();
+        }
+    }
+
+    // 变量定义 VarDef：求数组长度；全局变量与 static 变量 (constantInit) 的初值也是常量表达式，一并求出
+    public void define(ValueSymbol symbol, VarDefNode node, boolean constantInit) {
+        definitions.add(symbol);
+        try {
+            if (!node.getConstExps().isEmpty()) {
+                symbol.setLength(length(node.getConstExps().get(0)));
+            }
+            InitValNode init = node.getInitVal();
+            if (constantInit && init != null) {
+                List<ExpNode> exps = init.getType() == InitValNode.Type.SINGLE ?
+                        List.of(init.getSingleInit()) : init.getArrayInit();
+                int[] values = new int[exps.size()];
+                for (int i = 0; i < values.length; i++) {
+                    Integer value = evaluate(exps.get(i));
+                    values[i] = value == null ? 0 : value;
+                }
+                symbol.setInitValues(values);
+            }
+        } finally {
+            memo.clear();
+        }
+    }
+
+    private void fold(ValueSymbol symbol, ConstDefNode node) {
+        if (!node.getConstExps().isEmpty()) {
+            symbol.setLength(length(node.getConstExps().get(0)));
+        }
+
+        ConstInitValNode init = node.getConstInitVal();
+        if (init == null) {
+            return;
+        }
+        if (symbol.getDimension() == 0) {
+            if (init.getType() == ConstInitValNode.Type.SINGLE) {
+                Integer value = evaluate(init.getSingleInit());
+                if (value != null) {
+                    symbol.setConstValue(value);
+                }
+            }
+            return;
+        }
+
+        if (init.getType() != ConstInitValNode.Type.ARRAY) {
+            return;
+        }
+        List<ConstExpNode> elements = init.getArrayInit();
+        int length = symbol.getLength() >= 0 ? symbol.getLength() : elements.size();
+        int[] values = new int[length]; // 未给出初值的元素为 0
+        for (int i = 0; i < Math.min(length, elements.size()); i++) {
+            Integer value = evaluate(elements.get(i));
+            if (value == null) {
+                return;
+            }
+            values[i] = value;
+        }
+        symbol.setConstValues(values);
+    }
+
+    // 数组长度，不是非负常量时为 -1
+    private int length(ConstExpNode node) {
+        Integer value = evaluate(node);
+        return (value == null || value < 0) ? -1 : value;
+    }
+
+    private Integer evaluate(ConstExpNode node) {
+        return memoized(node);
+    }
+
+    private Integer evaluate(ExpNode node) {
+        return memoized(node);
+    }
+
+    private Integer memoized(ASTNode node) {
+        if (node == null) {
+            return null;
+        }
+        if (memo.containsKey(node)) {
+            return memo.get(node);
+        }
+        Integer value = node.accept(this);
+        memo.put(node, value);
+        return value;
+    }
+
+    private Integer value(ASTNode node) {
+        return node == null ? null : node.accept(this);
+    }
+
+    // --- 逐层的表达式 ---
+
+    @Override
+    public Integer visitConstExp(ConstExpNode node) {
+        return node.getExpr() != null ? value(node.getExpr()) : value(node.getAddExp());
+    }
+
+    @Override
+    public Integer visitExp(ExpNode node) {
+        return node.getExpr() != null ? value(node.getExpr()) : value(node.getAddExp());
+    }
+
+    @Override
+    public Integer visitAddExp(AddExpNode node) {
+        return fold(node.getMulExps(), node.getOperators());
+    }
+
+    @Override
+    public Integer visitMulExp(MulExpNode node) {
+        return fold(node.getUnaryExps(), node.getOperators());
+    }
+
+    @Override
+    public Integer visitUnaryExp(UnaryExpNode node) {
+        switch (node.getType()) {
+            case PRIMARY:
+                return value(node.getPrimaryExp());
+            case UNARY_OP:
+                return unary(node.getUnaryOp(), value(node.getUnaryExp()));
+            default:
+                return null; // 函数调用
+        }
+    }
+
+    @Override
+    public Integer visitPrimaryExp(PrimaryExpNode node) {
+        switch (node.getType()) {
+            case PAREN_EXP:
+                return value(node.getExp());
+            case LVAL:
+                return value(node.getLval());
+            default:
+                return value(node.getNumber());
+        }
+    }
+
+    // --- 压缩表达式树 ---
+
+    @Override
+    public Integer visitBinaryExp(BinaryExpNode node) {
+        if (node.getLevel() != BinaryExpNode.Level.ADD && node.getLevel() != BinaryExpNode.Level.MUL) {
+            return null; // 关系与逻辑运算只出现在 Cond 中
+        }
+        return fold(node.getOperands(), node.getOperators());
+    }
+
+    @Override
+    public Integer visitUnaryOpExp(UnaryOpExpNode node) {
+        return unary(node.getUnaryOp(), value(node.getOperand()));
+    }
+
+    // --- 两种形式共用的叶子 ---
+
+    @Override
+    public Integer visitLVal(LValNode node) {
+        Symbol symbol = lookup.apply(node.getIdent());
+        if (!(symbol instanceof ValueSymbol vs) || !vs.hasConstValue()) {
+            return null;
+        }
+        List<ExpNode> indexes = node.getArrayExps();
+        if (vs.getDimension() == 0) {
+            return indexes.isEmpty() ? vs.getConstValue() : null;
+        }
+        if (indexes.size() != 1) {
+            return null; // 数组本身不是整数常量
+        }
+        Integer index = evaluate(indexes.get(0));
+        int[] values = vs.getConstValues();
+        return (index == null || index < 0 || index >= values.length) ? null : values[index];
+    }
+
+    @Override
+    public Integer visitNumber(NumberNode node) {
+        return (Integer) node.getIntConst().getValue();
+    }
+
+    // 左结合地依次计算 operands[0] op operators[0] operands[1] ...
+    private Integer fold(List<? extends ASTNode> operands, List<Token> operators) {
+        Integer result = value(operands.get(0));
+        for (int i = 0; i < operators.size() && result != null; i++) {
+            Integer right = i + 1 < operands.size() ? value(operands.get(i + 1)) : null;
+            result = right == null ? null : binary(operators.get(i).getType(), result, right);
+        }
+        return result;
+    }
+
+    private static Integer binary(TokenType op, int left, int right) {
+        switch (op) {
+            case PLUS:
+                return left + right;
+            case MINU:
+                return left - right;
+            case MULT:
+                return left * right;
+            case DIV:
+                return right == 0 ? null : left / right;
+            case MOD:
+                return right == 0 ? null : left % right;
+            default:
+                return null;
+        }
+    }
+
+    private static Integer unary(UnaryOpNode op, Integer operand) {
+        if (operand == null) {
+            return null;
+        }
+        switch (op.getOp().getType()) {
+            case PLUS:
+                return operand;
+            case MINU:
+                return -operand;
+            case NOT:
+                return operand == 0 ? 1 : 0;
+            default:
+                return null;
+        }
+    }
+}
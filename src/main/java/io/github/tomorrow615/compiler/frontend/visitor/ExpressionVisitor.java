@@ -5,7 +5,7 @@ import io.github.tomorrow615.compiler.frontend.ast.decl.*;
 import io.github.tomorrow615.compiler.frontend.ast.func.*;
 import io.github.tomorrow615.compiler.frontend.ast.stmt.*;
 import io.github.tomorrow615.compiler.frontend.ast.expr.*;
-import io.github.tomorrow615.compiler.frontend.error.ErrorReporter;
+import io.github.tomorrow615.compiler.frontend.error.Diagnostics;
 import io.github.tomorrow615.compiler.frontend.lexer.*;
 import io.github.tomorrow615.compiler.frontend.symbol.*;
 
@@ -13,19 +13,22 @@ import java.util.List;
 
 public class ExpressionVisitor {
     private final SemanticVisitor hub;
+    private final Diagnostics diagnostics;
+    private final ExprDispatcher exprDispatcher = new ExprDispatcher();
 
     public ExpressionVisitor(SemanticVisitor hub) {
         this.hub = hub;
+        this.diagnostics = hub.getDiagnostics();
     }
 
     public Symbol visitLVal_for_Symbol(LValNode node) {
         if (node == null) return null;
         Token ident = node.getIdent();
-        Symbol symbol = hub.getCurrentScope().lookup(ident.getText());
+        Symbol symbol = hub.lookup(ident);
 
         if (symbol == null) {
             // 错误 c: 未定义的名字
-            ErrorReporter.addError(ident.getLineNumber(), 'c');
+            diagnostics.report(ident.getLineNumber(), 'c');
             return null;
         }
         return symbol;
@@ -34,16 +37,16 @@ public class ExpressionVisitor {
     public SymbolType visitLVal_for_Type(LValNode node) {
         if (node == null) return null;
         Token ident = node.getIdent();
-        Symbol symbol = hub.getCurrentScope().lookup(ident.getText());
+        Symbol symbol = hub.lookup(ident);
 
         if (symbol == null) {
-            ErrorReporter.addError(ident.getLineNumber(), 'c');
+            diagnostics.report(ident.getLineNumber(), 'c');
             return null; // 类型错误
         }
 
         if (!(symbol instanceof ValueSymbol vs)) {
             // 错误 c: 试图将函数名当作变量使用
-            ErrorReporter.addError(ident.getLineNumber(), 'c');
+            diagnostics.report(ident.getLineNumber(), 'c');
             return null; // 类型错误
         }
 
@@ -59,7 +62,7 @@ public class ExpressionVisitor {
 
         if (symbolDim == 0 && usageDim > 0) {
             // 错误 (e类): 对非数组变量使用 '[]' (e.g., int a; a[0]=1;)
-            ErrorReporter.addError(ident.getLineNumber(), 'e');
+            diagnostics.report(ident.getLineNumber(), 'e');
             return null;
         } else if (symbolDim > 0 && usageDim == 0) {
             // 用法：int a[10]; ... a ... (返回数组类型)
@@ -69,7 +72,7 @@ public class ExpressionVisitor {
             return SymbolType.Int;
         } else if (symbolDim != usageDim) {
             // 错误 (e类): 维度不匹配
-            ErrorReporter.addError(ident.getLineNumber(), 'e');
+            diagnostics.report(ident.getLineNumber(), 'e');
             return null;
         }
 
@@ -81,16 +84,60 @@ public class ExpressionVisitor {
 
     public SymbolType visitExp(ExpNode node) {
         if (node == null) return null;
+        if (node.getExpr() != null) return visitExpr(node.getExpr());
         // 表达式的类型 = AddExp 的类型
         return visitAddExp(node.getAddExp());
     }
 
     public SymbolType visitCond(CondNode node) {
         if (node == null) return null;
+        if (node.getExpr() != null) return visitExpr(node.getExpr());
         // (P3 新增) 访问 LOrExp
         return visitLOrExp(node.getLorExp());
     }
 
+    /**
+     * 访问压缩表达式树 (AstMode.COMPACT) 中的节点。
+     * 没有运算符的层级已在解析时省去，返回的类型与逐层访问相同。
+     */
+    public SymbolType visitExpr(ExprNode node) {
+        if (node == null) return null;
+        return node.accept(exprDispatcher);
+    }
+
+    // 按压缩表达式树节点的具体类型分派 (双分派)
+    private final class ExprDispatcher extends BaseASTVisitor<SymbolType> {
+        @Override
+        public SymbolType visitBinaryExp(BinaryExpNode node) {
+            for (ExprNode operand : node.getOperands()) {
+                operand.accept(this);
+            }
+            // 至少有一个运算符，结果视为 Int
+            return SymbolType.Int;
+        }
+
+        @Override
+        public SymbolType visitUnaryOpExp(UnaryOpExpNode node) {
+            node.getOperand().accept(this);
+            return SymbolType.Int; // 单目运算结果为 Int
+        }
+
+        @Override
+        public SymbolType visitUnaryExp(UnaryExpNode node) {
+            return visitCall(node); // 压缩表达式树中只有函数调用
+        }
+
+        @Override
+        public SymbolType visitLVal(LValNode node) {
+            return visitLVal_for_Type(node);
+        }
+
+        @Override
+        public SymbolType visitNumber(NumberNode node) {
+            return SymbolType.Int;
+        }
+    }
+
     public SymbolType visitLOrExp(LOrExpNode node) {
         if (node == null) return null;
 
@@ -227,53 +274,58 @@ public class ExpressionVisitor {
                 visitUnaryExp(node.getUnaryExp()); // 递归访问
                 return SymbolType.Int; // 单目运算结果为 Int
             case FUNC_CALL:
-                Token ident = node.getIdent();
-                Symbol symbol = hub.getCurrentScope().lookup(ident.getText());
+                return visitCall(node);
+        }
+        return null;
+    }
 
-                if (symbol == null) {
-                    ErrorReporter.addError(ident.getLineNumber(), 'c');
-                    return null;
-                }
+    // 函数调用 Ident '(' [FuncRParams] ')'，检查参数个数与类型，返回函数的返回类型
+    private SymbolType visitCall(UnaryExpNode node) {
+        Token ident = node.getIdent();
+        Symbol symbol = hub.lookup(ident);
 
-                if (!(symbol instanceof FuncSymbol fs)) {
-                    ErrorReporter.addError(ident.getLineNumber(), 'c');
-                    return null;
-                }
+        if (symbol == null) {
+            diagnostics.report(ident.getLineNumber(), 'c');
+            return null;
+        }
 
-                int expectedCount = fs.getParameters().size();
-                int actualCount = (node.getFuncRParams() == null) ? 0 : node.getFuncRParams().getParams().size();
+        if (!(symbol instanceof FuncSymbol fs)) {
+            diagnostics.report(ident.getLineNumber(), 'c');
+            return null;
+        }
 
-                if (expectedCount != actualCount) {
-                    ErrorReporter.addError(ident.getLineNumber(), 'd');
-                }
+        int expectedCount = fs.getParameters().size();
+        int actualCount = (node.getFuncRParams() == null) ? 0 : node.getFuncRParams().getParams().size();
 
-                // --- (P3 新增) 错误 'e' (函数参数类型不匹配) ---
-                if (node.getFuncRParams() != null && expectedCount == actualCount) {
-                    List<ValueSymbol> expectedParams = fs.getParameters();
-                    List<ExpNode> actualParams = node.getFuncRParams().getParams();
-
-                    for (int i = 0; i < expectedCount; i++) {
-                        SymbolType expectedType = expectedParams.get(i).getType(); // e.g., Int 或 IntArray
-                        SymbolType actualType = visitExp(actualParams.get(i)); // 递归调用，获取实参类型
-
-                        // 检查类型是否匹配
-                        // --- 修改开始 ---
-                        if (actualType != null && !areTypesCompatible(expectedType, actualType)) {
-                            // --- 修改结束 ---
-                            // (e.g., 期望 Int, 得到了 IntArray, 或者反之)
-                            ErrorReporter.addError(node.getIdent().getLineNumber(), 'e');
-                        }
-                    }
-                }
+        if (expectedCount != actualCount) {
+            diagnostics.report(ident.getLineNumber(), 'd');
+        }
 
-                // 返回函数的返回类型 (IntFunc -> Int, VoidFunc -> Void)
-                if (fs.getReturnType() == SymbolType.IntFunc) {
-                    return SymbolType.Int;
-                } else {
-                    return SymbolType.VoidFunc; // (P3 任务：需要一种 Void 类型)
+        // --- (P3 新增) 错误 'e' (函数参数类型不匹配) ---
+        if (node.getFuncRParams() != null && expectedCount == actualCount) {
+            List<ValueSymbol> expectedParams = fs.getParameters();
+            List<ExpNode> actualParams = node.getFuncRParams().getParams();
+
+            for (int i = 0; i < expectedCount; i++) {
+                SymbolType expectedType = expectedParams.get(i).getType(); // e.g., Int 或 IntArray
+                SymbolType actualType = visitExp(actualParams.get(i)); // 递归调用，获取实参类型
+
+                // 检查类型是否匹配
+                // --- 修改开始 ---
+                if (actualType != null && !areTypesCompatible(expectedType, actualType)) {
+                    // --- 修改结束 ---
+                    // (e.g., 期望 Int, 得到了 IntArray, 或者反之)
+                    diagnostics.report(node.getIdent().getLineNumber(), 'e');
                 }
+            }
+        }
+
+        // 返回函数的返回类型 (IntFunc -> Int, VoidFunc -> Void)
+        if (fs.getReturnType() == SymbolType.IntFunc) {
+            return SymbolType.Int;
+        } else {
+            return SymbolType.VoidFunc; // (P3 任务：需要一种 Void 类型)
         }
-        return null;
     }
 
     /**
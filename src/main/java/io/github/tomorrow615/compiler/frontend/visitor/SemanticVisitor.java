@@ -1,33 +1,53 @@
 package io.github.tomorrow615.compiler.frontend.visitor;
 
 import io.github.tomorrow615.compiler.frontend.ast.*;
+import io.github.tomorrow615.compiler.frontend.ast.arena.AstArena;
 import io.github.tomorrow615.compiler.frontend.ast.decl.*;
 import io.github.tomorrow615.compiler.frontend.ast.func.*;
 import io.github.tomorrow615.compiler.frontend.ast.stmt.*;
 import io.github.tomorrow615.compiler.frontend.ast.expr.*;
-import io.github.tomorrow615.compiler.frontend.error.ErrorReporter;
+import io.github.tomorrow615.compiler.frontend.CompilationContext;
+import io.github.tomorrow615.compiler.frontend.error.Diagnostics;
 import io.github.tomorrow615.compiler.frontend.lexer.*;
 import io.github.tomorrow615.compiler.frontend.symbol.*;
+import io.github.tomorrow615.compiler.util.Config;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class SemanticVisitor {
-    private SymbolTable currentScope;
-    private final List<SymbolTable> allScopes = new ArrayList<>();
-    private int nextScopeId = 1;
+    private final ScopeStack scopes = ScopeStack.create(Config.SCOPE_MODE);
     private FuncSymbol currentFunction;
     private int loopDepth = 0;
     private final ExpressionVisitor exprVisitor;
     private final StatementVisitor stmtVisitor;
+    private final ConstEvaluator constEvaluator = new ConstEvaluator(this::lookup);
+    private final Diagnostics diagnostics;
+    private final NameTable names;
+
+    // 按声明的具体类型分派 (双分派)
+    private final ASTVisitor<Void> declDispatcher = new BaseASTVisitor<>() {
+        @Override
+        public Void visitConstDecl(ConstDeclNode node) {
+            SemanticVisitor.this.visitConstDecl(node);
+            return null;
+        }
+
+        @Override
+        public Void visitVarDecl(VarDeclNode node) {
+            SemanticVisitor.this.visitVarDecl(node);
+            return null;
+        }
+    };
 
-    public SemanticVisitor() {
+    public SemanticVisitor(CompilationContext context) {
+        this.diagnostics = context.getDiagnostics();
+        this.names = context.getNames();
         this.exprVisitor = new ExpressionVisitor(this);
         this.stmtVisitor = new StatementVisitor(this);
     }
 
     public SymbolTable getCurrentScope() {
-        return currentScope;
+        return scopes.getCurrentScope();
     }
 
     public FuncSymbol getCurrentFunction() {
@@ -50,35 +70,36 @@ public class SemanticVisitor {
         this.currentFunction = func;
     }
 
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
     public List<SymbolTable> getAllScopes() {
-        return allScopes;
+        return scopes.getAllScopes();
     }
 
     public void enterScope() {
-        SymbolTable newScope = new SymbolTable(currentScope, nextScopeId++);
-        allScopes.add(newScope);
-        currentScope = newScope;
+        scopes.enterScope();
     }
 
     public void exitScope() {
-        if (currentScope != null) {
-            currentScope = currentScope.getParent();
-        }
+        scopes.exitScope();
     }
 
-    // 编译单元 CompUnit → {Decl} {FuncDef} MainFuncDef
-    public void visit(CompUnitNode compUnit) {
-        enterScope(); // 创建并进入全局作用域 (id=1)
+    public Symbol lookup(Token ident) {
+        return scopes.lookup(nameId(ident));
+    }
 
-        // --- 在这里添加 ---
-        // 注册内置函数 getint()
-        FuncSymbol getintFunc = new FuncSymbol("getint", SymbolType.IntFunc, 0);
-        currentScope.addBuiltInSymbol(getintFunc); // <-- 使用新方法
+    // 名字的 ID。错误恢复时会把其他单词 (';'、'=' 等) 当作标识符读入，这样的单词没有 ID (-1)，
+    // 在这里按其文本驻留，与普通名字一样查找并检查重定义。语法分析已经结束，不会与词法分析同时调用 intern()
+    private int nameId(Token ident) {
+        int id = ident.getNameId();
+        return id >= 0 ? id : names.intern(ident.getText());
+    }
 
-        // 注册内置函数 printf()
-        FuncSymbol printfFunc = new FuncSymbol("printf", SymbolType.VoidFunc, 0);
-        currentScope.addBuiltInSymbol(printfFunc); // <-- 使用新方法
-        // --- 添加结束 ---
+    // 编译单元 CompUnit → {Decl} {FuncDef} MainFuncDef
+    public void visit(CompUnitNode compUnit) {
+        enterGlobalScope();
 
         for (DeclNode decl : compUnit.getDecls()) {
             visitDecl(decl);
@@ -91,17 +112,49 @@ public class SemanticVisitor {
         visitMainFuncDef(compUnit.getMainFuncDef());
     }
 
+    // 在扁平 AST 上进行同样的分析：每次只把一个顶层声明或函数还原为对象节点
+    public void visit(AstArena arena) {
+        enterGlobalScope();
+
+        ArenaAstAdapter adapter = new ArenaAstAdapter(arena);
+        int root = arena.root();
+        for (int i = 0; i < arena.childCount(root); i++) {
+            int item = arena.child(root, i);
+            switch (arena.kind(item)) {
+                case FUNC_DEF:
+                    visitFuncDef(adapter.funcDef(item));
+                    break;
+                case MAIN_FUNC_DEF:
+                    visitMainFuncDef(adapter.mainFuncDef(item));
+                    break;
+                default:
+                    visitDecl(adapter.decl(item));
+                    break;
+            }
+        }
+    }
+
+    private void enterGlobalScope() {
+        enterScope(); // 创建并进入全局作用域 (id=1)
+
+        // --- 在这里添加 ---
+        // 注册内置函数 getint()
+        FuncSymbol getintFunc = new FuncSymbol("getint", names.intern("getint"), SymbolType.IntFunc, 0);
+        scopes.addBuiltInSymbol(getintFunc); // <-- 使用新方法
+
+        // 注册内置函数 printf()
+        FuncSymbol printfFunc = new FuncSymbol("printf", names.intern("printf"), SymbolType.VoidFunc, 0);
+        scopes.addBuiltInSymbol(printfFunc); // <-- 使用新方法
+        // --- 添加结束 ---
+    }
+
     // 声明 Decl → ConstDecl | VarDecl
     public void visitDecl(DeclNode node) {
-        if (node instanceof ConstDeclNode c) {
-            visitConstDecl(c);
-        } else if (node instanceof VarDeclNode v) {
-            visitVarDecl(v);
-        }
+        node.accept(declDispatcher);
     }
 
     // 常量声明 ConstDecl → 'const' BType ConstDef { ',' ConstDef } ';'
-    private void visitConstDecl(ConstDeclNode node) {
+    void visitConstDecl(ConstDeclNode node) {
         for (ConstDefNode def : node.getConstDefs()) {
             visitConstDef(def);
         }
@@ -116,16 +169,18 @@ public class SemanticVisitor {
         SymbolType type = (dimension > 0) ?
                 SymbolType.ConstIntArray : SymbolType.ConstInt;
 
-        ValueSymbol symbol = new ValueSymbol(ident.getText(), type, ident.getLineNumber(), dimension);
+        ValueSymbol symbol = new ValueSymbol(ident.getText(), nameId(ident), type,
+                ident.getLineNumber(), dimension);
 
-        boolean success = currentScope.addSymbol(symbol);
+        boolean success = scopes.addSymbol(symbol);
         if (!success) {
-            ErrorReporter.addError(ident.getLineNumber(), 'b');
+            diagnostics.report(ident.getLineNumber(), 'b');
         }
+        constEvaluator.define(symbol, node);
     }
 
     // 变量声明 VarDecl → [ 'static' ] BType VarDef { ',' VarDef } ';'
-    private void visitVarDecl(VarDeclNode node) {
+    void visitVarDecl(VarDeclNode node) {
         boolean isStatic = node.isStatic();
         for (VarDefNode def : node.getVarDefs()) {
             visitVarDef(def, isStatic);
@@ -144,12 +199,14 @@ public class SemanticVisitor {
             type = (dimension > 0) ? SymbolType.IntArray : SymbolType.Int;
         }
 
-        ValueSymbol symbol = new ValueSymbol(ident.getText(), type, ident.getLineNumber(), dimension);
+        ValueSymbol symbol = new ValueSymbol(ident.getText(), nameId(ident), type,
+                ident.getLineNumber(), dimension);
 
-        boolean success = currentScope.addSymbol(symbol);
+        boolean success = scopes.addSymbol(symbol);
         if (!success) {
-            ErrorReporter.addError(ident.getLineNumber(), 'b');
+            diagnostics.report(ident.getLineNumber(), 'b');
         }
+        constEvaluator.define(symbol, node, isStatic || currentFunction == null);
     }
 
     // 函数定义 FuncDef → FuncType Ident '(' [FuncFParams] ')' Block // b g
@@ -160,18 +217,20 @@ public class SemanticVisitor {
         SymbolType type = (funcTypeToken == TokenType.VOIDTK) ?
                 SymbolType.VoidFunc : SymbolType.IntFunc;
 
-        FuncSymbol funcSymbol = new FuncSymbol(ident.getText(), type, ident.getLineNumber());
+        FuncSymbol funcSymbol = new FuncSymbol(ident.getText(), nameId(ident), type,
+                ident.getLineNumber());
 
-        boolean success = currentScope.addSymbol(funcSymbol);
+        boolean success = scopes.addSymbol(funcSymbol);
         if (!success) {
-            ErrorReporter.addError(ident.getLineNumber(), 'b');
+            diagnostics.report(ident.getLineNumber(), 'b');
             // 即使重定义，也继续分析函数内部，但使用第一个定义的符号
-            Symbol existing = currentScope.lookup(ident.getText());
+            Symbol existing = scopes.lookup(nameId(ident));
             if (existing instanceof FuncSymbol) {
                 funcSymbol = (FuncSymbol) existing;
             } else {
                 // 名字冲突，但不是函数，创建一个临时的继续分析
-                funcSymbol = new FuncSymbol(ident.getText(), type, ident.getLineNumber());
+                funcSymbol = new FuncSymbol(ident.getText(), nameId(ident), type,
+                        ident.getLineNumber());
             }
         }
 
@@ -184,17 +243,17 @@ public class SemanticVisitor {
             SymbolType paramType = isArray ? SymbolType.IntArray : SymbolType.Int;
             int dimension = isArray ? 1 : 0;
 
-            ValueSymbol paramSymbol = new ValueSymbol(paramIdent.getText(), paramType,
+            ValueSymbol paramSymbol = new ValueSymbol(paramIdent.getText(), nameId(paramIdent), paramType,
                     paramIdent.getLineNumber(), dimension);
 
             // 1. 添加到 FuncSymbol 中，用于d,e类错误检查
             funcSymbol.addParameter(paramSymbol);
 
             // 2. 添加到函数作用域中
-            boolean paramSuccess = currentScope.addSymbol(paramSymbol);
+            boolean paramSuccess = scopes.addSymbol(paramSymbol);
             if (!paramSuccess) {
                 // 错误 b: 名字重定义 (形参)
-                ErrorReporter.addError(paramIdent.getLineNumber(), 'b');
+                diagnostics.report(paramIdent.getLineNumber(), 'b');
             }
         }
 
@@ -214,7 +273,7 @@ public class SemanticVisitor {
             }
 
             if (!hasReturn) {
-                ErrorReporter.addError(funcBody.getEndLineNumber(), 'g');
+                diagnostics.report(funcBody.getEndLineNumber(), 'g');
             }
         }
 
@@ -225,7 +284,8 @@ public class SemanticVisitor {
     // 主函数定义 MainFuncDef → 'int' 'main' '(' ')' Block // g
     public void visitMainFuncDef(MainFuncDefNode node) {
         // 创建一个临时的 FuncSymbol 来表示 main，用于 f/g 类错误检查
-        FuncSymbol mainSymbol = new FuncSymbol("main", SymbolType.IntFunc, node.getLineNumber());
+        FuncSymbol mainSymbol = new FuncSymbol("main", names.intern("main"), SymbolType.IntFunc,
+                node.getLineNumber());
 
         setCurrentFunction(mainSymbol);
         enterScope(); // 进入 main 的新作用域
@@ -246,7 +306,7 @@ public class SemanticVisitor {
             }
 
             if (!hasReturn) {
-                ErrorReporter.addError(mainBody.getEndLineNumber(), 'g');
+                diagnostics.report(mainBody.getEndLineNumber(), 'g');
             }
         }
 
@@ -261,4 +321,8 @@ public class SemanticVisitor {
     public StatementVisitor getStmtVisitor() {
         return stmtVisitor;
     }
+
+    public ConstEvaluator getConstEvaluator() {
+        return constEvaluator;
+    }
 }
\ No newline at end of file
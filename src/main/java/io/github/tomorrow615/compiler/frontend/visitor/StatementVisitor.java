@@ -5,74 +5,115 @@ import io.github.tomorrow615.compiler.frontend.ast.decl.*;
 import io.github.tomorrow615.compiler.frontend.ast.func.*;
 import io.github.tomorrow615.compiler.frontend.ast.stmt.*;
 import io.github.tomorrow615.compiler.frontend.ast.expr.*;
-import io.github.tomorrow615.compiler.frontend.error.ErrorReporter;
+import io.github.tomorrow615.compiler.frontend.error.Diagnostics;
 import io.github.tomorrow615.compiler.frontend.lexer.*;
 import io.github.tomorrow615.compiler.frontend.symbol.*;
 
 public class StatementVisitor {
     private final SemanticVisitor hub;
+    private final Diagnostics diagnostics;
+    private final Dispatcher dispatcher = new Dispatcher();
 
     public StatementVisitor(SemanticVisitor hub) {
         this.hub = hub;
+        this.diagnostics = hub.getDiagnostics();
     }
 
-    // 语句块 Block → '{' { BlockItem } '}'
-    // 语句块项 BlockItem → Decl | Stmt
-    public void visitBlock(BlockNode node) {
-        if (node == null) return;
-
-        for (BlockItemNode item : node.getBlockItems()) {
-            if (item instanceof DeclNode d) {
-                hub.visitDecl(d);
-            } else if (item instanceof StmtNode s) {
-                visitStmt(s);
-            }
+    // 按语句块项的具体类型分派：item.accept(dispatcher) 只经过一次虚调用，不再逐个 instanceof 判断
+    private final class Dispatcher extends BaseASTVisitor<Void> {
+        @Override
+        public Void visitConstDecl(ConstDeclNode node) {
+            hub.visitConstDecl(node);
+            return null;
         }
-    }
 
-    public void visitStmt(StmtNode node) {
-        if (node == null) return;
+        @Override
+        public Void visitVarDecl(VarDeclNode node) {
+            hub.visitVarDecl(node);
+            return null;
+        }
 
-        if (node instanceof BlockNode b) {
+        @Override
+        public Void visitBlock(BlockNode node) {
             // 这是一个 *嵌套* 的语句块, e.g., if (...) { ... }
             // 它需要创建自己的作用域
             hub.enterScope();
-            visitBlock(b); // 遍历块的内容
+            StatementVisitor.this.visitBlock(node); // 遍历块的内容
             hub.exitScope();
+            return null;
+        }
+
+        @Override
+        public Void visitAssignStmt(AssignStmtNode node) {
+            StatementVisitor.this.visitAssignStmt(node);
+            return null;
         }
-        else if (node instanceof AssignStmtNode a) {
-            visitAssignStmt(a);
+
+        @Override
+        public Void visitExpStmt(ExpStmtNode node) {
+            StatementVisitor.this.visitExpStmt(node);
+            return null;
         }
-        else if (node instanceof ExpStmtNode e) {
-            visitExpStmt(e);
+
+        @Override
+        public Void visitForStmt(ForStmtNode node) {
+            StatementVisitor.this.visitForStmt(node);
+            return null;
         }
-        else if (node instanceof ForStmtNode f) {
-            visitForStmt(f);
+
+        @Override
+        public Void visitBreakStmt(BreakStmtNode node) {
+            StatementVisitor.this.visitBreakStmt(node);
+            return null;
         }
-        else if (node instanceof BreakStmtNode b) {
-            visitBreakStmt(b);
+
+        @Override
+        public Void visitContinueStmt(ContinueStmtNode node) {
+            StatementVisitor.this.visitContinueStmt(node);
+            return null;
         }
-        else if (node instanceof ContinueStmtNode c) {
-            visitContinueStmt(c);
+
+        @Override
+        public Void visitReturnStmt(ReturnStmtNode node) {
+            StatementVisitor.this.visitReturnStmt(node);
+            return null;
         }
-        else if (node instanceof ReturnStmtNode r) {
-            visitReturnStmt(r);
+
+        @Override
+        public Void visitPrintfStmt(PrintfStmtNode node) {
+            StatementVisitor.this.visitPrintfStmt(node);
+            return null;
         }
-        else if (node instanceof PrintfStmtNode p) {
-            visitPrintfStmt(p);
+
+        @Override
+        public Void visitIfStmt(IfStmtNode node) {
+            StatementVisitor.this.visitIfStmt(node);
+            return null;
         }
-        else if (node instanceof IfStmtNode i) {
-            visitIfStmt(i);
+    }
+
+    // 语句块 Block → '{' { BlockItem } '}'
+    // 语句块项 BlockItem → Decl | Stmt
+    public void visitBlock(BlockNode node) {
+        if (node == null) return;
+
+        for (BlockItemNode item : node.getBlockItems()) {
+            item.accept(dispatcher);
         }
     }
 
+    public void visitStmt(StmtNode node) {
+        if (node == null) return;
+        node.accept(dispatcher);
+    }
+
     public void visitAssignStmt(AssignStmtNode node) {
         // 1. (P3 修改) 访问 LVal 以获取 *Symbol* (用于 'h' 检查)
         Symbol symbol = hub.getExprVisitor().visitLVal_for_Symbol(node.getlVal());
 
         // 2. 检查错误 'h'
         if (symbol != null && symbol instanceof ValueSymbol vs && vs.isConst()) {
-            ErrorReporter.addError(node.getLineNumber(), 'h');
+            diagnostics.report(node.getLineNumber(), 'h');
         }
 
         // 3. (P3 修改) 递归访问 node.getExp() 以推导其类型并检查内部错误
@@ -118,7 +159,7 @@ public class StatementVisitor {
 
             // 2. 检查 'h' (常量赋值)
             if (symbol != null && symbol instanceof ValueSymbol vs && vs.isConst()) {
-                ErrorReporter.addError(node.getLVals().get(i).getLineNumber(), 'h');
+                diagnostics.report(node.getLVals().get(i).getLineNumber(), 'h');
             }
 
             // 3. (P3 修改) 访问 Exp (推导类型并检查内部错误)
@@ -142,14 +183,14 @@ public class StatementVisitor {
     public void visitBreakStmt(BreakStmtNode node) {
         if (hub.getLoopDepth() == 0) {
             // 错误 m: 在非循环块中使用 break
-            ErrorReporter.addError(node.getLineNumber(), 'm');
+            diagnostics.report(node.getLineNumber(), 'm');
         }
     }
 
     public void visitContinueStmt(ContinueStmtNode node) {
         if (hub.getLoopDepth() == 0) {
             // 错误 m: 在非循环块中使用 continue
-            ErrorReporter.addError(node.getLineNumber(), 'm');
+            diagnostics.report(node.getLineNumber(), 'm');
         }
     }
 
@@ -165,7 +206,7 @@ public class StatementVisitor {
         // 错误 f: 无返回值的函数存在不匹配的 return 语句
         if (hasExp && !expectsExp) {
             // void func() { return 1; }
-            ErrorReporter.addError(node.getLineNumber(), 'f');
+            diagnostics.report(node.getLineNumber(), 'f');
         }
         // else if (!hasExp && expectsExp) {
         //     // int func() { return; }
@@ -183,7 +224,9 @@ public class StatementVisitor {
     public void visitPrintfStmt(PrintfStmtNode node) {
         // 1. 检查错误 'l' (printf中格式字符与表达式个数不匹配)
         // 注意：.getValue() 返回的是 *不带* 双引号的字符串值
-        String formatString = (String) node.getFormatString().getValue();
+        // 格式串缺失时 (如 printf(1) 或源码在 printf 后结束) 取到的是别的单词，按不含 %d 处理
+        Object value = node.getFormatString().getValue();
+        String formatString = value instanceof String ? (String) value : "";
         int expectedCount = 0;
 
         // 简单地计算 %d 的数量
@@ -197,7 +240,7 @@ public class StatementVisitor {
         int actualCount = node.getExps().size();
 
         if (expectedCount != actualCount) {
-            ErrorReporter.addError(node.getLineNumber(), 'l');
+            diagnostics.report(node.getLineNumber(), 'l');
         }
 
         // 2. 递归访问所有参数表达式，检查其中的错误 (如 'c', 'd')
@@ -0,0 +1,626 @@
+package io.github.tomorrow615.compiler.ir;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 逐条生成一个函数的 IR，并在生成的同时构造 SSA (Braun 等人的算法)：
+ * 标量局部变量不分配存储，每个块记录变量的当前定义，读取时沿前驱查找，
+ * 在有多个前驱的块中插入 PHI。块的前驱全部确定后调用 seal()，此前在块中读取的变量先得到未完成的 PHI。
+ * finish() 删除不可达的块、平凡的 PHI 与未使用的无副作用指令，跳过只有一条跳转的空块，
+ * 再按块重新编号，生成 IrFunction。
+ */
+final class FunctionBuilder {
+    private static final Opcode[] OPCODES = Opcode.values();
+    private static final int NONE = IrFunction.NONE;
+
+    private final String name;
+    private final int index;
+    private final ValueType returnType;
+    private final ValueType[] paramTypes;
+
+    // 指令，编号为生成顺序
+    private byte[] opcodes = new byte[64];
+    private byte[] types = new byte[64];
+    private int[] as = new int[64];
+    private int[] bs = new int[64];
+    private int[] cs = new int[64];
+    private int size = 0;
+    private final IntList operands = new IntList(64);
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final IntList prologue = new IntList();     // 入口块开头的 PARAM、ALLOCA、GLOBAL 与常量 0
+    private final IntIntMap globalArrays = new IntIntMap(); // 全局数组序号 → 入口块中的 GLOBAL 指令
+    private int current;
+    private int variableCount = 0;
+    private int undef = NONE;
+
+    private static final class Block {
+        final IntList phis = new IntList(2);
+        final IntList body = new IntList();
+        final IntList preds = new IntList(2);
+        final IntIntMap defs = new IntIntMap();  // 变量 → 在本块末尾的定义
+        IntList incomplete = new IntList(2);     // 封闭前创建的 PHI：(变量, PHI) 对
+        boolean sealed;
+        boolean terminated;
+    }
+
+    FunctionBuilder(String name, int index, ValueType returnType, ValueType[] paramTypes) {
+        this.name = name;
+        this.index = index;
+        this.returnType = returnType;
+        this.paramTypes = paramTypes;
+        this.current = newBlock();
+        seal(current);
+    }
+
+    // --- 基本块 ---
+
+    int newBlock() {
+        blocks.add(new Block());
+        return blocks.size() - 1;
+    }
+
+    int currentBlock() {
+        return current;
+    }
+
+    void setCurrentBlock(int block) {
+        this.current = block;
+    }
+
+    // 块的前驱已全部确定：为封闭前读取的变量补全 PHI 的操作数
+    void seal(int block) {
+        Block b = blocks.get(block);
+        IntList incomplete = b.incomplete;
+        b.incomplete = null;
+        b.sealed = true;
+        for (int i = 0; i < incomplete.size(); i += 2) {
+            addPhiOperands(incomplete.get(i), incomplete.get(i + 1), block);
+        }
+    }
+
+    boolean isTerminated() {
+        return blocks.get(current).terminated;
+    }
+
+    // --- 变量 (SSA 构造) ---
+
+    int newVariable() {
+        return variableCount++;
+    }
+
+    void write(int variable, int value) {
+        blocks.get(current).defs.put(variable, value);
+    }
+
+    int read(int variable) {
+        return read(variable, current);
+    }
+
+    private int read(int variable, int block) {
+        // 只有一个前驱的已封闭块直接沿前驱向上找，不递归
+        int b = block;
+        while (true) {
+            Block state = blocks.get(b);
+            int value = state.defs.get(variable);
+            if (value != NONE) {
+                if (b != block) {
+                    blocks.get(block).defs.put(variable, value);
+                }
+                return value;
+            }
+            if (!state.sealed || state.preds.size() != 1) {
+                break;
+            }
+            b = state.preds.get(0);
+        }
+        int value = readFromPredecessors(variable, b);
+        if (b != block) {
+            blocks.get(block).defs.put(variable, value);
+        }
+        return value;
+    }
+
+    private int readFromPredecessors(int variable, int block) {
+        Block b = blocks.get(block);
+        int value;
+        if (!b.sealed) {
+            value = newPhi(block);
+            b.incomplete.add(variable);
+            b.incomplete.add(value);
+        } else if (b.preds.size() == 0) {
+            value = undef(); // 入口块或不可达的块：变量未赋值
+        } else {
+            value = newPhi(block);
+            b.defs.put(variable, value); // 先记录 PHI，打断经过循环回到本块的查找
+            addPhiOperands(variable, value, block);
+        }
+        b.defs.put(variable, value);
+        return value;
+    }
+
+    private int newPhi(int block) {
+        int phi = add(Opcode.PHI, ValueType.INT, NONE, 0, 0);
+        blocks.get(block).phis.add(phi);
+        return phi;
+    }
+
+    private void addPhiOperands(int variable, int phi, int block) {
+        IntList preds = blocks.get(block).preds;
+        // 读取前驱中的定义可能创建新的 PHI，先收集，再连续地写入操作数池
+        int[] incoming = new int[preds.size() * 2];
+        for (int i = 0; i < preds.size(); i++) {
+            incoming[2 * i] = preds.get(i);
+            incoming[2 * i + 1] = read(variable, preds.get(i));
+        }
+        bs[phi] = operands.size();
+        cs[phi] = incoming.length;
+        for (int value : incoming) {
+            operands.add(value);
+        }
+    }
+
+    // --- 指令 ---
+
+    int param(int i) {
+        return addToPrologue(Opcode.PARAM, paramTypes[i], i);
+    }
+
+    int alloca(int length) {
+        return addToPrologue(Opcode.ALLOCA, ValueType.ARRAY, length);
+    }
+
+    int globalArray(int global) {
+        int value = globalArrays.get(global);
+        if (value == NONE) {
+            value = addToPrologue(Opcode.GLOBAL, ValueType.ARRAY, global);
+            globalArrays.put(global, value);
+        }
+        return value;
+    }
+
+    private int undef() {
+        if (undef == NONE) {
+            undef = addToPrologue(Opcode.CONST, ValueType.INT, 0);
+        }
+        return undef;
+    }
+
+    private int addToPrologue(Opcode opcode, ValueType type, int a) {
+        int inst = add(opcode, type, a, NONE, NONE);
+        prologue.add(inst);
+        return inst;
+    }
+
+    int constant(int value) {
+        return emit(Opcode.CONST, ValueType.INT, value, NONE, NONE);
+    }
+
+    // 两个操作数都是常量时直接折叠 (除以 0 的运算留到运行时)
+    int binary(Opcode opcode, int left, int right) {
+        if (isConstant(left) && isConstant(right)) {
+            int x = as[left];
+            int y = as[right];
+            switch (opcode) {
+                case ADD: return constant(x + y);
+                case SUB: return constant(x - y);
+                case MUL: return constant(x * y);
+                case DIV: if (y != 0) return constant(x / y); break;
+                case MOD: if (y != 0) return constant(x % y); break;
+                case LT: return constant(x < y ? 1 : 0);
+                case LE: return constant(x <= y ? 1 : 0);
+                case GT: return constant(x > y ? 1 : 0);
+                case GE: return constant(x >= y ? 1 : 0);
+                case EQ: return constant(x == y ? 1 : 0);
+                case NE: return constant(x != y ? 1 : 0);
+                default: break;
+            }
+        }
+        return emit(opcode, ValueType.INT, left, right, NONE);
+    }
+
+    int unary(Opcode opcode, int operand) {
+        if (isConstant(operand)) {
+            return constant(opcode == Opcode.NEG ? -as[operand] : (as[operand] == 0 ? 1 : 0));
+        }
+        return emit(opcode, ValueType.INT, operand, NONE, NONE);
+    }
+
+    boolean isConstant(int value) {
+        return OPCODES[opcodes[value]] == Opcode.CONST;
+    }
+
+    int constantValue(int value) {
+        return as[value];
+    }
+
+    int call(int callee, ValueType type, int[] args) {
+        int inst = emit(Opcode.CALL, type, callee, operands.size(), args.length);
+        for (int arg : args) {
+            operands.add(arg);
+        }
+        return inst;
+    }
+
+    int emit(Opcode opcode, ValueType type, int a, int b, int c) {
+        Block block = blocks.get(current);
+        if (block.terminated) {
+            // return / break / continue 之后的语句：放入没有前驱的块中，finish() 时删除
+            current = newBlock();
+            seal(current);
+            block = blocks.get(current);
+        }
+        int inst = add(opcode, type, a, b, c);
+        block.body.add(inst);
+        if (opcode.isTerminator()) {
+            block.terminated = true;
+        }
+        return inst;
+    }
+
+    void br(int target) {
+        if (isTerminated()) {
+            return;
+        }
+        blocks.get(target).preds.add(current);
+        emit(Opcode.BR, ValueType.VOID, target, NONE, NONE);
+    }
+
+    void cbr(int condition, int ifTrue, int ifFalse) {
+        if (isTerminated()) {
+            return;
+        }
+        if (isConstant(condition)) {
+            br(as[condition] != 0 ? ifTrue : ifFalse);
+            return;
+        }
+        blocks.get(ifTrue).preds.add(current);
+        blocks.get(ifFalse).preds.add(current);
+        emit(Opcode.CBR, ValueType.VOID, condition, ifTrue, ifFalse);
+    }
+
+    void ret(int value) {
+        if (!isTerminated()) {
+            emit(Opcode.RET, ValueType.VOID, value, NONE, NONE);
+        }
+    }
+
+    private int add(Opcode opcode, ValueType type, int a, int b, int c) {
+        if (size == opcodes.length) {
+            int capacity = size * 2;
+            opcodes = Arrays.copyOf(opcodes, capacity);
+            types = Arrays.copyOf(types, capacity);
+            as = Arrays.copyOf(as, capacity);
+            bs = Arrays.copyOf(bs, capacity);
+            cs = Arrays.copyOf(cs, capacity);
+        }
+        opcodes[size] = (byte) opcode.ordinal();
+        types[size] = (byte) type.ordinal();
+        as[size] = a;
+        bs[size] = b;
+        cs[size] = c;
+        return size++;
+    }
+
+    // --- 完成 ---
+
+    IrFunction finish() {
+        for (int b = 0; b < blocks.size(); b++) {
+            if (!blocks.get(b).sealed) {
+                seal(b);
+            }
+        }
+        boolean[] reachable = reachableBlocks();
+        undef(); // 删除 PHI 时可能用到，不用时与其他未使用的指令一起删除
+
+        // 去掉 PHI 中来自不可达前驱的操作数，再反复删除平凡的 PHI (所有操作数都是同一个值或它自身)
+        int[] replace = new int[size];
+        for (int i = 0; i < size; i++) {
+            replace[i] = i;
+        }
+        for (int b = 0; b < blocks.size(); b++) {
+            if (reachable[b]) {
+                IntList phis = blocks.get(b).phis;
+                for (int i = 0; i < phis.size(); i++) {
+                    dropUnreachableIncoming(phis.get(i), reachable);
+                }
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = 0; b < blocks.size(); b++) {
+                if (!reachable[b]) {
+                    continue;
+                }
+                IntList phis = blocks.get(b).phis;
+                for (int i = 0; i < phis.size(); i++) {
+                    int phi = phis.get(i);
+                    if (replace[phi] != phi) {
+                        continue;
+                    }
+                    int same = trivialValue(phi, replace);
+                    if (same != phi) {
+                        replace[phi] = same == NONE ? undef : same;
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        boolean[] live = markLive(reachable, replace);
+        if (threadJumps(reachable, live)) {
+            reachable = reachableBlocks();
+        }
+        return layout(reachable, live, replace);
+    }
+
+    private boolean[] reachableBlocks() {
+        boolean[] reachable = new boolean[blocks.size()];
+        int[] worklist = new int[blocks.size()];
+        int top = 0;
+        reachable[0] = true;
+        worklist[top++] = 0;
+        while (top > 0) {
+            Block block = blocks.get(worklist[--top]);
+            if (!block.terminated) {
+                throw new IllegalStateException(name + ": 可达的基本块没有终结指令");
+            }
+            int term = block.body.get(block.body.size() - 1);
+            Opcode opcode = OPCODES[opcodes[term]];
+            if (opcode == Opcode.BR) {
+                top = visit(as[term], reachable, worklist, top);
+            } else if (opcode == Opcode.CBR) {
+                top = visit(bs[term], reachable, worklist, top);
+                top = visit(cs[term], reachable, worklist, top);
+            }
+        }
+        return reachable;
+    }
+
+    private static int visit(int block, boolean[] reachable, int[] worklist, int top) {
+        if (!reachable[block]) {
+            reachable[block] = true;
+            worklist[top++] = block;
+        }
+        return top;
+    }
+
+    private void dropUnreachableIncoming(int phi, boolean[] reachable) {
+        int start = bs[phi];
+        int kept = 0;
+        for (int i = 0; i < cs[phi]; i += 2) {
+            int pred = operands.get(start + i);
+            if (reachable[pred]) {
+                operands.set(start + kept, pred);
+                operands.set(start + kept + 1, operands.get(start + i + 1));
+                kept += 2;
+            }
+        }
+        cs[phi] = kept;
+    }
+
+    // PHI 的操作数除自身外都是同一个值时返回该值 (没有其他操作数时为 NONE)，否则返回 PHI 自身
+    private int trivialValue(int phi, int[] replace) {
+        int same = NONE;
+        for (int i = 0; i < cs[phi]; i += 2) {
+            int value = resolve(operands.get(bs[phi] + i + 1), replace);
+            if (value == phi || value == same) {
+                continue;
+            }
+            if (same != NONE) {
+                return phi;
+            }
+            same = value;
+        }
+        return same;
+    }
+
+    private static int resolve(int value, int[] replace) {
+        if (value == NONE) {
+            return value;
+        }
+        while (replace[value] != value) {
+            value = replace[value];
+        }
+        return value;
+    }
+
+    // 有副作用的指令与终结指令是活跃的，活跃指令用到的值也是活跃的
+    private boolean[] markLive(boolean[] reachable, int[] replace) {
+        boolean[] live = new boolean[size];
+        IntList worklist = new IntList(size);
+        for (int b = 0; b < blocks.size(); b++) {
+            if (!reachable[b]) {
+                continue;
+            }
+            IntList body = blocks.get(b).body;
+            for (int i = 0; i < body.size(); i++) {
+                int inst = body.get(i);
+                if (!OPCODES[opcodes[inst]].isPure()) {
+                    live[inst] = true;
+                    worklist.add(inst);
+                }
+            }
+        }
+        int[] uses = new int[3];
+        while (worklist.size() > 0) {
+            int inst = worklist.removeLast();
+            Opcode opcode = OPCODES[opcodes[inst]];
+            int count = 0;
+            if (opcode.a() == Opcode.Operand.VALUE) uses[count++] = as[inst];
+            if (opcode.b() == Opcode.Operand.VALUE) uses[count++] = bs[inst];
+            if (opcode.c() == Opcode.Operand.VALUE) uses[count++] = cs[inst];
+            for (int i = 0; i < count; i++) {
+                markValue(resolve(uses[i], replace), live, worklist);
+            }
+            if (opcode == Opcode.CALL) {
+                for (int i = 0; i < cs[inst]; i++) {
+                    markValue(resolve(operands.get(bs[inst] + i), replace), live, worklist);
+                }
+            } else if (opcode == Opcode.PHI) {
+                for (int i = 0; i < cs[inst]; i += 2) {
+                    markValue(resolve(operands.get(bs[inst] + i + 1), replace), live, worklist);
+                }
+            }
+        }
+        return live;
+    }
+
+    private static void markValue(int value, boolean[] live, IntList worklist) {
+        if (value != NONE && !live[value]) {
+            live[value] = true;
+            worklist.add(value);
+        }
+    }
+
+    // 跳转到只含一条 BR 的空块时直接跳到它的目标 (目标块有 PHI 时不改，以免改变 PHI 的前驱)。返回是否有修改
+    private boolean threadJumps(boolean[] reachable, boolean[] live) {
+        int[] forward = new int[blocks.size()];
+        for (int b = 0; b < blocks.size(); b++) {
+            forward[b] = reachable[b] && b != 0 ? forwardTarget(b, live) : NONE;
+        }
+        boolean changed = false;
+        for (int b = 0; b < blocks.size(); b++) {
+            if (!reachable[b]) {
+                continue;
+            }
+            IntList body = blocks.get(b).body;
+            int term = body.get(body.size() - 1);
+            Opcode opcode = OPCODES[opcodes[term]];
+            if (opcode == Opcode.BR) {
+                int target = finalTarget(as[term], forward);
+                changed |= target != as[term];
+                as[term] = target;
+            } else if (opcode == Opcode.CBR) {
+                int ifTrue = finalTarget(bs[term], forward);
+                int ifFalse = finalTarget(cs[term], forward);
+                changed |= ifTrue != bs[term] || ifFalse != cs[term];
+                bs[term] = ifTrue;
+                cs[term] = ifFalse;
+            }
+        }
+        return changed;
+    }
+
+    private int forwardTarget(int block, boolean[] live) {
+        Block b = blocks.get(block);
+        if (hasLive(b.phis, live)) {
+            return NONE;
+        }
+        IntList body = b.body;
+        int term = body.get(body.size() - 1);
+        for (int i = 0; i < body.size() - 1; i++) {
+            if (live[body.get(i)]) {
+                return NONE;
+            }
+        }
+        if (OPCODES[opcodes[term]] != Opcode.BR || hasLive(blocks.get(as[term]).phis, live)) {
+            return NONE;
+        }
+        return as[term];
+    }
+
+    // 沿空块链找到最终目标；空块构成的死循环 (如 for (;;) {}) 保持原样
+    private static int finalTarget(int block, int[] forward) {
+        int target = block;
+        for (int steps = 0; forward[target] != NONE && steps < forward.length; steps++) {
+            target = forward[target];
+        }
+        return forward[target] == NONE ? target : block;
+    }
+
+    private static boolean hasLive(IntList insts, boolean[] live) {
+        for (int i = 0; i < insts.size(); i++) {
+            if (live[insts.get(i)]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 按块的顺序重新编号：入口块为 prologue + 函数体，其余块为 PHI + 块内指令
+    private IrFunction layout(boolean[] reachable, boolean[] live, int[] replace) {
+        int[] newBlock = new int[blocks.size()];
+        int blockCount = 0;
+        for (int b = 0; b < blocks.size(); b++) {
+            newBlock[b] = reachable[b] ? blockCount++ : NONE;
+        }
+
+        int[] order = new int[size];
+        int count = 0;
+        int[] blockStarts = new int[blockCount + 1];
+        for (int b = 0; b < blocks.size(); b++) {
+            if (!reachable[b]) {
+                continue;
+            }
+            blockStarts[newBlock[b]] = count;
+            Block block = blocks.get(b);
+            if (b == 0) {
+                count = append(prologue, live, order, count);
+            }
+            count = append(block.phis, live, order, count);
+            count = append(block.body, live, order, count);
+        }
+        blockStarts[blockCount] = count;
+
+        int[] newIndex = new int[size];
+        Arrays.fill(newIndex, NONE);
+        for (int i = 0; i < count; i++) {
+            newIndex[order[i]] = i;
+        }
+
+        byte[] finalOpcodes = new byte[count];
+        byte[] finalTypes = new byte[count];
+        int[] finalAs = new int[count];
+        int[] finalBs = new int[count];
+        int[] finalCs = new int[count];
+        IntList finalOperands = new IntList(operands.size());
+        for (int i = 0; i < count; i++) {
+            int inst = order[i];
+            Opcode opcode = OPCODES[opcodes[inst]];
+            finalOpcodes[i] = opcodes[inst];
+            finalTypes[i] = types[inst];
+            finalAs[i] = map(opcode.a(), as[inst], newIndex, newBlock, replace);
+            finalBs[i] = map(opcode.b(), bs[inst], newIndex, newBlock, replace);
+            finalCs[i] = map(opcode.c(), cs[inst], newIndex, newBlock, replace);
+            if (opcode == Opcode.CALL) {
+                finalBs[i] = finalOperands.size();
+                for (int k = 0; k < cs[inst]; k++) {
+                    finalOperands.add(newIndex[resolve(operands.get(bs[inst] + k), replace)]);
+                }
+            } else if (opcode == Opcode.PHI) {
+                finalBs[i] = finalOperands.size();
+                for (int k = 0; k < cs[inst]; k += 2) {
+                    finalOperands.add(newBlock[operands.get(bs[inst] + k)]);
+                    finalOperands.add(newIndex[resolve(operands.get(bs[inst] + k + 1), replace)]);
+                }
+            }
+        }
+        return new IrFunction(name, index, returnType, paramTypes, finalOpcodes, finalTypes,
+                finalAs, finalBs, finalCs, finalOperands.toArray(), blockStarts);
+    }
+
+    private int append(IntList insts, boolean[] live, int[] order, int count) {
+        for (int i = 0; i < insts.size(); i++) {
+            int inst = insts.get(i);
+            if (live[inst]) {
+                order[count++] = inst;
+            }
+        }
+        return count;
+    }
+
+    private static int map(Opcode.Operand kind, int operand, int[] newIndex, int[] newBlock, int[] replace) {
+        if (operand == NONE) {
+            return NONE;
+        }
+        switch (kind) {
+            case VALUE: return newIndex[resolve(operand, replace)];
+            case BLOCK: return newBlock[operand];
+            default: return operand;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.tomorrow615.compiler.ir;
+
+// int 到 int 的开放寻址散列表 (线性探测)，键为非负整数，查不到时返回 IrFunction.NONE
+final class IntIntMap {
+    private int[] keys = new int[8];   // 键 + 1，0 表示空槽
+    private int[] values = new int[8];
+    private int size = 0;
+
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key + 1) {
+                return values[slot];
+            }
+            if (k == 0) {
+                return IrFunction.NONE;
+            }
+        }
+    }
+
+    void put(int key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key + 1) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = key + 1;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = hash(oldKeys[i] - 1) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
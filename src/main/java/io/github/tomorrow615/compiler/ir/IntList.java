@@ -0,0 +1,48 @@
+package io.github.tomorrow615.compiler.ir;
+
+import java.util.Arrays;
+
+// 不装箱的 int 列表
+final class IntList {
+    private int[] items;
+    private int size = 0;
+
+    IntList() {
+        this(8);
+    }
+
+    IntList(int capacity) {
+        this.items = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+        }
+        items[size++] = value;
+    }
+
+    int get(int index) {
+        return items[index];
+    }
+
+    void set(int index, int value) {
+        items[index] = value;
+    }
+
+    int removeLast() {
+        return items[--size];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(items, size);
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.tomorrow615.compiler.ir;
+
+import java.util.function.IntConsumer;
+
+/**
+ * SSA 形式的函数。指令保存在几个并行的基本类型数组中，指令编号就是它在数组中的下标，
+ * 也是它定义的值的编号。基本块是连续的一段指令 [blockStart(b), blockStart(b + 1))，
+ * 0 号块是入口块，每个块以 PHI 开头、以一条终结指令 (BR / CBR / RET) 结束。
+ * 由 FunctionBuilder 构造，构造完成后不再修改。
+ */
+public class IrFunction {
+    public static final int NONE = -1;
+    private static final Opcode[] OPCODES = Opcode.values();
+    private static final ValueType[] TYPES = ValueType.values();
+
+    private final String name;
+    private final int index;
+    private final ValueType returnType;
+    private final ValueType[] paramTypes;
+
+    private final byte[] opcodes;
+    private final byte[] types;
+    private final int[] as;
+    private final int[] bs;
+    private final int[] cs;
+    private final int[] operands;
+    private final int[] blockStarts;   // 长度为块数 + 1
+
+    IrFunction(String name, int index, ValueType returnType, ValueType[] paramTypes,
+               byte[] opcodes, byte[] types, int[] as, int[] bs, int[] cs, int[] operands, int[] blockStarts) {
+        this.name = name;
+        this.index = index;
+        this.returnType = returnType;
+        this.paramTypes = paramTypes;
+        this.opcodes = opcodes;
+        this.types = types;
+        this.as = as;
+        this.bs = bs;
+        this.cs = cs;
+        this.operands = operands;
+        this.blockStarts = blockStarts;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // 在 IrModule 中的序号，即 CALL 的 a 操作数
+    public int getIndex() {
+        return index;
+    }
+
+    public ValueType getReturnType() {
+        return returnType;
+    }
+
+    public int getParamCount() {
+        return paramTypes.length;
+    }
+
+    public ValueType getParamType(int i) {
+        return paramTypes[i];
+    }
+
+    // --- 指令 ---
+
+    public int size() {
+        return opcodes.length;
+    }
+
+    public Opcode opcode(int inst) {
+        return OPCODES[opcodes[inst]];
+    }
+
+    public ValueType type(int inst) {
+        return TYPES[types[inst]];
+    }
+
+    public int a(int inst) {
+        return as[inst];
+    }
+
+    public int b(int inst) {
+        return bs[inst];
+    }
+
+    public int c(int inst) {
+        return cs[inst];
+    }
+
+    // CALL 的实参个数、PHI 的前驱个数
+    public int listSize(int inst) {
+        return opcode(inst) == Opcode.PHI ? cs[inst] / 2 : cs[inst];
+    }
+
+    public int arg(int inst, int i) {
+        return operands[bs[inst] + i];
+    }
+
+    public int phiBlock(int inst, int i) {
+        return operands[bs[inst] + 2 * i];
+    }
+
+    public int phiValue(int inst, int i) {
+        return operands[bs[inst] + 2 * i + 1];
+    }
+
+    // 依次处理指令使用的每个值 (包括 CALL 的实参与 PHI 的来源)
+    public void forEachOperand(int inst, IntConsumer action) {
+        Opcode opcode = opcode(inst);
+        if (opcode.a() == Opcode.Operand.VALUE && as[inst] != NONE) action.accept(as[inst]);
+        if (opcode.b() == Opcode.Operand.VALUE) action.accept(bs[inst]);
+        if (opcode.c() == Opcode.Operand.VALUE) action.accept(cs[inst]);
+        if (opcode == Opcode.CALL) {
+            for (int i = 0; i < cs[inst]; i++) {
+                action.accept(arg(inst, i));
+            }
+        } else if (opcode == Opcode.PHI) {
+            for (int i = 0; i < listSize(inst); i++) {
+                action.accept(phiValue(inst, i));
+            }
+        }
+    }
+
+    // --- 基本块 ---
+
+    public int blockCount() {
+        return blockStarts.length - 1;
+    }
+
+    public int blockStart(int block) {
+        return blockStarts[block];
+    }
+
+    public int blockEnd(int block) {
+        return blockStarts[block + 1];
+    }
+
+    public int terminator(int block) {
+        return blockStarts[block + 1] - 1;
+    }
+
+    public int successorCount(int block) {
+        switch (opcode(terminator(block))) {
+            case BR: return 1;
+            case CBR: return 2;
+            default: return 0;
+        }
+    }
+
+    public int successor(int block, int i) {
+        int term = terminator(block);
+        if (opcode(term) == Opcode.BR) {
+            return as[term];
+        }
+        return i == 0 ? bs[term] : cs[term];
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.tomorrow615.compiler.ir;
+
+/**
+ * 全局存储：全局变量与常量数组、函数中的 static 局部变量，以及被下标访问的局部常量数组。
+ * 标量的 init 长度为 1；数组未给出初值的元素为 0。
+ */
+public class IrGlobal {
+    private final String name;
+    private final boolean array;
+    private final boolean constant;
+    private final int[] init;
+
+    public IrGlobal(String name, boolean array, boolean constant, int[] init) {
+        this.name = name;
+        this.array = array;
+        this.constant = constant;
+        this.init = init;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isArray() {
+        return array;
+    }
+
+    // 常量数组，程序不会写入
+    public boolean isConstant() {
+        return constant;
+    }
+
+    public int getLength() {
+        return init.length;
+    }
+
+    public int[] getInit() {
+        return init;
+    }
+}
@@ -0,0 +1,396 @@
+package io.github.tomorrow615.compiler.ir;
+
+import io.github.tomorrow615.compiler.runtime.SysYIO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 直接执行 IR 的解释器。每个函数先译为一组并行的 int 数组 (操作码、目标寄存器与三个操作数)，
+ * 执行时按程序计数器在一个 switch 中分派，不再查看 IrFunction。
+ * 寄存器就是 SSA 值的编号：整数值保存在每次调用新建的 int[] 帧中，数组值保存在并行的 int[][] 中，不装箱。
+ * 常量、形参与全局数组的引用在译码时放入帧的初值，不占用指令；PHI 译为跳转边上的复制；
+ * 紧跟在比较之后、以比较结果为条件的 CBR 与比较合并为一条指令。
+ * SysY 函数调用对应一次 Java 调用，递归深度受线程栈大小限制。
+ */
+public class IrInterpreter {
+    private static final int NONE = IrFunction.NONE;
+
+    // 译码后的操作码
+    private static final int ADD = 0, SUB = 1, MUL = 2, DIV = 3, MOD = 4;
+    private static final int LT = 5, LE = 6, GT = 7, GE = 8, EQ = 9, NE = 10;
+    private static final int NEG = 11, NOT = 12;
+    private static final int ALLOCA = 13, LOAD_GLOBAL = 14, STORE_GLOBAL = 15, LOAD = 16, STORE = 17, ZERO = 18;
+    private static final int CALL = 19, GETINT = 20, PUTINT = 21, PUTSTR = 22;
+    private static final int BR = 23, CBR = 24, RET = 25;
+    // 比较并跳转：LT_BR + k 对应比较 LT + k
+    private static final int LT_BR = 26, LE_BR = 27, GT_BR = 28, GE_BR = 29, EQ_BR = 30, NE_BR = 31;
+
+    private final Code[] codes;
+    private final int[] scalars;        // 全局标量，下标为全局存储序号
+    private final int[][] arrays;       // 全局数组
+    private final byte[][] strings;
+    private final SysYIO io;
+
+    // 一个函数译码后的指令
+    private static final class Code {
+        int[] op;
+        int[] dst;
+        int[] a;
+        int[] b;
+        int[] c;
+        int[] registers;    // 整数寄存器的初值 (常量)
+        int[][] references; // 数组寄存器的初值 (全局数组)，函数不涉及数组时为 null
+        int[] params;       // 每个形参的寄存器，未使用的形参为 NONE
+        boolean[] arrayParams;
+        int[][] lists;      // CALL 的实参寄存器，下标为 pc
+        int[] branches;     // CBR 的 (真目标, 真边, 假目标, 假边)，c 为起点
+        int[][] moves;      // 每条跳转边上 PHI 的 (目标, 来源) 寄存器对
+        boolean[] parallel; // 边上的复制相互依赖，需要先全部读出再写入
+    }
+
+    public IrInterpreter(IrModule module, SysYIO io) {
+        this.io = io;
+        int globalCount = module.getGlobals().size();
+        this.scalars = new int[globalCount];
+        this.arrays = new int[globalCount][];
+        for (int g = 0; g < globalCount; g++) {
+            IrGlobal global = module.getGlobal(g);
+            if (!global.isArray()) {
+                scalars[g] = global.getInit()[0];
+            } else {
+                // 常量数组不会被写入，共用初值数组
+                arrays[g] = global.isConstant() ? global.getInit() : global.getInit().clone();
+            }
+        }
+        this.strings = new byte[module.getStrings().size()][];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = SysYIO.encode(module.getString(i));
+        }
+        this.codes = new Code[module.getFunctions().size()];
+        for (IrFunction function : module.getFunctions()) {
+            codes[function.getIndex()] = decode(function);
+        }
+    }
+
+    // 执行 main，返回它的返回值。输出留在 SysYIO 的缓冲区中，由调用者 flush
+    public int run() {
+        Code main = codes[codes.length - 1];
+        return execute(main, main.registers.clone(), newReferences(main));
+    }
+
+    private static int[][] newReferences(Code code) {
+        return code.references == null ? null : code.references.clone();
+    }
+
+    // --- 译码 ---
+
+    private Code decode(IrFunction f) {
+        int size = f.size();
+        Code code = new Code();
+        code.registers = new int[size];
+        boolean hasArrays = false;
+        for (int i = 0; i < size; i++) {
+            hasArrays |= f.type(i) == ValueType.ARRAY;
+        }
+        code.references = hasArrays ? new int[size][] : null;
+        code.params = new int[f.getParamCount()];
+        code.arrayParams = new boolean[f.getParamCount()];
+        Arrays.fill(code.params, NONE);
+        for (int i = 0; i < f.getParamCount(); i++) {
+            code.arrayParams[i] = f.getParamType(i) == ValueType.ARRAY;
+        }
+
+        // 第一遍：确定每条指令是否生成代码，以及每个块第一条代码的 pc
+        int[] blockPc = new int[f.blockCount()];
+        boolean[] emitted = new boolean[size];
+        int length = 0;
+        for (int block = 0; block < f.blockCount(); block++) {
+            blockPc[block] = length;
+            for (int i = f.blockStart(block); i < f.blockEnd(block); i++) {
+                switch (f.opcode(i)) {
+                    case CONST:
+                        code.registers[i] = f.a(i);
+                        break;
+                    case PARAM:
+                        code.params[f.a(i)] = i;
+                        break;
+                    case GLOBAL:
+                        code.references[i] = arrays[f.a(i)];
+                        break;
+                    case PHI:
+                        break;
+                    default:
+                        if (!fusedCompare(f, i)) {
+                            emitted[i] = true;
+                            length++;
+                        }
+                        break;
+                }
+            }
+        }
+
+        code.op = new int[length];
+        code.dst = new int[length];
+        code.a = new int[length];
+        code.b = new int[length];
+        code.c = new int[length];
+        code.lists = new int[length][];
+        IntList branches = new IntList();
+        EdgeTable edges = new EdgeTable(f);
+
+        int pc = 0;
+        for (int i = 0; i < size; i++) {
+            if (!emitted[i]) {
+                continue;
+            }
+            Opcode opcode = f.opcode(i);
+            int block = blockOf(f, i);
+            code.dst[pc] = i;
+            code.a[pc] = f.a(i);
+            code.b[pc] = f.b(i);
+            code.c[pc] = f.c(i);
+            switch (opcode) {
+                case ADD: code.op[pc] = ADD; break;
+                case SUB: code.op[pc] = SUB; break;
+                case MUL: code.op[pc] = MUL; break;
+                case DIV: code.op[pc] = DIV; break;
+                case MOD: code.op[pc] = MOD; break;
+                case LT: code.op[pc] = LT; break;
+                case LE: code.op[pc] = LE; break;
+                case GT: code.op[pc] = GT; break;
+                case GE: code.op[pc] = GE; break;
+                case EQ: code.op[pc] = EQ; break;
+                case NE: code.op[pc] = NE; break;
+                case NEG: code.op[pc] = NEG; break;
+                case NOT: code.op[pc] = NOT; break;
+                case ALLOCA: code.op[pc] = ALLOCA; break;
+                case LOAD_GLOBAL: code.op[pc] = LOAD_GLOBAL; break;
+                case STORE_GLOBAL: code.op[pc] = STORE_GLOBAL; break;
+                case LOAD: code.op[pc] = LOAD; break;
+                case STORE: code.op[pc] = STORE; break;
+                case ZERO: code.op[pc] = ZERO; break;
+                case GETINT: code.op[pc] = GETINT; break;
+                case PUTINT: code.op[pc] = PUTINT; break;
+                case PUTSTR: code.op[pc] = PUTSTR; break;
+                case RET: code.op[pc] = RET; break;
+                case CALL: {
+                    code.op[pc] = CALL;
+                    int[] args = new int[f.listSize(i)];
+                    for (int k = 0; k < args.length; k++) {
+                        args[k] = f.arg(i, k);
+                    }
+                    code.lists[pc] = args;
+                    break;
+                }
+                case BR:
+                    code.op[pc] = BR;
+                    code.a[pc] = blockPc[f.a(i)];
+                    code.b[pc] = edges.edge(block, f.a(i));
+                    break;
+                case CBR: {
+                    int condition = f.a(i);
+                    if (condition == i - 1 && fusedCompare(f, condition)) {
+                        // 比较与跳转合并：dst 为比较的结果，a / b 为比较的操作数
+                        code.op[pc] = LT_BR + (f.opcode(condition).ordinal() - Opcode.LT.ordinal());
+                        code.dst[pc] = condition;
+                        code.a[pc] = f.a(condition);
+                        code.b[pc] = f.b(condition);
+                    } else {
+                        code.op[pc] = CBR;
+                    }
+                    code.c[pc] = branches.size();
+                    branches.add(blockPc[f.b(i)]);
+                    branches.add(edges.edge(block, f.b(i)));
+                    branches.add(blockPc[f.c(i)]);
+                    branches.add(edges.edge(block, f.c(i)));
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("无法译码的指令: " + opcode);
+            }
+            pc++;
+        }
+        code.branches = branches.toArray();
+        code.moves = edges.moves();
+        code.parallel = edges.parallel();
+        return code;
+    }
+
+    // 比较指令的下一条是以它为条件的 CBR 时，由 CBR 合并生成
+    private static boolean fusedCompare(IrFunction f, int inst) {
+        return f.opcode(inst).isCompare() && inst + 1 < f.size()
+                && f.opcode(inst + 1) == Opcode.CBR && f.a(inst + 1) == inst;
+    }
+
+    private static int blockOf(IrFunction f, int inst) {
+        int low = 0;
+        int high = f.blockCount() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (f.blockStart(mid) <= inst) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // 收集从前驱跳到含 PHI 的块时需要执行的复制，每条这样的边一个编号
+    private static final class EdgeTable {
+        private final IrFunction f;
+        private final List<int[]> moves = new ArrayList<>();
+        private final List<Boolean> parallel = new ArrayList<>();
+
+        EdgeTable(IrFunction f) {
+            this.f = f;
+        }
+
+        int edge(int from, int to) {
+            IntList pairs = new IntList();
+            for (int i = f.blockStart(to); i < f.blockEnd(to) && f.opcode(i) == Opcode.PHI; i++) {
+                for (int k = 0; k < f.listSize(i); k++) {
+                    if (f.phiBlock(i, k) == from && f.phiValue(i, k) != i) {
+                        pairs.add(i);
+                        pairs.add(f.phiValue(i, k));
+                        break;
+                    }
+                }
+            }
+            if (pairs.size() == 0) {
+                return NONE;
+            }
+            int[] array = pairs.toArray();
+            // 某个来源是同一边上另一条复制的目标 (例如交换两个变量) 时需要并行复制
+            boolean dependent = false;
+            for (int i = 1; i < array.length; i += 2) {
+                for (int j = 0; j < array.length; j += 2) {
+                    dependent |= array[i] == array[j];
+                }
+            }
+            moves.add(array);
+            parallel.add(dependent);
+            return moves.size() - 1;
+        }
+
+        int[][] moves() {
+            return moves.toArray(new int[0][]);
+        }
+
+        boolean[] parallel() {
+            boolean[] result = new boolean[parallel.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = parallel.get(i);
+            }
+            return result;
+        }
+    }
+
+    // --- 执行 ---
+
+    private int execute(Code code, int[] regs, int[][] refs) {
+        final int[] op = code.op;
+        final int[] dst = code.dst;
+        final int[] a = code.a;
+        final int[] b = code.b;
+        final int[] c = code.c;
+        final int[] branches = code.branches;
+        int pc = 0;
+        while (true) {
+            switch (op[pc]) {
+                case ADD: regs[dst[pc]] = regs[a[pc]] + regs[b[pc]]; pc++; break;
+                case SUB: regs[dst[pc]] = regs[a[pc]] - regs[b[pc]]; pc++; break;
+                case MUL: regs[dst[pc]] = regs[a[pc]] * regs[b[pc]]; pc++; break;
+                case DIV: regs[dst[pc]] = regs[a[pc]] / regs[b[pc]]; pc++; break;
+                case MOD: regs[dst[pc]] = regs[a[pc]] % regs[b[pc]]; pc++; break;
+                case LT: regs[dst[pc]] = regs[a[pc]] < regs[b[pc]] ? 1 : 0; pc++; break;
+                case LE: regs[dst[pc]] = regs[a[pc]] <= regs[b[pc]] ? 1 : 0; pc++; break;
+                case GT: regs[dst[pc]] = regs[a[pc]] > regs[b[pc]] ? 1 : 0; pc++; break;
+                case GE: regs[dst[pc]] = regs[a[pc]] >= regs[b[pc]] ? 1 : 0; pc++; break;
+                case EQ: regs[dst[pc]] = regs[a[pc]] == regs[b[pc]] ? 1 : 0; pc++; break;
+                case NE: regs[dst[pc]] = regs[a[pc]] != regs[b[pc]] ? 1 : 0; pc++; break;
+                case NEG: regs[dst[pc]] = -regs[a[pc]]; pc++; break;
+                case NOT: regs[dst[pc]] = regs[a[pc]] == 0 ? 1 : 0; pc++; break;
+                case ALLOCA: refs[dst[pc]] = new int[a[pc]]; pc++; break;
+                case LOAD_GLOBAL: regs[dst[pc]] = scalars[a[pc]]; pc++; break;
+                case STORE_GLOBAL: scalars[a[pc]] = regs[b[pc]]; pc++; break;
+                case LOAD: regs[dst[pc]] = refs[a[pc]][regs[b[pc]]]; pc++; break;
+                case STORE: refs[a[pc]][regs[b[pc]]] = regs[c[pc]]; pc++; break;
+                case ZERO: Arrays.fill(refs[a[pc]], b[pc], b[pc] + c[pc], 0); pc++; break;
+                case CALL: regs[dst[pc]] = call(code.lists[pc], a[pc], regs, refs); pc++; break;
+                case GETINT: regs[dst[pc]] = io.getint(); pc++; break;
+                case PUTINT: io.putint(regs[a[pc]]); pc++; break;
+                case PUTSTR: io.putstr(strings[a[pc]]); pc++; break;
+                case BR:
+                    move(code, b[pc], regs);
+                    pc = a[pc];
+                    break;
+                case CBR:
+                    pc = branch(code, regs[a[pc]] != 0, c[pc], branches, regs);
+                    break;
+                case LT_BR: pc = compareBranch(code, pc, regs[a[pc]] < regs[b[pc]], regs); break;
+                case LE_BR: pc = compareBranch(code, pc, regs[a[pc]] <= regs[b[pc]], regs); break;
+                case GT_BR: pc = compareBranch(code, pc, regs[a[pc]] > regs[b[pc]], regs); break;
+                case GE_BR: pc = compareBranch(code, pc, regs[a[pc]] >= regs[b[pc]], regs); break;
+                case EQ_BR: pc = compareBranch(code, pc, regs[a[pc]] == regs[b[pc]], regs); break;
+                case NE_BR: pc = compareBranch(code, pc, regs[a[pc]] != regs[b[pc]], regs); break;
+                case RET:
+                    return a[pc] == NONE ? 0 : regs[a[pc]];
+                default:
+                    throw new IllegalStateException("未知的操作码: " + op[pc]);
+            }
+        }
+    }
+
+    // 比较的结果可能还被其他指令使用，照常写入寄存器
+    private static int compareBranch(Code code, int pc, boolean taken, int[] regs) {
+        regs[code.dst[pc]] = taken ? 1 : 0;
+        return branch(code, taken, code.c[pc], code.branches, regs);
+    }
+
+    private static int branch(Code code, boolean taken, int entry, int[] branches, int[] regs) {
+        int offset = taken ? entry : entry + 2;
+        move(code, branches[offset + 1], regs);
+        return branches[offset];
+    }
+
+    private static void move(Code code, int edge, int[] regs) {
+        if (edge == NONE) {
+            return;
+        }
+        int[] pairs = code.moves[edge];
+        if (!code.parallel[edge]) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                regs[pairs[i]] = regs[pairs[i + 1]];
+            }
+            return;
+        }
+        int[] values = new int[pairs.length >> 1];
+        for (int i = 0; i < pairs.length; i += 2) {
+            values[i >> 1] = regs[pairs[i + 1]];
+        }
+        for (int i = 0; i < pairs.length; i += 2) {
+            regs[pairs[i]] = values[i >> 1];
+        }
+    }
+
+    private int call(int[] args, int callee, int[] regs, int[][] refs) {
+        Code code = codes[callee];
+        int[] calleeRegs = code.registers.clone();
+        int[][] calleeRefs = newReferences(code);
+        for (int i = 0; i < args.length; i++) {
+            int param = code.params[i];
+            if (param == NONE) {
+                continue;
+            }
+            if (code.arrayParams[i]) {
+                calleeRefs[param] = refs[args[i]];
+            } else {
+                calleeRegs[param] = regs[args[i]];
+            }
+        }
+        return execute(code, calleeRegs, calleeRefs);
+    }
+}
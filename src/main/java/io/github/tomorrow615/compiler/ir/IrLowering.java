@@ -0,0 +1,692 @@
+package io.github.tomorrow615.compiler.ir;
+
+import io.github.tomorrow615.compiler.frontend.ast.*;
+import io.github.tomorrow615.compiler.frontend.ast.arena.AstArena;
+import io.github.tomorrow615.compiler.frontend.ast.decl.*;
+import io.github.tomorrow615.compiler.frontend.ast.expr.*;
+import io.github.tomorrow615.compiler.frontend.ast.func.*;
+import io.github.tomorrow615.compiler.frontend.ast.stmt.*;
+import io.github.tomorrow615.compiler.frontend.lexer.Token;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenType;
+import io.github.tomorrow615.compiler.frontend.symbol.ScopeStack;
+import io.github.tomorrow615.compiler.frontend.symbol.SymbolType;
+import io.github.tomorrow615.compiler.frontend.symbol.ValueSymbol;
+import io.github.tomorrow615.compiler.frontend.visitor.ArenaAstAdapter;
+import io.github.tomorrow615.compiler.util.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把通过语义检查的 AST 翻译为 SSA 形式的 IR。输入必须没有编译错误。
+ * 名字按与语义分析相同的作用域规则重新解析；常量、数组长度与全局初值不再求值，
+ * 按定义的顺序取语义分析中 ConstEvaluator 保存在符号里的结果：
+ * 标量常量直接替换为其值，常量数组与 static 局部变量放入全局存储，
+ * 标量局部变量由 FunctionBuilder 构造为 SSA 值，局部数组在入口块中分配。
+ * && 与 || 按短路求值翻译为条件跳转；getint 与 printf 翻译为 GETINT / PUTINT / PUTSTR 指令。
+ * 同时支持逐层的表达式与压缩表达式树 (AstMode.COMPACT)。
+ */
+public class IrLowering {
+    private static final int NONE = IrFunction.NONE;
+    private static final String GETINT = "getint";
+
+    private final IrModule module = new IrModule();
+    private final ScopeStack scopes = ScopeStack.create(Config.SCOPE_MODE);
+    private final List<ValueSymbol> definitions;                  // 语义分析求值过的定义，按定义顺序
+    private int nextDefinition;
+    private final IntIntMap functionIndexes = new IntIntMap();     // 名字 ID → 函数序号
+    private final List<ValueType> returnTypes = new ArrayList<>();
+
+    private FunctionBuilder builder;
+    private String functionName;
+    private int breakTarget = NONE;
+    private int continueTarget = NONE;
+
+    private final StmtDispatcher stmtDispatcher = new StmtDispatcher();
+    private final ExprDispatcher exprDispatcher = new ExprDispatcher();
+
+    // definitions 来自同一棵 AST 的 ConstEvaluator.getDefinitions()
+    public IrLowering(List<ValueSymbol> definitions) {
+        this.definitions = definitions;
+    }
+
+    public IrModule lower(CompUnitNode compUnit) {
+        scopes.enterScope();
+        for (DeclNode decl : compUnit.getDecls()) {
+            lowerDecl(decl);
+        }
+        for (FuncDefNode funcDef : compUnit.getFuncDefs()) {
+            lowerFuncDef(funcDef);
+        }
+        lowerMainFuncDef(compUnit.getMainFuncDef());
+        return module;
+    }
+
+    // 与 SemanticVisitor 相同，每次只把一个顶层声明或函数还原为对象节点
+    public IrModule lower(AstArena arena) {
+        scopes.enterScope();
+        ArenaAstAdapter adapter = new ArenaAstAdapter(arena);
+        int root = arena.root();
+        for (int i = 0; i < arena.childCount(root); i++) {
+            int item = arena.child(root, i);
+            switch (arena.kind(item)) {
+                case FUNC_DEF:
+                    lowerFuncDef(adapter.funcDef(item));
+                    break;
+                case MAIN_FUNC_DEF:
+                    lowerMainFuncDef(adapter.mainFuncDef(item));
+                    break;
+                default:
+                    lowerDecl(adapter.decl(item));
+                    break;
+            }
+        }
+        return module;
+    }
+
+    // --- 函数 ---
+
+    private void lowerFuncDef(FuncDefNode node) {
+        Token ident = node.getIdent();
+        ValueType returnType = node.getFuncType().getTypeToken().getType() == TokenType.VOIDTK ?
+                ValueType.VOID : ValueType.INT;
+        List<FuncFParamNode> params = node.getFuncFParams();
+        ValueType[] paramTypes = new ValueType[params.size()];
+        for (int i = 0; i < params.size(); i++) {
+            paramTypes[i] = params.get(i).getType() == FuncFParamNode.Type.ARRAY ? ValueType.ARRAY : ValueType.INT;
+        }
+
+        int index = returnTypes.size();
+        functionIndexes.put(ident.getNameId(), index); // 先登记，函数体中可以递归调用
+        returnTypes.add(returnType);
+        beginFunction(ident.getText(), index, returnType, paramTypes);
+
+        for (int i = 0; i < params.size(); i++) {
+            Token paramIdent = params.get(i).getIdent();
+            boolean isArray = paramTypes[i] == ValueType.ARRAY;
+            VariableBinding binding = new VariableBinding(paramIdent.getText(), paramIdent.getNameId(),
+                    isArray ? SymbolType.IntArray : SymbolType.Int, paramIdent.getLineNumber(), isArray ? 1 : 0);
+            int param = builder.param(i);
+            if (isArray) {
+                binding.bind(VariableBinding.Storage.LOCAL_ARRAY, param);
+            } else {
+                int variable = builder.newVariable();
+                builder.write(variable, param);
+                binding.bind(VariableBinding.Storage.SSA, variable);
+            }
+            scopes.addSymbol(binding);
+        }
+        endFunction(node.getBlock(), returnType);
+    }
+
+    private void lowerMainFuncDef(MainFuncDefNode node) {
+        beginFunction("main", returnTypes.size(), ValueType.INT, new ValueType[0]);
+        returnTypes.add(ValueType.INT);
+        endFunction(node.getBlock(), ValueType.INT);
+    }
+
+    private void beginFunction(String name, int index, ValueType returnType, ValueType[] paramTypes) {
+        builder = new FunctionBuilder(name, index, returnType, paramTypes);
+        functionName = name;
+        scopes.enterScope();
+    }
+
+    // 函数体与形参在同一个作用域中；执行到函数末尾时补上 return
+    private void endFunction(BlockNode body, ValueType returnType) {
+        for (BlockItemNode item : body.getBlockItems()) {
+            item.accept(stmtDispatcher);
+        }
+        builder.ret(returnType == ValueType.VOID ? NONE : builder.constant(0));
+        scopes.exitScope();
+        module.addFunction(builder.finish());
+        builder = null;
+    }
+
+    // --- 声明 ---
+
+    private void lowerDecl(DeclNode node) {
+        node.accept(stmtDispatcher);
+    }
+
+    private void lowerConstDef(ConstDefNode node) {
+        Token ident = node.getIdent();
+        int dimension = node.getConstExps().size();
+        VariableBinding binding = new VariableBinding(ident.getText(), ident.getNameId(),
+                dimension > 0 ? SymbolType.ConstIntArray : SymbolType.ConstInt, ident.getLineNumber(), dimension);
+        ValueSymbol folded = definition(ident);
+        binding.setLength(folded.getLength());
+        if (folded.hasConstValue()) {
+            binding.setConstValues(folded.getConstValues());
+        }
+
+        if (dimension == 0) {
+            binding.bind(VariableBinding.Storage.CONSTANT, NONE);
+            if (!binding.hasConstValue()) {
+                binding.setConstValue(0);
+            }
+        } else {
+            // 常量数组不会被修改，局部的常量数组也放入全局存储，只初始化一次
+            if (!binding.hasConstValue()) {
+                binding.setConstValues(new int[Math.max(binding.getLength(), 0)]);
+            }
+            int global = module.addGlobal(new IrGlobal(globalName(ident), true, true, binding.getConstValues()));
+            binding.bind(VariableBinding.Storage.GLOBAL_ARRAY, global);
+        }
+        scopes.addSymbol(binding);
+    }
+
+    private void lowerVarDef(VarDefNode node, boolean isStatic) {
+        Token ident = node.getIdent();
+        int dimension = node.getDimension();
+        SymbolType type = dimension > 0 ? SymbolType.IntArray : SymbolType.Int;
+        VariableBinding binding = new VariableBinding(ident.getText(), ident.getNameId(), type,
+                ident.getLineNumber(), dimension);
+        ValueSymbol folded = definition(ident);
+        binding.setLength(folded.getLength());
+        InitValNode init = node.getInitVal();
+
+        if (builder == null || isStatic) {
+            // 全局变量与 static 局部变量：初值是常量表达式，写入全局存储的初始值
+            int[] values = dimension > 0 ? new int[arrayLength(binding, init)] : new int[1];
+            int[] initValues = folded.getInitValues();
+            if (initValues != null) {
+                System.arraycopy(initValues, 0, values, 0, Math.min(values.length, initValues.length));
+            }
+            int global = module.addGlobal(new IrGlobal(globalName(ident), dimension > 0, false, values));
+            binding.bind(dimension > 0 ? VariableBinding.Storage.GLOBAL_ARRAY : VariableBinding.Storage.GLOBAL_SCALAR,
+                    global);
+        } else if (dimension == 0) {
+            int value = init != null ? lowerExp(init.getSingleInit()) : builder.constant(0);
+            int variable = builder.newVariable();
+            builder.write(variable, value);
+            binding.bind(VariableBinding.Storage.SSA, variable);
+        } else {
+            int length = arrayLength(binding, init);
+            int array = builder.alloca(length);
+            if (init != null) {
+                List<ExpNode> exps = initExps(init);
+                int count = Math.min(length, exps.size());
+                for (int i = 0; i < count; i++) {
+                    int value = lowerExp(exps.get(i));
+                    builder.emit(Opcode.STORE, ValueType.VOID, array, builder.constant(i), value);
+                }
+                if (count < length) {
+                    builder.emit(Opcode.ZERO, ValueType.VOID, array, count, length - count);
+                }
+            }
+            binding.bind(VariableBinding.Storage.LOCAL_ARRAY, array);
+        }
+        // 与 C 相同，名字的作用域从定义之后开始，初值中的同名引用指向外层
+        scopes.addSymbol(binding);
+    }
+
+    // 语义分析与生成 IR 以相同的顺序访问定义，名字与行号不一致说明两次遍历的 AST 不同
+    private ValueSymbol definition(Token ident) {
+        if (nextDefinition >= definitions.size()) {
+            throw new IllegalStateException("语义分析中没有定义: " + ident.getText());
+        }
+        ValueSymbol symbol = definitions.get(nextDefinition++);
+        if (symbol.getNameId() != ident.getNameId() || symbol.getLine() != ident.getLineNumber()) {
+            throw new IllegalStateException("定义与语义分析的顺序不一致: " + ident.getText());
+        }
+        return symbol;
+    }
+
+    private static int arrayLength(VariableBinding binding, InitValNode init) {
+        if (binding.getLength() >= 0) {
+            return binding.getLength();
+        }
+        return init == null ? 1 : Math.max(initExps(init).size(), 1);
+    }
+
+    private static List<ExpNode> initExps(InitValNode init) {
+        return init.getType() == InitValNode.Type.SINGLE ? List.of(init.getSingleInit()) : init.getArrayInit();
+    }
+
+    // 全局存储的名字：局部的常量数组与 static 变量加上函数名与序号，避免重名
+    private String globalName(Token ident) {
+        if (builder == null) {
+            return ident.getText();
+        }
+        return functionName + "." + ident.getText() + "." + module.getGlobals().size();
+    }
+
+    // --- 语句 ---
+
+    private void lowerStmt(StmtNode node) {
+        if (node != null) {
+            node.accept(stmtDispatcher);
+        }
+    }
+
+    private final class StmtDispatcher extends BaseASTVisitor<Void> {
+        @Override
+        public Void visitConstDecl(ConstDeclNode node) {
+            for (ConstDefNode def : node.getConstDefs()) {
+                lowerConstDef(def);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitVarDecl(VarDeclNode node) {
+            for (VarDefNode def : node.getVarDefs()) {
+                lowerVarDef(def, node.isStatic());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitBlock(BlockNode node) {
+            scopes.enterScope();
+            for (BlockItemNode item : node.getBlockItems()) {
+                item.accept(this);
+            }
+            scopes.exitScope();
+            return null;
+        }
+
+        @Override
+        public Void visitAssignStmt(AssignStmtNode node) {
+            assign(node.getlVal(), node.getExp());
+            return null;
+        }
+
+        @Override
+        public Void visitExpStmt(ExpStmtNode node) {
+            if (node.getExp() != null) {
+                lowerExp(node.getExp());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitIfStmt(IfStmtNode node) {
+            int thenBlock = builder.newBlock();
+            int endBlock = builder.newBlock();
+            int elseBlock = node.getElseStmt() != null ? builder.newBlock() : endBlock;
+
+            lowerCond(node.getCond(), thenBlock, elseBlock);
+            enter(thenBlock);
+            lowerStmt(node.getThenStmt());
+            builder.br(endBlock);
+            if (elseBlock != endBlock) {
+                enter(elseBlock);
+                lowerStmt(node.getElseStmt());
+                builder.br(endBlock);
+            }
+            enter(endBlock);
+            return null;
+        }
+
+        // for (init; cond; update) body：cond 块在 update 跳回之后封闭，exit 块在所有 break 之后封闭
+        @Override
+        public Void visitForStmt(ForStmtNode node) {
+            if (node.getInitStmt() != null) {
+                node.getInitStmt().accept(this);
+            }
+            int condBlock = builder.newBlock();
+            int bodyBlock = builder.newBlock();
+            int updateBlock = builder.newBlock();
+            int exitBlock = builder.newBlock();
+
+            builder.br(condBlock);
+            builder.setCurrentBlock(condBlock);
+            if (node.getCond() != null) {
+                lowerCond(node.getCond(), bodyBlock, exitBlock);
+            } else {
+                builder.br(bodyBlock);
+            }
+
+            int savedBreak = breakTarget;
+            int savedContinue = continueTarget;
+            breakTarget = exitBlock;
+            continueTarget = updateBlock;
+            enter(bodyBlock);
+            lowerStmt(node.getBodyStmt());
+            builder.br(updateBlock);
+            breakTarget = savedBreak;
+            continueTarget = savedContinue;
+
+            enter(updateBlock);
+            if (node.getUpdateStmt() != null) {
+                node.getUpdateStmt().accept(this);
+            }
+            builder.br(condBlock);
+            builder.seal(condBlock);
+            enter(exitBlock);
+            return null;
+        }
+
+        @Override
+        public Void visitForSubStmt(ForSubStmtNode node) {
+            for (int i = 0; i < node.getLVals().size(); i++) {
+                assign(node.getLVals().get(i), node.getExps().get(i));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitBreakStmt(BreakStmtNode node) {
+            builder.br(breakTarget);
+            return null;
+        }
+
+        @Override
+        public Void visitContinueStmt(ContinueStmtNode node) {
+            builder.br(continueTarget);
+            return null;
+        }
+
+        @Override
+        public Void visitReturnStmt(ReturnStmtNode node) {
+            builder.ret(node.getExp() != null ? lowerExp(node.getExp()) : NONE);
+            return null;
+        }
+
+        // 先按顺序求出全部实参，再依次输出格式串的各段与整数
+        @Override
+        public Void visitPrintfStmt(PrintfStmtNode node) {
+            List<ExpNode> exps = node.getExps();
+            int[] values = new int[exps.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = lowerExp(exps.get(i));
+            }
+
+            // 格式串缺失时语义分析按不含 %d 处理，这里同样什么也不输出
+            Object value = node.getFormatString().getValue();
+            String format = value instanceof String ? (String) value : "";
+            int next = 0;
+            int segmentStart = 0;
+            for (int i = 0; i + 1 < format.length(); i++) {
+                if (format.charAt(i) == '%' && format.charAt(i + 1) == 'd' && next < values.length) {
+                    putString(format, segmentStart, i);
+                    builder.emit(Opcode.PUTINT, ValueType.VOID, values[next++], NONE, NONE);
+                    segmentStart = i + 2;
+                    i++;
+                }
+            }
+            putString(format, segmentStart, format.length());
+            return null;
+        }
+    }
+
+    private void putString(String format, int start, int end) {
+        if (start < end) {
+            builder.emit(Opcode.PUTSTR, ValueType.VOID, module.addString(format.substring(start, end)), NONE, NONE);
+        }
+    }
+
+    // 转到前驱已全部确定的块
+    private void enter(int block) {
+        builder.seal(block);
+        builder.setCurrentBlock(block);
+    }
+
+    private void assign(LValNode lVal, ExpNode exp) {
+        VariableBinding binding = (VariableBinding) scopes.lookup(lVal.getIdent().getNameId());
+        switch (binding.storage) {
+            case SSA:
+                builder.write(binding.index, lowerExp(exp));
+                break;
+            case GLOBAL_SCALAR:
+                builder.emit(Opcode.STORE_GLOBAL, ValueType.VOID, binding.index, lowerExp(exp), NONE);
+                break;
+            default: {
+                int array = arrayValue(binding);
+                int index = lowerExp(lVal.getArrayExps().get(0));
+                int value = lowerExp(exp);
+                builder.emit(Opcode.STORE, ValueType.VOID, array, index, value);
+                break;
+            }
+        }
+    }
+
+    // --- 条件 (短路求值) ---
+
+    private void lowerCond(CondNode node, int ifTrue, int ifFalse) {
+        if (node.getExpr() != null) {
+            lowerCondExpr(node.getExpr(), ifTrue, ifFalse);
+        } else {
+            lowerLOr(node.getLorExp(), ifTrue, ifFalse);
+        }
+    }
+
+    private void lowerLOr(LOrExpNode node, int ifTrue, int ifFalse) {
+        List<LAndExpNode> operands = node.getlAndExps();
+        for (int i = 0; i < operands.size() - 1; i++) {
+            int next = builder.newBlock();
+            lowerLAnd(operands.get(i), ifTrue, next);
+            enter(next);
+        }
+        lowerLAnd(operands.get(operands.size() - 1), ifTrue, ifFalse);
+    }
+
+    private void lowerLAnd(LAndExpNode node, int ifTrue, int ifFalse) {
+        List<EqExpNode> operands = node.getEqExps();
+        for (int i = 0; i < operands.size() - 1; i++) {
+            int next = builder.newBlock();
+            builder.cbr(lowerEq(operands.get(i)), next, ifFalse);
+            enter(next);
+        }
+        builder.cbr(lowerEq(operands.get(operands.size() - 1)), ifTrue, ifFalse);
+    }
+
+    private int lowerEq(EqExpNode node) {
+        List<RelExpNode> operands = node.getRelExps();
+        int value = lowerRel(operands.get(0));
+        for (int i = 1; i < operands.size(); i++) {
+            value = builder.binary(opcode(node.getOperators().get(i - 1)), value, lowerRel(operands.get(i)));
+        }
+        return value;
+    }
+
+    private int lowerRel(RelExpNode node) {
+        List<AddExpNode> operands = node.getAddExps();
+        int value = lowerAdd(operands.get(0));
+        for (int i = 1; i < operands.size(); i++) {
+            value = builder.binary(opcode(node.getOperators().get(i - 1)), value, lowerAdd(operands.get(i)));
+        }
+        return value;
+    }
+
+    // 压缩表达式树中的条件：LOR / LAND 层短路，其他表达式求值后比较是否为 0
+    private void lowerCondExpr(ExprNode node, int ifTrue, int ifFalse) {
+        if (node instanceof BinaryExpNode binary && binary.getLevel() == BinaryExpNode.Level.LOR) {
+            List<ExprNode> operands = binary.getOperands();
+            for (int i = 0; i < operands.size() - 1; i++) {
+                int next = builder.newBlock();
+                lowerCondExpr(operands.get(i), ifTrue, next);
+                enter(next);
+            }
+            lowerCondExpr(operands.get(operands.size() - 1), ifTrue, ifFalse);
+        } else if (node instanceof BinaryExpNode binary && binary.getLevel() == BinaryExpNode.Level.LAND) {
+            List<ExprNode> operands = binary.getOperands();
+            for (int i = 0; i < operands.size() - 1; i++) {
+                int next = builder.newBlock();
+                lowerCondExpr(operands.get(i), next, ifFalse);
+                enter(next);
+            }
+            lowerCondExpr(operands.get(operands.size() - 1), ifTrue, ifFalse);
+        } else {
+            builder.cbr(lowerExpr(node), ifTrue, ifFalse);
+        }
+    }
+
+    // --- 表达式 ---
+
+    private int lowerExp(ExpNode node) {
+        return node.getExpr() != null ? lowerExpr(node.getExpr()) : lowerAdd(node.getAddExp());
+    }
+
+    private int lowerAdd(AddExpNode node) {
+        List<MulExpNode> operands = node.getMulExps();
+        int value = lowerMul(operands.get(0));
+        for (int i = 1; i < operands.size(); i++) {
+            value = builder.binary(opcode(node.getOperators().get(i - 1)), value, lowerMul(operands.get(i)));
+        }
+        return value;
+    }
+
+    private int lowerMul(MulExpNode node) {
+        List<UnaryExpNode> operands = node.getUnaryExps();
+        int value = lowerUnary(operands.get(0));
+        for (int i = 1; i < operands.size(); i++) {
+            value = builder.binary(opcode(node.getOperators().get(i - 1)), value, lowerUnary(operands.get(i)));
+        }
+        return value;
+    }
+
+    private int lowerUnary(UnaryExpNode node) {
+        switch (node.getType()) {
+            case PRIMARY:
+                return lowerPrimary(node.getPrimaryExp());
+            case UNARY_OP:
+                return unaryOp(node.getUnaryOp(), lowerUnary(node.getUnaryExp()));
+            default:
+                return lowerCall(node);
+        }
+    }
+
+    private int lowerPrimary(PrimaryExpNode node) {
+        switch (node.getType()) {
+            case PAREN_EXP:
+                return lowerExp(node.getExp());
+            case LVAL:
+                return lowerLVal(node.getLval());
+            default:
+                return builder.constant((Integer) node.getNumber().getIntConst().getValue());
+        }
+    }
+
+    private int lowerExpr(ExprNode node) {
+        return node.accept(exprDispatcher);
+    }
+
+    private final class ExprDispatcher extends BaseASTVisitor<Integer> {
+        @Override
+        public Integer visitBinaryExp(BinaryExpNode node) {
+            if (node.getLevel() == BinaryExpNode.Level.LOR || node.getLevel() == BinaryExpNode.Level.LAND) {
+                return materialize(node);
+            }
+            List<ExprNode> operands = node.getOperands();
+            int value = operands.get(0).accept(this);
+            for (int i = 1; i < operands.size(); i++) {
+                value = builder.binary(opcode(node.getOperators().get(i - 1)), value, operands.get(i).accept(this));
+            }
+            return value;
+        }
+
+        @Override
+        public Integer visitUnaryOpExp(UnaryOpExpNode node) {
+            return unaryOp(node.getUnaryOp(), node.getOperand().accept(this));
+        }
+
+        @Override
+        public Integer visitUnaryExp(UnaryExpNode node) {
+            return lowerCall(node); // 压缩表达式树中只有函数调用
+        }
+
+        @Override
+        public Integer visitLVal(LValNode node) {
+            return lowerLVal(node);
+        }
+
+        @Override
+        public Integer visitNumber(NumberNode node) {
+            return builder.constant((Integer) node.getIntConst().getValue());
+        }
+    }
+
+    // 逻辑表达式作为值使用时，经短路跳转得到 0 或 1
+    private int materialize(ExprNode node) {
+        int variable = builder.newVariable();
+        int ifTrue = builder.newBlock();
+        int ifFalse = builder.newBlock();
+        int end = builder.newBlock();
+        lowerCondExpr(node, ifTrue, ifFalse);
+        enter(ifTrue);
+        builder.write(variable, builder.constant(1));
+        builder.br(end);
+        enter(ifFalse);
+        builder.write(variable, builder.constant(0));
+        builder.br(end);
+        enter(end);
+        return builder.read(variable);
+    }
+
+    private int unaryOp(UnaryOpNode op, int operand) {
+        switch (op.getOp().getType()) {
+            case MINU:
+                return builder.unary(Opcode.NEG, operand);
+            case NOT:
+                return builder.unary(Opcode.NOT, operand);
+            default:
+                return operand;
+        }
+    }
+
+    // 左值作为表达式：标量取值，数组元素读取，不带下标的数组名 (实参) 得到整个数组
+    private int lowerLVal(LValNode node) {
+        VariableBinding binding = (VariableBinding) scopes.lookup(node.getIdent().getNameId());
+        switch (binding.storage) {
+            case CONSTANT:
+                return builder.constant(binding.getConstValue());
+            case SSA:
+                return builder.read(binding.index);
+            case GLOBAL_SCALAR:
+                return builder.emit(Opcode.LOAD_GLOBAL, ValueType.INT, binding.index, NONE, NONE);
+            default: {
+                int array = arrayValue(binding);
+                if (node.getArrayExps().isEmpty()) {
+                    return array;
+                }
+                int index = lowerExp(node.getArrayExps().get(0));
+                if (binding.isConst() && builder.isConstant(index)) {
+                    int i = builder.constantValue(index);
+                    int[] values = binding.getConstValues();
+                    if (i >= 0 && i < values.length) {
+                        return builder.constant(values[i]);
+                    }
+                }
+                return builder.emit(Opcode.LOAD, ValueType.INT, array, index, NONE);
+            }
+        }
+    }
+
+    private int arrayValue(VariableBinding binding) {
+        return binding.storage == VariableBinding.Storage.GLOBAL_ARRAY ?
+                builder.globalArray(binding.index) : binding.index;
+    }
+
+    private int lowerCall(UnaryExpNode node) {
+        Token ident = node.getIdent();
+        int callee = functionIndexes.get(ident.getNameId());
+        if (callee == NONE && GETINT.equals(ident.getText())) {
+            return builder.emit(Opcode.GETINT, ValueType.INT, NONE, NONE, NONE);
+        }
+        List<ExpNode> params = node.getFuncRParams() == null ? List.of() : node.getFuncRParams().getParams();
+        int[] args = new int[params.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = lowerExp(params.get(i));
+        }
+        return builder.call(callee, returnTypes.get(callee), args);
+    }
+
+    private static Opcode opcode(Token operator) {
+        switch (operator.getType()) {
+            case PLUS: return Opcode.ADD;
+            case MINU: return Opcode.SUB;
+            case MULT: return Opcode.MUL;
+            case DIV: return Opcode.DIV;
+            case MOD: return Opcode.MOD;
+            case LSS: return Opcode.LT;
+            case LEQ: return Opcode.LE;
+            case GRE: return Opcode.GT;
+            case GEQ: return Opcode.GE;
+            case EQL: return Opcode.EQ;
+            case NEQ: return Opcode.NE;
+            default: throw new IllegalArgumentException("不是二元运算符: " + operator.getText());
+        }
+    }
+}
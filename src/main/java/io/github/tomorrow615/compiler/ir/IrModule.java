@@ -0,0 +1,63 @@
+package io.github.tomorrow615.compiler.ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 一个编译单元的 IR：全局存储、函数 (按定义顺序，main 在最后) 与 PUTSTR 输出的字符串
+public class IrModule {
+    private final List<IrGlobal> globals = new ArrayList<>();
+    private final List<IrFunction> functions = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+
+    int addGlobal(IrGlobal global) {
+        globals.add(global);
+        return globals.size() - 1;
+    }
+
+    void addFunction(IrFunction function) {
+        functions.add(function);
+    }
+
+    // 相同的字符串只保存一份
+    int addString(String s) {
+        Integer index = stringIndexes.get(s);
+        if (index == null) {
+            index = strings.size();
+            strings.add(s);
+            stringIndexes.put(s, index);
+        }
+        return index;
+    }
+
+    public List<IrGlobal> getGlobals() {
+        return Collections.unmodifiableList(globals);
+    }
+
+    public IrGlobal getGlobal(int index) {
+        return globals.get(index);
+    }
+
+    public List<IrFunction> getFunctions() {
+        return Collections.unmodifiableList(functions);
+    }
+
+    public IrFunction getFunction(int index) {
+        return functions.get(index);
+    }
+
+    public IrFunction getMain() {
+        return functions.get(functions.size() - 1);
+    }
+
+    public List<String> getStrings() {
+        return Collections.unmodifiableList(strings);
+    }
+
+    public String getString(int index) {
+        return strings.get(index);
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.tomorrow615.compiler.ir;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 函数中每个值的活跃区间，用于给值分配局部变量槽或寄存器。
+ * 位置就是指令编号：先按块做活跃变量分析 (PHI 的来源算作在对应前驱末尾使用)，
+ * 再把每个值活跃的所有位置合并为一个区间 [start, end]，跨越循环时区间覆盖整个循环。
+ * PHI 的区间从所在块的开头算起。区间 [s1, e1] 与 [s2, e2] (s1 &lt;= s2) 在 e1 &lt;= s2 时不冲突：
+ * 一条指令先读完操作数再写结果，跳转边上的 PHI 赋值也先读完所有来源。
+ */
+public final class LiveIntervals {
+    private final int[] starts;
+    private final int[] ends;
+    private final long[][] liveOut;
+
+    public LiveIntervals(IrFunction f) {
+        int size = f.size();
+        int blockCount = f.blockCount();
+        int words = (size + 63) >>> 6;
+        int[] blocks = new int[size];
+        for (int b = 0; b < blockCount; b++) {
+            Arrays.fill(blocks, f.blockStart(b), f.blockEnd(b), b);
+        }
+
+        // gen: 块中使用、在其他块中定义的值；PHI 的来源记在前驱的 phiUses 中
+        long[][] gen = new long[blockCount][words];
+        long[][] phiUses = new long[blockCount][words];
+        for (int i = 0; i < size; i++) {
+            int block = blocks[i];
+            if (f.opcode(i) == Opcode.PHI) {
+                for (int k = 0; k < f.listSize(i); k++) {
+                    set(phiUses[f.phiBlock(i, k)], f.phiValue(i, k));
+                }
+            } else {
+                f.forEachOperand(i, value -> {
+                    if (blocks[value] != block) {
+                        set(gen[block], value);
+                    }
+                });
+            }
+        }
+
+        // liveOut(B) = ∪ liveIn(S) ∪ phiUses(B)，liveIn(B) = gen(B) ∪ (liveOut(B) - 块中定义的值)
+        long[][] liveIn = new long[blockCount][words];
+        liveOut = new long[blockCount][words];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = blockCount - 1; b >= 0; b--) {
+                long[] out = liveOut[b];
+                System.arraycopy(phiUses[b], 0, out, 0, words);
+                for (int k = 0; k < f.successorCount(b); k++) {
+                    long[] in = liveIn[f.successor(b, k)];
+                    for (int w = 0; w < words; w++) {
+                        out[w] |= in[w];
+                    }
+                }
+                long[] in = liveIn[b];
+                long[] next = out.clone();
+                clearRange(next, f.blockStart(b), f.blockEnd(b));
+                for (int w = 0; w < words; w++) {
+                    next[w] |= gen[b][w];
+                }
+                if (!Arrays.equals(in, next)) {
+                    liveIn[b] = next;
+                    changed = true;
+                }
+            }
+        }
+
+        starts = new int[size];
+        ends = new int[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = f.opcode(i) == Opcode.PHI ? f.blockStart(blocks[i]) : i;
+            ends[i] = starts[i];
+        }
+        for (int i = 0; i < size; i++) {
+            if (f.opcode(i) != Opcode.PHI) {
+                int user = i;
+                f.forEachOperand(i, value -> extend(value, user));
+            }
+        }
+        for (int b = 0; b < blockCount; b++) {
+            int first = f.blockStart(b);
+            int last = f.terminator(b);
+            forEach(liveIn[b], value -> extend(value, first));
+            forEach(liveOut[b], value -> extend(value, last));
+        }
+    }
+
+    public int start(int value) {
+        return starts[value];
+    }
+
+    public int end(int value) {
+        return ends[value];
+    }
+
+    // 值在块末尾 (终结指令之后) 是否仍然活跃，包括作为后继中 PHI 的来源
+    public boolean isLiveOut(int block, int value) {
+        return (liveOut[block][value >>> 6] & 1L << value) != 0;
+    }
+
+    private void extend(int value, int position) {
+        starts[value] = Math.min(starts[value], position);
+        ends[value] = Math.max(ends[value], position);
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void clearRange(long[] bits, int from, int to) {
+        for (int i = from; i < to; i++) {
+            bits[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    private static void forEach(long[] bits, IntConsumer action) {
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                action.accept(w << 6 | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+}
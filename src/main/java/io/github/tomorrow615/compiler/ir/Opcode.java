@@ -0,0 +1,84 @@
+package io.github.tomorrow615.compiler.ir;
+
+/**
+ * IR 指令的操作码，注释中为三个操作数 a / b / c 的含义。
+ * 值操作数是函数内定义该值的指令编号；列表操作数保存在函数的 operands 池中，b 为起点，c 为个数。
+ * 数组值是整个数组的引用 (局部数组、全局数组或数组形参)，元素只能经 LOAD / STORE 按下标访问。
+ */
+public enum Opcode {
+    CONST(Operand.IMM, Operand.NONE, Operand.NONE),          // a: 整数值
+    PARAM(Operand.IMM, Operand.NONE, Operand.NONE),          // a: 形参序号，只出现在入口块开头
+    ADD(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    SUB(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    MUL(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    DIV(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    MOD(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    LT(Operand.VALUE, Operand.VALUE, Operand.NONE),          // 比较的结果为 0 或 1
+    LE(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    GT(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    GE(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    EQ(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    NE(Operand.VALUE, Operand.VALUE, Operand.NONE),
+    NEG(Operand.VALUE, Operand.NONE, Operand.NONE),
+    NOT(Operand.VALUE, Operand.NONE, Operand.NONE),          // a == 0 时为 1，否则为 0
+    ALLOCA(Operand.IMM, Operand.NONE, Operand.NONE),         // a: 长度；局部数组，只出现在入口块开头
+    GLOBAL(Operand.IMM, Operand.NONE, Operand.NONE),         // a: 全局数组序号，结果为该数组
+    LOAD_GLOBAL(Operand.IMM, Operand.NONE, Operand.NONE),    // a: 全局标量序号
+    STORE_GLOBAL(Operand.IMM, Operand.VALUE, Operand.NONE),  // a: 全局标量序号，b: 值
+    LOAD(Operand.VALUE, Operand.VALUE, Operand.NONE),        // a: 数组，b: 下标
+    STORE(Operand.VALUE, Operand.VALUE, Operand.VALUE),      // a: 数组，b: 下标，c: 值
+    ZERO(Operand.VALUE, Operand.IMM, Operand.IMM),           // a: 数组，b: 起始下标，c: 个数；把这一段置 0
+    CALL(Operand.IMM, Operand.LIST, Operand.LIST),           // a: 被调函数序号，列表: 实参
+    GETINT(Operand.NONE, Operand.NONE, Operand.NONE),        // 从标准输入读一个整数
+    PUTINT(Operand.VALUE, Operand.NONE, Operand.NONE),       // 输出整数 (printf 的 %d)
+    PUTSTR(Operand.IMM, Operand.NONE, Operand.NONE),         // a: 字符串序号 (printf 格式串中 %d 之间的一段)
+    PHI(Operand.NONE, Operand.LIST, Operand.LIST),           // 列表: (前驱块, 值) 对，只出现在块开头
+    BR(Operand.BLOCK, Operand.NONE, Operand.NONE),           // a: 目标块
+    CBR(Operand.VALUE, Operand.BLOCK, Operand.BLOCK),        // a: 条件，非 0 时转到 b，否则转到 c
+    RET(Operand.VALUE, Operand.NONE, Operand.NONE);          // a: 返回值，void 函数为 IrFunction.NONE
+
+    public enum Operand {
+        NONE, IMM, VALUE, BLOCK, LIST
+    }
+
+    private final Operand a;
+    private final Operand b;
+    private final Operand c;
+
+    Opcode(Operand a, Operand b, Operand c) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+    }
+
+    public Operand a() {
+        return a;
+    }
+
+    public Operand b() {
+        return b;
+    }
+
+    public Operand c() {
+        return c;
+    }
+
+    public boolean isTerminator() {
+        return this == BR || this == CBR || this == RET;
+    }
+
+    // 没有副作用，结果不被使用时可以删除
+    public boolean isPure() {
+        switch (this) {
+            case CONST: case PARAM: case ADD: case SUB: case MUL: case LT: case LE: case GT: case GE:
+            case EQ: case NE: case NEG: case NOT: case ALLOCA: case GLOBAL: case LOAD_GLOBAL: case LOAD: case PHI:
+                return true;
+            default:
+                return false; // DIV / MOD 可能除以 0，与其他有副作用的指令一样保留
+        }
+    }
+
+    public boolean isCompare() {
+        return this.ordinal() >= LT.ordinal() && this.ordinal() <= NE.ordinal();
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.tomorrow615.compiler.ir;
+
+public enum ValueType {
+    VOID,   // 指令不产生值
+    INT,
+    ARRAY   // 整个数组的引用
+}
@@ -0,0 +1,27 @@
+package io.github.tomorrow615.compiler.ir;
+
+import io.github.tomorrow615.compiler.frontend.symbol.SymbolType;
+import io.github.tomorrow615.compiler.frontend.symbol.ValueSymbol;
+
+// 生成 IR 时作用域中的值符号，记录名字对应的存储 (常量的值与数组长度取自语义分析的符号)
+final class VariableBinding extends ValueSymbol {
+    enum Storage {
+        CONSTANT,       // 标量常量，直接使用其值
+        SSA,            // 标量局部变量，index 为 FunctionBuilder 中的变量编号
+        LOCAL_ARRAY,    // 局部数组或数组形参，index 为 ALLOCA / PARAM 指令
+        GLOBAL_SCALAR,  // 全局标量或 static 局部标量，index 为全局存储序号
+        GLOBAL_ARRAY    // 全局数组、static 局部数组或常量数组，index 为全局存储序号
+    }
+
+    Storage storage;
+    int index;
+
+    VariableBinding(String name, int nameId, SymbolType type, int line, int dimension) {
+        super(name, nameId, type, line, dimension);
+    }
+
+    void bind(Storage storage, int index) {
+        this.storage = storage;
+        this.index = index;
+    }
+}
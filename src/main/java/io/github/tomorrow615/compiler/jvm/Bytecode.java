@@ -0,0 +1,320 @@
+package io.github.tomorrow615.compiler.jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * 一个方法的字节码缓冲区。记录操作数栈的深度以得到 max_stack，跳转目标用标签表示，写出时回填偏移。
+ * 局部变量的类型在整个方法中固定 (int 或 int[])，跳转目标处的栈上只有 int，
+ * 因此第一个被跳转到的标签写 full_frame (全部局部变量加上当时栈上的若干个 int)，
+ * 之后的局部变量都相同，只需写 same_frame 或带一个 int 的 same_locals_1_stack_item_frame。
+ */
+final class Bytecode {
+    static final int ACONST_NULL = 0x01, ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11, LDC = 0x12, LDC_W = 0x13;
+    static final int ILOAD = 0x15, ALOAD = 0x19, IALOAD = 0x2e, ISTORE = 0x36, ASTORE = 0x3a, IASTORE = 0x4f;
+    static final int POP = 0x57, IADD = 0x60, ISUB = 0x64, IMUL = 0x68, IDIV = 0x6c, IREM = 0x70, INEG = 0x74;
+    static final int IFEQ = 0x99, IFNE = 0x9a;
+    static final int IF_ICMPEQ = 0x9f, IF_ICMPNE = 0xa0, IF_ICMPLT = 0xa1, IF_ICMPGE = 0xa2;
+    static final int IF_ICMPGT = 0xa3, IF_ICMPLE = 0xa4, GOTO = 0xa7, IRETURN = 0xac, RETURN = 0xb1;
+    static final int GETSTATIC = 0xb2, PUTSTATIC = 0xb3, INVOKEVIRTUAL = 0xb6, INVOKESTATIC = 0xb8;
+    static final int NEWARRAY = 0xbc, WIDE = 0xc4;
+    private static final int T_INT = 10;
+    private static final int MAX_BRANCH = Short.MAX_VALUE;
+
+    static final byte INT = 1;       // 局部变量的校验类型：Integer_variable_info
+    static final byte ARRAY = 7;     // Object_variable_info，类为 [I
+
+    private final ClassWriter classWriter;
+    private final String methodName;
+    private byte[] code = new byte[256];
+    private int length = 0;
+    private int stack = 0;
+    private int maxStack = 0;
+    private byte[] locals = new byte[0];
+
+    // 标签：偏移 (未放置时为 -1)、到达时栈上 int 的个数、是否被跳转到
+    private int[] labelOffsets = new int[16];
+    private int[] labelStacks = new int[16];
+    private boolean[] labelTargets = new boolean[16];
+    private int labelCount = 0;
+    // 待回填的跳转：(指令位置, 标签) 对
+    private int[] fixups = new int[32];
+    private int fixupCount = 0;
+
+    Bytecode(ClassWriter classWriter, String methodName) {
+        this.classWriter = classWriter;
+        this.methodName = methodName;
+    }
+
+    // 每个局部变量槽的类型 (INT / ARRAY)，形参在前
+    void setLocals(byte[] locals) {
+        this.locals = locals;
+    }
+
+    int getMaxStack() {
+        return maxStack;
+    }
+
+    int getMaxLocals() {
+        return locals.length;
+    }
+
+    int length() {
+        return length;
+    }
+
+    // --- 标签 ---
+
+    int newLabel() {
+        if (labelCount == labelOffsets.length) {
+            int capacity = labelCount * 2;
+            labelOffsets = Arrays.copyOf(labelOffsets, capacity);
+            labelStacks = Arrays.copyOf(labelStacks, capacity);
+            labelTargets = Arrays.copyOf(labelTargets, capacity);
+        }
+        labelOffsets[labelCount] = -1;
+        labelStacks[labelCount] = -1;
+        return labelCount++;
+    }
+
+    // 在当前位置放置标签。之前已有跳转到此处时，栈深度以跳转时为准 (前一条可能是 goto / return)
+    void mark(int label) {
+        labelOffsets[label] = length;
+        if (labelStacks[label] >= 0) {
+            stack = labelStacks[label];
+        } else {
+            labelStacks[label] = stack;
+        }
+    }
+
+    // --- 指令 ---
+
+    void iconst(int value) {
+        if (value >= -1 && value <= 5) {
+            emit(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            emit(BIPUSH);
+            emit(value & 0xFF);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            emit(SIPUSH);
+            emitShort(value);
+        } else {
+            int index = classWriter.integer(value);
+            if (index <= 0xFF) {
+                emit(LDC);
+                emit(index);
+            } else {
+                emit(LDC_W);
+                emitShort(index);
+            }
+        }
+        push(1);
+    }
+
+    void aconstNull() {
+        emit(ACONST_NULL);
+        push(1);
+    }
+
+    void iload(int slot) {
+        local(ILOAD, slot);
+        push(1);
+    }
+
+    void aload(int slot) {
+        local(ALOAD, slot);
+        push(1);
+    }
+
+    void istore(int slot) {
+        local(ISTORE, slot);
+        push(-1);
+    }
+
+    void astore(int slot) {
+        local(ASTORE, slot);
+        push(-1);
+    }
+
+    // xLOAD_0..3 与 xSTORE_0..3 的短形式，槽号超过 255 时加 wide 前缀
+    private void local(int opcode, int slot) {
+        if (slot <= 3) {
+            int base = opcode == ILOAD ? 0x1a : opcode == ALOAD ? 0x2a : opcode == ISTORE ? 0x3b : 0x4b;
+            emit(base + slot);
+        } else if (slot <= 0xFF) {
+            emit(opcode);
+            emit(slot);
+        } else {
+            emit(WIDE);
+            emit(opcode);
+            emitShort(slot);
+        }
+    }
+
+    // 没有操作数的指令，delta 为执行后栈深度的变化
+    void op(int opcode, int delta) {
+        emit(opcode);
+        push(delta);
+    }
+
+    void newIntArray() {
+        emit(NEWARRAY);
+        emit(T_INT);
+    }
+
+    void field(int opcode, int fieldRef) {
+        emit(opcode);
+        emitShort(fieldRef);
+        push(opcode == GETSTATIC ? 1 : -1);
+    }
+
+    void invoke(int opcode, int methodRef, int delta) {
+        emit(opcode);
+        emitShort(methodRef);
+        push(delta);
+    }
+
+    // 条件跳转弹出条件的操作数；goto 之后的代码只能经标签到达
+    void jump(int opcode, int label) {
+        int position = length;
+        emit(opcode);
+        emitShort(0);
+        if (opcode == IFEQ || opcode == IFNE) {
+            push(-1);
+        } else if (opcode != GOTO) {
+            push(-2);
+        }
+        if (labelStacks[label] < 0) {
+            labelStacks[label] = stack;
+        }
+        labelTargets[label] = true;
+        if (fixupCount == fixups.length) {
+            fixups = Arrays.copyOf(fixups, fixupCount * 2);
+        }
+        fixups[fixupCount++] = position;
+        fixups[fixupCount++] = label;
+        if (opcode == GOTO) {
+            stack = 0;
+        }
+    }
+
+    void returnValue(boolean isVoid) {
+        emit(isVoid ? RETURN : IRETURN);
+        stack = 0;
+    }
+
+    private void push(int delta) {
+        stack += delta;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private void emit(int b) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, length * 2);
+        }
+        code[length++] = (byte) b;
+    }
+
+    private void emitShort(int s) {
+        emit(s >>> 8);
+        emit(s);
+    }
+
+    // --- 写出 ---
+
+    byte[] toByteArray() {
+        if (length > 0xFFFF) {
+            throw new IllegalStateException(methodName + ": 字节码超过 65535 字节");
+        }
+        byte[] result = Arrays.copyOf(code, length);
+        for (int i = 0; i < fixupCount; i += 2) {
+            int position = fixups[i];
+            int offset = labelOffsets[fixups[i + 1]] - position;
+            if (offset > MAX_BRANCH || offset < -MAX_BRANCH) {
+                throw new IllegalStateException(methodName + ": 跳转距离超过 32767 字节");
+            }
+            result[position + 1] = (byte) (offset >>> 8);
+            result[position + 2] = (byte) offset;
+        }
+        return result;
+    }
+
+    // 按偏移递增的栈映射帧，同一偏移只写一次；没有跳转时返回 null
+    byte[] stackMapTable() {
+        int[] order = new int[labelCount];
+        int count = 0;
+        for (int label = 0; label < labelCount; label++) {
+            if (labelTargets[label]) {
+                order[count++] = label;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = order[i];
+        }
+        Arrays.sort(sorted, (x, y) -> Integer.compare(labelOffsets[x], labelOffsets[y]));
+
+        int arrayClass = classWriter.classRef("[I");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(0); // 项数，最后回填
+            int entries = 0;
+            int previous = -1;
+            for (int label : sorted) {
+                int offset = labelOffsets[label];
+                if (offset == previous) {
+                    continue;
+                }
+                int delta = previous < 0 ? offset : offset - previous - 1;
+                int items = labelStacks[label];
+                if (previous < 0 || items > 1) {
+                    out.writeByte(255);
+                    out.writeShort(delta);
+                    out.writeShort(locals.length);
+                    for (byte local : locals) {
+                        out.writeByte(local);
+                        if (local == ARRAY) {
+                            out.writeShort(arrayClass);
+                        }
+                    }
+                    out.writeShort(items);
+                    for (int i = 0; i < items; i++) {
+                        out.writeByte(INT);
+                    }
+                } else if (items == 0) {
+                    // same_frame / same_frame_extended
+                    if (delta < 64) {
+                        out.writeByte(delta);
+                    } else {
+                        out.writeByte(251);
+                        out.writeShort(delta);
+                    }
+                } else {
+                    // same_locals_1_stack_item_frame (_extended)
+                    if (delta < 64) {
+                        out.writeByte(64 + delta);
+                    } else {
+                        out.writeByte(247);
+                        out.writeShort(delta);
+                    }
+                    out.writeByte(INT);
+                }
+                previous = offset;
+                entries++;
+            }
+            byte[] table = bytes.toByteArray();
+            table[0] = (byte) (entries >>> 8);
+            table[1] = (byte) entries;
+            return table;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
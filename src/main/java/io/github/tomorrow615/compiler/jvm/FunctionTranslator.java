@@ -0,0 +1,543 @@
+package io.github.tomorrow615.compiler.jvm;
+
+import io.github.tomorrow615.compiler.ir.IrFunction;
+import io.github.tomorrow615.compiler.ir.IrModule;
+import io.github.tomorrow615.compiler.ir.LiveIntervals;
+import io.github.tomorrow615.compiler.ir.Opcode;
+import io.github.tomorrow615.compiler.ir.ValueType;
+
+import java.util.Arrays;
+
+/**
+ * 把一个 IR 函数译为静态方法的字节码。
+ * 常量与全局数组在每次使用处直接压栈；只被下一条指令作为第一个操作数使用一次的值留在操作数栈上，
+ * 其余的值按活跃区间分配局部变量槽，区间不重叠的值共用一个槽 (形参即前几个槽)。
+ * 紧跟在比较之后的 CBR 译为一条 if_icmp 跳转，
+ * PHI 在前驱的跳转边上先把所有来源压栈、再逆序存入，即一次并行复制。
+ * 块按 IR 中的顺序排列，跳到下一个块时不生成 goto。
+ */
+final class FunctionTranslator {
+    private static final int NONE = IrFunction.NONE;
+
+    private final ClassWriter classWriter;
+    private final IrModule module;
+    private final IrFunction f;
+    private final Bytecode code;
+    private final int[] uses;
+    private final boolean[] fused;    // 与之后的 CBR 合并的比较
+    private final boolean[] stacked;  // 留在操作数栈上给下一条指令的值
+    private final boolean[] swapped;  // 交换了两个操作数的二元运算 (第二个操作数在栈上)
+    private final int[] slots;
+    private final int[] blockLabels;
+    private final int[] blocks;       // 每条指令所在的块
+    private int onStack = NONE;
+
+    FunctionTranslator(ClassWriter classWriter, IrModule module, IrFunction f) {
+        this.classWriter = classWriter;
+        this.module = module;
+        this.f = f;
+        this.code = new Bytecode(classWriter, f.getName());
+        int size = f.size();
+        this.uses = new int[size];
+        this.fused = new boolean[size];
+        this.stacked = new boolean[size];
+        this.swapped = new boolean[size];
+        this.slots = new int[size];
+        Arrays.fill(slots, NONE);
+        this.blockLabels = new int[f.blockCount()];
+        this.blocks = new int[size];
+        for (int b = 0; b < f.blockCount(); b++) {
+            Arrays.fill(blocks, f.blockStart(b), f.blockEnd(b), b);
+        }
+    }
+
+    Bytecode translate() {
+        countUses();
+        for (int i = 0; i < f.size(); i++) {
+            fused[i] = f.opcode(i).isCompare() && i + 1 < f.size() && f.opcode(i + 1) == Opcode.CBR
+                    && f.a(i + 1) == i && uses[i] == 1;
+        }
+        for (int i = 0; i < f.size(); i++) {
+            findStackedOperand(i);
+        }
+        assignSlots();
+
+        for (int b = 0; b < f.blockCount(); b++) {
+            blockLabels[b] = code.newLabel();
+        }
+        for (int b = 0; b < f.blockCount(); b++) {
+            code.mark(blockLabels[b]);
+            for (int i = f.blockStart(b); i < f.blockEnd(b); i++) {
+                translate(b, i);
+            }
+        }
+        return code;
+    }
+
+    // --- 分析 ---
+
+    private void countUses() {
+        for (int i = 0; i < f.size(); i++) {
+            f.forEachOperand(i, value -> uses[value]++);
+        }
+    }
+
+    // 不生成代码的指令：常量与全局数组在使用处压栈，形参已在槽中，PHI 由前驱写入
+    private boolean emitsNothing(int inst) {
+        switch (f.opcode(inst)) {
+            case CONST: case GLOBAL: case PARAM: case PHI:
+                return true;
+            default:
+                return fused[inst];
+        }
+    }
+
+    // 若 inst 的结果只被下一条生成代码的指令使用一次，且该指令最先压栈的就是它，则不必存入局部变量
+    private void findStackedOperand(int inst) {
+        if (uses[inst] != 1 || emitsNothing(inst) || f.type(inst) == ValueType.VOID) {
+            return;
+        }
+        int next = inst + 1;
+        while (next < f.size() && emitsNothing(next)) {
+            next++;
+        }
+        if (next >= f.size()) {
+            return;
+        }
+        // 合并的比较由 CBR 生成，按比较的操作数判断
+        int user = f.opcode(next) == Opcode.CBR && fused[next - 1] ? next - 1 : next;
+        Opcode opcode = f.opcode(user);
+        switch (opcode) {
+            case ADD: case MUL: case LT: case LE: case GT: case GE: case EQ: case NE:
+                if (f.a(user) == inst) {
+                    stacked[inst] = true;
+                } else if (f.b(user) == inst) {
+                    stacked[inst] = true;
+                    swapped[user] = true; // 可交换的运算，或比较方向反过来
+                }
+                break;
+            case SUB: case DIV: case MOD: case NEG: case NOT: case LOAD: case STORE: case ZERO: case PUTINT:
+            case CBR: case RET:
+                stacked[inst] = f.a(user) == inst;
+                break;
+            case STORE_GLOBAL:
+                stacked[inst] = f.b(user) == inst;
+                break;
+            case BR:
+                stacked[inst] = firstCopySource(blocks[user], f.a(user)) == inst;
+                break;
+            case CALL:
+                stacked[inst] = f.listSize(user) > 0 && f.arg(user, 0) == inst;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private boolean needsSlot(int inst) {
+        Opcode opcode = f.opcode(inst);
+        return f.type(inst) != ValueType.VOID && uses[inst] > 0 && !stacked[inst]
+                && (!emitsNothing(inst) || opcode == Opcode.PHI || opcode == Opcode.PARAM);
+    }
+
+    // 按活跃区间的起点依次分配槽，区间结束后归还，之后的同类型的值可以复用；形参固定在前几个槽中
+    private void assignSlots() {
+        LiveIntervals intervals = new LiveIntervals(f);
+        int size = f.size();
+        int paramCount = f.getParamCount();
+        // 以起点、终点为下标的两组链表
+        int[] startHeads = new int[size];
+        int[] startNext = new int[size];
+        int[] endHeads = new int[size];
+        int[] endNext = new int[size];
+        Arrays.fill(startHeads, NONE);
+        Arrays.fill(endHeads, NONE);
+        boolean[] paramUsed = new boolean[paramCount];
+        for (int i = size - 1; i >= 0; i--) {
+            if (needsSlot(i)) {
+                startNext[i] = startHeads[intervals.start(i)];
+                startHeads[intervals.start(i)] = i;
+                endNext[i] = endHeads[intervals.end(i)];
+                endHeads[intervals.end(i)] = i;
+                if (f.opcode(i) == Opcode.PARAM) {
+                    paramUsed[f.a(i)] = true;
+                }
+            }
+        }
+
+        byte[] types = new byte[size + paramCount];
+        int[] free = new int[size + paramCount];
+        int freeCount = 0;
+        for (int i = 0; i < paramCount; i++) {
+            types[i] = f.getParamType(i) == ValueType.ARRAY ? Bytecode.ARRAY : Bytecode.INT;
+            if (!paramUsed[i]) {
+                free[freeCount++] = i;
+            }
+        }
+        int count = paramCount;
+        for (int position = 0; position < size; position++) {
+            // 在此处最后一次使用的值先归还槽：操作数都在结果存入之前压栈
+            for (int v = endHeads[position]; v != NONE; v = endNext[v]) {
+                if (intervals.start(v) < position) {
+                    free[freeCount++] = slots[v];
+                }
+            }
+            for (int v = startHeads[position]; v != NONE; v = startNext[v]) {
+                if (f.opcode(v) == Opcode.PARAM) {
+                    slots[v] = f.a(v);
+                    continue;
+                }
+                byte type = f.type(v) == ValueType.ARRAY ? Bytecode.ARRAY : Bytecode.INT;
+                for (int k = freeCount - 1; k >= 0; k--) {
+                    if (types[free[k]] == type) {
+                        slots[v] = free[k];
+                        free[k] = free[--freeCount];
+                        break;
+                    }
+                }
+                if (slots[v] == NONE) {
+                    slots[v] = count;
+                    types[count++] = type;
+                }
+            }
+        }
+
+        byte[] locals = Arrays.copyOf(types, count);
+        code.setLocals(locals);
+        // 栈映射帧中列出全部局部变量，所以先给每个槽一个初值
+        for (int slot = paramCount; slot < count; slot++) {
+            if (locals[slot] == Bytecode.ARRAY) {
+                code.aconstNull();
+                code.astore(slot);
+            } else {
+                code.iconst(0);
+                code.istore(slot);
+            }
+        }
+    }
+
+    // --- 指令 ---
+
+    private void translate(int block, int inst) {
+        Opcode opcode = f.opcode(inst);
+        switch (opcode) {
+            case CONST: case GLOBAL: case PARAM: case PHI:
+                break;
+            case ADD: binary(inst, Bytecode.IADD); break;
+            case SUB: binary(inst, Bytecode.ISUB); break;
+            case MUL: binary(inst, Bytecode.IMUL); break;
+            case DIV: binary(inst, Bytecode.IDIV); break;
+            case MOD: binary(inst, Bytecode.IREM); break;
+            case LT: case LE: case GT: case GE: case EQ: case NE:
+                if (!fused[inst]) {
+                    compareValue(inst);
+                }
+                break;
+            case NEG:
+                push(f.a(inst));
+                code.op(Bytecode.INEG, 0);
+                define(inst);
+                break;
+            case NOT: {
+                int isZero = code.newLabel();
+                int end = code.newLabel();
+                push(f.a(inst));
+                code.jump(Bytecode.IFEQ, isZero);
+                materialize(isZero, end);
+                define(inst);
+                break;
+            }
+            case ALLOCA:
+                code.iconst(f.a(inst));
+                code.newIntArray();
+                define(inst);
+                break;
+            case LOAD_GLOBAL:
+                code.field(Bytecode.GETSTATIC, global(f.a(inst), "I"));
+                define(inst);
+                break;
+            case STORE_GLOBAL:
+                push(f.b(inst));
+                code.field(Bytecode.PUTSTATIC, global(f.a(inst), "I"));
+                break;
+            case LOAD:
+                push(f.a(inst));
+                push(f.b(inst));
+                code.op(Bytecode.IALOAD, -1);
+                define(inst);
+                break;
+            case STORE:
+                push(f.a(inst));
+                push(f.b(inst));
+                push(f.c(inst));
+                code.op(Bytecode.IASTORE, -3);
+                break;
+            case ZERO:
+                push(f.a(inst));
+                code.iconst(f.b(inst));
+                code.iconst(f.b(inst) + f.c(inst));
+                code.iconst(0);
+                code.invoke(Bytecode.INVOKESTATIC, classWriter.methodRef("java/util/Arrays", "fill", "([IIII)V"), -4);
+                break;
+            case CALL: {
+                int args = f.listSize(inst);
+                for (int k = 0; k < args; k++) {
+                    push(f.arg(inst, k));
+                }
+                IrFunction callee = module.getFunction(f.a(inst));
+                boolean isVoid = callee.getReturnType() == ValueType.VOID;
+                code.invoke(Bytecode.INVOKESTATIC, classWriter.methodRef(classWriter.getName(),
+                        callee.getName(), JvmBackend.descriptor(callee)), (isVoid ? 0 : 1) - args);
+                if (!isVoid) {
+                    define(inst);
+                }
+                break;
+            }
+            case GETINT:
+                code.invoke(Bytecode.INVOKESTATIC,
+                        classWriter.methodRef(classWriter.getName(), JvmBackend.GETINT, "()I"), 1);
+                define(inst);
+                break;
+            case PUTINT:
+                push(f.a(inst));
+                code.invoke(Bytecode.INVOKESTATIC,
+                        classWriter.methodRef(classWriter.getName(), JvmBackend.PUTINT, "(I)V"), -1);
+                break;
+            case PUTSTR:
+                code.field(Bytecode.GETSTATIC, classWriter.fieldRef(classWriter.getName(),
+                        JvmBackend.stringField(f.a(inst)), "[B"));
+                code.invoke(Bytecode.INVOKESTATIC,
+                        classWriter.methodRef(classWriter.getName(), JvmBackend.PUTSTR, "([B)V"), -1);
+                break;
+            case BR:
+                copies(block, f.a(inst));
+                if (f.a(inst) != block + 1) {
+                    code.jump(Bytecode.GOTO, blockLabels[f.a(inst)]);
+                }
+                break;
+            case CBR:
+                conditionalBranch(block, inst);
+                break;
+            case RET:
+                if (f.a(inst) == NONE) {
+                    code.returnValue(true);
+                } else {
+                    push(f.a(inst));
+                    code.returnValue(false);
+                }
+                break;
+            default:
+                throw new IllegalStateException("无法翻译的指令: " + opcode);
+        }
+    }
+
+    private void binary(int inst, int opcode) {
+        if (swapped[inst]) {
+            push(f.b(inst));
+            push(f.a(inst));
+        } else {
+            push(f.a(inst));
+            push(f.b(inst));
+        }
+        code.op(opcode, -1);
+        define(inst);
+    }
+
+    // 比较的结果作为值：if_icmp 跳转后压入 0 或 1
+    private void compareValue(int inst) {
+        int isTrue = code.newLabel();
+        int end = code.newLabel();
+        code.jump(pushCompare(inst, false), isTrue);
+        materialize(isTrue, end);
+        define(inst);
+    }
+
+    private void materialize(int isTrue, int end) {
+        code.iconst(0);
+        code.jump(Bytecode.GOTO, end);
+        code.mark(isTrue);
+        code.iconst(1);
+        code.mark(end);
+    }
+
+    // 压入比较的两个操作数，返回条件成立 (inverted 时为不成立) 时跳转的 if_icmp 指令
+    private int pushCompare(int inst, boolean inverted) {
+        Opcode opcode = f.opcode(inst);
+        if (swapped[inst]) {
+            push(f.b(inst));
+            push(f.a(inst));
+            opcode = mirror(opcode);
+        } else {
+            push(f.a(inst));
+            push(f.b(inst));
+        }
+        if (inverted) {
+            opcode = negate(opcode);
+        }
+        switch (opcode) {
+            case LT: return Bytecode.IF_ICMPLT;
+            case LE: return Bytecode.IF_ICMPLE;
+            case GT: return Bytecode.IF_ICMPGT;
+            case GE: return Bytecode.IF_ICMPGE;
+            case EQ: return Bytecode.IF_ICMPEQ;
+            default: return Bytecode.IF_ICMPNE;
+        }
+    }
+
+    // a op b 与 b mirror(op) a 等价
+    private static Opcode mirror(Opcode opcode) {
+        switch (opcode) {
+            case LT: return Opcode.GT;
+            case LE: return Opcode.GE;
+            case GT: return Opcode.LT;
+            case GE: return Opcode.LE;
+            default: return opcode;
+        }
+    }
+
+    private static Opcode negate(Opcode opcode) {
+        switch (opcode) {
+            case LT: return Opcode.GE;
+            case LE: return Opcode.GT;
+            case GT: return Opcode.LE;
+            case GE: return Opcode.LT;
+            case EQ: return Opcode.NE;
+            default: return Opcode.EQ;
+        }
+    }
+
+    // 条件成立时跳转 (inverted 时为不成立时跳转)
+    private void branchIf(int inst, boolean inverted, int label) {
+        int condition = f.a(inst);
+        if (fused[condition]) {
+            code.jump(pushCompare(condition, inverted), label);
+        } else {
+            push(condition);
+            code.jump(inverted ? Bytecode.IFEQ : Bytecode.IFNE, label);
+        }
+    }
+
+    private void conditionalBranch(int block, int inst) {
+        int ifTrue = f.b(inst);
+        int ifFalse = f.c(inst);
+        boolean trueCopies = hasCopies(block, ifTrue);
+        boolean falseCopies = hasCopies(block, ifFalse);
+        if (!trueCopies && !falseCopies) {
+            if (ifTrue == block + 1) {
+                branchIf(inst, true, blockLabels[ifFalse]);
+            } else {
+                branchIf(inst, false, blockLabels[ifTrue]);
+                if (ifFalse != block + 1) {
+                    code.jump(Bytecode.GOTO, blockLabels[ifFalse]);
+                }
+            }
+            return;
+        }
+        // 有 PHI 复制的边：真分支先跳到本块末尾的一段复制代码
+        int trueEdge = trueCopies ? code.newLabel() : blockLabels[ifTrue];
+        branchIf(inst, false, trueEdge);
+        copies(block, ifFalse);
+        if (trueCopies || ifFalse != block + 1) {
+            code.jump(Bytecode.GOTO, blockLabels[ifFalse]);
+        }
+        if (trueCopies) {
+            code.mark(trueEdge);
+            copies(block, ifTrue);
+            if (ifTrue != block + 1) {
+                code.jump(Bytecode.GOTO, blockLabels[ifTrue]);
+            }
+        }
+    }
+
+    private boolean hasCopies(int from, int to) {
+        return firstCopySource(from, to) != NONE;
+    }
+
+    // 跳转边上第一个需要压栈的来源，没有需要复制的 PHI 时为 NONE
+    private int firstCopySource(int from, int to) {
+        for (int i = f.blockStart(to); i < f.blockEnd(to) && f.opcode(i) == Opcode.PHI; i++) {
+            int value = incoming(i, from);
+            if (isCopy(i, value)) {
+                return value;
+            }
+        }
+        return NONE;
+    }
+
+    // 来源与 PHI 相同、PHI 没有使用，或两者分到同一个槽时不必复制 (分配槽之前只按前两条判断)
+    private boolean isCopy(int phi, int value) {
+        return value != phi && uses[phi] > 0 && (slots[phi] == NONE || slots[value] != slots[phi]);
+    }
+
+    // 从 from 跳到 to 时 to 中各 PHI 的赋值：先压入全部来源，再逆序存入
+    private void copies(int from, int to) {
+        int first = f.blockStart(to);
+        int last = first;
+        while (last < f.blockEnd(to) && f.opcode(last) == Opcode.PHI) {
+            last++;
+        }
+        for (int i = first; i < last; i++) {
+            if (isCopy(i, incoming(i, from))) {
+                push(incoming(i, from));
+            }
+        }
+        for (int i = last - 1; i >= first; i--) {
+            if (isCopy(i, incoming(i, from))) {
+                code.istore(slots[i]);
+            }
+        }
+    }
+
+    private int incoming(int phi, int block) {
+        for (int k = 0; k < f.listSize(phi); k++) {
+            if (f.phiBlock(phi, k) == block) {
+                return f.phiValue(phi, k);
+            }
+        }
+        throw new IllegalStateException(f.getName() + ": PHI %" + phi + " 缺少来自 b" + block + " 的值");
+    }
+
+    // --- 值 ---
+
+    private void push(int value) {
+        if (value == onStack) {
+            onStack = NONE;
+            return;
+        }
+        if (onStack != NONE) {
+            throw new IllegalStateException(f.getName() + ": 栈上的 %" + onStack + " 没有被下一条指令使用");
+        }
+        switch (f.opcode(value)) {
+            case CONST:
+                code.iconst(f.a(value));
+                break;
+            case GLOBAL:
+                code.field(Bytecode.GETSTATIC, global(f.a(value), "[I"));
+                break;
+            default:
+                if (f.type(value) == ValueType.ARRAY) {
+                    code.aload(slots[value]);
+                } else {
+                    code.iload(slots[value]);
+                }
+                break;
+        }
+    }
+
+    // 刚压栈的结果：留给下一条指令、存入槽，或者没有使用时弹出
+    private void define(int value) {
+        if (stacked[value]) {
+            onStack = value;
+        } else if (slots[value] == NONE) {
+            code.op(Bytecode.POP, -1);
+        } else if (f.type(value) == ValueType.ARRAY) {
+            code.astore(slots[value]);
+        } else {
+            code.istore(slots[value]);
+        }
+    }
+
+    private int global(int index, String descriptor) {
+        return classWriter.fieldRef(classWriter.getName(), JvmBackend.globalField(index), descriptor);
+    }
+}
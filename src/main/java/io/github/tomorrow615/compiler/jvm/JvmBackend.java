@@ -0,0 +1,102 @@
+package io.github.tomorrow615.compiler.jvm;
+
+import io.github.tomorrow615.compiler.ir.IrFunction;
+import io.github.tomorrow615.compiler.ir.IrGlobal;
+import io.github.tomorrow615.compiler.ir.IrModule;
+import io.github.tomorrow615.compiler.ir.ValueType;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * 把 IR 模块编译为一个 JVM 类，用 {@link MethodHandles.Lookup#defineHiddenClass} 在当前进程中加载，
+ * 之后由 JIT 编译为机器码执行。
+ * 每个 SysY 函数对应一个同名静态方法 (int 形参为 I，数组形参为 [I)；全局变量与全局数组为静态字段 $g&lt;序号&gt;，
+ * printf 的字符串段为 byte[] 字段 $s&lt;序号&gt;；输入输出经静态字段 $io 中的 {@link io.github.tomorrow615.compiler.runtime.SysYIO}。
+ * 字段的值由 {@link JvmProgram#run} 在每次运行前写入。
+ */
+public final class JvmBackend {
+    // 隐藏类必须与 Lookup 所在的类同包
+    static final String CLASS_NAME = "io/github/tomorrow615/compiler/jvm/SysYProgram";
+    static final String IO_CLASS = "io/github/tomorrow615/compiler/runtime/SysYIO";
+    static final String IO_FIELD = "$io";
+    static final String GETINT = "$getint";
+    static final String PUTINT = "$putint";
+    static final String PUTSTR = "$putstr";
+
+    private JvmBackend() {
+    }
+
+    // 某个函数的字节码超过 class 文件的限制时抛出 IllegalStateException
+    public static JvmProgram compile(IrModule module) {
+        ClassWriter classWriter = new ClassWriter(CLASS_NAME);
+        int access = ClassWriter.ACC_STATIC;
+        classWriter.field(access, IO_FIELD, "L" + IO_CLASS + ";");
+        for (int i = 0; i < module.getGlobals().size(); i++) {
+            classWriter.field(access, globalField(i), module.getGlobal(i).isArray() ? "[I" : "I");
+        }
+        for (int i = 0; i < module.getStrings().size(); i++) {
+            classWriter.field(access, stringField(i), "[B");
+        }
+        writeRuntimeHelpers(classWriter);
+        for (IrFunction function : module.getFunctions()) {
+            Bytecode code = new FunctionTranslator(classWriter, module, function).translate();
+            classWriter.method(access, function.getName(), descriptor(function), code);
+        }
+
+        byte[] bytes = classWriter.toByteArray();
+        try {
+            return new JvmProgram(module, MethodHandles.lookup().defineHiddenClass(bytes, true));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法加载生成的类", e);
+        }
+    }
+
+    // $getint()I、$putint(I)V 与 $putstr([B)V 转发给 $io，使调用处不必每次读取字段
+    private static void writeRuntimeHelpers(ClassWriter classWriter) {
+        int io = classWriter.fieldRef(CLASS_NAME, IO_FIELD, "L" + IO_CLASS + ";");
+
+        Bytecode getint = new Bytecode(classWriter, GETINT);
+        getint.field(Bytecode.GETSTATIC, io);
+        getint.invoke(Bytecode.INVOKEVIRTUAL, classWriter.methodRef(IO_CLASS, "getint", "()I"), 0);
+        getint.returnValue(false);
+        classWriter.method(ClassWriter.ACC_STATIC, GETINT, "()I", getint);
+
+        Bytecode putint = new Bytecode(classWriter, PUTINT);
+        putint.setLocals(new byte[]{Bytecode.INT});
+        putint.field(Bytecode.GETSTATIC, io);
+        putint.iload(0);
+        putint.invoke(Bytecode.INVOKEVIRTUAL, classWriter.methodRef(IO_CLASS, "putint", "(I)V"), -2);
+        putint.returnValue(true);
+        classWriter.method(ClassWriter.ACC_STATIC, PUTINT, "(I)V", putint);
+
+        // 没有跳转，不需要栈映射帧，局部变量的类型只用于计数
+        Bytecode putstr = new Bytecode(classWriter, PUTSTR);
+        putstr.setLocals(new byte[]{Bytecode.ARRAY});
+        putstr.field(Bytecode.GETSTATIC, io);
+        putstr.aload(0);
+        putstr.invoke(Bytecode.INVOKEVIRTUAL, classWriter.methodRef(IO_CLASS, "putstr", "([B)V"), -2);
+        putstr.returnValue(true);
+        classWriter.method(ClassWriter.ACC_STATIC, PUTSTR, "([B)V", putstr);
+    }
+
+    static String globalField(int index) {
+        return "$g" + index;
+    }
+
+    static String stringField(int index) {
+        return "$s" + index;
+    }
+
+    static String descriptor(IrFunction function) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < function.getParamCount(); i++) {
+            sb.append(function.getParamType(i) == ValueType.ARRAY ? "[I" : "I");
+        }
+        sb.append(')').append(function.getReturnType() == ValueType.VOID ? "V" : "I");
+        return sb.toString();
+    }
+
+    static Class<?> fieldType(IrGlobal global) {
+        return global.isArray() ? int[].class : int.class;
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.tomorrow615.compiler.jvm;
+
+import io.github.tomorrow615.compiler.ir.IrGlobal;
+import io.github.tomorrow615.compiler.ir.IrModule;
+import io.github.tomorrow615.compiler.runtime.SysYIO;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+
+/**
+ * {@link JvmBackend} 加载的类。每次 {@link #run} 先把全局变量恢复为初值 (常量数组共享同一份)，再调用 main。
+ * 状态保存在类的静态字段中，同一时刻只能有一次运行，不是线程安全的。
+ */
+public final class JvmProgram {
+    private final IrModule module;
+    private final VarHandle io;
+    private final VarHandle[] globals;
+    private final MethodHandle main;
+
+    JvmProgram(IrModule module, MethodHandles.Lookup lookup) throws IllegalAccessException {
+        this.module = module;
+        Class<?> program = lookup.lookupClass();
+        try {
+            io = lookup.findStaticVarHandle(program, JvmBackend.IO_FIELD, SysYIO.class);
+            globals = new VarHandle[module.getGlobals().size()];
+            for (int i = 0; i < globals.length; i++) {
+                globals[i] = lookup.findStaticVarHandle(program, JvmBackend.globalField(i),
+                        JvmBackend.fieldType(module.getGlobal(i)));
+            }
+            for (int i = 0; i < module.getStrings().size(); i++) {
+                lookup.findStaticVarHandle(program, JvmBackend.stringField(i), byte[].class)
+                        .set(SysYIO.encode(module.getString(i)));
+            }
+            main = lookup.findStatic(program, module.getMain().getName(), MethodType.methodType(int.class));
+        } catch (NoSuchFieldException | NoSuchMethodException e) {
+            throw new IllegalStateException("生成的类缺少成员", e);
+        }
+    }
+
+    // 执行 main 并返回其返回值；输出留在 io 的缓冲区中，由调用者 flush
+    public int run(SysYIO io) {
+        this.io.set(io);
+        for (int i = 0; i < globals.length; i++) {
+            IrGlobal global = module.getGlobal(i);
+            if (!global.isArray()) {
+                globals[i].set(global.getInit()[0]);
+            } else {
+                globals[i].set(global.isConstant() ? global.getInit() : global.getInit().clone());
+            }
+        }
+        try {
+            return (int) main.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,930 @@
+package io.github.tomorrow615.compiler.mips;
+
+import io.github.tomorrow615.compiler.ir.IrFunction;
+import io.github.tomorrow615.compiler.ir.IrModule;
+import io.github.tomorrow615.compiler.ir.Opcode;
+import io.github.tomorrow615.compiler.ir.ValueType;
+
+import static io.github.tomorrow615.compiler.mips.Registers.*;
+
+/**
+ * 把一个 IR 函数译为 MIPS 汇编。栈帧在序言中一次分配，之后 $sp 不变，自低向高依次为：
+ * 超出 4 个的实参 (调用时写入)、局部数组、溢出槽、被调用者保存的寄存器、$ra。
+ * 前 4 个实参经 $a0-$a3 传递，其余的在调用者栈帧底部；返回值在 $v0。
+ * main 放在代码段开头，不保存寄存器，返回时直接以系统调用 10 结束程序。
+ * 紧跟在比较之后的 CBR 译为一条 (或一对) 比较跳转，跳转边上的 PHI 赋值按并行复制排序，
+ * 成环时经 $t8 中转。
+ */
+final class FunctionGenerator {
+    private static final int NONE = IrFunction.NONE;
+    private static final int MEMORY = 32;   // 并行复制中的位置：寄存器号，或 MEMORY + 溢出槽号
+    private static final int CONSTANT = -1;
+
+    private final IrModule module;
+    private final IrFunction f;
+    private final StringBuilder out;
+    private final boolean isMain;
+    private final int[] uses;
+    private final boolean[] fused;
+    private final RegisterAllocator allocator;
+    private final int[] arrayOffsets;       // ALLOCA 的数组在栈帧中的偏移
+    private final int spillBase;
+    private final int savedBase;
+    private final int frameSize;
+    private final boolean hasCalls;
+    private int labelCount = 0;
+
+    FunctionGenerator(IrModule module, IrFunction f, StringBuilder out) {
+        this.module = module;
+        this.f = f;
+        this.out = out;
+        this.isMain = f == module.getMain();
+        int size = f.size();
+        this.uses = new int[size];
+        for (int i = 0; i < size; i++) {
+            f.forEachOperand(i, value -> uses[value]++);
+        }
+        this.fused = new boolean[size];
+        for (int i = 0; i + 1 < size; i++) {
+            fused[i] = f.opcode(i).isCompare() && f.opcode(i + 1) == Opcode.CBR && f.a(i + 1) == i && uses[i] == 1;
+        }
+        this.allocator = new RegisterAllocator(f, uses, fused);
+
+        boolean calls = false;
+        int maxArgs = 0;
+        for (int i = 0; i < size; i++) {
+            if (f.opcode(i) == Opcode.CALL) {
+                calls = true;
+                maxArgs = Math.max(maxArgs, f.listSize(i));
+            }
+        }
+        this.hasCalls = calls;
+        int offset = Math.max(0, maxArgs - ARGUMENT_REGISTERS) * 4;
+        this.arrayOffsets = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (f.opcode(i) == Opcode.ALLOCA) {
+                arrayOffsets[i] = offset;
+                offset += 4 * f.a(i);
+            }
+        }
+        this.spillBase = offset;
+        offset += 4 * allocator.spillSlotCount();
+        this.savedBase = offset;
+        if (!isMain) {
+            offset += 4 * Integer.bitCount(allocator.usedCalleeSaved()) + (hasCalls ? 4 : 0);
+        }
+        this.frameSize = offset;
+    }
+
+    void generate() {
+        label(MipsBackend.functionLabel(f));
+        prologue();
+        for (int b = 0; b < f.blockCount(); b++) {
+            if (b > 0) {
+                label(blockLabel(b));
+            }
+            for (int i = f.blockStart(b); i < f.blockEnd(b); i++) {
+                translate(b, i);
+            }
+        }
+    }
+
+    // --- 序言与尾声 ---
+
+    private void prologue() {
+        if (frameSize > 0) {
+            immediate("addiu", SP, SP, -frameSize);
+        }
+        int offset = savedBase;
+        if (!isMain) {
+            for (int register = 0; register < 32; register++) {
+                if ((allocator.usedCalleeSaved() & 1 << register) != 0) {
+                    memory("sw", register, offset, SP);
+                    offset += 4;
+                }
+            }
+            if (hasCalls) {
+                memory("sw", RA, offset, SP);
+            }
+        }
+        // 形参移入分配的位置
+        for (int i = f.blockStart(0); i < f.blockEnd(0); i++) {
+            if (f.opcode(i) != Opcode.PARAM || !RegisterAllocator.needsLocation(f, i, uses, fused)) {
+                continue;
+            }
+            int index = f.a(i);
+            int register = allocator.register(i);
+            int source = index < ARGUMENT_REGISTERS ? A0 + index : register != NONE ? register : T8;
+            if (index >= ARGUMENT_REGISTERS) {
+                memory("lw", source, frameSize + 4 * (index - ARGUMENT_REGISTERS), SP);
+            }
+            if (register != NONE) {
+                move(register, source);
+            } else {
+                memory("sw", source, spillOffset(i), SP);
+            }
+        }
+    }
+
+    private void epilogue() {
+        int offset = savedBase;
+        for (int register = 0; register < 32; register++) {
+            if ((allocator.usedCalleeSaved() & 1 << register) != 0) {
+                memory("lw", register, offset, SP);
+                offset += 4;
+            }
+        }
+        if (hasCalls) {
+            memory("lw", RA, offset, SP);
+        }
+        if (frameSize > 0) {
+            immediate("addiu", SP, SP, frameSize);
+        }
+        line("jr $ra");
+    }
+
+    // --- 指令 ---
+
+    private void translate(int block, int inst) {
+        Opcode opcode = f.opcode(inst);
+        switch (opcode) {
+            case CONST: case GLOBAL: case ALLOCA: case PARAM: case PHI:
+                break;
+            case ADD: add(inst); break;
+            case SUB: subtract(inst); break;
+            case MUL: multiply(inst); break;
+            case DIV: case MOD: divide(inst, opcode == Opcode.MOD); break;
+            case LT: case LE: case GT: case GE: case EQ: case NE:
+                if (!fused[inst]) {
+                    compareValue(inst);
+                }
+                break;
+            case NEG: {
+                int a = use(f.a(inst), T8);
+                int d = target(inst);
+                emit("subu", d, ZERO, a);
+                define(inst, d);
+                break;
+            }
+            case NOT: {
+                int a = use(f.a(inst), T8);
+                int d = target(inst);
+                immediate("sltiu", d, a, 1);
+                define(inst, d);
+                break;
+            }
+            case LOAD_GLOBAL: {
+                int d = target(inst);
+                line("lw " + NAMES[d] + ", " + MipsBackend.globalLabel(module, f.a(inst)));
+                define(inst, d);
+                break;
+            }
+            case STORE_GLOBAL: {
+                int value = use(f.b(inst), T8);
+                line("sw " + NAMES[value] + ", " + MipsBackend.globalLabel(module, f.a(inst)));
+                break;
+            }
+            case LOAD: {
+                String address = address(f.a(inst), f.b(inst));
+                int d = target(inst);
+                line("lw " + NAMES[d] + ", " + address);
+                define(inst, d);
+                break;
+            }
+            case STORE: {
+                int value = use(f.c(inst), V1);
+                line("sw " + NAMES[value] + ", " + address(f.a(inst), f.b(inst)));
+                break;
+            }
+            case ZERO:
+                zero(f.a(inst), f.b(inst), f.c(inst));
+                break;
+            case CALL:
+                call(inst);
+                break;
+            case GETINT: {
+                line("li $v0, 5");
+                line("syscall");
+                defineFrom(inst, V0);
+                break;
+            }
+            case PUTINT:
+                loadInto(A0, f.a(inst));
+                line("li $v0, 1");
+                line("syscall");
+                break;
+            case PUTSTR:
+                line("la $a0, " + MipsBackend.stringLabel(f.a(inst)));
+                line("li $v0, 4");
+                line("syscall");
+                break;
+            case BR:
+                copies(block, f.a(inst));
+                if (f.a(inst) != block + 1) {
+                    line("j " + blockLabel(f.a(inst)));
+                }
+                break;
+            case CBR:
+                conditionalBranch(block, inst);
+                break;
+            case RET:
+                if (isMain) {
+                    line("li $v0, 10");
+                    line("syscall");
+                } else {
+                    if (f.a(inst) != NONE) {
+                        loadInto(V0, f.a(inst));
+                    }
+                    epilogue();
+                }
+                break;
+            default:
+                throw new IllegalStateException("无法翻译的指令: " + opcode);
+        }
+    }
+
+    private void add(int inst) {
+        int a = f.a(inst);
+        int b = f.b(inst);
+        if (isConstant(a) && !isConstant(b)) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        if (isImmediate(b)) {
+            int ra = use(a, T8);
+            int d = target(inst);
+            addImmediate(d, ra, f.a(b));
+            define(inst, d);
+            return;
+        }
+        int ra = use(a, T8);
+        int rb = use(b, T9);
+        int d = target(inst);
+        emit("addu", d, ra, rb);
+        define(inst, d);
+    }
+
+    private void subtract(int inst) {
+        int a = f.a(inst);
+        int b = f.b(inst);
+        if (isConstant(b) && fits16(-(long) f.a(b))) {
+            int ra = use(a, T8);
+            int d = target(inst);
+            addImmediate(d, ra, -f.a(b));
+            define(inst, d);
+            return;
+        }
+        int ra = use(a, T8);
+        int rb = use(b, T9);
+        int d = target(inst);
+        emit("subu", d, ra, rb);
+        define(inst, d);
+    }
+
+    private void multiply(int inst) {
+        int a = f.a(inst);
+        int b = f.b(inst);
+        if (isConstant(a) && !isConstant(b)) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int ra = use(a, T8);
+        if (isConstant(b)) {
+            int c = f.a(b);
+            int d = target(inst);
+            if (c == 0) {
+                move(d, ZERO);
+            } else if (c == 1) {
+                move(d, ra);
+            } else if (c == -1) {
+                emit("subu", d, ZERO, ra);
+            } else if (c > 0 && Integer.bitCount(c) == 1) {
+                shift("sll", d, ra, Integer.numberOfTrailingZeros(c));
+            } else if (c > 0 && Integer.bitCount(c - 1) == 1) {
+                // 2^k + 1
+                shift("sll", T9, ra, Integer.numberOfTrailingZeros(c - 1));
+                emit("addu", d, T9, ra);
+            } else if (c > 0 && c != Integer.MAX_VALUE && Integer.bitCount(c + 1) == 1) {
+                // 2^k - 1
+                shift("sll", T9, ra, Integer.numberOfTrailingZeros(c + 1));
+                emit("subu", d, T9, ra);
+            } else if (c < 0 && c != Integer.MIN_VALUE && Integer.bitCount(-c) == 1) {
+                shift("sll", d, ra, Integer.numberOfTrailingZeros(-c));
+                emit("subu", d, ZERO, d);
+            } else {
+                li(T9, c);
+                emit("mul", d, ra, T9);
+            }
+            define(inst, d);
+            return;
+        }
+        int rb = use(b, T9);
+        int d = target(inst);
+        emit("mul", d, ra, rb);
+        define(inst, d);
+    }
+
+    // 除以常数时用移位或乘法代替 div (商向零取整，余数与被除数同号)
+    private void divide(int inst, boolean remainder) {
+        int a = f.a(inst);
+        int b = f.b(inst);
+        if (isConstant(b) && f.a(b) != 0 && f.a(b) != Integer.MIN_VALUE) {
+            int c = f.a(b);
+            int magnitude = Math.abs(c);
+            int ra = use(a, T8);
+            int d = target(inst);
+            if (magnitude == 1) {
+                if (remainder) {
+                    move(d, ZERO);
+                } else if (c == 1) {
+                    move(d, ra);
+                } else {
+                    emit("subu", d, ZERO, ra);
+                }
+            } else if (Integer.bitCount(magnitude) == 1) {
+                int k = Integer.numberOfTrailingZeros(magnitude);
+                // 负数先加上 2^k - 1，使算术右移向零取整
+                if (k == 1) {
+                    shift("srl", T9, ra, 31);
+                } else {
+                    shift("sra", T9, ra, 31);
+                    shift("srl", T9, T9, 32 - k);
+                }
+                emit("addu", T9, T9, ra);
+                if (remainder) {
+                    shift("sra", T9, T9, k);
+                    shift("sll", T9, T9, k);
+                    emit("subu", d, ra, T9);
+                } else {
+                    shift("sra", d, T9, k);
+                    if (c < 0) {
+                        emit("subu", d, ZERO, d);
+                    }
+                }
+            } else if (remainder) {
+                magicQuotient(T9, ra, magnitude);
+                li(V1, magnitude);
+                emit("mul", T9, T9, V1);
+                emit("subu", d, ra, T9);
+            } else {
+                magicQuotient(d, ra, magnitude);
+                if (c < 0) {
+                    emit("subu", d, ZERO, d);
+                }
+            }
+            define(inst, d);
+            return;
+        }
+        int ra = use(a, T8);
+        int rb = use(b, T9);
+        int d = target(inst);
+        line("div " + NAMES[ra] + ", " + NAMES[rb]);
+        line((remainder ? "mfhi " : "mflo ") + NAMES[d]);
+        define(inst, d);
+    }
+
+    // d = n / divisor (divisor >= 3 且不是 2 的幂)，乘以魔数取高 32 位再修正 (Hacker's Delight 10-1)
+    private void magicQuotient(int d, int n, int divisor) {
+        long two31 = 1L << 31;
+        long anc = two31 - 1 - two31 % divisor;
+        int p = 31;
+        long q1 = two31 / anc;
+        long r1 = two31 - q1 * anc;
+        long q2 = two31 / divisor;
+        long r2 = two31 - q2 * divisor;
+        long delta;
+        do {
+            p++;
+            q1 *= 2;
+            r1 *= 2;
+            if (r1 >= anc) {
+                q1++;
+                r1 -= anc;
+            }
+            q2 *= 2;
+            r2 *= 2;
+            if (r2 >= divisor) {
+                q2++;
+                r2 -= divisor;
+            }
+            delta = divisor - r2;
+        } while (q1 < delta || (q1 == delta && r1 == 0));
+        int magic = (int) (q2 + 1);
+        int shift = p - 32;
+
+        li(T9, magic);
+        line("mult " + NAMES[n] + ", $t9");
+        line("mfhi $t9");
+        if (magic < 0) {
+            emit("addu", T9, T9, n);
+        }
+        if (shift > 0) {
+            shift("sra", T9, T9, shift);
+        }
+        shift("srl", V1, n, 31);
+        emit("addu", d, T9, V1);
+    }
+
+    // --- 比较与跳转 ---
+
+    // 常量放在右边：返回可能交换后的操作码，operands 中为两个操作数
+    private Opcode normalize(int inst, int[] operands) {
+        Opcode opcode = f.opcode(inst);
+        int a = f.a(inst);
+        int b = f.b(inst);
+        if (isConstant(a) && !isConstant(b)) {
+            operands[0] = b;
+            operands[1] = a;
+            return mirror(opcode);
+        }
+        operands[0] = a;
+        operands[1] = b;
+        return opcode;
+    }
+
+    private void compareValue(int inst) {
+        int[] operands = new int[2];
+        Opcode opcode = normalize(inst, operands);
+        int rx = use(operands[0], T8);
+        int y = operands[1];
+        if (isConstant(y)) {
+            long c = f.a(y);
+            int d = target(inst);
+            boolean done = true;
+            switch (opcode) {
+                case LT:
+                    if (c == 0) {
+                        shift("srl", d, rx, 31);
+                    } else if (fits16(c)) {
+                        immediate("slti", d, rx, (int) c);
+                    } else {
+                        done = false;
+                    }
+                    break;
+                case GE:
+                case LE:
+                case GT: {
+                    long bound = opcode == Opcode.GE ? c : c + 1;
+                    if (fits16(bound)) {
+                        immediate("slti", d, rx, (int) bound);
+                        if (opcode != Opcode.LE) {
+                            immediate("xori", d, d, 1);
+                        }
+                    } else {
+                        done = false;
+                    }
+                    break;
+                }
+                case EQ:
+                case NE:
+                    if (c == 0) {
+                        equality(opcode, d, rx);
+                    } else if (c > 0 && c <= 0xFFFF) {
+                        immediate("xori", d, rx, (int) c);
+                        equality(opcode, d, d);
+                    } else {
+                        done = false;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("不是比较: " + opcode);
+            }
+            if (done) {
+                define(inst, d);
+                return;
+            }
+        }
+        int ry = use(y, T9);
+        int d = target(inst);
+        switch (opcode) {
+            case LT: emit("slt", d, rx, ry); break;
+            case GT: emit("slt", d, ry, rx); break;
+            case LE: emit("slt", d, ry, rx); immediate("xori", d, d, 1); break;
+            case GE: emit("slt", d, rx, ry); immediate("xori", d, d, 1); break;
+            case EQ: case NE: emit("xor", d, rx, ry); equality(opcode, d, d); break;
+            default: throw new IllegalStateException("不是比较: " + opcode);
+        }
+        define(inst, d);
+    }
+
+    // d = (x == 0) 或 (x != 0)
+    private void equality(Opcode opcode, int d, int x) {
+        if (opcode == Opcode.EQ) {
+            immediate("sltiu", d, x, 1);
+        } else {
+            emit("sltu", d, ZERO, x);
+        }
+    }
+
+    // 条件成立时跳转 (inverted 时为不成立时跳转)
+    private void branchIf(int cbr, boolean inverted, String label) {
+        int condition = f.a(cbr);
+        if (!fused[condition]) {
+            int rc = use(condition, T8);
+            line((inverted ? "beq " : "bne ") + NAMES[rc] + ", $zero, " + label);
+            return;
+        }
+        int[] operands = new int[2];
+        Opcode opcode = normalize(condition, operands);
+        if (inverted) {
+            opcode = negate(opcode);
+        }
+        int rx = use(operands[0], T8);
+        int y = operands[1];
+        if (isConstant(y)) {
+            long c = f.a(y);
+            if (c == 0) {
+                switch (opcode) {
+                    case EQ: line("beq " + NAMES[rx] + ", $zero, " + label); return;
+                    case NE: line("bne " + NAMES[rx] + ", $zero, " + label); return;
+                    case LT: line("bltz " + NAMES[rx] + ", " + label); return;
+                    case GE: line("bgez " + NAMES[rx] + ", " + label); return;
+                    case LE: line("blez " + NAMES[rx] + ", " + label); return;
+                    default: line("bgtz " + NAMES[rx] + ", " + label); return;
+                }
+            }
+            // x < c 即 slti；x <= c 即 x < c + 1
+            long bound = opcode == Opcode.LT || opcode == Opcode.GE ? c : c + 1;
+            if (opcode != Opcode.EQ && opcode != Opcode.NE && fits16(bound)) {
+                immediate("slti", V1, rx, (int) bound);
+                boolean ifLess = opcode == Opcode.LT || opcode == Opcode.LE;
+                line((ifLess ? "bne" : "beq") + " $v1, $zero, " + label);
+                return;
+            }
+        }
+        int ry = use(y, T9);
+        switch (opcode) {
+            case EQ: line("beq " + NAMES[rx] + ", " + NAMES[ry] + ", " + label); return;
+            case NE: line("bne " + NAMES[rx] + ", " + NAMES[ry] + ", " + label); return;
+            case LT: emit("slt", V1, rx, ry); line("bne $v1, $zero, " + label); return;
+            case GE: emit("slt", V1, rx, ry); line("beq $v1, $zero, " + label); return;
+            case GT: emit("slt", V1, ry, rx); line("bne $v1, $zero, " + label); return;
+            default: emit("slt", V1, ry, rx); line("beq $v1, $zero, " + label);
+        }
+    }
+
+    private static Opcode mirror(Opcode opcode) {
+        switch (opcode) {
+            case LT: return Opcode.GT;
+            case LE: return Opcode.GE;
+            case GT: return Opcode.LT;
+            case GE: return Opcode.LE;
+            default: return opcode;
+        }
+    }
+
+    private static Opcode negate(Opcode opcode) {
+        switch (opcode) {
+            case LT: return Opcode.GE;
+            case LE: return Opcode.GT;
+            case GT: return Opcode.LE;
+            case GE: return Opcode.LT;
+            case EQ: return Opcode.NE;
+            default: return Opcode.EQ;
+        }
+    }
+
+    private void conditionalBranch(int block, int inst) {
+        int ifTrue = f.b(inst);
+        int ifFalse = f.c(inst);
+        boolean trueCopies = hasCopies(block, ifTrue);
+        boolean falseCopies = hasCopies(block, ifFalse);
+        if (!trueCopies && !falseCopies) {
+            if (ifTrue == block + 1) {
+                branchIf(inst, true, blockLabel(ifFalse));
+            } else {
+                branchIf(inst, false, blockLabel(ifTrue));
+                if (ifFalse != block + 1) {
+                    line("j " + blockLabel(ifFalse));
+                }
+            }
+            return;
+        }
+        // 有 PHI 复制的边：真分支先跳到本块末尾的一段复制代码
+        String trueEdge = trueCopies ? newLabel() : blockLabel(ifTrue);
+        branchIf(inst, false, trueEdge);
+        copies(block, ifFalse);
+        if (trueCopies || ifFalse != block + 1) {
+            line("j " + blockLabel(ifFalse));
+        }
+        if (trueCopies) {
+            label(trueEdge);
+            copies(block, ifTrue);
+            if (ifTrue != block + 1) {
+                line("j " + blockLabel(ifTrue));
+            }
+        }
+    }
+
+    // --- PHI 的并行复制 ---
+
+    private boolean hasCopies(int from, int to) {
+        for (int i = f.blockStart(to); i < f.blockEnd(to) && f.opcode(i) == Opcode.PHI; i++) {
+            int value = incoming(i, from);
+            if (location(i) != NONE && location(value) != location(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void copies(int from, int to) {
+        int phis = 0;
+        while (f.blockStart(to) + phis < f.blockEnd(to) && f.opcode(f.blockStart(to) + phis) == Opcode.PHI) {
+            phis++;
+        }
+        int[] destinations = new int[phis];
+        int[] sources = new int[phis];
+        int[] constants = new int[phis];
+        int count = 0;
+        for (int k = 0; k < phis; k++) {
+            int phi = f.blockStart(to) + k;
+            int value = incoming(phi, from);
+            int destination = location(phi);
+            int source = location(value);
+            if (destination == NONE || destination == source) {
+                continue;
+            }
+            destinations[count] = destination;
+            sources[count] = source;
+            constants[count] = isConstant(value) ? f.a(value) : 0;
+            count++;
+        }
+        // 每次复制一个目标不再被其他复制读取的；只剩环时把一个目标先存入 $t8
+        while (count > 0) {
+            boolean progress = false;
+            for (int k = 0; k < count; k++) {
+                boolean read = false;
+                for (int j = 0; j < count && !read; j++) {
+                    read = j != k && sources[j] == destinations[k];
+                }
+                if (!read) {
+                    copy(destinations[k], sources[k], constants[k]);
+                    count--;
+                    destinations[k] = destinations[count];
+                    sources[k] = sources[count];
+                    constants[k] = constants[count];
+                    k--;
+                    progress = true;
+                }
+            }
+            if (!progress) {
+                int saved = destinations[0];
+                copy(T8, saved, 0);
+                for (int j = 0; j < count; j++) {
+                    if (sources[j] == saved) {
+                        sources[j] = T8;
+                    }
+                }
+            }
+        }
+    }
+
+    private int incoming(int phi, int block) {
+        for (int k = 0; k < f.listSize(phi); k++) {
+            if (f.phiBlock(phi, k) == block) {
+                return f.phiValue(phi, k);
+            }
+        }
+        throw new IllegalStateException(f.getName() + ": PHI %" + phi + " 缺少来自 b" + block + " 的值");
+    }
+
+    // 值在并行复制中的位置：寄存器号、MEMORY + 溢出槽号，常量为 CONSTANT，没有位置时为 NONE
+    private int location(int value) {
+        if (isConstant(value)) {
+            return CONSTANT;
+        }
+        if (allocator.register(value) != NONE) {
+            return allocator.register(value);
+        }
+        return allocator.spillSlot(value) != NONE ? MEMORY + allocator.spillSlot(value) : NONE;
+    }
+
+    private void copy(int destination, int source, int constant) {
+        if (destination < MEMORY) {
+            if (source == CONSTANT) {
+                li(destination, constant);
+            } else if (source < MEMORY) {
+                move(destination, source);
+            } else {
+                memory("lw", destination, slotOffset(source - MEMORY), SP);
+            }
+            return;
+        }
+        int register = source;
+        if (source == CONSTANT) {
+            register = constant == 0 ? ZERO : T9;
+            li(register, constant);
+        } else if (source >= MEMORY) {
+            register = T9;
+            memory("lw", T9, slotOffset(source - MEMORY), SP);
+        }
+        memory("sw", register, slotOffset(destination - MEMORY), SP);
+    }
+
+    // --- 数组与调用 ---
+
+    // 数组元素的地址操作数，如 g0_a+8、12($sp)、0($t9)；下标不是常量时地址计算在 $t9 中
+    private String address(int array, int index) {
+        if (isConstant(index)) {
+            return elementAddress(array, f.a(index));
+        }
+        int ri = use(index, T9);
+        shift("sll", T9, ri, 2);
+        switch (f.opcode(array)) {
+            case GLOBAL:
+                return MipsBackend.globalLabel(module, f.a(array)) + "($t9)";
+            case ALLOCA:
+                emit("addu", T9, T9, SP);
+                return arrayOffsets[array] + "($t9)";
+            default:
+                emit("addu", T9, T9, use(array, T8));
+                return "0($t9)";
+        }
+    }
+
+    private String elementAddress(int array, int element) {
+        int offset = 4 * element;
+        switch (f.opcode(array)) {
+            case GLOBAL:
+                String label = MipsBackend.globalLabel(module, f.a(array));
+                return offset == 0 ? label : label + "+" + offset;
+            case ALLOCA:
+                return arrayOffsets[array] + offset + "($sp)";
+            default:
+                return offset + "(" + NAMES[use(array, T8)] + ")";
+        }
+    }
+
+    // 把一段元素置 0：较短时逐个写入，否则循环每次写 4 个
+    private void zero(int array, int start, int count) {
+        if (count <= 8) {
+            for (int k = 0; k < count; k++) {
+                line("sw $zero, " + elementAddress(array, start + k));
+            }
+            return;
+        }
+        int rest = count % 4;
+        for (int k = 0; k < rest; k++) {
+            line("sw $zero, " + elementAddress(array, start + k));
+        }
+        loadInto(T8, array);
+        addImmediate(T8, T8, 4 * (start + rest));
+        addImmediate(T9, T8, 4 * (count - rest));
+        String loop = newLabel();
+        label(loop);
+        for (int k = 0; k < 4; k++) {
+            memory("sw", ZERO, 4 * k, T8);
+        }
+        immediate("addiu", T8, T8, 16);
+        line("bne $t8, $t9, " + loop);
+    }
+
+    private void call(int inst) {
+        int args = f.listSize(inst);
+        for (int k = 0; k < args; k++) {
+            int arg = f.arg(inst, k);
+            if (k < ARGUMENT_REGISTERS) {
+                loadInto(A0 + k, arg);
+            } else {
+                memory("sw", use(arg, T8), 4 * (k - ARGUMENT_REGISTERS), SP);
+            }
+        }
+        line("jal " + MipsBackend.functionLabel(module.getFunction(f.a(inst))));
+        if (f.type(inst) != ValueType.VOID) {
+            defineFrom(inst, V0);
+        }
+    }
+
+    // --- 值的位置 ---
+
+    private boolean isConstant(int value) {
+        return f.opcode(value) == Opcode.CONST;
+    }
+
+    private boolean isImmediate(int value) {
+        return isConstant(value) && fits16(f.a(value));
+    }
+
+    private static boolean fits16(long value) {
+        return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+    }
+
+    // 值所在的寄存器：常量、数组地址与溢出的值先装入 scratch
+    private int use(int value, int scratch) {
+        if (isConstant(value) && f.a(value) == 0) {
+            return ZERO;
+        }
+        int register = allocator.register(value);
+        if (register != NONE) {
+            return register;
+        }
+        loadInto(scratch, value);
+        return scratch;
+    }
+
+    private void loadInto(int register, int value) {
+        switch (f.opcode(value)) {
+            case CONST:
+                li(register, f.a(value));
+                return;
+            case GLOBAL:
+                line("la " + NAMES[register] + ", " + MipsBackend.globalLabel(module, f.a(value)));
+                return;
+            case ALLOCA:
+                addImmediate(register, SP, arrayOffsets[value]);
+                return;
+            default:
+                if (allocator.register(value) != NONE) {
+                    move(register, allocator.register(value));
+                } else {
+                    memory("lw", register, spillOffset(value), SP);
+                }
+        }
+    }
+
+    // 结果写入的寄存器：溢出或没有使用的值先写入 $t8
+    private int target(int value) {
+        int register = allocator.register(value);
+        return register != NONE ? register : T8;
+    }
+
+    private void define(int value, int register) {
+        if (allocator.spillSlot(value) != NONE) {
+            memory("sw", register, spillOffset(value), SP);
+        }
+    }
+
+    // 结果在 $v0 中 (系统调用或函数返回)
+    private void defineFrom(int value, int register) {
+        if (allocator.register(value) != NONE) {
+            move(allocator.register(value), register);
+        } else if (allocator.spillSlot(value) != NONE) {
+            memory("sw", register, spillOffset(value), SP);
+        }
+    }
+
+    private int spillOffset(int value) {
+        return slotOffset(allocator.spillSlot(value));
+    }
+
+    private int slotOffset(int slot) {
+        return spillBase + 4 * slot;
+    }
+
+    // --- 输出 ---
+
+    private String blockLabel(int block) {
+        return "L" + f.getIndex() + "_" + block;
+    }
+
+    private String newLabel() {
+        return "L" + f.getIndex() + "_x" + labelCount++;
+    }
+
+    private void label(String name) {
+        out.append(name).append(":\n");
+    }
+
+    private void line(String text) {
+        out.append("    ").append(text).append('\n');
+    }
+
+    private void emit(String op, int d, int s, int t) {
+        line(op + " " + NAMES[d] + ", " + NAMES[s] + ", " + NAMES[t]);
+    }
+
+    private void immediate(String op, int d, int s, long value) {
+        line(op + " " + NAMES[d] + ", " + NAMES[s] + ", " + value);
+    }
+
+    private void shift(String op, int d, int s, int amount) {
+        line(op + " " + NAMES[d] + ", " + NAMES[s] + ", " + amount);
+    }
+
+    private void memory(String op, int register, int offset, int base) {
+        line(op + " " + NAMES[register] + ", " + offset + "(" + NAMES[base] + ")");
+    }
+
+    private void move(int d, int s) {
+        if (d != s) {
+            line("move " + NAMES[d] + ", " + NAMES[s]);
+        }
+    }
+
+    private void li(int d, int value) {
+        if (d != ZERO) {
+            line("li " + NAMES[d] + ", " + value);
+        }
+    }
+
+    private void addImmediate(int d, int s, int value) {
+        if (value == 0) {
+            move(d, s);
+        } else {
+            immediate("addiu", d, s, (long) value);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.tomorrow615.compiler.mips;
+
+import io.github.tomorrow615.compiler.ir.IrFunction;
+import io.github.tomorrow615.compiler.ir.IrGlobal;
+import io.github.tomorrow615.compiler.ir.IrModule;
+
+/**
+ * 把 IR 模块译为 MIPS32 汇编 (MARS 语法)。
+ * 全局存储在 .data 段，标号为 g&lt;序号&gt;_&lt;名字&gt;；printf 的字符串段为 str&lt;序号&gt;；
+ * 函数的标号为 f_&lt;名字&gt;，main 放在 .text 段开头，作为程序入口。
+ * getint / putint / 字符串输出用系统调用 5 / 1 / 4。
+ */
+public final class MipsBackend {
+    private MipsBackend() {
+    }
+
+    public static String generate(IrModule module) {
+        StringBuilder out = new StringBuilder();
+        out.append(".data\n");
+        for (int i = 0; i < module.getGlobals().size(); i++) {
+            writeGlobal(out, module, i);
+        }
+        for (int i = 0; i < module.getStrings().size(); i++) {
+            out.append(stringLabel(i)).append(": .asciiz \"");
+            writeEscaped(out, module.getString(i));
+            out.append("\"\n");
+        }
+
+        out.append("\n.text\n");
+        new FunctionGenerator(module, module.getMain(), out).generate();
+        for (IrFunction function : module.getFunctions()) {
+            if (function != module.getMain()) {
+                out.append('\n');
+                new FunctionGenerator(module, function, out).generate();
+            }
+        }
+        return out.toString();
+    }
+
+    // 初值末尾的 0 用 .space 表示，每行最多 16 个 .word
+    private static void writeGlobal(StringBuilder out, IrModule module, int index) {
+        int[] init = module.getGlobal(index).getInit();
+        int nonzero = init.length;
+        while (nonzero > 0 && init[nonzero - 1] == 0) {
+            nonzero--;
+        }
+        out.append(globalLabel(module, index)).append(':');
+        if (nonzero == 0) {
+            out.append(" .space ").append(4 * init.length).append('\n');
+            return;
+        }
+        for (int i = 0; i < nonzero; i++) {
+            out.append(i % 16 == 0 ? (i == 0 ? " .word " : "\n    .word ") : ", ").append(init[i]);
+        }
+        out.append('\n');
+        if (nonzero < init.length) {
+            out.append("    .space ").append(4 * (init.length - nonzero)).append('\n');
+        }
+    }
+
+    private static void writeEscaped(StringBuilder out, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\n') {
+                out.append("\\n");
+            } else if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    // static 局部变量的名字形如 函数.名字.序号，标号中把 . 换成 _
+    static String globalLabel(IrModule module, int index) {
+        IrGlobal global = module.getGlobal(index);
+        return "g" + index + "_" + global.getName().replace('.', '_');
+    }
+
+    static String stringLabel(int index) {
+        return "str" + index;
+    }
+
+    static String functionLabel(IrFunction function) {
+        return "f_" + function.getName();
+    }
+}
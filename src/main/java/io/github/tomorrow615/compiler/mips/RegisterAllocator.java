@@ -0,0 +1,308 @@
+package io.github.tomorrow615.compiler.mips;
+
+import io.github.tomorrow615.compiler.ir.IrFunction;
+import io.github.tomorrow615.compiler.ir.LiveIntervals;
+import io.github.tomorrow615.compiler.ir.Opcode;
+import io.github.tomorrow615.compiler.ir.ValueType;
+
+import java.util.Arrays;
+
+/**
+ * 线性扫描寄存器分配 (Poletto &amp; Sarkar)：按活跃区间的起点依次分配，区间结束后归还寄存器。
+ * 跨越函数调用的值只能用被调用者保存的 $s0-$s7 / $fp，其余的值优先用调用者保存的 $t0-$t7，
+ * 这样调用前后不需要保存任何寄存器。没有空闲寄存器时，在当前区间与占用同类寄存器的活跃区间中
+ * 溢出代价最小的一个 (使用次数按循环深度加权，再除以区间长度)，被溢出的值整个生命期都在栈上。
+ * PHI 与它的来源互相优先选择对方的寄存器，使跳转边上的复制尽量消失。
+ * 只用作实参、putint 的参数或返回值，且在同一块中紧接着被使用的值直接放在 $a0-$a3 / $v0 中。
+ * 常量、全局数组与局部数组不占寄存器，在使用处生成。
+ */
+final class RegisterAllocator {
+    static final int NONE = IrFunction.NONE;
+
+    private final IrFunction f;
+    private final LiveIntervals intervals;
+    private final int[] registers;    // 值所在的寄存器，没有时为 NONE
+    private final int[] spillSlots;   // 溢出的值在栈上的槽号，没有时为 NONE
+    private final double[] weights;
+    private int spillSlotCount = 0;
+    private int usedRegisters = 0;    // 分配出去的寄存器的位图
+
+    RegisterAllocator(IrFunction f, int[] uses, boolean[] fused) {
+        this.f = f;
+        this.intervals = new LiveIntervals(f);
+        int size = f.size();
+        this.registers = new int[size];
+        this.spillSlots = new int[size];
+        this.weights = new double[size];
+        Arrays.fill(registers, NONE);
+        Arrays.fill(spillSlots, NONE);
+
+        boolean[] allocated = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            allocated[i] = needsLocation(f, i, uses, fused);
+        }
+        precolor(allocated, uses);
+        computeWeights(allocated);
+        scan(allocated);
+        assignSpillSlots(allocated);
+    }
+
+    static boolean needsLocation(IrFunction f, int inst, int[] uses, boolean[] fused) {
+        switch (f.opcode(inst)) {
+            case CONST: case GLOBAL: case ALLOCA:
+                return false;
+            default:
+                return f.type(inst) != ValueType.VOID && uses[inst] > 0 && !fused[inst];
+        }
+    }
+
+    int register(int value) {
+        return registers[value];
+    }
+
+    int spillSlot(int value) {
+        return spillSlots[value];
+    }
+
+    int spillSlotCount() {
+        return spillSlotCount;
+    }
+
+    // 用到的被调用者保存的寄存器，需要在序言中保存
+    int usedCalleeSaved() {
+        return usedRegisters & Registers.CALLEE_SAVED_MASK;
+    }
+
+    // --- 预先着色 ---
+
+    // 定义与使用之间没有调用或系统调用 (它们会改写 $a0 / $v0) 时，值直接算在传参的寄存器中
+    private void precolor(boolean[] allocated, int[] uses) {
+        int size = f.size();
+        int[] barriersBefore = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            Opcode opcode = f.opcode(i);
+            boolean barrier = opcode == Opcode.CALL || opcode == Opcode.GETINT
+                    || opcode == Opcode.PUTINT || opcode == Opcode.PUTSTR;
+            barriersBefore[i + 1] = barriersBefore[i] + (barrier ? 1 : 0);
+        }
+        for (int b = 0; b < f.blockCount(); b++) {
+            for (int i = f.blockStart(b); i < f.blockEnd(b); i++) {
+                switch (f.opcode(i)) {
+                    case CALL:
+                        for (int k = 0; k < Math.min(f.listSize(i), Registers.ARGUMENT_REGISTERS); k++) {
+                            precolor(allocated, uses, barriersBefore, b, f.arg(i, k), i, Registers.A0 + k);
+                        }
+                        break;
+                    case PUTINT:
+                        precolor(allocated, uses, barriersBefore, b, f.a(i), i, Registers.A0);
+                        break;
+                    case RET:
+                        if (f.a(i) != NONE) {
+                            precolor(allocated, uses, barriersBefore, b, f.a(i), i, Registers.V0);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    private void precolor(boolean[] allocated, int[] uses, int[] barriersBefore, int block, int value, int user,
+                          int register) {
+        Opcode opcode = f.opcode(value);
+        if (!allocated[value] || uses[value] != 1 || opcode == Opcode.PHI || opcode == Opcode.PARAM
+                || value < f.blockStart(block) || barriersBefore[user] - barriersBefore[value + 1] > 0) {
+            return;
+        }
+        allocated[value] = false;
+        registers[value] = register;
+    }
+
+    // --- 溢出代价 ---
+
+    // 按布局中的回边估计循环深度：从循环头到回边所在块之间的块都在循环内
+    private void computeWeights(boolean[] allocated) {
+        int blockCount = f.blockCount();
+        int[] depth = new int[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            for (int k = 0; k < f.successorCount(b); k++) {
+                int header = f.successor(b, k);
+                if (header <= b) {
+                    for (int inner = header; inner <= b; inner++) {
+                        depth[inner]++;
+                    }
+                }
+            }
+        }
+        for (int b = 0; b < blockCount; b++) {
+            double weight = Math.pow(8, Math.min(depth[b], 5));
+            for (int i = f.blockStart(b); i < f.blockEnd(b); i++) {
+                if (allocated[i]) {
+                    weights[i] += weight; // 定义处的写入
+                }
+                if (f.opcode(i) == Opcode.PHI) {
+                    continue; // PHI 的来源在前驱末尾使用，按前驱的深度计算
+                }
+                f.forEachOperand(i, value -> weights[value] += weight);
+                int successors = f.successorCount(b);
+                if (i == f.terminator(b)) {
+                    for (int k = 0; k < successors; k++) {
+                        addPhiUses(b, f.successor(b, k), weight);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < f.size(); i++) {
+            weights[i] /= intervals.end(i) - intervals.start(i) + 1;
+        }
+    }
+
+    private void addPhiUses(int from, int to, double weight) {
+        for (int i = f.blockStart(to); i < f.blockEnd(to) && f.opcode(i) == Opcode.PHI; i++) {
+            for (int k = 0; k < f.listSize(i); k++) {
+                if (f.phiBlock(i, k) == from) {
+                    weights[f.phiValue(i, k)] += weight;
+                }
+            }
+        }
+    }
+
+    // --- 扫描 ---
+
+    private void scan(boolean[] allocated) {
+        int size = f.size();
+        // 以起点为下标的链表
+        int[] heads = new int[size];
+        int[] next = new int[size];
+        Arrays.fill(heads, NONE);
+        for (int i = size - 1; i >= 0; i--) {
+            if (allocated[i]) {
+                next[i] = heads[intervals.start(i)];
+                heads[intervals.start(i)] = i;
+            }
+        }
+
+        // 调用的位置：值的区间严格包含某个调用时跨越调用
+        int[] callsBefore = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            callsBefore[i + 1] = callsBefore[i] + (f.opcode(i) == Opcode.CALL ? 1 : 0);
+        }
+
+        // PHI 的来源 -> PHI，用于选择寄存器时的提示
+        int[] phiOf = new int[size];
+        Arrays.fill(phiOf, NONE);
+        for (int i = 0; i < size; i++) {
+            if (f.opcode(i) == Opcode.PHI) {
+                for (int k = 0; k < f.listSize(i); k++) {
+                    if (phiOf[f.phiValue(i, k)] == NONE) {
+                        phiOf[f.phiValue(i, k)] = i;
+                    }
+                }
+            }
+        }
+
+        int[] active = new int[Registers.ALLOCATABLE.length];
+        int activeCount = 0;
+        int free = Registers.ALLOCATABLE_MASK;
+        for (int position = 0; position < size; position++) {
+            for (int v = heads[position]; v != NONE; v = next[v]) {
+                // 归还在此之前 (含此处) 结束的区间：一条指令先读操作数再写结果
+                for (int k = activeCount - 1; k >= 0; k--) {
+                    if (intervals.end(active[k]) <= position) {
+                        free |= 1 << registers[active[k]];
+                        active[k] = active[--activeCount];
+                    }
+                }
+                boolean crossesCall = callsBefore[intervals.end(v)] - callsBefore[intervals.start(v) + 1] > 0;
+                int allowed = crossesCall ? Registers.CALLEE_SAVED_MASK : Registers.ALLOCATABLE_MASK;
+                int register = choose(v, free & allowed, phiOf);
+                if (register == NONE) {
+                    // 在当前区间与占用允许的寄存器的活跃区间中溢出代价最小的
+                    int victim = NONE;
+                    for (int k = 0; k < activeCount; k++) {
+                        int other = active[k];
+                        if ((allowed & 1 << registers[other]) != 0
+                                && (victim == NONE || weights[other] < weights[victim])) {
+                            victim = other;
+                        }
+                    }
+                    if (victim == NONE || weights[v] <= weights[victim]) {
+                        continue; // 溢出当前区间
+                    }
+                    register = registers[victim];
+                    registers[victim] = NONE;
+                    for (int k = 0; k < activeCount; k++) {
+                        if (active[k] == victim) {
+                            active[k] = active[--activeCount];
+                            break;
+                        }
+                    }
+                    free |= 1 << register;
+                }
+                registers[v] = register;
+                free &= ~(1 << register);
+                usedRegisters |= 1 << register;
+                active[activeCount++] = v;
+            }
+        }
+    }
+
+    // 优先选提示的寄存器，再按 $t、$s 的顺序选第一个空闲的
+    private int choose(int value, int candidates, int[] phiOf) {
+        if (candidates == 0) {
+            return NONE;
+        }
+        if (phiOf[value] != NONE && registers[phiOf[value]] != NONE
+                && (candidates & 1 << registers[phiOf[value]]) != 0) {
+            return registers[phiOf[value]];
+        }
+        if (f.opcode(value) == Opcode.PHI) {
+            for (int k = 0; k < f.listSize(value); k++) {
+                int source = f.phiValue(value, k);
+                if (source != value && registers[source] != NONE && (candidates & 1 << registers[source]) != 0) {
+                    return registers[source];
+                }
+            }
+        }
+        for (int register : Registers.ALLOCATABLE) {
+            if ((candidates & 1 << register) != 0) {
+                return register;
+            }
+        }
+        return NONE;
+    }
+
+    // 溢出的值按区间分配栈槽，区间不重叠的值共用一个槽
+    private void assignSpillSlots(boolean[] allocated) {
+        int size = f.size();
+        int[] slotEnds = new int[size];
+        int[] order = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (allocated[i] && registers[i] == NONE) {
+                order[count++] = i;
+            }
+        }
+        // 起点递增；PHI 的起点是块首，可能早于前面的指令编号
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = order[i];
+        }
+        Arrays.sort(sorted, (x, y) -> Integer.compare(intervals.start(x), intervals.start(y)));
+        for (int value : sorted) {
+            int slot = NONE;
+            for (int s = 0; s < spillSlotCount; s++) {
+                if (slotEnds[s] <= intervals.start(value)) {
+                    slot = s;
+                    break;
+                }
+            }
+            if (slot == NONE) {
+                slot = spillSlotCount++;
+            }
+            slotEnds[slot] = intervals.end(value);
+            spillSlots[value] = slot;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.tomorrow615.compiler.mips;
+
+/**
+ * MIPS 寄存器的编号与名称。$a0-$a3 传前四个实参，$v0 传返回值并用于系统调用；
+ * $t8 / $t9 / $v1 是生成代码时的临时寄存器 (溢出的值、常量、地址计算)，不参与分配；
+ * $at 留给汇编器展开伪指令，$k0 / $k1 保留给操作系统内核，都不使用。
+ */
+final class Registers {
+    static final int ZERO = 0, V0 = 2, V1 = 3, A0 = 4, T8 = 24, T9 = 25, SP = 29, FP = 30, RA = 31;
+
+    static final String[] NAMES = {
+            "$zero", "$at", "$v0", "$v1", "$a0", "$a1", "$a2", "$a3",
+            "$t0", "$t1", "$t2", "$t3", "$t4", "$t5", "$t6", "$t7",
+            "$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7",
+            "$t8", "$t9", "$k0", "$k1", "$gp", "$sp", "$fp", "$ra"
+    };
+
+    // 分配顺序：先调用者保存的 $t0-$t7，再被调用者保存的 $s 与 $fp
+    static final int[] ALLOCATABLE = {8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 30};
+    static final int CALLEE_SAVED_MASK = 0xFF << 16 | 1 << FP;
+    static final int ALLOCATABLE_MASK = 0xFF << 8 | CALLEE_SAVED_MASK;
+    static final int ARGUMENT_REGISTERS = 4;
+
+    private Registers() {
+    }
+}
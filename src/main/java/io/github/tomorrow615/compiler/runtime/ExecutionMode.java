@@ -0,0 +1,6 @@
+package io.github.tomorrow615.compiler.runtime;
+
+public enum ExecutionMode {
+    INTERPRETER, // ir.IrInterpreter 逐条解释 IR
+    JVM          // jvm.JvmBackend 生成字节码，在当前 JVM 中加载后执行
+}
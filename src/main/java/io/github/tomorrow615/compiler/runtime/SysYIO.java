@@ -0,0 +1,122 @@
+package io.github.tomorrow615.compiler.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SysY 程序运行时的输入输出：getint 从输入流中按十进制读取整数，printf 的输出先写入缓冲区，
+ * 写满或 flush() 时整块写出。两侧都直接处理字节，不经过 Scanner / PrintStream，也不生成中间字符串。
+ * 不是线程安全的，每次运行使用一个实例。
+ */
+public final class SysYIO {
+    private static final int CAPACITY = 1 << 16;
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final byte[] input = new byte[CAPACITY];
+    private int inputPosition = 0;
+    private int inputLimit = 0;
+    private final byte[] output = new byte[CAPACITY];
+    private int outputPosition = 0;
+
+    public SysYIO(InputStream in, OutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    // printf 格式串中的一段，预先编码为 UTF-8
+    public static byte[] encode(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // 跳过空白读一个可带符号的十进制整数，输入结束时返回 0
+    public int getint() {
+        int c = read();
+        while (c != -1 && c != '-' && c != '+' && (c < '0' || c > '9')) {
+            c = read();
+        }
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            c = read();
+        }
+        int value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            c = read();
+        }
+        return negative ? -value : value;
+    }
+
+    private int read() {
+        if (inputPosition == inputLimit) {
+            try {
+                inputLimit = in.read(input, 0, CAPACITY);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            inputPosition = 0;
+            if (inputLimit <= 0) {
+                inputLimit = 0;
+                return -1;
+            }
+        }
+        return input[inputPosition++];
+    }
+
+    public void putint(int value) {
+        if (CAPACITY - outputPosition < 11) {
+            flush();
+        }
+        if (value < 0) {
+            output[outputPosition++] = '-';
+            if (value == Integer.MIN_VALUE) {
+                putstr(encode("2147483648"));
+                return;
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int end = outputPosition + digits;
+        for (int i = end - 1; i >= outputPosition; i--) {
+            output[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        outputPosition = end;
+    }
+
+    public void putstr(byte[] text) {
+        if (text.length > CAPACITY - outputPosition) {
+            flush();
+            if (text.length > CAPACITY) {
+                write(text, text.length);
+                return;
+            }
+        }
+        System.arraycopy(text, 0, output, outputPosition, text.length);
+        outputPosition += text.length;
+    }
+
+    public void flush() {
+        write(output, outputPosition);
+        outputPosition = 0;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(byte[] bytes, int length) {
+        try {
+            out.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.tomorrow615.compiler.util;
+
+/**
+ * 一次编译需要写出哪些文件。默认值取自 {@link Config}，可以在运行时按次修改，
+ * 例如守护进程中每个编译请求各自指定需要的输出。
+ */
+public class CompileOptions {
+    public boolean lexerOutput = Config.ENABLE_LEXER_OUTPUT;
+    public boolean parserOutput = Config.ENABLE_PARSER_OUTPUT;
+    public boolean symbolOutput = Config.ENABLE_SYMBOL_OUTPUT;
+    public boolean irOutput = Config.ENABLE_IR_OUTPUT;
+    public boolean mipsOutput = Config.ENABLE_MIPS_OUTPUT;
+    public boolean errorOutput = true;
+    public String statsFile = null;     // 不为 null 时在输出目录下写出各阶段的统计报告
+    public boolean buildIr = false;     // 不写出 ir.txt 时也生成 IR，放入 CompileResult (用于 --run)
+
+    // 按 "lexer,parser,symbol,error,ir,mips,stats" 形式的列表设置输出，未列出的输出全部关闭
+    public void setOutputs(String list) {
+        lexerOutput = false;
+        parserOutput = false;
+        symbolOutput = false;
+        irOutput = false;
+        mipsOutput = false;
+        errorOutput = false;
+        statsFile = null;
+        for (String output : list.split(",")) {
+            switch (output.strip()) {
+                case "lexer": lexerOutput = true; break;
+                case "parser": parserOutput = true; break;
+                case "symbol": symbolOutput = true; break;
+                case "error": errorOutput = true; break;
+                case "ir": irOutput = true; break;
+                case "mips": mipsOutput = true; break;
+                case "stats": statsFile = "stats.json"; break;
+                case "": break;
+                default: throw new IllegalArgumentException("未知的输出: " + output);
+            }
+        }
+    }
+}
@@ -1,10 +1,35 @@
 package io.github.tomorrow615.compiler.util;
 
+import io.github.tomorrow615.compiler.frontend.ast.AstMode;
+import io.github.tomorrow615.compiler.frontend.lexer.LexerMode;
+import io.github.tomorrow615.compiler.frontend.lexer.SourceMode;
+import io.github.tomorrow615.compiler.frontend.lexer.TokenPipeline;
+import io.github.tomorrow615.compiler.frontend.symbol.ScopeMode;
+import io.github.tomorrow615.compiler.runtime.ExecutionMode;
+
 public class Config {
+    // 以下五个输出开关只是默认值 (见 CompileOptions)，运行时可用 --outputs= 或守护进程请求的 outputs 字段覆盖
     // 词法分析
     public static final boolean ENABLE_LEXER_OUTPUT = false;
     // 语法分析
     public static final boolean ENABLE_PARSER_OUTPUT = false;
     // 语义分析
     public static final boolean ENABLE_SYMBOL_OUTPUT = true;
+    // 中间代码 (ir.txt)，只在没有编译错误时生成
+    public static final boolean ENABLE_IR_OUTPUT = false;
+    // 目标代码 (mips.txt)，由 IR 生成，只在没有编译错误时生成
+    public static final boolean ENABLE_MIPS_OUTPUT = false;
+    // 符号表实现 (NESTED / FLAT)，两者查找结果与输出一致
+    public static final ScopeMode SCOPE_MODE = ScopeMode.FLAT;
+    // 词法分析器实现 (LEGACY / TABLE)，两者输出一致，便于对比
+    public static final LexerMode LEXER_MODE = LexerMode.TABLE;
+    // 词法分析与语法分析的衔接方式 (BATCH / STREAMING / CONCURRENT)，仅对 TABLE 词法分析器生效
+    public static final TokenPipeline TOKEN_PIPELINE = TokenPipeline.STREAMING;
+    // 源文件的读入方式 (READ / MAPPED)，MAPPED 不把文件内容复制到堆中，仅对 TABLE 词法分析器与文件输入生效
+    public static final SourceMode SOURCE_MODE = SourceMode.READ;
+    // AST 的表示 (OBJECT / COMPACT / ARENA)，COMPACT 只在出现运算符处建立表达式节点，
+    // ARENA 在解析时只写入几个数组，语义分析时按函数还原为对象节点
+    public static final AstMode AST_MODE = AstMode.OBJECT;
+    // --run 的执行方式 (INTERPRETER / JVM)，JVM 把 IR 编译为字节码加载执行，可用 --run= 覆盖
+    public static final ExecutionMode EXECUTION_MODE = ExecutionMode.INTERPRETER;
 }
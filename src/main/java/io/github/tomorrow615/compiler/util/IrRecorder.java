@@ -0,0 +1,196 @@
+package io.github.tomorrow615.compiler.util;
+
+import io.github.tomorrow615.compiler.ir.*;
+
+import java.io.IOException;
+
+public class IrRecorder implements AutoCloseable {
+    // 每种操作码预先编码好的小写名称，下标为 Opcode 的序号
+    private static final byte[][] OPCODE_NAMES = new byte[Opcode.values().length][];
+
+    static {
+        for (Opcode opcode : Opcode.values()) {
+            OPCODE_NAMES[opcode.ordinal()] = RecordBuffer.ascii(opcode.name().toLowerCase());
+        }
+    }
+
+    private final RecordBuffer out; // 关闭输出时为 null
+
+    public IrRecorder(String outputFilename, boolean enabled) throws IOException {
+        this.out = enabled ? new RecordBuffer(outputFilename) : null;
+    }
+
+    // 输出格式：
+    //   @名字 = global [长度] {初值}       (常量数组为 const)
+    //   define int 名字(int, array) {
+    //   b0:
+    //     %0 = param 0
+    //     %2 = add %0, %1
+    //     call @函数, %0, %2       (全局存储同样以 @名字 表示，PUTSTR 的字符串以 $序号 表示)
+    //     %5 = phi [b1: %3], [b2: %4]
+    //   }
+    public void record(IrModule module) {
+        if (module == null || out == null) {
+            return;
+        }
+
+        for (IrGlobal global : module.getGlobals()) {
+            out.write('@');
+            out.write(global.getName());
+            out.write(global.isConstant() ? " = const " : " = global ");
+            if (global.isArray()) {
+                out.write('[');
+                out.write(global.getLength());
+                out.write("] ");
+            }
+            out.write('{');
+            int[] init = global.getInit();
+            for (int i = 0; i < init.length; i++) {
+                if (i > 0) {
+                    out.write(", ");
+                }
+                out.write(init[i]);
+            }
+            out.write('}');
+            out.newLine();
+        }
+        for (int i = 0; i < module.getStrings().size(); i++) {
+            out.write("$");
+            out.write(i);
+            out.write(" = \"");
+            writeEscaped(module.getString(i));
+            out.write('"');
+            out.newLine();
+        }
+        for (IrFunction function : module.getFunctions()) {
+            out.newLine();
+            recordFunction(module, function);
+        }
+    }
+
+    private void recordFunction(IrModule module, IrFunction function) {
+        out.write("define ");
+        out.write(typeName(function.getReturnType()));
+        out.write(' ');
+        out.write(function.getName());
+        out.write('(');
+        for (int i = 0; i < function.getParamCount(); i++) {
+            if (i > 0) {
+                out.write(", ");
+            }
+            out.write(typeName(function.getParamType(i)));
+        }
+        out.write(") {");
+        out.newLine();
+
+        for (int block = 0; block < function.blockCount(); block++) {
+            out.write('b');
+            out.write(block);
+            out.write(':');
+            out.newLine();
+            for (int inst = function.blockStart(block); inst < function.blockEnd(block); inst++) {
+                recordInstruction(module, function, inst);
+            }
+        }
+        out.write('}');
+        out.newLine();
+    }
+
+    private void recordInstruction(IrModule module, IrFunction function, int inst) {
+        Opcode opcode = function.opcode(inst);
+        out.write("  ");
+        if (function.type(inst) != ValueType.VOID) {
+            out.write('%');
+            out.write(inst);
+            out.write(" = ");
+        }
+        out.write(OPCODE_NAMES[opcode.ordinal()]);
+
+        if (opcode == Opcode.PHI) {
+            for (int i = 0; i < function.listSize(inst); i++) {
+                out.write(i > 0 ? ", [b" : " [b");
+                out.write(function.phiBlock(inst, i));
+                out.write(": %");
+                out.write(function.phiValue(inst, i));
+                out.write(']');
+            }
+        } else {
+            boolean first = writeSymbol(module, opcode, function.a(inst))
+                    && writeOperand(opcode.a(), function.a(inst), true);
+            if (opcode == Opcode.CALL) {
+                for (int i = 0; i < function.listSize(inst); i++) {
+                    out.write(", %");
+                    out.write(function.arg(inst, i));
+                }
+            } else {
+                first = writeOperand(opcode.b(), function.b(inst), first);
+                writeOperand(opcode.c(), function.c(inst), first);
+            }
+        }
+        out.newLine();
+    }
+
+    // 指向函数、全局存储或字符串的操作数写成名字；写出时返回 false (之后的操作数不再是第一个)
+    private boolean writeSymbol(IrModule module, Opcode opcode, int operand) {
+        switch (opcode) {
+            case CALL:
+                out.write(" @");
+                out.write(module.getFunction(operand).getName());
+                return false;
+            case GLOBAL: case LOAD_GLOBAL: case STORE_GLOBAL:
+                out.write(" @");
+                out.write(module.getGlobal(operand).getName());
+                return false;
+            case PUTSTR:
+                out.write(" $");
+                out.write(operand);
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    // 写出一个操作数，返回之后的操作数是否仍是第一个
+    private boolean writeOperand(Opcode.Operand kind, int operand, boolean first) {
+        if (kind == Opcode.Operand.NONE || kind == Opcode.Operand.LIST || operand == IrFunction.NONE) {
+            return first;
+        }
+        out.write(first ? " " : ", ");
+        if (kind == Opcode.Operand.VALUE) {
+            out.write('%');
+        } else if (kind == Opcode.Operand.BLOCK) {
+            out.write('b');
+        }
+        out.write(operand);
+        return false;
+    }
+
+    private void writeEscaped(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\n') {
+                out.write("\\n");
+            } else if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else {
+                out.write(c);
+            }
+        }
+    }
+
+    private static String typeName(ValueType type) {
+        switch (type) {
+            case VOID: return "void";
+            case ARRAY: return "array";
+            default: return "int";
+        }
+    }
+
+    @Override
+    public void close() {
+        if (out != null) {
+            out.close();
+        }
+    }
+}
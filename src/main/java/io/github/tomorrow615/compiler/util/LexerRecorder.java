@@ -2,30 +2,64 @@ package io.github.tomorrow615.compiler.util;
 
 import io.github.tomorrow615.compiler.frontend.lexer.*;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.PrintWriter;
 
 public class LexerRecorder implements AutoCloseable {
-    private final PrintWriter writer;
+    // 每个单词类别预先编码好的 "类别名 "，下标为 TokenType 的序号
+    static final byte[][] TOKEN_PREFIXES = new byte[TokenType.values().length][];
 
-    public LexerRecorder(String outputFilename) throws IOException {
-        if (Config.ENABLE_LEXER_OUTPUT) {
-            this.writer = new PrintWriter(new FileWriter(outputFilename));
-        } else {
-            this.writer = new PrintWriter(OutputStream.nullOutputStream());
+    static {
+        for (TokenType type : TokenType.values()) {
+            TOKEN_PREFIXES[type.ordinal()] = RecordBuffer.ascii(type.name() + " ");
         }
     }
 
+    private final RecordBuffer out; // 关闭输出时为 null
+    private long tokenCount = 0; // 已记录的单词数 (不含 EOF)，与输出开关无关
+
+    public LexerRecorder(String outputFilename) throws IOException {
+        this(outputFilename, Config.ENABLE_LEXER_OUTPUT);
+    }
+
+    public LexerRecorder(String outputFilename, boolean enabled) throws IOException {
+        this.out = enabled ? new RecordBuffer(outputFilename) : null;
+    }
+
     public void recordToken(Token token) {
         if (token != null && token.getType() != TokenType.EOF) {
-            writer.println(token.formatForOutput());
+            tokenCount++;
+            if (out != null) {
+                out.write(TOKEN_PREFIXES[token.getType().ordinal()]);
+                out.write(token.getText());
+                out.newLine();
+            }
         }
     }
 
+    public void recordToken(TokenType type, SourceText source, int start, int length) {
+        if (type != TokenType.EOF) {
+            tokenCount++;
+            if (out != null) {
+                out.write(TOKEN_PREFIXES[type.ordinal()]);
+                out.write(source, start, length);
+                out.newLine();
+            }
+        }
+    }
+
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    // 是否写出文件；关闭时 record 方法只计数，调用者可以据此跳过准备参数
+    public boolean isEnabled() {
+        return out != null;
+    }
+
     @Override
     public void close() {
-        writer.close();
+        if (out != null) {
+            out.close();
+        }
     }
 }
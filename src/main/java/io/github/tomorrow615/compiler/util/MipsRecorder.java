@@ -0,0 +1,26 @@
+package io.github.tomorrow615.compiler.util;
+
+import java.io.IOException;
+
+public class MipsRecorder implements AutoCloseable {
+    private final RecordBuffer out; // 关闭输出时为 null
+
+    public MipsRecorder(String outputFilename, boolean enabled) throws IOException {
+        this.out = enabled ? new RecordBuffer(outputFilename) : null;
+    }
+
+    // 汇编由 mips.MipsBackend 生成，行尾已是 \n
+    public void record(String assembly) {
+        if (assembly == null || out == null) {
+            return;
+        }
+        out.write(assembly);
+    }
+
+    @Override
+    public void close() {
+        if (out != null) {
+            out.close();
+        }
+    }
+}
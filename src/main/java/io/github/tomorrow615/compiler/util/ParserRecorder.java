@@ -2,38 +2,67 @@ package io.github.tomorrow615.compiler.util;
 
 import io.github.tomorrow615.compiler.frontend.lexer.*;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.PrintWriter;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class ParserRecorder implements AutoCloseable {
-    private final PrintWriter writer;
     private static final Set<String> DONT_PRINT = Set.of("BlockItem", "Decl", "BType");
+    private static final byte[] SKIP = new byte[0];
+    // 语法成分名到预先编码的 "<名称>" 的映射，不输出的成分映射为 SKIP；各编译共享
+    private static final ConcurrentMap<String, byte[]> TAGS = new ConcurrentHashMap<>();
+
+    private final RecordBuffer out; // 关闭输出时为 null
+    private long syntaxCount = 0; // 已识别的语法成分数，包括不输出的成分
 
     public ParserRecorder(String outputFilename) throws IOException {
-        if (Config.ENABLE_PARSER_OUTPUT) {
-            this.writer = new PrintWriter(new FileWriter(outputFilename));
-        } else {
-            this.writer = new PrintWriter(OutputStream.nullOutputStream());
-        }
+        this(outputFilename, Config.ENABLE_PARSER_OUTPUT);
+    }
+
+    public ParserRecorder(String outputFilename, boolean enabled) throws IOException {
+        this.out = enabled ? new RecordBuffer(outputFilename) : null;
     }
 
-    public void recordToken(Token token) {
-        if (token != null && token.getType() != TokenType.EOF) {
-            writer.println(token.getType() + " " + token.getText());
+    public void recordToken(TokenType type, SourceText source, int start, int length) {
+        if (type != TokenType.EOF && out != null) {
+            out.write(LexerRecorder.TOKEN_PREFIXES[type.ordinal()]);
+            out.write(source, start, length);
+            out.newLine();
         }
     }
 
     public void recordSyntax(String componentName) {
-        if (!DONT_PRINT.contains(componentName)) {
-            writer.println("<" + componentName.replace("Node", "") + ">");
+        syntaxCount++;
+        if (out != null) {
+            byte[] tag = TAGS.computeIfAbsent(componentName, ParserRecorder::encodeTag);
+            if (tag != SKIP) {
+                out.write(tag);
+                out.newLine();
+            }
+        }
+    }
+
+    private static byte[] encodeTag(String componentName) {
+        if (DONT_PRINT.contains(componentName)) {
+            return SKIP;
         }
+        return RecordBuffer.ascii("<" + componentName.replace("Node", "") + ">");
+    }
+
+    public long getSyntaxCount() {
+        return syntaxCount;
+    }
+
+    // 是否写出文件；关闭时 record 方法只计数，调用者可以据此跳过准备参数
+    public boolean isEnabled() {
+        return out != null;
     }
 
     @Override
     public void close() {
-        writer.close();
+        if (out != null) {
+            out.close();
+        }
     }
 }
@@ -0,0 +1,44 @@
+package io.github.tomorrow615.compiler.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 编译阶段的 JFR 自定义事件，持续时间即该阶段的墙钟时间。
+ * 未开启 JFR 录制时 commit() 几乎没有开销，因此无论是否指定 --stats 都会发出。
+ */
+@Name("io.github.tomorrow615.compiler.Phase")
+@Label("Compiler Phase")
+@Category({"Compiler"})
+@Description("编译器前端的一个阶段")
+@StackTrace(false)
+class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Syntax Nodes")
+    long nodes;
+
+    @Label("Symbols")
+    long symbols;
+
+    @Label("Errors")
+    long errors;
+}
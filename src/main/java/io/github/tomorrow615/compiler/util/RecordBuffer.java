@@ -0,0 +1,171 @@
+package io.github.tomorrow615.compiler.util;
+
+import io.github.tomorrow615.compiler.frontend.lexer.SourceText;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 各输出记录器共用的字节缓冲区：内容先写入一个可复用的大块 byte[]，写满或关闭时经 FileChannel 整块写出。
+ * ASCII 字符逐字节写入，不生成中间字符串；非 ASCII 的字符按默认字符集编码 (与原先的 FileWriter 一致)。
+ */
+final class RecordBuffer implements AutoCloseable {
+    private static final int CAPACITY = 1 << 18;
+    private static final byte[] LINE_SEPARATOR = ascii(System.lineSeparator());
+
+    private final FileChannel channel;
+    private final byte[] bytes = new byte[CAPACITY];
+    private final ByteBuffer view = ByteBuffer.wrap(bytes);
+    private int position = 0;
+
+    RecordBuffer(String outputFilename) throws IOException {
+        this.channel = FileChannel.open(Paths.get(outputFilename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // 预先编码记录器中反复输出的固定字符串 (单词类别名、语法成分标签等)
+    static byte[] ascii(String text) {
+        byte[] encoded = new byte[text.length()];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = (byte) text.charAt(i);
+        }
+        return encoded;
+    }
+
+    void write(byte[] data) {
+        if (data.length > CAPACITY - position) {
+            flush();
+            if (data.length > CAPACITY) {
+                writeFully(ByteBuffer.wrap(data));
+                return;
+            }
+        }
+        System.arraycopy(data, 0, bytes, position, data.length);
+        position += data.length;
+    }
+
+    void write(char c) {
+        if (c >= 0x80) {
+            write(String.valueOf(c));
+            return;
+        }
+        if (position == CAPACITY) {
+            flush();
+        }
+        bytes[position++] = (byte) c;
+    }
+
+    // 单词文本：内存中的源码逐字符写入，映射的源码 (已是 UTF-8) 直接整块复制字节
+    void write(SourceText source, int start, int length) {
+        char[] chars = source.chars();
+        if (chars != null) {
+            write(chars, start, length);
+            return;
+        }
+        ByteBuffer bytes = source.bytes();
+        if (length > CAPACITY - position) {
+            flush();
+            if (length > CAPACITY) {
+                writeFully(bytes.slice(start, length));
+                return;
+            }
+        }
+        bytes.get(start, this.bytes, position, length);
+        position += length;
+    }
+
+    void write(char[] source, int start, int length) {
+        int end = start + length;
+        for (int i = start; i < end; i++) {
+            char c = source[i];
+            if (c >= 0x80) {
+                // 含有非 ASCII 字符 (例如格式字符串中的中文)，剩余部分整体编码
+                write(new String(source, i, end - i));
+                return;
+            }
+            if (position == CAPACITY) {
+                flush();
+            }
+            bytes[position++] = (byte) c;
+        }
+    }
+
+    void write(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) >= 0x80) {
+                write(text.substring(i).getBytes(Charset.defaultCharset()));
+                return;
+            }
+            if (position == CAPACITY) {
+                flush();
+            }
+            bytes[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    // 十进制整数，不经过 Integer.toString
+    void write(int value) {
+        if (value < 0) {
+            if (value == Integer.MIN_VALUE) {
+                write(Integer.toString(value));
+                return;
+            }
+            write('-');
+            value = -value;
+        }
+        if (CAPACITY - position < 10) {
+            flush();
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    void newLine() {
+        write(LINE_SEPARATOR);
+    }
+
+    void flush() {
+        if (position > 0) {
+            view.clear().limit(position);
+            writeFully(view);
+            position = 0;
+        }
+    }
+
+    private void writeFully(ByteBuffer data) {
+        try {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
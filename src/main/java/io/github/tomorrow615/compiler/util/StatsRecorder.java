@@ -0,0 +1,149 @@
+package io.github.tomorrow615.compiler.util;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 记录每个编译阶段的墙钟时间、CPU 时间、分配字节数 (来自 ThreadMXBean) 以及
+ * 单词 / 语法成分 / 符号个数，关闭时以 JSON 写出。
+ * CPU 时间与分配量只统计当前线程；CONCURRENT 流水线中词法分析线程的开销不计入。
+ * 同时为每个阶段发出 {@link PhaseEvent}，便于在 JFR 录制中与 GC 等事件对照。
+ */
+public class StatsRecorder implements AutoCloseable {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final String outputFilename;
+    private final boolean enabled;
+    private final Map<String, String> properties = new LinkedHashMap<>();
+    private final List<Phase> phases = new ArrayList<>();
+
+    // outputFilename 为 null 时不写出报告，只发出 JFR 事件
+    public StatsRecorder(String outputFilename) {
+        this.outputFilename = outputFilename;
+        this.enabled = outputFilename != null;
+    }
+
+    // 报告顶层的描述性字段，例如输入文件与流水线模式
+    public void property(String name, Object value) {
+        properties.put(name, String.valueOf(value));
+    }
+
+    public Phase begin(String name) {
+        return new Phase(name);
+    }
+
+    public class Phase {
+        private final String name;
+        private final PhaseEvent event = new PhaseEvent();
+        private final boolean measured;
+        private final Map<String, Long> counts = new LinkedHashMap<>();
+        private final long startWall;
+        private final long startCpu;
+        private final long startAllocated;
+        private long wallTime;
+        private long cpuTime;
+        private long allocated;
+
+        private Phase(String name) {
+            this.name = name;
+            this.measured = enabled || event.isEnabled();
+            this.startWall = System.nanoTime();
+            this.startCpu = measured ? THREADS.getCurrentThreadCpuTime() : 0;
+            this.startAllocated = measured ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+            event.begin();
+        }
+
+        public void count(String item, long value) {
+            counts.put(item, value);
+        }
+
+        public void end() {
+            event.end();
+            wallTime = System.nanoTime() - startWall;
+            if (measured) {
+                cpuTime = THREADS.getCurrentThreadCpuTime() - startCpu;
+                allocated = THREADS.getCurrentThreadAllocatedBytes() - startAllocated;
+            }
+
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.cpuTime = cpuTime;
+                event.allocated = allocated;
+                event.tokens = counts.getOrDefault("tokens", 0L);
+                event.nodes = counts.getOrDefault("nodes", 0L);
+                event.symbols = counts.getOrDefault("symbols", 0L);
+                event.errors = counts.getOrDefault("errors", 0L);
+                event.commit();
+            }
+            if (enabled) {
+                phases.add(this);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        long wallTotal = 0;
+        long cpuTotal = 0;
+        long allocatedTotal = 0;
+        try (PrintWriter writer = new PrintWriter(new FileWriter(outputFilename))) {
+            writer.println("{");
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                writer.println("  " + quote(property.getKey()) + ": " + quote(property.getValue()) + ",");
+            }
+            writer.println("  \"phases\": [");
+            for (int i = 0; i < phases.size(); i++) {
+                Phase phase = phases.get(i);
+                wallTotal += phase.wallTime;
+                cpuTotal += phase.cpuTime;
+                allocatedTotal += phase.allocated;
+
+                StringBuilder line = new StringBuilder("    {\"name\": ").append(quote(phase.name));
+                appendTimes(line, phase.wallTime, phase.cpuTime, phase.allocated);
+                for (Map.Entry<String, Long> count : phase.counts.entrySet()) {
+                    line.append(", ").append(quote(count.getKey())).append(": ").append(count.getValue());
+                }
+                line.append('}').append(i + 1 < phases.size() ? "," : "");
+                writer.println(line);
+            }
+            writer.println("  ],");
+
+            StringBuilder total = new StringBuilder("  \"total\": {\"name\": \"total\"");
+            appendTimes(total, wallTotal, cpuTotal, allocatedTotal);
+            writer.println(total.append('}'));
+            writer.println("}");
+        }
+    }
+
+    private static void appendTimes(StringBuilder json, long wallTime, long cpuTime, long allocated) {
+        json.append(", \"wallNanos\": ").append(wallTime)
+                .append(", \"cpuNanos\": ").append(cpuTime)
+                .append(", \"allocatedBytes\": ").append(allocated);
+    }
+
+    private static String quote(String s) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
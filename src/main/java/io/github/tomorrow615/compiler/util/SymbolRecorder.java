@@ -2,25 +2,31 @@ package io.github.tomorrow615.compiler.util;
 
 import io.github.tomorrow615.compiler.frontend.symbol.*;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.PrintWriter;
 import java.util.List;
 
 public class SymbolRecorder implements AutoCloseable {
-    private final PrintWriter writer;
+    // 每种符号类型预先编码好的 " 类型名称"，下标为 SymbolType 的序号
+    private static final byte[][] TYPE_SUFFIXES = new byte[SymbolType.values().length][];
 
-    public SymbolRecorder(String outputFilename) throws IOException {
-        if (Config.ENABLE_SYMBOL_OUTPUT) {
-            this.writer = new PrintWriter(new FileWriter(outputFilename));
-        } else {
-            this.writer = new PrintWriter(OutputStream.nullOutputStream());
+    static {
+        for (SymbolType type : SymbolType.values()) {
+            TYPE_SUFFIXES[type.ordinal()] = RecordBuffer.ascii(" " + type);
         }
     }
 
+    private final RecordBuffer out; // 关闭输出时为 null
+
+    public SymbolRecorder(String outputFilename) throws IOException {
+        this(outputFilename, Config.ENABLE_SYMBOL_OUTPUT);
+    }
+
+    public SymbolRecorder(String outputFilename, boolean enabled) throws IOException {
+        this.out = enabled ? new RecordBuffer(outputFilename) : null;
+    }
+
     public void recordAll(List<SymbolTable> scopes) {
-        if (scopes == null) {
+        if (scopes == null || out == null) {
             return;
         }
 
@@ -28,14 +34,19 @@ public class SymbolRecorder implements AutoCloseable {
             int scopeId = scope.getScopeId();
             for (Symbol symbol : scope.getOrderedSymbols()) {
                 // 输出格式："作用域序号 单词字符串 类型名称"
-                String line = scopeId + " " + symbol.getName() + " " + symbol.getType().toString();
-                writer.println(line);
+                out.write(scopeId);
+                out.write(' ');
+                out.write(symbol.getName());
+                out.write(TYPE_SUFFIXES[symbol.getType().ordinal()]);
+                out.newLine();
             }
         }
     }
 
     @Override
     public void close() {
-        writer.close();
+        if (out != null) {
+            out.close();
+        }
     }
 }
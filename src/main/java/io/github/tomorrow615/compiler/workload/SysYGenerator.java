@@ -0,0 +1,578 @@
+package io.github.tomorrow615.compiler.workload;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 合成 SysY 程序生成器，用于构造远大于 testfile 的压力测试输入。
+ * 规模由 {@link Settings} 控制，随机种子固定，相同的设置总是生成相同的源码。
+ * errorRate > 0 时按该概率把语句替换为 a–m 类错误之一 (每行至多一个错误)，
+ * 并记录预期的 error.txt 内容。
+ * 生成的正确程序不读输入，循环次数有界，数组下标总在范围内，可以直接运行。
+ */
+public class SysYGenerator {
+    // 前 LEAVES 个函数是叶子函数，不调用其他函数；其余函数只调用叶子函数，避免调用树指数膨胀
+    private static final int LEAVES = 4;
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+    private static final String ALL_ERROR_KINDS = "abcdefghijklm";
+
+    public static class Settings {
+        public int globals = 8;         // 除 N、g_arr、g_sum 之外的全局声明个数
+        public int staticLocals = 2;    // 每个函数的 static 局部变量个数
+        public int functions = 10;
+        public int params = 3;          // 每个函数的形参个数，下标模 3 余 1 的形参是数组
+        public int statements = 20;     // 每个函数体顶层的语句条数
+        public int loopDepth = 2;       // if / for / 语句块的最大嵌套层数
+        public int exprDepth = 3;
+        public int arraySize = 16;      // 所有数组的长度 (即常量 N)
+        public long seed = 615;
+        public double errorRate = 0;    // 每条语句被替换为错误语句的概率
+        public String errorKinds = ALL_ERROR_KINDS;
+        public long targetBytes = 0;    // 大于 0 时不断生成函数直到源码达到该大小，此时忽略 functions
+    }
+
+    private final Settings settings;
+    private final Random random;
+    private final StringBuilder buf = new StringBuilder();
+    private final List<String> expectedErrors = new ArrayList<>();
+    private Appendable out;
+    private long written = 0;
+    private int line = 1;       // 下一行的行号
+    private int uniqueId = 0;
+
+    // 当前作用域中可用的名字
+    private final List<String> scalars = new ArrayList<>();      // 可读的整数 (含常量)
+    private final List<String> variables = new ArrayList<>();    // 可赋值的整数
+    private final List<String> arrays = new ArrayList<>();       // 可读的数组 (含常量数组)
+    private final List<String> varArrays = new ArrayList<>();    // 可赋值、可作为实参的数组
+
+    private int functionIndex;
+    private boolean inVoid;
+    private int nest;
+    private int loopLevel;
+
+    /**
+     * 命令行入口，参数均为 --name=value 形式：
+     *     --out=目录 (默认 corpus)  --files=文件个数 (默认 1)
+     *     --globals --static-locals --functions --params --statements
+     *     --loop-depth --expr-depth --array-size --seed
+     *     --error-rate=0.05 --error-kinds=abcdefghijklm --size=200M
+     * 在目录中生成 testfile1.txt ... testfileK.txt，第 i 个文件使用种子 seed + i - 1；
+     * error-rate 大于 0 时同时生成对应的预期输出 error1.txt ... errorK.txt。
+     * --out=- 时把单个程序写到标准输出。
+     */
+    public static void main(String[] args) throws IOException {
+        Settings settings = new Settings();
+        String outDir = "corpus";
+        int files = 1;
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "out": outDir = value; break;
+                case "files": files = Integer.parseInt(value); break;
+                case "globals": settings.globals = Integer.parseInt(value); break;
+                case "static-locals": settings.staticLocals = Integer.parseInt(value); break;
+                case "functions": settings.functions = Integer.parseInt(value); break;
+                case "params": settings.params = Integer.parseInt(value); break;
+                case "statements": settings.statements = Integer.parseInt(value); break;
+                case "loop-depth": settings.loopDepth = Integer.parseInt(value); break;
+                case "expr-depth": settings.exprDepth = Integer.parseInt(value); break;
+                case "array-size": settings.arraySize = Integer.parseInt(value); break;
+                case "seed": settings.seed = Long.parseLong(value); break;
+                case "error-rate": settings.errorRate = Double.parseDouble(value); break;
+                case "error-kinds": settings.errorKinds = value; break;
+                case "size": settings.targetBytes = parseSize(value); break;
+                default: throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+        }
+
+        if ("-".equals(outDir)) {
+            Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            new SysYGenerator(settings).generate(writer);
+            writer.flush();
+            return;
+        }
+
+        Path dir = Paths.get(outDir);
+        Files.createDirectories(dir);
+        long seed = settings.seed;
+        for (int i = 1; i <= files; i++) {
+            settings.seed = seed + i - 1;
+            SysYGenerator generator = new SysYGenerator(settings);
+            try (Writer writer = Files.newBufferedWriter(dir.resolve("testfile" + i + ".txt"), StandardCharsets.UTF_8)) {
+                generator.generate(writer);
+            }
+            if (settings.errorRate > 0) {
+                Files.write(dir.resolve("error" + i + ".txt"), generator.getExpectedErrors(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    // 支持 K / M / G 后缀的字节数
+    private static long parseSize(String value) {
+        char unit = Character.toUpperCase(value.charAt(value.length() - 1));
+        int shift = unit == 'K' ? 10 : unit == 'M' ? 20 : unit == 'G' ? 30 : 0;
+        String digits = shift == 0 ? value : value.substring(0, value.length() - 1);
+        return Long.parseLong(digits) << shift;
+    }
+
+    public SysYGenerator(Settings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.seed);
+    }
+
+    public String generate() {
+        StringBuilder source = new StringBuilder();
+        try {
+            generate(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return source.toString();
+    }
+
+    // 以约 64KB 为单位写入 out，生成任意大小的程序也只占用常数内存
+    public void generate(Appendable out) throws IOException {
+        this.out = out;
+        appendGlobals();
+
+        List<Boolean> voidFunctions = new ArrayList<>();
+        for (int f = 0; settings.targetBytes > 0 ? written + buf.length() < settings.targetBytes : f < settings.functions; f++) {
+            boolean isVoid = f >= LEAVES && f % 5 == 4;
+            appendFunction(f, isVoid);
+            voidFunctions.add(isVoid);
+            flushIfFull();
+        }
+
+        appendMain(voidFunctions);
+        flush();
+    }
+
+    // 预期的错误输出，每项为 "行号 错误码"，已按行号排列
+    public List<String> getExpectedErrors() {
+        return expectedErrors;
+    }
+
+    // ---------------- 程序结构 ----------------
+
+    private void appendGlobals() {
+        line(0, "const int N = " + Math.max(settings.arraySize, 1) + ";");
+        line(0, "int g_arr[N];");
+        line(0, "int g_sum = 0;");
+        scalars.add("N");
+        scalars.add("g_sum");
+        variables.add("g_sum");
+        arrays.add("g_arr");
+        varArrays.add("g_arr");
+
+        for (int j = 0; j < settings.globals; j++) {
+            switch (j % 4) {
+                case 0:
+                    line(0, "const int c" + j + " = " + random.nextInt(100) + ";");
+                    scalars.add("c" + j);
+                    break;
+                case 1:
+                    line(0, "int g" + j + " = " + random.nextInt(100) + ";");
+                    scalars.add("g" + j);
+                    variables.add("g" + j);
+                    break;
+                case 2:
+                    line(0, "int ga" + j + "[N] = " + initializer() + ";");
+                    arrays.add("ga" + j);
+                    varArrays.add("ga" + j);
+                    break;
+                default:
+                    line(0, "const int ca" + j + "[N] = " + initializer() + ";");
+                    arrays.add("ca" + j);
+                    break;
+            }
+        }
+        line(0, "");
+    }
+
+    private void appendFunction(int f, boolean isVoid) {
+        functionIndex = f;
+        inVoid = isVoid;
+        int scalarMark = scalars.size();
+        int variableMark = variables.size();
+        int arrayMark = arrays.size();
+        int varArrayMark = varArrays.size();
+
+        StringBuilder header = new StringBuilder(isVoid ? "void f" : "int f").append(f).append('(');
+        for (int p = 0; p < settings.params; p++) {
+            header.append(p == 0 ? "" : ", ").append(isArrayParam(p) ? "int p" + p + "[]" : "int p" + p);
+        }
+        line(0, header.append(") {").toString());
+        for (int p = 0; p < settings.params; p++) {
+            declare("p" + p, isArrayParam(p));
+        }
+
+        if (settings.staticLocals > 0) {
+            StringBuilder statics = new StringBuilder("static int ");
+            for (int s = 0; s < settings.staticLocals; s++) {
+                statics.append(s == 0 ? "" : ", ").append('s').append(s).append(" = ").append(random.nextInt(10));
+                declare("s" + s, false);
+            }
+            line(1, statics.append(';').toString());
+        }
+
+        line(1, "int x = " + (settings.params > 0 && !isArrayParam(0) ? "p0" : String.valueOf(f)) + ", y = " + f + ";");
+        line(1, "int t[N] = {0};");
+        declare("x", false);
+        declare("y", false);
+        declare("t", true);
+        if (settings.loopDepth > 0) {
+            StringBuilder loopVars = new StringBuilder("int ");
+            for (int d = 0; d < settings.loopDepth; d++) {
+                loopVars.append(d == 0 ? "" : ", ").append('i').append(d).append(" = 0");
+            }
+            line(1, loopVars.append(';').toString());
+        }
+
+        nest = 0;
+        loopLevel = 0;
+        for (int s = 0; s < settings.statements; s++) {
+            appendStatement(1);
+        }
+
+        if (isVoid) {
+            line(1, "return;");
+            line(0, "}");
+        } else if (injectsError('g')) {
+            // g: 有返回值的函数缺少末尾的 return，错误报告在右花括号所在行
+            error('g');
+            line(0, "}");
+        } else {
+            line(1, "return " + expr(settings.exprDepth) + ";");
+            line(0, "}");
+        }
+        line(0, "");
+
+        truncate(scalars, scalarMark);
+        truncate(variables, variableMark);
+        truncate(arrays, arrayMark);
+        truncate(varArrays, varArrayMark);
+    }
+
+    private void appendMain(List<Boolean> voidFunctions) throws IOException {
+        functionIndex = -1;
+        inVoid = false;
+        line(0, "int main() {");
+        line(1, "int r = 0;");
+        for (int f = 0; f < voidFunctions.size(); f++) {
+            String call = "f" + f + "(" + arguments() + ")";
+            line(1, voidFunctions.get(f) ? call + ";" : "r = r + " + call + ";");
+            flushIfFull();
+        }
+        line(1, "printf(\"%d %d\\n\", r, g_sum);");
+        line(1, "return 0;");
+        line(0, "}");
+    }
+
+    // ---------------- 语句 ----------------
+
+    private void appendStatement(int indent) {
+        if (settings.errorRate > 0 && random.nextDouble() < settings.errorRate) {
+            appendErrorStatement(indent);
+            return;
+        }
+
+        boolean canNest = nest < settings.loopDepth;
+        int choice = random.nextInt(canNest ? 10 : 6);
+        switch (choice) {
+            case 0:
+            case 1:
+                line(indent, pick(variables) + " = " + expr(settings.exprDepth) + ";");
+                break;
+            case 2:
+                line(indent, pick(varArrays) + "[" + index() + "] = " + expr(settings.exprDepth) + ";");
+                break;
+            case 3:
+                line(indent, "printf(\"%d %d\\n\", " + expr(1) + ", " + expr(1) + ");");
+                break;
+            case 4:
+                if (canCallLeaf()) {
+                    line(indent, "f" + random.nextInt(LEAVES) + "(" + arguments() + ");");
+                } else {
+                    line(indent, "g_sum = g_sum + " + expr(1) + ";");
+                }
+                break;
+            case 5:
+                if (loopLevel > 0) {
+                    line(indent, "if (" + cond() + ") " + (random.nextBoolean() ? "break;" : "continue;"));
+                } else {
+                    line(indent, pick(variables) + " = " + pick(variables) + " + 1;");
+                }
+                break;
+            case 6:
+                appendBlock(indent);
+                break;
+            case 7:
+                appendIf(indent);
+                break;
+            default:
+                appendFor(indent);
+                break;
+        }
+    }
+
+    private void appendBlock(int indent) {
+        String name = "b" + (uniqueId++);
+        int scalarMark = scalars.size();
+        int variableMark = variables.size();
+        nest++;
+        line(indent, "{");
+        line(indent + 1, "int " + name + " = " + expr(settings.exprDepth) + ";");
+        declare(name, false);
+        appendStatement(indent + 1);
+        line(indent + 1, pick(variables) + " = " + name + ";");
+        line(indent, "}");
+        nest--;
+        truncate(scalars, scalarMark);
+        truncate(variables, variableMark);
+    }
+
+    private void appendIf(int indent) {
+        nest++;
+        line(indent, "if (" + cond() + ") {");
+        appendStatement(indent + 1);
+        line(indent, "} else {");
+        appendStatement(indent + 1);
+        line(indent, "}");
+        nest--;
+    }
+
+    private void appendFor(int indent) {
+        String i = "i" + nest;
+        nest++;
+        loopLevel++;
+        line(indent, "for (" + i + " = 0; " + i + " < " + (2 + random.nextInt(3)) + "; " + i + " = " + i + " + 1) {");
+        appendStatement(indent + 1);
+        line(indent + 1, pick(variables) + " = " + pick(variables) + " + " + i + ";");
+        line(indent, "}");
+        loopLevel--;
+        nest--;
+    }
+
+    // 每条错误语句独占一行，且只包含一个错误；不适用于当前位置的错误类别退化为 c 类
+    private void appendErrorStatement(int indent) {
+        String v = pick(variables);
+        char kind = settings.errorKinds.isEmpty() ? 'c' :
+                settings.errorKinds.charAt(random.nextInt(settings.errorKinds.length()));
+        if ((kind == 'e' && (settings.params == 0 || isArrayParam(0)))
+                || (kind == 'f' && !inVoid)
+                || (kind == 'm' && loopLevel > 0)
+                || kind == 'g') {
+            kind = 'c';
+        }
+
+        error(kind);
+        switch (kind) {
+            case 'a':
+                line(indent, "if (" + v + " > 0 & " + v + " < 9) " + v + " = " + v + " + 1;");
+                break;
+            case 'b':
+                String name = "b" + (uniqueId++);
+                line(indent, "int " + name + " = 1, " + name + " = 2;");
+                break;
+            case 'd':
+                line(indent, v + " = getint(" + v + ");");
+                break;
+            case 'e':
+                // 第一个形参是 int，却传入数组
+                line(indent, v + " = f" + Math.max(functionIndex, 0) + "(" + arguments("g_arr") + ");");
+                break;
+            case 'f':
+                line(indent, "if (" + v + " > 0) return " + v + ";");
+                break;
+            case 'h':
+                line(indent, "N = " + v + ";");
+                break;
+            case 'i':
+                // 缺少标识符时 ';' 或 '=' 被当作名字读入，随后报告缺少分号；同一行中重复的是重定义
+                switch (random.nextInt(3)) {
+                    case 0: line(indent, "{ int ; int ; }"); break;
+                    case 1: line(indent, "{ const int = 3; const int = 4; }"); break;
+                    default: line(indent, v + " = " + v + " + 1"); break;
+                }
+                break;
+            case 'j':
+                line(indent, v + " = (" + v + " + 1;");
+                break;
+            case 'k':
+                line(indent, "g_arr[1 = " + v + ";");
+                break;
+            case 'l':
+                line(indent, "printf(\"%d %d\\n\", " + v + ");");
+                break;
+            case 'm':
+                line(indent, "break;");
+                break;
+            default:
+                line(indent, v + " = undefined" + (uniqueId++) + " + 1;");
+                break;
+        }
+    }
+
+    // ---------------- 表达式 ----------------
+
+    private String expr(int depth) {
+        if (depth <= 0 || random.nextInt(4) == 0) {
+            return atom();
+        }
+        switch (random.nextInt(8)) {
+            case 0:
+            case 1:
+                return expr(depth - 1) + " + " + expr(depth - 1);
+            case 2:
+                return expr(depth - 1) + " - " + expr(depth - 1);
+            case 3:
+                return expr(depth - 1) + " * " + expr(depth - 1);
+            case 4:
+                return expr(depth - 1) + " / " + (1 + random.nextInt(9));
+            case 5:
+                return expr(depth - 1) + " % " + (2 + random.nextInt(9));
+            case 6:
+                return "-(" + expr(depth - 1) + ")";
+            default:
+                if (canCallLeaf()) {
+                    return "f" + random.nextInt(LEAVES) + "(" + arguments() + ")";
+                }
+                return "(" + expr(depth - 1) + ")";
+        }
+    }
+
+    private String atom() {
+        switch (random.nextInt(4)) {
+            case 0:
+                return String.valueOf(random.nextInt(100));
+            case 1:
+                return pick(arrays) + "[" + index() + "]";
+            default:
+                return pick(scalars);
+        }
+    }
+
+    // 任意整数取模后的下标，总在 [0, N) 之内
+    private String index() {
+        String v = pick(scalars);
+        return "(" + v + " % N + N) % N";
+    }
+
+    private String cond() {
+        StringBuilder cond = new StringBuilder(relation());
+        int terms = random.nextInt(3);
+        for (int k = 0; k < terms; k++) {
+            cond.append(random.nextBoolean() ? " && " : " || ").append(relation());
+        }
+        return cond.toString();
+    }
+
+    private String relation() {
+        switch (random.nextInt(7)) {
+            case 0: return expr(1) + " < " + expr(1);
+            case 1: return expr(1) + " > " + expr(1);
+            case 2: return expr(1) + " <= " + expr(1);
+            case 3: return expr(1) + " >= " + expr(1);
+            case 4: return expr(1) + " == " + expr(1);
+            case 5: return expr(1) + " != " + expr(1);
+            default: return "!" + pick(scalars);
+        }
+    }
+
+    private String arguments() {
+        return arguments(null);
+    }
+
+    // 所有函数的形参布局相同；first 不为 null 时用它代替第一个实参
+    private String arguments(String first) {
+        StringBuilder args = new StringBuilder();
+        for (int p = 0; p < settings.params; p++) {
+            String arg = (p == 0 && first != null) ? first : isArrayParam(p) ? pick(varArrays) : atom();
+            args.append(p == 0 ? "" : ", ").append(arg);
+        }
+        return args.toString();
+    }
+
+    private boolean canCallLeaf() {
+        return functionIndex >= LEAVES;
+    }
+
+    private String initializer() {
+        int count = Math.min(Math.max(settings.arraySize, 1), 4);
+        StringBuilder init = new StringBuilder("{");
+        for (int k = 0; k < count; k++) {
+            init.append(k == 0 ? "" : ", ").append(random.nextInt(100));
+        }
+        return init.append('}').toString();
+    }
+
+    // ---------------- 辅助方法 ----------------
+
+    private static boolean isArrayParam(int p) {
+        return p % 3 == 1;
+    }
+
+    private void declare(String name, boolean isArray) {
+        if (isArray) {
+            arrays.add(name);
+            varArrays.add(name);
+        } else {
+            scalars.add(name);
+            variables.add(name);
+        }
+    }
+
+    private boolean injectsError(char kind) {
+        return settings.errorRate > 0 && settings.errorKinds.indexOf(kind) >= 0
+                && random.nextDouble() < settings.errorRate;
+    }
+
+    // 在即将输出的下一行记录一个预期错误
+    private void error(char kind) {
+        expectedErrors.add(line + " " + kind);
+    }
+
+    private String pick(List<String> names) {
+        return names.get(random.nextInt(names.size()));
+    }
+
+    private static void truncate(List<String> names, int size) {
+        names.subList(size, names.size()).clear();
+    }
+
+    private void line(int indent, String text) {
+        for (int k = 0; k < indent; k++) {
+            buf.append("    ");
+        }
+        buf.append(text).append('\n');
+        line++;
+    }
+
+    private void flushIfFull() throws IOException {
+        if (buf.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        out.append(buf);
+        written += buf.length();
+        buf.setLength(0);
+    }
+}